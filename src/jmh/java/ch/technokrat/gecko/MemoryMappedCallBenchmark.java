@@ -0,0 +1,107 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * round trip of a method call through the memory-mapped file, as
+ * GeckoRemoteMMFObject does it. The server side runs in a thread of the same
+ * JVM and answers like GeckoCustomMMF.monitorMMF, without calling the method.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MemoryMappedCallBenchmark {
+
+    private static final long CONNECTION_ID = 1;
+    private static final long SPIN_NANOS = 2000000;
+    private static final long MAX_PARK_NANOS = 10000000;
+    private File _file;
+    private GeckoMemoryMappedFile _client;
+    private volatile boolean _isRunning;
+    private Thread _serverThread;
+    private final double[] _matrixRow = new double[1000];
+
+    @Setup
+    public void connect() throws Exception {
+        _file = File.createTempFile("gecko", ".mmf");
+        _file.delete();
+        final GeckoMemoryMappedFile server = new GeckoMemoryMappedFile(_file.getAbsolutePath(), 1 << 20);
+        _isRunning = true;
+        _serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve(server);
+            }
+        });
+        _serverThread.start();
+        _client = GeckoMemoryMappedFile.getGeckoMemoryMappedFile(_file.getAbsolutePath());
+        _client.connect(10000);
+    }
+
+    private void serve(final GeckoMemoryMappedFile server) {
+        final SpinParkWaiter waiter = new SpinParkWaiter(SPIN_NANOS, MAX_PARK_NANOS);
+        try {
+            while (_isRunning) {
+                if (server.isConnectionAttempt()) {
+                    server.acceptConnection(CONNECTION_ID);
+                    waiter.reset();
+                } else if (server.isMethodCallPresent()) {
+                    final GeckoRemotePipeObject call = server.getPipeObject(CONNECTION_ID);
+                    server.respondToMethodCall(CONNECTION_ID, new GeckoRemotePipeObject(call.getMethodName(),
+                            call.getMethodArguments()[call.getMethodArguments().length - 1]));
+                    waiter.reset();
+                }
+                waiter.pause();
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    @TearDown
+    public void disconnect() throws InterruptedException {
+        _isRunning = false;
+        _serverThread.join();
+        _file.delete();
+    }
+
+    @Benchmark
+    public Object scalarCall() throws Exception {
+        return _client.callMethod(CONNECTION_ID, new GeckoRemotePipeObject("getParameter",
+                new Object[]{"R.1", "R"})).getMethodReturnValue();
+    }
+
+    @Benchmark
+    public Object arrayCall() throws Exception {
+        return _client.callMethod(CONNECTION_ID, new GeckoRemotePipeObject("setGlobalDoubleMatrix",
+                new Object[]{new double[][]{_matrixRow}})).getMethodReturnValue();
+    }
+}
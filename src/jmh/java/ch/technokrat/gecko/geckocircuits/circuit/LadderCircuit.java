@@ -0,0 +1,113 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
+import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp;
+import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SourceType;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RC ladder network for the solver benchmarks, similar to a thermal
+ * network: a voltage source at node 1, a series resistor and a capacitor to
+ * ground in each section, and every DIODE_DISTANCE sections a diode to
+ * ground, which is switched by the benchmarks.
+ */
+final class LadderCircuit {
+
+    private static final int DIODE_DISTANCE = 8;
+    private static final int PARAMETERS = 30;
+    private static final double R_ON = 1e-3;
+    private static final double R_OFF = 1e6;
+    private final List<CircuitTyp> _types = new ArrayList<CircuitTyp>();
+    private final List<int[]> _nodes = new ArrayList<int[]>();
+    private final List<double[]> _parameters = new ArrayList<double[]>();
+    private final List<Integer> _diodes = new ArrayList<Integer>();
+    private final NetListLK _netList;
+    private final LKMatrices _matrices;
+
+    LadderCircuit(final int sections) {
+        final double[] source = add(CircuitTyp.LK_U, 1, 0);
+        source[0] = SourceType.QUELLE_DC;
+        source[1] = 10;
+        for (int k = 1; k <= sections; k++) {
+            add(CircuitTyp.LK_R, k, k + 1)[0] = 1 + 0.01 * k;
+            final double[] capacitor = add(CircuitTyp.LK_C, k + 1, 0);
+            capacitor[6] = 1e-6;
+            capacitor[7] = 1e-6;
+            if (k % DIODE_DISTANCE == 0) {
+                _diodes.add(_types.size());
+                final double[] diode = add(CircuitTyp.LK_D, k + 1, 0);
+                diode[0] = R_OFF;
+                diode[1] = 0.7;
+                diode[2] = R_ON;
+                diode[3] = R_OFF;
+            }
+        }
+
+        final int size = _types.size();
+        final int[] knotenX = new int[size];
+        final int[] knotenY = new int[size];
+        final int[] spgQuelleNr = new int[size];
+        for (int i = 0; i < size; i++) {
+            knotenX[i] = _nodes.get(i)[0];
+            knotenY[i] = _nodes.get(i)[1];
+        }
+        spgQuelleNr[0] = 1;
+        _netList = new NetListLK(_types.toArray(new CircuitTyp[size]), knotenX, knotenY,
+                _parameters.toArray(new double[size][]), spgQuelleNr);
+        _matrices = new LKMatrices(SolverType.SOLVER_TRZ);
+        _matrices.initMatrizen(_netList);
+    }
+
+    private double[] add(final CircuitTyp typ, final int nodeX, final int nodeY) {
+        final double[] parameter = new double[PARAMETERS];
+        _types.add(typ);
+        _nodes.add(new int[]{nodeX, nodeY});
+        _parameters.add(parameter);
+        return parameter;
+    }
+
+    LKMatrices getMatrices() {
+        return _matrices;
+    }
+
+    int getNumberOfDiodes() {
+        return _diodes.size();
+    }
+
+    /**
+     * sets the on/off state of the diodes from the bits of the given pattern.
+     */
+    void setDiodeStates(final long pattern) {
+        for (int k = 0; k < _diodes.size(); k++) {
+            final double[] parameter = _netList.parameter[_diodes.get(k)];
+            parameter[0] = ((pattern >>> (k % Long.SIZE)) & 1) == 0 ? R_OFF : R_ON;
+        }
+    }
+
+    /**
+     * @return the assembled system matrix for the given diode states.
+     */
+    double[][] createMatrix(final long diodePattern, final double dt) {
+        setDiodeStates(diodePattern);
+        _matrices.schreibeMatrix_A(dt, 0, false);
+        final double[][] returnValue = new double[_matrices.matrixSize][];
+        for (int i = 0; i < returnValue.length; i++) {
+            returnValue[i] = _matrices.a[i].clone();
+        }
+        return returnValue;
+    }
+}
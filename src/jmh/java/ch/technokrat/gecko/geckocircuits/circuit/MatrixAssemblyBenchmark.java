@@ -0,0 +1,77 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * assembly of the matrix A after a switching action, and of the vector b
+ * in each time step, for a LadderCircuit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixAssemblyBenchmark {
+
+    private static final double DT = 1e-6;
+
+    @Param({"16", "256", "1024"})
+    public int sections;
+
+    private LadderCircuit _circuit;
+    private LKMatrices _matrices;
+    private long _diodePattern;
+    private int _switchingActions;
+    private double _time;
+
+    @Setup
+    public void setUp() {
+        _circuit = new LadderCircuit(sections);
+        _matrices = _circuit.getMatrices();
+        _matrices.schreibeMatrix_A(DT, 0, false);
+    }
+
+    /**
+     * one diode changes its state before each assembly.
+     */
+    @Benchmark
+    public double[][] schreibeMatrixA() {
+        _switchingActions++;
+        _diodePattern ^= 1L << (_switchingActions % _circuit.getNumberOfDiodes());
+        _circuit.setDiodeStates(_diodePattern);
+        _matrices.schreibeMatrix_A(DT, _time, false);
+        return _matrices.a;
+    }
+
+    @Benchmark
+    public double[] schreibeMatrixB() {
+        _time += DT;
+        _matrices.schreibeMatrix_B(DT, _time, false);
+        return _matrices.bVector;
+    }
+}
@@ -0,0 +1,101 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * LU decomposition, forward/backward substitution and the lookups of the LU
+ * decomposition cache, for the system matrix of a LadderCircuit.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+    private static final double DT = 1e-6;
+    private static final int SWITCH_STATES = 16;
+
+    @Param({"16", "64", "256"})
+    public int sections;
+
+    private double[][] _matrix;
+    private double[] _bVector;
+    private CachedMatrix _decomposition;
+    private LUDecompositionCache _cache;
+    private double[][][] _switchStateMatrices;
+    private MatrixStateKey[] _switchStateKeys;
+    private int _switchState;
+
+    @Setup
+    public void setUp() {
+        final LadderCircuit circuit = new LadderCircuit(sections);
+        final LKMatrices matrices = circuit.getMatrices();
+        _matrix = circuit.createMatrix(0, DT);
+        matrices.schreibeMatrix_B(DT, DT, false);
+        _bVector = matrices.bVector.clone();
+        _decomposition = new CachedMatrix(_matrix);
+        _decomposition.initLUDecomp();
+
+        _cache = new LUDecompositionCache();
+        _switchStateMatrices = new double[SWITCH_STATES][][];
+        _switchStateKeys = new MatrixStateKey[SWITCH_STATES];
+        for (int i = 0; i < SWITCH_STATES; i++) {
+            _switchStateMatrices[i] = circuit.createMatrix(i, DT);
+            _switchStateKeys[i] = matrices.getMatrixStateKey().copy();
+            _cache.getCachedLUDecomposition(_switchStateMatrices[i], _switchStateKeys[i], 0);
+        }
+    }
+
+    @Benchmark
+    public CachedMatrix luDecomposition() {
+        final CachedMatrix returnValue = new CachedMatrix(_matrix);
+        returnValue.initLUDecomp();
+        return returnValue;
+    }
+
+    @Benchmark
+    public double[] solve() {
+        return _decomposition.solve(_bVector);
+    }
+
+    @Benchmark
+    public AbstractCachedMatrix cacheLookupSameState() {
+        return _cache.getCachedLUDecomposition(_switchStateMatrices[0], _switchStateKeys[0], 0);
+    }
+
+    /**
+     * every lookup is a hit, but for another switch state than the previous
+     * one.
+     */
+    @Benchmark
+    public AbstractCachedMatrix cacheLookupSwitching() {
+        _switchState = (_switchState + 1) % SWITCH_STATES;
+        return _cache.getCachedLUDecomposition(_switchStateMatrices[_switchState], _switchStateKeys[_switchState], 0);
+    }
+}
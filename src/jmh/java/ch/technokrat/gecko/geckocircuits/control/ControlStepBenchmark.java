@@ -0,0 +1,123 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.GainCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.GreaterThanCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
+import ch.technokrat.gecko.geckocircuits.control.calculators.LimitCalculatorInternal;
+import ch.technokrat.gecko.geckocircuits.control.calculators.PICalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.PT1Calculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SignalCalculatorSinus;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SignalCalculatorTriangle;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SubtractionTwoParameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * one time step of a control netlist, as in
+ * NetzlisteCONTROL.berechneZeitschritt(), without the transfer of the scope
+ * data. Each channel is a PWM-controlled first order plant: reference sine,
+ * control error, PI controller, limiter, carrier comparison and the plant.
+ * compiledStep measures the same step with the generated code of
+ * ControlNetlistCompiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ControlStepBenchmark {
+
+    private static final double DT = 1e-6;
+
+    @Param({"1", "10", "100"})
+    public int channels;
+
+    private AbstractControlCalculatable[] _sortedCalculators;
+    private CompiledControlStep _compiledStep;
+    private double _time;
+
+    @Setup
+    public void setUp() throws Exception {
+        final List<AbstractControlCalculatable> sorted = new ArrayList<AbstractControlCalculatable>();
+        for (int i = 0; i < channels; i++) {
+            final SignalCalculatorSinus reference = new SignalCalculatorSinus(0, 1, 50, i, 0, 0.5);
+            final SignalCalculatorTriangle carrier = new SignalCalculatorTriangle(0, 1, 20e3, 0, 0, 0.5);
+            final SubtractionTwoParameter error = new SubtractionTwoParameter();
+            final PICalculator controller = new PICalculator(2, 1000);
+            final LimitCalculatorInternal limiter = new LimitCalculatorInternal(-1, 1);
+            final GreaterThanCalculator modulator = new GreaterThanCalculator();
+            final GainCalculator inverter = new GainCalculator(10);
+            final PT1Calculator plant = new PT1Calculator(1e-3, 1);
+
+            error.setInputSignal(0, reference, 0);
+            error.setInputSignal(1, plant, 0); // feedback of the previous step
+            controller.setInputSignal(0, error, 0);
+            limiter.setInputSignal(0, controller, 0);
+            modulator.setInputSignal(0, limiter, 0);
+            modulator.setInputSignal(1, carrier, 0);
+            inverter.setInputSignal(0, modulator, 0);
+            plant.setInputSignal(0, inverter, 0);
+
+            sorted.add(reference);
+            sorted.add(carrier);
+            sorted.add(error);
+            sorted.add(controller);
+            sorted.add(limiter);
+            sorted.add(modulator);
+            sorted.add(inverter);
+            sorted.add(plant);
+        }
+        _sortedCalculators = sorted.toArray(new AbstractControlCalculatable[sorted.size()]);
+        for (AbstractControlCalculatable calculator : _sortedCalculators) {
+            if (calculator instanceof InitializableAtSimulationStart) {
+                ((InitializableAtSimulationStart) calculator).initializeAtSimulationStart(DT);
+            }
+        }
+        _compiledStep = new ControlNetlistCompiler(_sortedCalculators).compile();
+    }
+
+    @Benchmark
+    public double berechneZeitschritt() {
+        _time += DT;
+        for (int i = 0; i < _sortedCalculators.length; i++) {
+            final AbstractControlCalculatable calculator = _sortedCalculators[i];
+            calculator.setTime(_time);
+            calculator.berechneYOUT(DT);
+        }
+        return _sortedCalculators[_sortedCalculators.length - 1]._outputSignal[0][0];
+    }
+
+    @Benchmark
+    public double compiledStep() {
+        _time += DT;
+        _compiledStep.calculate(DT, _time);
+        return _sortedCalculators[_sortedCalculators.length - 1]._outputSignal[0][0];
+    }
+}
@@ -0,0 +1,102 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.MultiChannelSlidingDFTCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SlidingDFTCalculator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * one time step of the sliding DFT of a grid converter control: 15
+ * harmonics of 50 Hz, averaged over 20 ms with dt = 1 us. singleChannel
+ * uses one SlidingDFTCalculator per input signal, multiChannel one
+ * MultiChannelSlidingDFTCalculator for all input signals.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SlidingDFTBenchmark {
+
+    private static final double DT = 1e-6;
+    private static final double AVERAGE_SPAN = 20e-3;
+    private static final double BASE_FREQUENCY = 50;
+    private static final int HARMONICS = 15;
+
+    @Param({"1", "12"})
+    public int channels;
+
+    private SlidingDFTCalculator[] _singleChannelCalculators;
+    private MultiChannelSlidingDFTCalculator _multiChannelCalculator;
+    private double _time;
+
+    @Setup
+    public void setUp() {
+        final ReglerSlidingDFT regler = new ReglerSlidingDFT();
+        final List<ReglerSlidingDFT.FrequencyData> frequencyData = new ArrayList<ReglerSlidingDFT.FrequencyData>();
+        for (int harmonic = 1; harmonic <= HARMONICS; harmonic++) {
+            frequencyData.add(regler.new FrequencyData(harmonic * BASE_FREQUENCY, ReglerSlidingDFT.OutputData.ABS));
+        }
+
+        _singleChannelCalculators = new SlidingDFTCalculator[channels];
+        _multiChannelCalculator = new MultiChannelSlidingDFTCalculator(channels, channels * HARMONICS, AVERAGE_SPAN,
+                frequencyData);
+        for (int ch = 0; ch < channels; ch++) {
+            _singleChannelCalculators[ch] = new SlidingDFTCalculator(HARMONICS, AVERAGE_SPAN, frequencyData);
+            _singleChannelCalculators[ch].checkInputWithoutConnectionAndFill(0);
+            _singleChannelCalculators[ch].initializeAtSimulationStart(DT);
+            _multiChannelCalculator.checkInputWithoutConnectionAndFill(ch);
+        }
+        _multiChannelCalculator.initializeAtSimulationStart(DT);
+    }
+
+    private double nextInputValue(final int channel) {
+        return Math.sin(2 * Math.PI * BASE_FREQUENCY * _time + channel);
+    }
+
+    @Benchmark
+    public double singleChannel() {
+        _time += DT;
+        for (int ch = 0; ch < channels; ch++) {
+            _singleChannelCalculators[ch]._inputSignal[0][0] = nextInputValue(ch);
+            _singleChannelCalculators[ch].berechneYOUT(DT);
+        }
+        return _singleChannelCalculators[0]._outputSignal[0][0];
+    }
+
+    @Benchmark
+    public double multiChannel() {
+        _time += DT;
+        for (int ch = 0; ch < channels; ch++) {
+            _multiChannelCalculator._inputSignal[ch][0] = nextInputValue(ch);
+        }
+        _multiChannelCalculator.berechneYOUT(DT);
+        return _multiChannelCalculator._outputSignal[0][0];
+    }
+}
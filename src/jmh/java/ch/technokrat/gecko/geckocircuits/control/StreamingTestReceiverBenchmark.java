@@ -0,0 +1,62 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * one time step (dt = 20 ns) of the streaming EMI test receiver, including
+ * the waiting for the background transforms: band B only (150 kHz - 2 MHz)
+ * or bands A and B in parallel (9 kHz - 2 MHz).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingTestReceiverBenchmark {
+
+    private static final double DT = 2e-8;
+    private static final double MAX_FREQUENCY = 2e6;
+    private static final double SIGNAL_FREQUENCY = 500e3;
+
+    @Param({"150000", "9000"})
+    public double minFrequency;
+
+    private StreamingTestReceiver _receiver;
+    private long _step;
+
+    @Setup
+    public void setUp() {
+        _receiver = new StreamingTestReceiver(DT, minFrequency, MAX_FREQUENCY);
+        _step = 0;
+    }
+
+    @Benchmark
+    public void addSample() {
+        _receiver.addSample(Math.sin(2 * Math.PI * SIGNAL_FREQUENCY * DT * _step++));
+    }
+}
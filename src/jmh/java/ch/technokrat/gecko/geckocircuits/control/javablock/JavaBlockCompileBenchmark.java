@@ -0,0 +1,85 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.GeckoSim;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * compilation of the Java blocks of a model with 30 blocks, as at the first
+ * simulation start after loading: one by one (as before the
+ * JavaBlockCompiler) or in parallel, with or without the compile cache.
+ * With the cache, all iterations except the first one read the classes from
+ * the cache.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JavaBlockCompileBenchmark {
+
+    private static final int BLOCKS = 30;
+
+    @Param({"TRUE", "FALSE"})
+    public String cache;
+
+    @Param({"true", "false"})
+    public boolean parallel;
+
+    private List<ReglerJavaFunction> _blocks;
+
+    @Setup
+    public void setUpProperties() {
+        GeckoSim.applicationProps = new Properties();
+        GeckoSim.applicationProps.setProperty("JAVA_BLOCK_CACHE", cache);
+    }
+
+    @Setup(Level.Invocation)
+    public void createBlocks() {
+        _blocks = new ArrayList<ReglerJavaFunction>();
+        for (int i = 0; i < BLOCKS; i++) {
+            final ReglerJavaFunction block = new ReglerJavaFunction();
+            block.getOperationEnumInterfaces().get(0).doOperation("yOUT[0] = " + i + " * xIN[0];\nreturn yOUT;");
+            _blocks.add(block);
+        }
+    }
+
+    @Benchmark
+    public List<ReglerJavaFunction> compileBlocks() throws Exception {
+        if (parallel) {
+            JavaBlockCompiler.compileInBackground(_blocks);
+        }
+        for (ReglerJavaFunction block : _blocks) {
+            block.getJavaBlock().doCompilationIfRequired();
+        }
+        return _blocks;
+    }
+}
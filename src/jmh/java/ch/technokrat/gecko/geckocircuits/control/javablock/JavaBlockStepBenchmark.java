@@ -0,0 +1,85 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * one time step of a number of Java blocks (ReglerJavaFunction), including
+ * the output redirection of System.out. Run it with "-prof gc": the
+ * allocation rate per step (gc.alloc.rate.norm) should be zero. With
+ * inPlace=false, the blocks copy the input signals to xIN and yOUT back to the
+ * output signals in each step, as blocks whose code uses the arrays otherwise
+ * than by index.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavaBlockStepBenchmark {
+
+    private static final double DT = 1e-6;
+    private static final String SOURCE_CODE = "yOUT[0] = Math.sin(xIN[0] * time) + xIN[1];\n"
+            + "yOUT[1] = -yOUT[0];\nreturn yOUT;";
+
+    @Param({"1", "40"})
+    public int blocks;
+    @Param({"true", "false"})
+    public boolean inPlace;
+
+    private AbstractControlCalculatable[] _calculators;
+    private double _time;
+
+    @Setup
+    public void setUp() throws Exception {
+        _calculators = new AbstractControlCalculatable[blocks];
+        for (int b = 0; b < blocks; b++) {
+            final ReglerJavaFunction block = new ReglerJavaFunction();
+            block.getOperationEnumInterfaces().get(0).doOperation(SOURCE_CODE);
+            ((JavaBlockVector) block.getJavaBlock()).setInPlaceEnabled(inPlace);
+            final AbstractControlCalculatable calculator = block.getInternalControlCalculatableForSimulationStart();
+            for (int i = 0; i < calculator._inputSignal.length; i++) {
+                calculator.checkInputWithoutConnectionAndFill(i);
+                calculator._inputSignal[i][0] = i + b;
+            }
+            ((InitializableAtSimulationStart) calculator).initializeAtSimulationStart(DT);
+            _calculators[b] = calculator;
+        }
+    }
+
+    @Benchmark
+    public double step() {
+        _time += DT;
+        for (AbstractControlCalculatable calculator : _calculators) {
+            calculator.setTime(_time);
+            calculator.berechneYOUT(DT);
+        }
+        return _calculators[0]._outputSignal[0][0];
+    }
+}
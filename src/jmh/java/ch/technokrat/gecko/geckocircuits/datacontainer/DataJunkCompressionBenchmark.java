@@ -0,0 +1,113 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.MemoryContainer;
+import ch.technokrat.gecko.geckocircuits.newscope.TimeSeriesConstantDt;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * compression of one data junk of the scope data container. In the
+ * simulation, this runs in a background thread (see doCompression()), here
+ * the CompressThread is executed directly.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DataJunkCompressionBenchmark {
+
+    private static final int COLUMNS = DataContainerCompressable.JUNK_SIZE;
+
+    @Param({"4", "32"})
+    public int signals;
+
+    @Param({"DEFLATE", "XOR"})
+    public String codec;
+
+    private MemoryContainer _container;
+    private float[][] _waveforms;
+    private DataJunkCompressable _junk;
+
+    /**
+     * PWM-like signals: a sine wave with a switching ripple and some noise.
+     */
+    @Setup
+    public void createWaveforms() {
+        DataJunkCompressable.setCodec(codec);
+        _container = new MemoryContainer(signals);
+        _waveforms = new float[COLUMNS][signals];
+        final Random random = new Random(0);
+        for (int column = 0; column < COLUMNS; column++) {
+            for (int row = 0; row < signals; row++) {
+                final double phase = 2 * Math.PI * column / COLUMNS + row;
+                final double ripple = (column + row) % 20 < 10 ? 0.05 : -0.05;
+                _waveforms[column][row] = (float) (100 * Math.sin(phase) + ripple + 1e-3 * random.nextGaussian());
+            }
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void fillJunk() {
+        _junk = new DataJunkCompressable(_container, 0, signals, COLUMNS, new TimeSeriesConstantDt());
+        for (int column = 0; column < COLUMNS; column++) {
+            final float[] values = _container.getArray();
+            System.arraycopy(_waveforms[column], 0, values, 0, signals);
+            _junk.setValues(values, column);
+        }
+    }
+
+    @Benchmark
+    public int compress() {
+        _junk.new CompressThread(_junk).run();
+        return _junk.getJunkSizeInBytes();
+    }
+
+    /**
+     * the first read access after the compression decompresses the signal.
+     */
+    @Benchmark
+    public float compressAndRead() {
+        _junk.new CompressThread(_junk).run();
+        return _junk.getValue(0, COLUMNS - 1);
+    }
+
+    /**
+     * the scope shows all signals: each one is decompressed.
+     */
+    @Benchmark
+    public float compressAndReadAll() {
+        _junk.new CompressThread(_junk).run();
+        float sum = 0;
+        for (int row = 0; row < signals; row++) {
+            sum += _junk.getValue(row, COLUMNS - 1);
+        }
+        return sum;
+    }
+}
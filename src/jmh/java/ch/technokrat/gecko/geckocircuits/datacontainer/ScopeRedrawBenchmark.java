@@ -0,0 +1,99 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.HiLoData;
+import ch.technokrat.gecko.geckocircuits.newscope.TimeSeriesConstantDt;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * the min-max queries of one scope repaint (one query per pixel column), for
+ * the complete recording and for a zoomed window. With the MinMaxPyramid, the
+ * time per repaint should not depend on the number of samples.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3G")
+public class ScopeRedrawBenchmark {
+
+    private static final int PIXELS = 1000;
+    private static final int SIGNALS = 4;
+    private static final double DT = 1e-7;
+
+    @Param({"1000000", "10000000", "50000000"})
+    public int samples;
+
+    private DataContainerCompressable _data;
+
+    @Setup
+    public void record() {
+        final TimeSeriesConstantDt timeSerie = new TimeSeriesConstantDt();
+        _data = new DataContainerCompressable(SIGNALS, timeSerie, new String[]{"a", "b", "c", "d"}, "t");
+        for (int column = 0; column < samples; column++) {
+            final float[] values = _data.getMemoryContainer().getArray();
+            for (int row = 0; row < SIGNALS; row++) {
+                values[row] = (float) Math.sin(column * 1e-4 + row) + ((column + row) % 20 < 10 ? 0.05f : -0.05f);
+            }
+            _data.insertValuesAtEnd(values, column * DT);
+        }
+        _data.setContainerStatus(ContainerStatus.PAUSED);
+    }
+
+    @TearDown
+    public void delete() {
+        _data.setContainerStatus(ContainerStatus.DELETED);
+    }
+
+    private float repaint(final int from, final int to) {
+        float sum = 0;
+        final double samplesPerPixel = (double) (to - from) / PIXELS;
+        for (int pixel = 0; pixel < PIXELS; pixel++) {
+            final int columnMin = from + (int) (pixel * samplesPerPixel);
+            final int columnMax = from + (int) ((pixel + 1) * samplesPerPixel) - 1;
+            for (int row = 0; row < SIGNALS; row++) {
+                final HiLoData hiLo = _data.getHiLoValue(row, columnMin, Math.max(columnMin, columnMax));
+                sum += hiLo._yHi - hiLo._yLo;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float repaintAll() {
+        return repaint(0, samples);
+    }
+
+    /**
+     * a window of 10% of the recording, in the middle
+     */
+    @Benchmark
+    public float repaintZoomed() {
+        return repaint(samples / 2, samples / 2 + samples / 10);
+    }
+}
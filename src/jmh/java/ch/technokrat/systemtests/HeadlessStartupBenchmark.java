@@ -0,0 +1,54 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.systemtests;
+
+import ch.technokrat.gecko.geckocircuits.allg.HeadlessSimulation;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * start-up of the headless batch simulation: each fork loads one model in a
+ * fresh JVM, i.e. including the class loading. Target: below 2 s until the
+ * model is ready to simulate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, jvmArgsAppend = "-Djava.awt.headless=true")
+public class HeadlessStartupBenchmark {
+
+    private static final String MODELS_PATH = "resources/Topologies/";
+
+    @Param({"BuckBoost_thermal.ipes", "three-phase_VSR_simpleControl_250kW.ipes"})
+    public String model;
+
+    @Benchmark
+    public HeadlessSimulation openModel() throws Exception {
+        final HeadlessSimulation simulation = new HeadlessSimulation();
+        simulation.openFile(new File(MODELS_PATH + model).getAbsolutePath());
+        return simulation;
+    }
+}
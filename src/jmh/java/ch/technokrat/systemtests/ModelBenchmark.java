@@ -0,0 +1,79 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.systemtests;
+
+import ch.technokrat.gecko.GeckoExternal;
+import ch.technokrat.gecko.GeckoSim;
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * complete simulations of the example models, started in the same way as in
+ * ModelResultsTest. Each iteration is one simulation run of the model.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ModelBenchmark {
+
+    private static final String MODELS_PATH = "resources/Topologies/";
+    private static final int STEPS = 10000;
+
+    @Param({"BuckBoost_thermal.ipes", "ThreePhase-VSR_10kW_thermal.ipes", "ThyristorControlBlock.ipes",
+        "three-phase_VSR_simpleControl_250kW.ipes", "UltraSparseMatrixConverter.ipes"})
+    public String model;
+
+    @Setup
+    public void openModel() throws Exception {
+        GeckoSim._isTestingMode = true;
+        GeckoSim.main(new String[]{});
+        final File file = new File(MODELS_PATH + model);
+        if (!file.exists()) {
+            throw new IllegalArgumentException("Model file not found: " + file.getAbsolutePath());
+        }
+        GeckoExternal.openFile(file.getAbsolutePath());
+    }
+
+    @Benchmark
+    public double runSimulation() {
+        GeckoExternal.runSimulation();
+        return GeckoExternal.getSimulationTime();
+    }
+
+    /**
+     * throughput of the simulation steps (circuit, thermal and control
+     * netlist) after the initialization, without the model start-up.
+     */
+    @Benchmark
+    public double simulateSteps() {
+        GeckoExternal.initSimulation();
+        GeckoExternal.simulateSteps(STEPS);
+        GeckoExternal.endSimulation();
+        return GeckoExternal.getSimulationTime();
+    }
+}
@@ -0,0 +1,29 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under 
+ *  the terms of the GNU General Public License as published by the Free Software 
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+/**
+ * WARNING: this interface is only used within the Java-Block. However, it
+ * should not be moved to this package. This interface is NOT allowed to
+ * be obfuscated. Otherwise, the java-Block has a problem.
+ *
+ * Implemented by the generated classes of Java-Blocks without matrix signals
+ * in addition to ControlCalculatable, if the code accesses xIN and yOUT only
+ * by index: the generated code reads xIN[i] from xINSignals[i][0] and writes
+ * yOUT[i] to yOUTSignals[i][0], without any copy of the signal values.
+ */
+public interface ControlCalculatableInPlace {
+    @SuppressWarnings("PMD")
+    void calculateYOUT(double[][] xINSignals, double[][] yOUTSignals, double time, double deltaT) throws Exception;
+}
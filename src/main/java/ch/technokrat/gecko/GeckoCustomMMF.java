@@ -27,6 +27,9 @@ import javax.swing.JOptionPane;
  */
 public class GeckoCustomMMF extends AbstractGeckoCustom {
     
+    //polling of the file: spin for 2 ms after a method call, then park up to 10 ms
+    private static final long SPIN_NANOS = 2000000;
+    private static final long MAX_PARK_NANOS = 10000000;
     private GeckoMemoryMappedFile _mmf = null;
     private boolean _accessEnabled = false;
     private long _connectionID = -1;
@@ -100,15 +103,20 @@ public class GeckoCustomMMF extends AbstractGeckoCustom {
     
     private void monitorMMF() {
         GeckoRemotePipeObject methodCall;
+        final SpinParkWaiter waiter = new SpinParkWaiter(SPIN_NANOS, MAX_PARK_NANOS);
         while (_accessEnabled) {
             try {
                 if (_mmf.isConnectionAttempt()) { //someone is trying to connect
-                    if (_connectionID == -1) { //GeckoCIRCUITS is free currently
+                    if (!_mmf.isCompatibleConnectionAttempt()) { //client of another GeckoCIRCUITS version
+                        System.err.println("Rejected a remote connection of a different GeckoCIRCUITS version.");
+                        _mmf.rejectConnection();
+                    } else if (_connectionID == -1) { //GeckoCIRCUITS is free currently
                         _connectionID = System.currentTimeMillis();
                         _mmf.acceptConnection(_connectionID);
                     } else { //otherwise reject
                         _mmf.rejectConnection();
                     }
+                    waiter.reset();
                 } else if (_mmf.isDisconnectRequest()) { //existing connection is trying to disconnect
                     _mmf.forceDisconnect();
                     _connectionID = -1;
@@ -119,6 +127,7 @@ public class GeckoCustomMMF extends AbstractGeckoCustom {
                     } else {
                         _mmf.setIdle();
                     }
+                    waiter.reset();
                 } else if (_mmf.isShutdownRequest()) {
                     disableAccess();
                     System.exit(0);
@@ -129,11 +138,7 @@ public class GeckoCustomMMF extends AbstractGeckoCustom {
                     "MMF ACCESS ERROR",
                     JOptionPane.ERROR_MESSAGE);
             }
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException ex) {
-                //nothing to do here
-            }
+            waiter.pause();
         }
     }
     
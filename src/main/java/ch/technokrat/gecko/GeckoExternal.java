@@ -297,6 +297,11 @@ public class GeckoExternal {
         external.set_dt(value);
     }
 
+    public static void setRandomSeed(long seed) {
+        checkExternal();
+        external.setRandomSeed(seed);
+    }
+
     public static void set_Tend(double value) {
         checkExternal();
         external.set_Tend(value);
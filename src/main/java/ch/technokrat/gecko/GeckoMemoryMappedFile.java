@@ -13,14 +13,12 @@
  */
 package ch.technokrat.gecko;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.RandomAccessFile;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 
@@ -34,12 +32,22 @@ public class GeckoMemoryMappedFile {
      
     private final File _file; //the file being used for communication
     private final MappedByteBuffer _mmb; //the memory-mapped byte buffer the file is mapped to
+    private final ByteBuffer _pipeBuffer; //view of _mmb for encoding / decoding the pipe objects
     
     private static final int CONNECTION_ID_POS = 0; //the position of the connection ID in the buffer
     private static final int STATUS_ID_POS = 8; //the position of the file status ID in the buffer
     private static final int BUFFER_SIZE_POS = 16; //the position of the buffer size in the buffer
     private static final int PIPE_OBJECT_SIZE_POS = 24;
-    private static final int PIPE_OBJECT_POS = 32; //the position of the serialized pipe object in the buffer
+    private static final int PROTOCOL_VERSION_POS = 32; //the codec version of the client, written with the connection attempt
+    private static final int PIPE_OBJECT_POS = 40; //the position of the encoded pipe object in the buffer
+    //waiting for the response: spin shortly, then park up to 1 ms
+    private static final long CLIENT_SPIN_NANOS = 500000;
+    private static final long CLIENT_MAX_PARK_NANOS = 1000000;
+    /*
+     * The status word is written after the pipe object, and read before it. The volatile access to this field
+     * orders the accesses to the mapped buffer, which are plain memory accesses otherwise.
+     */
+    private static volatile boolean _memoryFence;
     
     public static final long _defaultBufferSize = 10000000; //the initial size of the buffer
     
@@ -66,6 +74,7 @@ public class GeckoMemoryMappedFile {
         _file = new File(fileName);
         final FileChannel fileChannel = new RandomAccessFile(_file,"rw").getChannel();
         _mmb = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, bufferSize);
+        _pipeBuffer = _mmb.duplicate();
         
         //default connection ID is -1 - disconnected
         //default state is disconnected
@@ -94,6 +103,7 @@ public class GeckoMemoryMappedFile {
     private GeckoMemoryMappedFile(final File file, final MappedByteBuffer mmb) {
         _file = file;
         _mmb = mmb;
+        _pipeBuffer = _mmb.duplicate();
     }
     
     /**
@@ -157,6 +167,7 @@ public class GeckoMemoryMappedFile {
     public long connect(final long timeout) {
         if (isFree()) {
             long status = CONNECTION_ATTEMPT;
+            _mmb.putLong(PROTOCOL_VERSION_POS,GeckoRemotePipeCodec.PROTOCOL_VERSION);
             _mmb.putLong(CONNECTION_ID_POS,0);
             _mmb.putLong(STATUS_ID_POS,status);
             final long startTime = System.currentTimeMillis();
@@ -243,63 +254,56 @@ public class GeckoMemoryMappedFile {
     }
     
     /**
-     * This method serializes a GeckoRemotePipeObject into a byte array, which can then be written into the file.
-     * @param pipeObject the object to serialize
-     * @return the byte array containing the serialized pipe object
-     * @throws IOException if something goes wrong with the serialization
+     * Encodes a GeckoRemotePipeObject into the file and publishes it with the given status.
+     * @param pipeObject the object to write
+     * @param status METHOD_CALL or METHOD_RETURN
+     * @throws IOException if an argument cannot be encoded
      */
-    private byte[] serializePipeObject(final GeckoRemotePipeObject pipeObject) throws IOException {
-        final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        final ObjectOutputStream pipeStream = new ObjectOutputStream(byteStream);
-        pipeStream.writeObject(pipeObject);
-        return byteStream.toByteArray();
+    private void writePipeObject(final GeckoRemotePipeObject pipeObject, final long status) throws IOException {
+        _pipeBuffer.clear();
+        _pipeBuffer.position(PIPE_OBJECT_POS);
+        try {
+            GeckoRemotePipeCodec.encode(pipeObject, _pipeBuffer);
+        } catch (BufferOverflowException ex) {
+            throw new IOException("The data of method " + pipeObject.getMethodName() + " exceeds the size of the "
+                    + "memory-mapped file (" + getBufferSize() + " bytes).", ex);
+        }
+        _mmb.putLong(PIPE_OBJECT_SIZE_POS, _pipeBuffer.position() - PIPE_OBJECT_POS);
+        _memoryFence = true;
+        _mmb.putLong(STATUS_ID_POS, status);
     }
-    
+
     /**
-     * This method de-serializes a GeckoRemotePipeObject from a byte array in the file.
-     * @param serializedPipe
-     * @return the GeckoRemotePipeObject contained in the byte array read from the file
-     * @throws IOException if something goes wrong reading the byte array
-     * @throws ClassNotFoundException if the object cannot be reconstructed properly
+     * Decodes the GeckoRemotePipeObject in the file.
+     * @return the GeckoRemotePipeObject contained in the file
+     * @throws IOException if the content of the file is invalid
+     * @throws ClassNotFoundException if a serialized argument cannot be reconstructed properly
      */
-    private GeckoRemotePipeObject deserializePipeObject(final byte[] serializedPipe) throws IOException, ClassNotFoundException {
-        final ObjectInputStream pipeStream = new ObjectInputStream(new ByteArrayInputStream(serializedPipe));
-        return ((GeckoRemotePipeObject) pipeStream.readObject());
+    private GeckoRemotePipeObject readPipeObject() throws IOException, ClassNotFoundException {
+        _memoryFence = _memoryFence; // full fence: read the pipe object after the status word
+        _pipeBuffer.clear();
+        _pipeBuffer.position(PIPE_OBJECT_POS);
+        return GeckoRemotePipeCodec.decode(_pipeBuffer);
     }
     
     /**
      * This method calls a GeckoRemote method via the memory-mapped file.
-     * The description of the method, along with the arguments, must be encapsulated in a GeckoRemotePipeObject. This object is serialized
-     * and written into the memory-mapped file. This method then blocks until the memory-mapped file contains a response to the GeckoRemote method call.
+     * The description of the method, along with the arguments, must be encapsulated in a GeckoRemotePipeObject. This object is encoded
+     * (see GeckoRemotePipeCodec) and written into the memory-mapped file. This method then blocks until the memory-mapped file contains a response to the GeckoRemote method call.
      * @param connectionID the ID of the connection. Must match the active connection ID
      * @param methodObject the object describing the method call
      * @return a new GeckoRemotePipeObject which contains the response to the GeckoRemote function call
-     * @throws IOException if something goes wrong reading or writing the memory-mapped file or (de)serializing the pipe object
-     * @throws ClassNotFoundException if the pipe object cannot be reconstructed properly
+     * @throws IOException if something goes wrong reading or writing the memory-mapped file or encoding the pipe object
+     * @throws ClassNotFoundException if a serialized argument of the pipe object cannot be reconstructed properly
      */
     public GeckoRemotePipeObject callMethod(final long connectionID, final GeckoRemotePipeObject methodObject) throws IOException, ClassNotFoundException {
         checkConnectionID(connectionID);
         if (methodObject.isMethodCall()) {
-            final byte[] serializedPipe = serializePipeObject(methodObject);
-            final long serializedPipeSize = serializedPipe.length;
-            _mmb.putLong(PIPE_OBJECT_SIZE_POS,serializedPipeSize);
-            //must load byte by byte into buffer
-            final int startIndex = PIPE_OBJECT_POS;
-            for (int i = startIndex; i < (startIndex + serializedPipeSize); i++) {
-                _mmb.put(i, serializedPipe[i - startIndex]);
-            }
-            _mmb.putLong(STATUS_ID_POS,METHOD_CALL);
+            writePipeObject(methodObject, METHOD_CALL);
             //now we wait for a response
-            long status;
-            long returnedPipeSize;
-            byte[] returnedSerializedPipe;
-            try {
-                Thread.sleep(10);
-            } catch (InterruptedException ex) {
-                //do nothing
-            }
+            final SpinParkWaiter waiter = new SpinParkWaiter(CLIENT_SPIN_NANOS, CLIENT_MAX_PARK_NANOS);
             while (true) {
-                status = _mmb.getLong(STATUS_ID_POS);
+                final long status = _mmb.getLong(STATUS_ID_POS);
                 if (status == DISCONNECT_REQUEST) {
                     forceDisconnect();
                     throw new RuntimeException("GeckoCIRCUITS has unexpectedly terminated the connection!");
@@ -309,24 +313,14 @@ public class GeckoMemoryMappedFile {
                     throw new RuntimeException("GeckoCIRCUITS did not respond to method call for unknown reason.");
                 } else if (status != METHOD_CALL) {
                     if (status == METHOD_RETURN) {
-                        returnedPipeSize = _mmb.getLong(PIPE_OBJECT_SIZE_POS);
-                        returnedSerializedPipe = new byte[(int)returnedPipeSize];
-                        //read byte by byte
-                        for (int i = startIndex; i < (startIndex + returnedPipeSize); i++) {
-                            returnedSerializedPipe[i-startIndex] = _mmb.get(i);
-                        }
-                        final GeckoRemotePipeObject response = deserializePipeObject(returnedSerializedPipe);
+                        final GeckoRemotePipeObject response = readPipeObject();
                         setIdle();
                         return response;
                     } else {
                         throw new RuntimeException("Unknown error!");
                     }
                 }
-                try {
-                    Thread.sleep(5);
-                } catch (InterruptedException ex) {
-                    //do nothing
-                }
+                waiter.pause();
             }
         } else {
             throw new RuntimeException("Given GeckoRemotePipeObject does not represent a method call!");
@@ -358,14 +352,7 @@ public class GeckoMemoryMappedFile {
      */
     public GeckoRemotePipeObject getPipeObject(final long connectionID) throws IOException, ClassNotFoundException {
         checkConnectionID(connectionID);
-        final long pipeSize = _mmb.getLong(PIPE_OBJECT_SIZE_POS);
-        final byte[] serializedPipe = new byte[(int) pipeSize];
-        final int startIndex = PIPE_OBJECT_POS;
-        //read byte by byte
-        for (int i = startIndex; i < (startIndex + pipeSize); i++) {
-            serializedPipe[i - startIndex] = _mmb.get(i);
-        }
-        return deserializePipeObject(serializedPipe);
+        return readPipeObject();
     }
     
     /**
@@ -382,6 +369,15 @@ public class GeckoMemoryMappedFile {
     public boolean isConnectionAttempt() {
         return (_mmb.getLong(STATUS_ID_POS) == CONNECTION_ATTEMPT && _mmb.getLong(CONNECTION_ID_POS) == 0);
     }
+
+    /**
+     * Used by the SERVER (GeckoCIRCUITS) to check a connection attempt: the client has to encode the method calls
+     * in the same way (see GeckoRemotePipeCodec.PROTOCOL_VERSION), otherwise the connection must be rejected.
+     * @return true if the client uses the same protocol version
+     */
+    public boolean isCompatibleConnectionAttempt() {
+        return _mmb.getLong(PROTOCOL_VERSION_POS) == GeckoRemotePipeCodec.PROTOCOL_VERSION;
+    }
     
     /**
      * Check if either side has requested a disconnection.
@@ -393,7 +389,7 @@ public class GeckoMemoryMappedFile {
     
     /**
      * Respond to a method call from the client via the memory-mapped file.
-     * The response (whatever it might be) is encapsulated in a GeckoRemotePipeObject. This object is serialized, and written
+     * The response (whatever it might be) is encapsulated in a GeckoRemotePipeObject. This object is encoded, and written
      * to the file. The method returns immediately after this is done.
      * @param connectionID the ID of the connection. Must match the active connection ID
      * @param methodReturn the pipe object to be written to the file
@@ -404,15 +400,7 @@ public class GeckoMemoryMappedFile {
         if (methodReturn.isMethodCall()) {
             throw new RuntimeException("Given GeckoRemotePipeObject does not represent a return from a method!");
         } else {
-            final byte[] serializedPipe = serializePipeObject(methodReturn);
-            final long serializedPipeSize = serializedPipe.length;
-            _mmb.putLong(PIPE_OBJECT_SIZE_POS,serializedPipeSize);
-            //must load byte by byte into buffer
-            final int startIndex = PIPE_OBJECT_POS;
-            for (int i = startIndex; i < (startIndex + serializedPipeSize); i++) {
-                _mmb.put(i, serializedPipe[i - startIndex]);
-            }
-            _mmb.putLong(STATUS_ID_POS,METHOD_RETURN);
+            writePipeObject(methodReturn, METHOD_RETURN);
         }
     }
     
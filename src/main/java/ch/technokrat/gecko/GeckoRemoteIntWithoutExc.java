@@ -69,6 +69,18 @@ public interface GeckoRemoteIntWithoutExc {
     void initSimulation(final double deltaT, final double endTime) ;
 
     void continueSimulation() ;
+
+    int submitSimulation(String[] elementNames, String[] parameterNames, double[] values, String[] resultSignals) ;
+
+    String getSimulationJobStatus(int jobID) ;
+
+    double getSimulationProgress(int jobID) ;
+
+    boolean cancelSimulation(int jobID) ;
+
+    boolean awaitSimulation(int jobID, long timeoutMillis) ;
+
+    double[][] getSimulationResult(int jobID) ;
     
     void simulateTime(double time) ;
 
@@ -90,6 +102,7 @@ public interface GeckoRemoteIntWithoutExc {
     void set_dt_pre(double value) ;
     void set_Tend(double value) ;
     void set_Tend_pre(double value) ;
+    void setRandomSeed(long seed) ;
     
     @Deprecated
     double[] getSignalCharacteristics(String scopeName, int scopePort, double startTime, double endTime) ;
@@ -222,6 +235,24 @@ public interface GeckoRemoteIntWithoutExc {
 
     double[] getTimeArray(String signalName, double tStart, double tEnd, int skipPoints) ;
 
+    int subscribeWaveforms(String[] signalNames, int decimation, int blockSize, int queueCapacity, String overflowPolicy) ;
+
+    double[][] pollWaveforms(int subscriptionID) ;
+
+    long getDroppedWaveformBlocks(int subscriptionID) ;
+
+    void unsubscribeWaveforms(int subscriptionID) ;
+
+    int[] resolveHandles(String handleType, String[] elementNames, String[] names) ;
+
+    void setParameterValues(int[] handles, double[] values) ;
+
+    double[] getParameterValues(int[] handles) ;
+
+    double[] getOutputValues(int[] handles) ;
+
+    double[][] getSignalValues(int[] handles, double tStart, double tEnd, int skipPoints) ;
+
     void setComponentName(final String oldName, final String newName) ;
 
      double getSimulationTime() ;
@@ -166,6 +166,36 @@ public interface GeckoRemoteInterface extends Remote {
     @Declaration("void continueSimulation()")
     void continueSimulation() throws RemoteException;
 
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.SUBMIT_SIMULATION_DOC)
+    @Declaration("int submitSimulation(String[] elementNames, String[] parameterNames, double[] values, String[] resultSignals)")
+    int submitSimulation(String[] elementNames, String[] parameterNames, double[] values, String[] resultSignals) throws RemoteException;
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.GET_SIMULATION_JOB_STATUS_DOC)
+    @Declaration("String getSimulationJobStatus(int jobID)")
+    String getSimulationJobStatus(int jobID) throws RemoteException;
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.GET_SIMULATION_PROGRESS_DOC)
+    @Declaration("double getSimulationProgress(int jobID)")
+    double getSimulationProgress(int jobID) throws RemoteException;
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.CANCEL_SIMULATION_DOC)
+    @Declaration("boolean cancelSimulation(int jobID)")
+    boolean cancelSimulation(int jobID) throws RemoteException;
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.AWAIT_SIMULATION_DOC)
+    @Declaration("boolean awaitSimulation(int jobID, long timeoutMillis)")
+    boolean awaitSimulation(int jobID, long timeoutMillis) throws RemoteException;
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.GET_SIMULATION_RESULT_DOC)
+    @Declaration("double[][] getSimulationResult(int jobID)")
+    double[][] getSimulationResult(int jobID) throws RemoteException;
+
     @Category(MethodCategory.SIMULATION_START)
     @Documentation(I18nKeys.SIMULATE_STEP_DOCUMENTATION)
     @Declaration("void simulateStep()")
@@ -221,6 +251,11 @@ public interface GeckoRemoteInterface extends Remote {
     @Declaration("void set_dt_pre(double dt)")
     void set_dt_pre(double value) throws RemoteException;
 
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.SET_RANDOM_SEED_DOC)
+    @Declaration("void setRandomSeed(long seed)")
+    void setRandomSeed(long seed) throws RemoteException;
+
     @Category(MethodCategory.SIMULATION_START)
     @Documentation(I18nKeys.GET_SIM_TIME_DOC)
     @Declaration("double getSimulationTime()")
@@ -378,6 +413,51 @@ public interface GeckoRemoteInterface extends Remote {
     @Declaration("double[] getTimeArray(String signalName, double tStart, double tEnd, int skipPoints)")
     double[] getTimeArray(String signalName, double tStart, double tEnd, int skipPoints) throws RemoteException;
 
+    @Category(MethodCategory.SIGNAL_PROCESSING)
+    @Documentation(I18nKeys.SUBSCRIBE_WAVEFORMS_DOC)
+    @Declaration("int subscribeWaveforms(String[] signalNames, int decimation, int blockSize, int queueCapacity, String overflowPolicy)")
+    int subscribeWaveforms(String[] signalNames, int decimation, int blockSize, int queueCapacity, String overflowPolicy) throws RemoteException;
+
+    @Category(MethodCategory.SIGNAL_PROCESSING)
+    @Documentation(I18nKeys.POLL_WAVEFORMS_DOC)
+    @Declaration("double[][] pollWaveforms(int subscriptionID)")
+    double[][] pollWaveforms(int subscriptionID) throws RemoteException;
+
+    @Category(MethodCategory.SIGNAL_PROCESSING)
+    @Documentation(I18nKeys.GET_DROPPED_WAVEFORM_BLOCKS_DOC)
+    @Declaration("long getDroppedWaveformBlocks(int subscriptionID)")
+    long getDroppedWaveformBlocks(int subscriptionID) throws RemoteException;
+
+    @Category(MethodCategory.SIGNAL_PROCESSING)
+    @Documentation(I18nKeys.UNSUBSCRIBE_WAVEFORMS_DOC)
+    @Declaration("void unsubscribeWaveforms(int subscriptionID)")
+    void unsubscribeWaveforms(int subscriptionID) throws RemoteException;
+
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.RESOLVE_HANDLES_DOC)
+    @Declaration("int[] resolveHandles(String handleType, String[] elementNames, String[] names)")
+    int[] resolveHandles(String handleType, String[] elementNames, String[] names) throws RemoteException;
+
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.SET_PARAMETER_VALUES_DOC)
+    @Declaration("void setParameterValues(int[] handles, double[] values)")
+    void setParameterValues(int[] handles, double[] values) throws RemoteException;
+
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.GET_PARAMETER_VALUES_DOC)
+    @Declaration("double[] getParameterValues(int[] handles)")
+    double[] getParameterValues(int[] handles) throws RemoteException;
+
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.GET_OUTPUT_VALUES_DOC)
+    @Declaration("double[] getOutputValues(int[] handles)")
+    double[] getOutputValues(int[] handles) throws RemoteException;
+
+    @Category(MethodCategory.SIGNAL_PROCESSING)
+    @Documentation(I18nKeys.GET_SIGNAL_VALUES_DOC)
+    @Declaration("double[][] getSignalValues(int[] handles, double tStart, double tEnd, int skipPoints)")
+    double[][] getSignalValues(int[] handles, double tStart, double tEnd, int skipPoints) throws RemoteException;
+
     @Category(MethodCategory.COMPONENT_PROPERTIES)
     @Documentation(I18nKeys.SET_COMPONENT_NAME_DOCUMENTATION)
     @Declaration("void setComponentName(String oldName, String newName) throws Exception")
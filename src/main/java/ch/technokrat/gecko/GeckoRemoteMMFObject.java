@@ -148,7 +148,8 @@ public final class GeckoRemoteMMFObject extends GeckoRemoteObject {
                         sessionID = newSessionID;
                         System.out.println("You are now connected to the GeckoCIRCUITS instance via file " + file.getFileName());
                     } else if (newSessionID == 0) {
-                        throw new RuntimeException("Connection to GeckoCIRCUITS via file " + file.getFileName() + " rejected by that instance of GeckoCIRCUITS.");
+                        throw new RuntimeException("Connection to GeckoCIRCUITS via file " + file.getFileName() + " rejected by that instance of GeckoCIRCUITS. "
+                                + "It is busy, or it is a different version of GeckoCIRCUITS.");
                     } else if (newSessionID == -1) {
                         throw new RuntimeException("The GeckoCIRCUITS instance using file " + file.getFileName()
                                 + " is busy with another session. You cannot connect to it now.");
@@ -823,6 +824,138 @@ public final class GeckoRemoteMMFObject extends GeckoRemoteObject {
         }
     }
 
+    @Override
+    public int submitSimulation(final String[] elementNames, final String[] parameterNames, final double[] values, final String[] resultSignals) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("submitSimulation",new Object[]{elementNames,parameterNames,values,resultSignals});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Integer)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method submitSimulation!");
+                }
+                        
+            } else {
+                return 0;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public String getSimulationJobStatus(final int jobID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getSimulationJobStatus",new Object[]{jobID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (String)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getSimulationJobStatus!");
+                }
+                        
+            } else {
+                return "";
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double getSimulationProgress(final int jobID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getSimulationProgress",new Object[]{jobID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Double)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getSimulationProgress!");
+                }
+                        
+            } else {
+                return 0;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public boolean cancelSimulation(final int jobID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("cancelSimulation",new Object[]{jobID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Boolean)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method cancelSimulation!");
+                }
+                        
+            } else {
+                return false;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public boolean awaitSimulation(final int jobID, final long timeoutMillis) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("awaitSimulation",new Object[]{jobID,timeoutMillis});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Boolean)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method awaitSimulation!");
+                }
+                        
+            } else {
+                return false;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double[][] getSimulationResult(final int jobID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getSimulationResult",new Object[]{jobID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (double[][])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getSimulationResult!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     public void simulateTime(final double time) {
         try {
@@ -1019,6 +1152,28 @@ public final class GeckoRemoteMMFObject extends GeckoRemoteObject {
         }
     }
     
+    @Override
+    @SuppressWarnings("PMD")
+    //CHECKSTYLE:OFF
+    public void setRandomSeed(final long seed) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("setRandomSeed",new Object[]{seed});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isVoidReturn()) {
+                    return;
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method setRandomSeed!");
+                }
+                        
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+    
     @Override
     @SuppressWarnings("PMD")
     //CHECKSTYLE:OFF
@@ -1368,6 +1523,201 @@ public final class GeckoRemoteMMFObject extends GeckoRemoteObject {
         }
     }
 
+    @Override
+    public int subscribeWaveforms(final String[] signalNames, final int decimation, final int blockSize,
+            final int queueCapacity, final String overflowPolicy) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("subscribeWaveforms",new Object[]{signalNames,decimation,blockSize,queueCapacity,overflowPolicy});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Integer)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method subscribeWaveforms!");
+                }
+                        
+            } else {
+                return -1;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double[][] pollWaveforms(final int subscriptionID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("pollWaveforms",new Object[]{subscriptionID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (double[][])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method pollWaveforms!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public long getDroppedWaveformBlocks(final int subscriptionID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getDroppedWaveformBlocks",new Object[]{subscriptionID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (Long)returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getDroppedWaveformBlocks!");
+                }
+                        
+            } else {
+                return 0;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void unsubscribeWaveforms(final int subscriptionID) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("unsubscribeWaveforms",new Object[]{subscriptionID});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isVoidReturn()) {
+                    return;
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method unsubscribeWaveforms!");
+                }
+                        
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public int[] resolveHandles(final String handleType, final String[] elementNames, final String[] names) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("resolveHandles",new Object[]{handleType,elementNames,names});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (int[])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method resolveHandles!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void setParameterValues(final int[] handles, final double[] values) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("setParameterValues",new Object[]{handles,values});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isVoidReturn()) {
+                    return;
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method setParameterValues!");
+                }
+                        
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double[] getParameterValues(final int[] handles) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getParameterValues",new Object[]{handles});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (double[])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getParameterValues!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double[] getOutputValues(final int[] handles) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getOutputValues",new Object[]{handles});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (double[])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getOutputValues!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public double[][] getSignalValues(final int[] handles, final double tStart, final double tEnd, final int skipPoints) {
+        try {
+            if (checkRemote()) {
+                final GeckoRemotePipeObject method = new GeckoRemotePipeObject("getSignalValues",new Object[]{handles,tStart,tEnd,skipPoints});
+                final GeckoRemotePipeObject returnValue = _mmf.callMethod(sessionID, method);
+                if (returnValue.isReturnValue()) {
+                    return (double[][])returnValue.getMethodReturnValue();
+                } else if (returnValue.isErrorMessage()) {
+                    throw new RuntimeException(returnValue.getErrorMessage());
+                } else {
+                    throw new RuntimeException("Invalid return value in method getSignalValues!");
+                }
+                        
+            } else {
+                return null;
+            }
+        } catch (Throwable ex) {
+            throw new RuntimeException(ERROR_STRING + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     /**
      * Rename a component with a given name.
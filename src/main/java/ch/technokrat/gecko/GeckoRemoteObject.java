@@ -481,6 +481,53 @@ public class GeckoRemoteObject {
         _proxy.continueSimulation();
     }
 
+    /**
+     * Queues a simulation of the loaded model and returns immediately. When
+     * the job starts, the given parameters are set (as with setParameter); at
+     * its end, the given scope signals are stored as result of the job. The
+     * jobs run one after another on a simulation thread.
+     *
+     * @return the job id for getSimulationJobStatus, getSimulationProgress,
+     * cancelSimulation, awaitSimulation and getSimulationResult
+     */
+    public int submitSimulation(final String[] elementNames, final String[] parameterNames, final double[] values, final String[] resultSignals) {
+        return _proxy.submitSimulation(elementNames, parameterNames, values, resultSignals);
+    }
+
+    /**
+     * @return QUEUED, RUNNING, FINISHED, FAILED or CANCELLED
+     */
+    public String getSimulationJobStatus(final int jobID) {
+        return _proxy.getSimulationJobStatus(jobID);
+    }
+
+    public double getSimulationProgress(final int jobID) {
+        return _proxy.getSimulationProgress(jobID);
+    }
+
+    public boolean cancelSimulation(final int jobID) {
+        return _proxy.cancelSimulation(jobID);
+    }
+
+    /**
+     * @return true, if the job ended (also by an error or cancellation) within
+     * the given time
+     */
+    public boolean awaitSimulation(final int jobID, final long timeoutMillis) {
+        return _proxy.awaitSimulation(jobID, timeoutMillis);
+    }
+
+    /**
+     * returns the result of an ended job and removes the job. Throws an
+     * exception, if the job is not finished, failed or was cancelled.
+     *
+     * @return the first row contains the time values, the rows 1...n the
+     * requested signals.
+     */
+    public double[][] getSimulationResult(final int jobID) {
+        return _proxy.getSimulationResult(jobID);
+    }
+
     public void simulateTime(final double time) {
         _proxy.simulateTime(time);
     }
@@ -525,6 +572,10 @@ public class GeckoRemoteObject {
         _proxy.set_dt(value);
     }
 
+    public void setRandomSeed(final long seed) {
+        _proxy.setRandomSeed(seed);
+    }
+
     @SuppressWarnings("PMD")
     //CHECKSTYLE:OFF
     public void set_Tend(final double value) {
@@ -630,6 +681,74 @@ public class GeckoRemoteObject {
         return _proxy.getSignalData(signalName, tStart, tEnd, skipPoints);
     }
 
+    /**
+     * Starts a live stream of the given signals while the simulation runs.
+     *
+     * @param decimation every decimation-th time step is streamed
+     * @param blockSize number of samples per block
+     * @param queueCapacity number of blocks which are buffered for the client
+     * @param overflowPolicy DROP_OLDEST, DROP_NEWEST or BLOCK, see
+     * WaveformSubscription.OverflowPolicy
+     * @return the subscription id, for pollWaveforms
+     */
+    public int subscribeWaveforms(final String[] signalNames, final int decimation, final int blockSize,
+            final int queueCapacity, final String overflowPolicy) {
+        return _proxy.subscribeWaveforms(signalNames, decimation, blockSize, queueCapacity, overflowPolicy);
+    }
+
+    /**
+     * @return the buffered blocks of the subscription, without waiting: row 0
+     * contains the time values, the rows 1...n the subscribed signals.
+     */
+    public double[][] pollWaveforms(final int subscriptionID) {
+        return _proxy.pollWaveforms(subscriptionID);
+    }
+
+    public long getDroppedWaveformBlocks(final int subscriptionID) {
+        return _proxy.getDroppedWaveformBlocks(subscriptionID);
+    }
+
+    public void unsubscribeWaveforms(final int subscriptionID) {
+        _proxy.unsubscribeWaveforms(subscriptionID);
+    }
+
+    /**
+     * Searches components and parameters, control block outputs or scope
+     * signals once, for the batch methods setParameterValues,
+     * getParameterValues, getOutputValues and getSignalValues. Each batch call
+     * needs a single round trip.
+     *
+     * @param handleType "PARAMETER", "OUTPUT" or "SIGNAL"
+     * @param elementNames the component names, not used for signal handles
+     * @param names the parameter, output or signal names. For control blocks
+     * with a single output, the output name may be empty.
+     * @return one handle for each name. The component handles have to be
+     * resolved again after a component was renamed or deleted.
+     */
+    public int[] resolveHandles(final String handleType, final String[] elementNames, final String[] names) {
+        return _proxy.resolveHandles(handleType, elementNames, names);
+    }
+
+    public void setParameterValues(final int[] handles, final double[] values) {
+        _proxy.setParameterValues(handles, values);
+    }
+
+    public double[] getParameterValues(final int[] handles) {
+        return _proxy.getParameterValues(handles);
+    }
+
+    public double[] getOutputValues(final int[] handles) {
+        return _proxy.getOutputValues(handles);
+    }
+
+    /**
+     * @return the first row contains the time values, the rows 1...n the
+     * signals of the given handles.
+     */
+    public double[][] getSignalValues(final int[] handles, final double tStart, final double tEnd, final int skipPoints) {
+        return _proxy.getSignalValues(handles, tStart, tEnd, skipPoints);
+    }
+
     /**
      * Rename a component with a given name.
      *
@@ -0,0 +1,368 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Compact binary encoding of a GeckoRemotePipeObject, written directly into
+ * the memory-mapped buffer. The method is encoded as its index in the sorted
+ * method names of GeckoRemoteInterface, the arguments and return values as a
+ * type tag followed by the value. Primitive arrays are copied in bulk through
+ * the buffer views (DoubleBuffer etc.), a null array is written with the
+ * length -1. Only values of other types, e.g. the Object argument of
+ * doOperation, fall back to the java serialization.
+ *
+ * The method indices are only valid if both sides know the same methods.
+ * Therefore, the client sends PROTOCOL_VERSION with its connection attempt
+ * (see GeckoMemoryMappedFile.connect), and GeckoCIRCUITS rejects clients with
+ * a different method list or encoding.
+ */
+final class GeckoRemotePipeCodec {
+
+    private static final short UNKNOWN_METHOD = -1;
+    private static final byte NULL = 0;
+    private static final byte INT = 1;
+    private static final byte LONG = 2;
+    private static final byte DOUBLE = 3;
+    private static final byte FLOAT = 4;
+    private static final byte BOOLEAN = 5;
+    private static final byte STRING = 6;
+    private static final byte INT_ARRAY = 7;
+    private static final byte DOUBLE_ARRAY = 8;
+    private static final byte FLOAT_ARRAY = 9;
+    private static final byte STRING_ARRAY = 10;
+    private static final byte INT_MATRIX = 11;
+    private static final byte DOUBLE_MATRIX = 12;
+    private static final byte FLOAT_MATRIX = 13;
+    private static final byte SERIALIZED = 14;
+    /**
+     * increment when the encoding of the values changes.
+     */
+    private static final int FORMAT_VERSION = 2;
+    private static final String[] METHOD_NAMES;
+    private static final Map<String, Short> METHOD_IDS = new HashMap<String, Short>();
+    private static final GeckoRemotePipeObject.GeckoRemotePipeObjectType[] TYPES
+            = GeckoRemotePipeObject.GeckoRemotePipeObjectType.values();
+    /**
+     * hash of the value format and of all method names, both sides of a
+     * connection have to use the same one.
+     */
+    static final long PROTOCOL_VERSION;
+
+    static {
+        final TreeSet<String> names = new TreeSet<String>();
+        for (Method method : GeckoRemoteInterface.class.getMethods()) {
+            names.add(method.getName());
+        }
+        METHOD_NAMES = names.toArray(new String[names.size()]);
+        for (short i = 0; i < METHOD_NAMES.length; i++) {
+            METHOD_IDS.put(METHOD_NAMES[i], i);
+        }
+        PROTOCOL_VERSION = calculateProtocolVersion();
+    }
+
+    private static long calculateProtocolVersion() {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(ByteBuffer.allocate(4).putInt(FORMAT_VERSION).array());
+            for (String name : METHOD_NAMES) {
+                digest.update(name.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private GeckoRemotePipeCodec() {
+        // pure utility class
+    }
+
+    /**
+     * writes the pipe object at the current position of the buffer.
+     *
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    static void encode(final GeckoRemotePipeObject pipeObject, final ByteBuffer buffer) throws IOException {
+        final GeckoRemotePipeObject.GeckoRemotePipeObjectType type = pipeObject.getType();
+        buffer.put((byte) type.ordinal());
+        final Short methodID = METHOD_IDS.get(pipeObject.getMethodName());
+        if (methodID == null) {
+            buffer.putShort(UNKNOWN_METHOD);
+            putString(buffer, pipeObject.getMethodName());
+        } else {
+            buffer.putShort(methodID);
+        }
+
+        switch (type) {
+            case METHOD_CALL:
+                final Object[] arguments = pipeObject.getMethodArguments();
+                buffer.putInt(arguments.length);
+                for (Object argument : arguments) {
+                    putValue(buffer, argument);
+                }
+                break;
+            case METHOD_RETURN_VALUE:
+                putValue(buffer, pipeObject.getMethodReturnValue());
+                break;
+            case ERROR_MESSAGE:
+                putString(buffer, pipeObject.getErrorMessage());
+                break;
+            default: // void return: nothing to write
+        }
+    }
+
+    /**
+     * reads a pipe object from the current position of the buffer.
+     */
+    static GeckoRemotePipeObject decode(final ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        final GeckoRemotePipeObject.GeckoRemotePipeObjectType type = TYPES[buffer.get()];
+        final short methodID = buffer.getShort();
+        if (methodID != UNKNOWN_METHOD && (methodID < 0 || methodID >= METHOD_NAMES.length)) {
+            throw new IOException("Invalid method id " + methodID + " in memory-mapped file.");
+        }
+        final String methodName = methodID == UNKNOWN_METHOD ? getString(buffer) : METHOD_NAMES[methodID];
+        switch (type) {
+            case METHOD_CALL:
+                final Object[] arguments = new Object[buffer.getInt()];
+                for (int i = 0; i < arguments.length; i++) {
+                    arguments[i] = getValue(buffer);
+                }
+                return new GeckoRemotePipeObject(methodName, arguments);
+            case METHOD_RETURN_VALUE:
+                final Object returnValue = getValue(buffer);
+                return new GeckoRemotePipeObject(methodName, returnValue);
+            case ERROR_MESSAGE:
+                return new GeckoRemotePipeObject(methodName, getString(buffer));
+            default:
+                return new GeckoRemotePipeObject(methodName);
+        }
+    }
+
+    private static void putValue(final ByteBuffer buffer, final Object value) throws IOException {
+        if (value == null) {
+            buffer.put(NULL);
+        } else if (value instanceof Integer) {
+            buffer.put(INT).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            buffer.put(LONG).putLong((Long) value);
+        } else if (value instanceof Double) {
+            buffer.put(DOUBLE).putDouble((Double) value);
+        } else if (value instanceof Float) {
+            buffer.put(FLOAT).putFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            buffer.put(BOOLEAN).put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof String) {
+            buffer.put(STRING);
+            putString(buffer, (String) value);
+        } else if (value instanceof int[]) {
+            buffer.put(INT_ARRAY);
+            putIntArray(buffer, (int[]) value);
+        } else if (value instanceof double[]) {
+            buffer.put(DOUBLE_ARRAY);
+            putDoubleArray(buffer, (double[]) value);
+        } else if (value instanceof float[]) {
+            buffer.put(FLOAT_ARRAY);
+            putFloatArray(buffer, (float[]) value);
+        } else if (value instanceof String[]) {
+            final String[] strings = (String[]) value;
+            buffer.put(STRING_ARRAY).putInt(strings.length);
+            for (String string : strings) {
+                putString(buffer, string);
+            }
+        } else if (value instanceof int[][]) {
+            final int[][] matrix = (int[][]) value;
+            buffer.put(INT_MATRIX).putInt(matrix.length);
+            for (int[] row : matrix) {
+                putIntArray(buffer, row);
+            }
+        } else if (value instanceof double[][]) {
+            final double[][] matrix = (double[][]) value;
+            buffer.put(DOUBLE_MATRIX).putInt(matrix.length);
+            for (double[] row : matrix) {
+                putDoubleArray(buffer, row);
+            }
+        } else if (value instanceof float[][]) {
+            final float[][] matrix = (float[][]) value;
+            buffer.put(FLOAT_MATRIX).putInt(matrix.length);
+            for (float[] row : matrix) {
+                putFloatArray(buffer, row);
+            }
+        } else {
+            final ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+            final ObjectOutputStream objectStream = new ObjectOutputStream(byteStream);
+            objectStream.writeObject(value);
+            objectStream.close();
+            final byte[] bytes = byteStream.toByteArray();
+            buffer.put(SERIALIZED).putInt(bytes.length).put(bytes);
+        }
+    }
+
+    private static Object getValue(final ByteBuffer buffer) throws IOException, ClassNotFoundException {
+        final byte tag = buffer.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case INT:
+                return buffer.getInt();
+            case LONG:
+                return buffer.getLong();
+            case DOUBLE:
+                return buffer.getDouble();
+            case FLOAT:
+                return buffer.getFloat();
+            case BOOLEAN:
+                return buffer.get() != 0;
+            case STRING:
+                return getString(buffer);
+            case INT_ARRAY:
+                return getIntArray(buffer);
+            case DOUBLE_ARRAY:
+                return getDoubleArray(buffer);
+            case FLOAT_ARRAY:
+                return getFloatArray(buffer);
+            case STRING_ARRAY:
+                final String[] strings = new String[buffer.getInt()];
+                for (int i = 0; i < strings.length; i++) {
+                    strings[i] = getString(buffer);
+                }
+                return strings;
+            case INT_MATRIX:
+                final int[][] intMatrix = new int[buffer.getInt()][];
+                for (int i = 0; i < intMatrix.length; i++) {
+                    intMatrix[i] = getIntArray(buffer);
+                }
+                return intMatrix;
+            case DOUBLE_MATRIX:
+                final double[][] doubleMatrix = new double[buffer.getInt()][];
+                for (int i = 0; i < doubleMatrix.length; i++) {
+                    doubleMatrix[i] = getDoubleArray(buffer);
+                }
+                return doubleMatrix;
+            case FLOAT_MATRIX:
+                final float[][] floatMatrix = new float[buffer.getInt()][];
+                for (int i = 0; i < floatMatrix.length; i++) {
+                    floatMatrix[i] = getFloatArray(buffer);
+                }
+                return floatMatrix;
+            case SERIALIZED:
+                final byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                final ObjectInputStream objectStream = new ObjectInputStream(new ByteArrayInputStream(bytes));
+                try {
+                    return objectStream.readObject();
+                } finally {
+                    objectStream.close();
+                }
+            default:
+                throw new IOException("Invalid value type " + tag + " in memory-mapped file.");
+        }
+    }
+
+    private static void putString(final ByteBuffer buffer, final String string) {
+        if (string == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length).put(bytes);
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putIntArray(final ByteBuffer buffer, final int[] array) {
+        if (array == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(array.length);
+        buffer.asIntBuffer().put(array);
+        buffer.position(buffer.position() + 4 * array.length);
+    }
+
+    private static int[] getIntArray(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final int[] array = new int[length];
+        buffer.asIntBuffer().get(array);
+        buffer.position(buffer.position() + 4 * array.length);
+        return array;
+    }
+
+    private static void putDoubleArray(final ByteBuffer buffer, final double[] array) {
+        if (array == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(array.length);
+        buffer.asDoubleBuffer().put(array);
+        buffer.position(buffer.position() + 8 * array.length);
+    }
+
+    private static double[] getDoubleArray(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final double[] array = new double[length];
+        buffer.asDoubleBuffer().get(array);
+        buffer.position(buffer.position() + 8 * array.length);
+        return array;
+    }
+
+    private static void putFloatArray(final ByteBuffer buffer, final float[] array) {
+        if (array == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(array.length);
+        buffer.asFloatBuffer().put(array);
+        buffer.position(buffer.position() + 4 * array.length);
+    }
+
+    private static float[] getFloatArray(final ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        final float[] array = new float[length];
+        buffer.asFloatBuffer().get(array);
+        buffer.position(buffer.position() + 4 * array.length);
+        return array;
+    }
+}
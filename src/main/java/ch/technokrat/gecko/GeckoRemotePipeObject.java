@@ -83,6 +83,10 @@ public class GeckoRemotePipeObject implements Serializable {
         _errorMessage = errorMessage;
     }
     
+    GeckoRemotePipeObjectType getType() {
+        return _type;
+    }
+
     /**
      * Check if this object represents a method call.
      * @return true if it is a method call
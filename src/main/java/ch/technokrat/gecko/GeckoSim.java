@@ -71,6 +71,11 @@ public class GeckoSim extends JApplet {
     public static boolean _testSuccessful = false;
     public static boolean _isTestingMode = false;
     public static OperatingMode operatingmode = OperatingMode.STANDALONE;  // default 
+    /**
+     * set while a HeadlessSimulation loads or simulates its model in this
+     * thread, independent of the operating mode of the application.
+     */
+    private static final ThreadLocal<Boolean> WINDOWS_SUPPRESSED_IN_THREAD = new ThreadLocal<Boolean>();
 
     public static void stopTime() {
         long stopTime = System.currentTimeMillis();
@@ -79,6 +84,19 @@ public class GeckoSim extends JApplet {
     }
 
     public static void main(final String[] args) {
+        if (args.length > 0 && args[0].equals("-headless")) {
+            // before any AWT class is initialized:
+            System.setProperty("java.awt.headless", "true");
+            Locale.setDefault(Locale.ENGLISH);
+            try {
+                HeadlessSimulation.main(Arrays.copyOfRange(args, 1, args.length));
+            } catch (Throwable err) {
+                err.printStackTrace();
+                System.exit(4);
+            }
+            return;
+        }
+
         if (operatingmode != OperatingMode.REMOTE && operatingmode != OperatingMode.MMF) {
             setDefaultFonts();
         }                
@@ -256,12 +274,37 @@ public class GeckoSim extends JApplet {
                 }
             }
         }
+        GeckoWaveformServer.enableFromProperties();
         mainLoaded = true;
 
         // don't modify this string, since it is used in the Java-Memory-Restart
         System.out.println("GeckoCIRCUITS is ready");
     }
 
+    /**
+     * @return true, if no window may be opened: in the HEADLESS operating mode,
+     * when no display is available, or within a HeadlessSimulation.
+     */
+    public static boolean isHeadless() {
+        return operatingmode == OperatingMode.HEADLESS || GraphicsEnvironment.isHeadless()
+                || WINDOWS_SUPPRESSED_IN_THREAD.get() != null;
+    }
+
+    /**
+     * @param suppressed if true, isHeadless() returns true in the calling
+     * thread, until it is reset with false.
+     * @return the previous value, for the reset
+     */
+    public static boolean setWindowsSuppressedInThread(final boolean suppressed) {
+        final boolean returnValue = WINDOWS_SUPPRESSED_IN_THREAD.get() != null;
+        if (suppressed) {
+            WINDOWS_SUPPRESSED_IN_THREAD.set(Boolean.TRUE);
+        } else {
+            WINDOWS_SUPPRESSED_IN_THREAD.remove();
+        }
+        return returnValue;
+    }
+
     public static boolean testIfBrandedVersion() {
         URL brandURL = GeckoSim.class.getResource("/brand.ipes");
         return brandURL != null;
@@ -17,6 +17,8 @@ import ch.technokrat.gecko.geckocircuits.allg.OperatingMode;
 import ch.technokrat.gecko.geckocircuits.allg.StartupWindow;
 import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
 import ch.technokrat.gecko.geckocircuits.circuit.SchematischeEingabe2;
+import ch.technokrat.gecko.geckocircuits.control.CoSimulationPorts;
+import ch.technokrat.gecko.geckocircuits.control.CoSimulationQueue;
 import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
 import ch.technokrat.gecko.geckocircuits.control.ReglerFromEXTERNAL;
 import ch.technokrat.gecko.geckocircuits.control.ReglerOSZI;
@@ -29,6 +31,7 @@ public class GeckoSimulink {
 
     private long tStartSimulink, tEndSimulink;
     private boolean isRunning = false;
+    private CoSimulationPorts _ports;
 
     public GeckoSimulink() {
         if(!setSimulinkOperatingMode()) {
@@ -74,6 +77,7 @@ public class GeckoSimulink {
             return -1;
         }
         GeckoSim._win._simRunner.external_init(tend);
+        _ports = CoSimulationPorts.fabricFromModel();
         tStartSimulink = System.currentTimeMillis();
         
         for (AbstractBlockInterface block : SchematischeEingabe2.Singleton.getElementCONTROL()) {
@@ -89,6 +93,51 @@ public class GeckoSimulink {
         GeckoSim._geckoSim._win._simRunner.simKern.external_step(t);
     }
 
+    /**
+     * replaces the calls of external_setScalarInputValue,
+     * external_setVectorInputValue, external_step and external_getValues for
+     * all ports by one call: sets the FromEXTERNAL blocks to the inputs,
+     * simulates nSteps steps (starting at the time after the last step) and
+     * copies the ToEXTERNAL blocks to outputs. The values of all ports are
+     * packed into the arrays in the port order, see getInputWidth() and
+     * getOutputWidth(). Do not mix with external_step(t).
+     */
+    public void step(final double[] inputs, final double[] outputs, final int nSteps) throws Exception {
+        GeckoSim._geckoSim._win._simRunner.simKern.simulateSteps(getPorts(), inputs, outputs, nSteps);
+    }
+
+    /**
+     * @return a queue for input trajectories, which are simulated with
+     * stepQueued(...). The queue may be filled and emptied by another thread.
+     */
+    public CoSimulationQueue createQueue(final int capacity) {
+        return new CoSimulationQueue(capacity, getPorts());
+    }
+
+    /**
+     * simulates one step for each queued input vector, at most maxSteps.
+     *
+     * @return the number of simulated steps
+     */
+    public int stepQueued(final CoSimulationQueue queue, final int maxSteps) throws Exception {
+        return GeckoSim._geckoSim._win._simRunner.simKern.simulateQueuedSteps(getPorts(), queue, maxSteps);
+    }
+
+    public int getInputWidth() {
+        return getPorts().getInputWidth();
+    }
+
+    public int getOutputWidth() {
+        return getPorts().getOutputWidth();
+    }
+
+    private CoSimulationPorts getPorts() {
+        if (_ports == null) {
+            throw new IllegalStateException("The simulation is not initialized, call external_init first.");
+        }
+        return _ports;
+    }
+
     public double external_getdt() {        
         return GeckoSim._geckoSim._win._simRunner.simKern.getdt();
     }
@@ -98,6 +147,7 @@ public class GeckoSimulink {
         tEndSimulink = System.currentTimeMillis();        
         GeckoSim._win.external_end(tStartSimulink, tEndSimulink);        
         isRunning = false;        
+        _ports = null;
     }
 
     public int external_getTerminalNumber_TO_EXTERNAL(int portNo) {
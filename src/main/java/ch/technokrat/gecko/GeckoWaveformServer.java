@@ -0,0 +1,203 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import ch.technokrat.gecko.geckocircuits.control.NetzlisteCONTROL;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
+import ch.technokrat.gecko.geckocircuits.datacontainer.WaveformBlock;
+import ch.technokrat.gecko.geckocircuits.datacontainer.WaveformSubscription;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streams live waveforms (see WaveformSubscription) over a local TCP socket.
+ * The server only listens on the loopback interface. Each connection has its
+ * own thread, which takes the blocks from the subscription queue and writes
+ * them to the socket, so that a slow client never blocks the simulation.
+ *
+ * Protocol: the client sends one line with tab-separated fields
+ *
+ * SUBSCRIBE decimation blockSize queueCapacity overflowPolicy signal1 [signal2 ...]
+ *
+ * The server answers (java.io.DataOutput format, big endian) with the int
+ * subscription id (or -1 followed by an UTF error message), the int number of
+ * signals and their UTF names. An empty overflowPolicy selects DROP_OLDEST;
+ * with BLOCK, the simulation waits at most one second in total for the client. Then, for each block: long sequence number,
+ * long number of dropped blocks, int sample count n, n double time values and
+ * for each signal n float values. The subscription ends when the client
+ * closes the connection.
+ */
+public final class GeckoWaveformServer {
+
+    private static final String PROPERTIES_KEY = "WAVEFORM_STREAM_PORT";
+    private static final String COMMAND = "SUBSCRIBE";
+    private static final long POLL_MILLIS = 200;
+    private static GeckoWaveformServer _server;
+    private final DataContainerGlobal _data;
+    private final ServerSocket _serverSocket;
+    private final Thread _acceptThread;
+
+    public GeckoWaveformServer(final DataContainerGlobal data, final int port) throws IOException {
+        _data = data;
+        _serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        _acceptThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptConnections();
+            }
+        }, "GeckoWaveformServer");
+        _acceptThread.setDaemon(true);
+        _acceptThread.start();
+    }
+
+    /**
+     * starts the server for NetzlisteCONTROL.globalData, if the application
+     * property WAVEFORM_STREAM_PORT is set to a port number.
+     */
+    public static void enableFromProperties() {
+        if (_server != null || GeckoSim.applicationProps == null) {
+            return;
+        }
+        final String port = GeckoSim.applicationProps.getProperty(PROPERTIES_KEY, "").trim();
+        if (port.isEmpty() || "0".equals(port)) {
+            return;
+        }
+        try {
+            _server = new GeckoWaveformServer(NetzlisteCONTROL.globalData, Integer.parseInt(port));
+            System.out.println("GeckoCIRCUITS streams waveforms at port " + _server.getPort() + ".");
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    public int getPort() {
+        return _serverSocket.getLocalPort();
+    }
+
+    public void close() throws IOException {
+        _serverSocket.close();
+    }
+
+    private void acceptConnections() {
+        while (!_serverSocket.isClosed()) {
+            try {
+                final Socket socket = _serverSocket.accept();
+                final Thread connectionThread = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        serveConnection(socket);
+                    }
+                }, "GeckoWaveformServer-" + socket.getPort());
+                connectionThread.setDaemon(true);
+                connectionThread.start();
+            } catch (SocketException ex) {
+                return; // server socket was closed
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void serveConnection(final Socket socket) {
+        WaveformSubscription subscription = null;
+        try {
+            socket.setTcpNoDelay(true);
+            final BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.UTF_8));
+            final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            try {
+                subscription = subscribe(reader.readLine());
+            } catch (IllegalArgumentException ex) {
+                output.writeInt(-1);
+                output.writeUTF(String.valueOf(ex.getMessage()));
+                output.flush();
+                return;
+            }
+            writeHeader(output, subscription);
+            while (!socket.isClosed() && !subscription.isClosed()) {
+                final WaveformBlock block = subscription.poll(POLL_MILLIS);
+                if (block != null) {
+                    writeBlock(output, block);
+                }
+            }
+        } catch (IOException ex) {
+            // client disconnected
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (subscription != null) {
+                _data.unsubscribe(subscription);
+            }
+            try {
+                socket.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private WaveformSubscription subscribe(final String request) {
+        if (request == null) {
+            throw new IllegalArgumentException("No request.");
+        }
+        final String[] fields = request.split("\t");
+        if (fields.length < 6 || !COMMAND.equals(fields[0])) {
+            throw new IllegalArgumentException("Expected: " + COMMAND
+                    + "\tdecimation\tblockSize\tqueueCapacity\toverflowPolicy\tsignal1[\tsignal2 ...]");
+        }
+        try {
+            return _data.subscribe(Arrays.copyOfRange(fields, 5, fields.length), Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), Integer.parseInt(fields[3]),
+                    WaveformSubscription.OverflowPolicy.getFromString(fields[4]),
+                    WaveformSubscription.MAX_TOTAL_BLOCKING_MILLIS);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid number: " + ex.getMessage(), ex);
+        }
+    }
+
+    private static void writeHeader(final DataOutputStream output, final WaveformSubscription subscription)
+            throws IOException {
+        output.writeInt(subscription.getId());
+        final String[] signalNames = subscription.getSignalNames();
+        output.writeInt(signalNames.length);
+        for (String name : signalNames) {
+            output.writeUTF(name);
+        }
+        output.flush();
+    }
+
+    private static void writeBlock(final DataOutputStream output, final WaveformBlock block) throws IOException {
+        output.writeLong(block.getSequenceNumber());
+        output.writeLong(block.getDroppedBlocks());
+        output.writeInt(block.getSampleCount());
+        for (double time : block.getTimes()) {
+            output.writeDouble(time);
+        }
+        for (int i = 0; i < block.getNumberOfSignals(); i++) {
+            for (float value : block.getValues(i)) {
+                output.writeFloat(value);
+            }
+        }
+        output.flush();
+    }
+}
@@ -117,10 +117,12 @@ public final class OutputWarningStream extends BufferedOutputStream {
         }
     }
 
-    void setAlternativeOutput(final StringBuffer stringBuffer, final String description) {
-        _isOriginalOutput = false;
-        _alternativeOutput = stringBuffer;
-        outputDescription = description;
+    void bind(final SystemOutputRedirect.OutputBinding binding) {
+        _isOriginalOutput = binding._alternativeOutput == null;
+        if (!_isOriginalOutput) {
+            _alternativeOutput = binding._alternativeOutput;
+        }
+        outputDescription = binding._description;
     }
 
     void setOriginalOutput() {
@@ -141,9 +143,4 @@ public final class OutputWarningStream extends BufferedOutputStream {
             }
         }
     }
-
-    void setConsoleOutput(final String description) {
-        _isOriginalOutput = true;
-        outputDescription = description;
-    }
 }
@@ -0,0 +1,59 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waiting strategy for the status word of the memory-mapped file, which is
+ * written by another process: the other side cannot wake us up, therefore we
+ * have to poll. Directly after an activity, we spin (with Thread.yield, so
+ * that the other side can run on a machine with few cores) for spinNanos.
+ * Afterwards, the thread parks with an exponentially growing time, up to
+ * maxParkNanos, so that an idle connection costs (almost) no CPU.
+ */
+final class SpinParkWaiter {
+
+    private static final long MIN_PARK_NANOS = 1000;
+    private final long _spinNanos;
+    private final long _maxParkNanos;
+    private long _idleSince;
+    private long _parkNanos;
+
+    SpinParkWaiter(final long spinNanos, final long maxParkNanos) {
+        _spinNanos = spinNanos;
+        _maxParkNanos = maxParkNanos;
+        reset();
+    }
+
+    /**
+     * call when something happened, the next waits spin again.
+     */
+    void reset() {
+        _idleSince = System.nanoTime();
+        _parkNanos = MIN_PARK_NANOS;
+    }
+
+    /**
+     * waits a short time before the status is checked again.
+     */
+    void pause() {
+        if (System.nanoTime() - _idleSince < _spinNanos) {
+            Thread.yield();
+            return;
+        }
+        LockSupport.parkNanos(_parkNanos);
+        _parkNanos = Math.min(2 * _parkNanos, _maxParkNanos);
+    }
+}
@@ -28,7 +28,10 @@ public final class SystemOutputRedirect {
             new OutputWarningStream(new ByteArrayOutputStream(), ORIG_OUT_STREAM);
     private static final OutputWarningStream WARNING_ERR_STREAM = 
             new OutputWarningStream(new ByteArrayOutputStream(), ORIG_ERR_STREAM);
-    
+    // the last destinations of setConsoleOutput and setAlternativeOutput, which
+    // are usually called with the same arguments at every calculation step
+    private static volatile OutputBinding _consoleBinding;
+    private static volatile OutputBinding _alternativeBinding;
 
     
     
@@ -42,8 +45,12 @@ public final class SystemOutputRedirect {
     }       
     
     public static void setAlternativeOutput(final StringBuffer stringBuffer, final String description) {
-        WARNING_STREAM.setAlternativeOutput(stringBuffer, description);
-        WARNING_ERR_STREAM.setAlternativeOutput(stringBuffer, description);
+        OutputBinding binding = _alternativeBinding;
+        if (!isBindingOf(binding, stringBuffer, description)) {
+            binding = new OutputBinding(stringBuffer, description);
+            _alternativeBinding = binding;
+        }
+        bind(binding);
     }
     
     public static void setOriginalOutput() {
@@ -52,14 +59,55 @@ public final class SystemOutputRedirect {
     }
     
     public static void setConsoleOutput(final String sourceDescription) {
-        WARNING_STREAM.setConsoleOutput(sourceDescription);
-        WARNING_ERR_STREAM.setConsoleOutput(sourceDescription);
+        OutputBinding binding = _consoleBinding;
+        if (!isBindingOf(binding, null, sourceDescription)) {
+            binding = new OutputBinding(null, sourceDescription);
+            _consoleBinding = binding;
+        }
+        bind(binding);
+    }
+
+    private static boolean isBindingOf(final OutputBinding binding, final StringBuffer alternativeOutput,
+            final String description) {
+        return binding != null && binding._alternativeOutput == alternativeOutput
+                && (description == null ? binding._description == null : description.equals(binding._description));
+    }
+
+    /**
+     * @param alternativeOutput if null, the output is written to the console
+     * @return the output destination of a block, which is created once (e.g.
+     * at the simulation start) and bound at every calculation step, see bind()
+     */
+    public static OutputBinding createBinding(final StringBuffer alternativeOutput, final String description) {
+        return new OutputBinding(alternativeOutput, description);
+    }
+
+    /**
+     * redirects the output to the given destination, until setOriginalOutput()
+     * is called. Does not allocate anything, therefore it can be called at
+     * each calculation step.
+     */
+    public static void bind(final OutputBinding binding) {
+        WARNING_STREAM.bind(binding);
+        WARNING_ERR_STREAM.bind(binding);
     }
     
     public static void reset() {
         WARNING_ERR_STREAM.reset();
         WARNING_STREAM.reset();
     }
+
+    public static final class OutputBinding {
+
+        @SuppressWarnings("PMD")
+        final StringBuffer _alternativeOutput;
+        final String _description;
+
+        private OutputBinding(final StringBuffer alternativeOutput, final String description) {
+            _alternativeOutput = alternativeOutput;
+            _description = description;
+        }
+    }
     
     
 }
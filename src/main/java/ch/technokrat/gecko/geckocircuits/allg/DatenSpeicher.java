@@ -62,6 +62,9 @@ public class DatenSpeicher implements Serializable {
     public String _scripterDeclarations = "";
     public String _scripterExtraFiles = "";
     public int solverType;
+    boolean _adaptiveStepWidth = false;
+    double _dtMax = -1;
+    double _relTolerance = -1;
     public boolean saveAsApplet = false;
     private GeckoFileManager _fileManager;
     public ArrayList<GeckoFile> fileMgrFiles;
@@ -86,6 +89,9 @@ public class DatenSpeicher implements Serializable {
         this._T_pre = solverSettings._T_pre.getValue();
         this._dt_pre = solverSettings._dt_pre.getValue();
         this.solverType = solverSettings.SOLVER_TYPE.getValue().getOldGeckoIndex();
+        this._adaptiveStepWidth = solverSettings._adaptiveStepWidth.getValue();
+        this._dtMax = solverSettings._dtMax.getValue();
+        this._relTolerance = solverSettings._relTolerance.getValue();
 
         this.dpix = AbstractCircuitSheetComponent.dpix;
         this.fontSize = SchematischeEingabe2.circuitFont.getSize();
@@ -149,6 +155,9 @@ public class DatenSpeicher implements Serializable {
         asc.append("\nT_pre ").append(_T_pre);
         asc.append("\ndt_pre ").append(_dt_pre);
         asc.append("\nsolverType ").append(solverType);
+        asc.append("\nadaptiveStepWidth ").append(_adaptiveStepWidth);
+        asc.append("\ndtMax ").append(_dtMax);
+        asc.append("\nrelTolerance ").append(_relTolerance);
         asc.append("\npath ").append(GlobalFilePathes.DATNAM);
         //
         asc.append("\n\ndpix ").append(dpix);
@@ -237,6 +246,12 @@ public class DatenSpeicher implements Serializable {
             solverType = tokenMap.readDataLine("solverType", solverType);
         }
 
+        if (tokenMap.containsToken("adaptiveStepWidth")) {
+            _adaptiveStepWidth = tokenMap.readDataLine("adaptiveStepWidth", _adaptiveStepWidth);
+            _dtMax = tokenMap.readDataLine("dtMax", _dtMax);
+            _relTolerance = tokenMap.readDataLine("relTolerance", _relTolerance);
+        }
+
         if (tokenMap.containsToken("T_pre")) {
             _T_pre = tokenMap.readDataLine("T_pre", _T_pre);
         } else {
@@ -291,19 +306,21 @@ public class DatenSpeicher implements Serializable {
 
         }
 
-        GeckoSim._win.vItemShowParLK.setSelected(SchematischeEingabe2._lkDisplayMode.showParameter);
-        GeckoSim._win.vItemShowFlowLK.setSelected(SchematischeEingabe2._lkDisplayMode.showFlowSymbol);
-        GeckoSim._win.vItemShowTextLineLK.setSelected(SchematischeEingabe2._lkDisplayMode.showTextLine);
-        GeckoSim._win.vItemShowNameLK.setSelected(SchematischeEingabe2._lkDisplayMode.showName);
+        if (GeckoSim._win != null) { // no main window in headless mode
+            GeckoSim._win.vItemShowParLK.setSelected(SchematischeEingabe2._lkDisplayMode.showParameter);
+            GeckoSim._win.vItemShowFlowLK.setSelected(SchematischeEingabe2._lkDisplayMode.showFlowSymbol);
+            GeckoSim._win.vItemShowTextLineLK.setSelected(SchematischeEingabe2._lkDisplayMode.showTextLine);
+            GeckoSim._win.vItemShowNameLK.setSelected(SchematischeEingabe2._lkDisplayMode.showName);
 
-        GeckoSim._win.vItemShowParCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showParameter);
-        GeckoSim._win.vItemShowTextLineCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showTextLine);
-        GeckoSim._win.vItemShowNameCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showName);
+            GeckoSim._win.vItemShowParCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showParameter);
+            GeckoSim._win.vItemShowTextLineCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showTextLine);
+            GeckoSim._win.vItemShowNameCONTROL.setSelected(SchematischeEingabe2._controlDisplayMode.showName);
 
-        GeckoSim._win.vItemShowParTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showParameter);
-        GeckoSim._win.vItemShowFlowTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showFlowSymbol);
-        GeckoSim._win.vItemShowTextLineTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showTextLine);
-        GeckoSim._win.vItemShowNameTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showName);
+            GeckoSim._win.vItemShowParTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showParameter);
+            GeckoSim._win.vItemShowFlowTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showFlowSymbol);
+            GeckoSim._win.vItemShowTextLineTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showTextLine);
+            GeckoSim._win.vItemShowNameTHERM.setSelected(SchematischeEingabe2._thermDisplayMode.showName);
+        }
 
                 
         
@@ -724,5 +741,12 @@ public class DatenSpeicher implements Serializable {
         solverSettings._dt_pre.setValueWithoutUndo(_dt_pre);
         solverSettings.SOLVER_TYPE.setValueWithoutUndo(SolverType.getFromOldGeckoIndex(solverType));
         solverSettings._tPAUSE.setValueWithoutUndo(_tPAUSE);
+        solverSettings._adaptiveStepWidth.setValueWithoutUndo(_adaptiveStepWidth);
+        if (_dtMax > 0) {
+            solverSettings._dtMax.setValueWithoutUndo(_dtMax);
+        }
+        if (_relTolerance > 0) {
+            solverSettings._relTolerance.setValueWithoutUndo(_relTolerance);
+        }
     }
 }
@@ -26,6 +26,7 @@ import java.awt.Dimension;
 import java.awt.Frame;
 
 import javax.swing.JPanel;
+import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
 import javax.swing.JLabel;
 import javax.swing.JButton;
@@ -49,6 +50,8 @@ public class DialogSimParameter extends JDialog implements ActionListener {
     private String[] _solverOptions = {"Backward Euler", "Trapezoidal", "Gear-Shichman"};
     private int _solvertype;
     private JComboBox _dropdownSolvSel = new JComboBox(_solverOptions);
+    private double _dtMax, _relTolerance;
+    private final JCheckBox _jcbAdaptive = new JCheckBox("adaptive stepwidth");
 
     public DialogSimParameter(final Frame owner, final SolverSettings callback) {
         super(owner, true);
@@ -64,6 +67,9 @@ public class DialogSimParameter extends JDialog implements ActionListener {
         _tPre = callback._T_pre.getValue();
         _dtPre = callback._dt_pre.getValue();
         _solvertype = Fenster._solverSettings.SOLVER_TYPE.getValue().getOldGeckoIndex();
+        _dtMax = callback._dtMax.getValue();
+        _relTolerance = callback._relTolerance.getValue();
+        _jcbAdaptive.setSelected(callback._adaptiveStepWidth.getValue());
         _tf = new FormatJTextField[9];
         for (int i1 = 0; i1 < _tf.length; i1++) {
             _tf[i1] = new FormatJTextField();
@@ -80,7 +86,7 @@ public class DialogSimParameter extends JDialog implements ActionListener {
         this.setTitle(" Simulation Parameters");
         this.baueGUI();
         //this.pack();
-        this.setSize(260, 340);
+        this.setSize(260, 400);
         this.setResizable(false);
         this.setDefaultCloseOperation(DISPOSE_ON_CLOSE);
     }
@@ -126,11 +132,33 @@ public class DialogSimParameter extends JDialog implements ActionListener {
         jpAllg.add(_dropdownSolvSel); //jpM.add(new JLabel(" "));
 
 
+        JPanel jpAdaptive = new JPanel();
+        jpAdaptive.setLayout(new GridLayout(3, 2));
+        jpAdaptive.setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(), "Stepwidth control", TitledBorder.LEFT, TitledBorder.TOP));
+        JLabel labDtMax = new JLabel("dt_max =  ");
+        labDtMax.setForeground(GlobalColors.LAB_COLOR_DIALOG_1);
+        JLabel labTol = new JLabel("rel. error =  ");
+        labTol.setForeground(GlobalColors.LAB_COLOR_DIALOG_1);
+        _tf[5].setNumberToField(_dtMax);
+        _tf[5].setColumns(COLS);
+        _tf[5].addActionListener(this);
+        _tf[6].setNumberToField(_relTolerance);
+        _tf[6].setColumns(COLS);
+        _tf[6].addActionListener(this);
+        jpAdaptive.add(_jcbAdaptive);
+        jpAdaptive.add(new JLabel(" "));
+        jpAdaptive.add(labDtMax);
+        jpAdaptive.add(_tf[5]);
+        jpAdaptive.add(labTol);
+        jpAdaptive.add(_tf[6]);
+
         JTextArea jtx = new JTextArea();
         jtx.setForeground(GlobalColors.LAB_COLOR_DIALOG_1);
         jtx.setText("Backward-Euler: Very stable, with some numeric damping\n"
                 + "Trapezoidal: No numeric damping, possibly unstable\n"
-                + "Gear-Shichman: Behavior is in between Trapezoidal and Backward Euler methods");
+                + "Gear-Shichman: Behavior is in between Trapezoidal and Backward Euler methods\n"
+                + "Adaptive stepwidth: dt is the minimum stepwidth, used at switching actions. Not available"
+                + " for Gear-Shichman.");
 
         jtx.setLineWrap(true);
         jtx.setWrapStyleWord(true);
@@ -142,9 +170,13 @@ public class DialogSimParameter extends JDialog implements ActionListener {
         jpTxt.setLayout(new BorderLayout());
         jpTxt.setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(), "Info", TitledBorder.LEFT, TitledBorder.TOP));
         jpTxt.add(jtx, BorderLayout.CENTER);
+        JPanel jpNorth = new JPanel();
+        jpNorth.setLayout(new BorderLayout());
+        jpNorth.add(jpAllg, BorderLayout.NORTH);
+        jpNorth.add(jpAdaptive, BorderLayout.CENTER);
         JPanel jpMM = new JPanel();
         jpMM.setLayout(new BorderLayout());
-        jpMM.add(jpAllg, BorderLayout.NORTH);
+        jpMM.add(jpNorth, BorderLayout.NORTH);
         jpMM.add(jpTxt, BorderLayout.CENTER);
         return jpMM;
 
@@ -288,8 +320,17 @@ public class DialogSimParameter extends JDialog implements ActionListener {
             } catch (Exception nfe) {
                 allesOK = false;
             }
+            try {
+                _dtMax = _tf[5].getNumberFromField();
+                _relTolerance = _tf[6].getNumberFromField();
+            } catch (Exception nfe) {
+                allesOK = false;
+            }
             _solvertype = _dropdownSolvSel.getSelectedIndex();
             if (allesOK) {
+                _solverSettings._adaptiveStepWidth.setValue(_jcbAdaptive.isSelected());
+                _solverSettings._dtMax.setValue(_dtMax);
+                _solverSettings._relTolerance.setValue(_relTolerance);
                 _solverSettings.dt.setValue(_dt);
                 _solverSettings._tDURATION.setValue(_tDuration);
                 _solverSettings._tPAUSE.setValue(_tPause);
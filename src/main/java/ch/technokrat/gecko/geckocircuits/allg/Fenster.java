@@ -1587,7 +1587,7 @@ public final class Fenster extends JFrame implements WindowListener, ActionListe
                     "mItemCheckModel")) {
                 NetzlisteAllg nlA = NetzlisteAllg.fabricNetzlistComplete(_se.getConnection(ConnectorType.CONTROL), _se.getElementCONTROL());
                 NetListLK nlL = _se.getNetzliste(ConnectorType.LK_AND_RELUCTANCE);
-                new DialogControlCheck(this, true, NetzlisteCONTROL.FabricRunSimulation(nlA)).setVisible(true);
+                new DialogControlCheck(this, true, NetzlisteCONTROL.FabricRunSimulation(nlA, SimulationContext.createGuiContext())).setVisible(true);
             } else if (befehl.equals("memorySettings")) {
                 DialogMemory dm = new DialogMemory();
 
@@ -2177,6 +2177,18 @@ public final class Fenster extends JFrame implements WindowListener, ActionListe
 
     }
 
+    /**
+     * as loadDatenSpeicherFromFile, but always reads from the file system,
+     * independent of IS_APPLET.
+     */
+    public static DatenSpeicher loadDatenSpeicherFromLocalFile(final String dateiName,
+            final OptimizerParameterData optimizer) throws FileNotFoundException {
+        if (!new File(dateiName).exists()) {
+            throw new FileNotFoundException("File: " + dateiName + " not found!");
+        }
+        return new DatenSpeicher(getLinesArrayFromIpesFile(dateiName, false), false, optimizer);
+    }
+
     public void continueCalculationWithPossibleErrorMessage() {
         try {
             this.continueCalculation(true);
@@ -2220,12 +2232,16 @@ public final class Fenster extends JFrame implements WindowListener, ActionListe
     }
     
     private static String[] getLinesArrayFromIpesFile(String dateiName) {
+        return getLinesArrayFromIpesFile(dateiName, Fenster.IS_APPLET);
+    }
+
+    private static String[] getLinesArrayFromIpesFile(String dateiName, final boolean fromAppletURL) {
         String[] lines = null;
         //----------
         // GZIP-Format (March 2009) - ganz neu! --> 
         try {                        
             GZIPInputStream in1 = null;
-            if (Fenster.IS_APPLET) {
+            if (fromAppletURL) {
                 in1 = new GZIPInputStream((new URL(GeckoSim.urlApplet, dateiName)).openStream());
             } else {
                 in1 = new GZIPInputStream(new FileInputStream(dateiName));
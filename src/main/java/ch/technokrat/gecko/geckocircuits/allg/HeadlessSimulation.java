@@ -0,0 +1,351 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.allg;
+
+import ch.technokrat.gecko.GeckoSim;
+import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
+import ch.technokrat.gecko.geckocircuits.circuit.CircuitSheet;
+import ch.technokrat.gecko.geckocircuits.circuit.IDStringDialog;
+import ch.technokrat.gecko.geckocircuits.circuit.NetListContainer;
+import ch.technokrat.gecko.geckocircuits.circuit.SchematischeEingabe2;
+import ch.technokrat.gecko.geckocircuits.circuit.SimulationContext;
+import ch.technokrat.gecko.geckocircuits.circuit.SimulationsKern;
+import ch.technokrat.gecko.geckocircuits.circuit.SolverSettings;
+import ch.technokrat.gecko.geckocircuits.control.ReglerOSZI;
+import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import ch.technokrat.gecko.geckocircuits.datacontainer.ContainerStatus;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
+import ch.technokrat.gecko.geckocircuits.control.DataSaver;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Batch simulation without the main window: loads an .ipes file, builds the
+ * netlists, runs the SimulationsKern and writes the scope signals to a text
+ * file. No window is created (the scope blocks do not open their ScopeFrame),
+ * therefore this runs on servers without display, with
+ * -Djava.awt.headless=true.
+ *
+ * Each instance owns its model, solver settings, $-parameter values and scope
+ * data. Several instances can simulate different models in parallel threads;
+ * only openFile() is serialized. The instances do not change the operating
+ * mode of the application, e.g. they can run beside the main window.
+ *
+ * Command line: java -jar GeckoCIRCUITS.jar -headless model.ipes output.txt
+ * [signal1 signal2 ...]
+ */
+public final class HeadlessSimulation {
+
+    private static final long MILLIS_TO_WAIT_FOR_DATA_SAVERS = 10000;
+    private static final long SLEEP_MILLIS = 100;
+    /**
+     * the model import registers the component names and global terminals in
+     * static tables and creates subcircuit sheets for
+     * SchematischeEingabe2.Singleton. Therefore, only one model is imported
+     * at a time. The simulation itself only uses the state of this object.
+     */
+    private static final Object IMPORT_LOCK = new Object();
+    private final SchematischeEingabe2 _se;
+    private final SolverSettings _solverSettings = new SolverSettings();
+    private final OptimizerParameterData _optimizerParameterData = new OptimizerParameterData();
+    private volatile SimulationsKern _simKern;
+    private volatile boolean _stopped;
+    private long _loadMillis;
+    private long _simulationMillis;
+
+    public HeadlessSimulation() {
+        GeckoSim.loadApplicationProperties();
+        final boolean wasSuppressed = GeckoSim.setWindowsSuppressedInThread(true);
+        try {
+            synchronized (IMPORT_LOCK) {
+                final SchematischeEingabe2 previousSchematicEntry = SchematischeEingabe2.Singleton;
+                _se = new SchematischeEingabe2(null);
+                SchematischeEingabe2.Singleton = previousSchematicEntry;
+            }
+        } finally {
+            GeckoSim.setWindowsSuppressedInThread(wasSuppressed);
+        }
+        _se.setOptimizerParameterData(_optimizerParameterData);
+    }
+
+    public void openFile(final String fileName) throws FileNotFoundException {
+        final long start = System.currentTimeMillis();
+        synchronized (IMPORT_LOCK) {
+            final SchematischeEingabe2 previousSchematicEntry = SchematischeEingabe2.Singleton;
+            final GeckoFileManager previousFileManager = Fenster._fileManager;
+            final String previousFileName = GlobalFilePathes.DATNAM;
+            // the names only have to be unique within this model
+            final IDStringDialog.NameTableSnapshot previousNames = IDStringDialog.replaceAllNamesByEmptyTable();
+            final boolean wasSuppressed = GeckoSim.setWindowsSuppressedInThread(true);
+            SchematischeEingabe2.Singleton = _se;
+            try {
+                _se.resetCircuitSheetsForNewFile();
+                GlobalFilePathes.DATNAM = fileName;
+                final DatenSpeicher daten = Fenster.loadDatenSpeicherFromLocalFile(fileName, _optimizerParameterData);
+                daten.updateSolverSettings(_solverSettings);
+                _se.ladeGespeicherteNetzlisteVonDatenSpeicher(daten, null);
+                _se.updateAllComponentReferences();
+                Fenster._fileManager = new GeckoFileManager(daten.fileMgrFiles);
+                _se.initAdditionalFiles(_se._circuitSheet.getAllElements().getClassFromContainer(AbstractBlockInterface.class));
+            } finally {
+                SchematischeEingabe2.Singleton = previousSchematicEntry;
+                Fenster._fileManager = previousFileManager;
+                // e.g. "save" of the main window writes to DATNAM
+                GlobalFilePathes.DATNAM = previousFileName;
+                IDStringDialog.restoreAllNames(previousNames);
+                GeckoSim.setWindowsSuppressedInThread(wasSuppressed);
+            }
+        }
+        _loadMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * simulates the model with the solver settings of the file, including the
+     * pre-calculation (T_pre), if defined. Blocks until the simulation and the
+     * data export blocks of the model are finished.
+     */
+    public void runSimulation() {
+        final boolean wasSuppressed = GeckoSim.setWindowsSuppressedInThread(true);
+        try {
+            simulate();
+        } finally {
+            GeckoSim.setWindowsSuppressedInThread(wasSuppressed);
+        }
+    }
+
+    private void simulate() {
+        final long start = System.currentTimeMillis();
+        _stopped = false;
+        final SolverSettings solverSettings = _solverSettings;
+        double tEnd = solverSettings._tDURATION.getValue();
+        double dt = solverSettings.dt.getValue();
+        solverSettings.inPreCalculationMode = solverSettings._T_pre.getValue() > 0;
+        if (solverSettings.inPreCalculationMode) {
+            tEnd = solverSettings._T_pre.getValue();
+            dt = solverSettings._dt_pre.getValue();
+        }
+
+        final SimulationsKern simKern = new SimulationsKern(new SimulationContext(_solverSettings, new DataContainerGlobal()));
+        NetListContainer nlContainer = NetListContainer.fabricStartSimulation(_se, simKern);
+        simKern.initSimulation(dt, 0, 0, tEnd, solverSettings._tPAUSE.getValue(), true, nlContainer, false);
+        _simKern = simKern;
+        solverSettings._dt_ALT = dt;
+        _simKern.initialisiereCONTROLatSimulationStart(dt);
+        setScopeTimeBoundaries();
+        if (!_stopped) {
+            _simKern.runSimulation();
+        }
+
+        if (solverSettings.inPreCalculationMode && !_stopped) { // continue with the regular simulation, see Fenster.continueCalculation()
+            solverSettings.inPreCalculationMode = false;
+            final double tStart = _simKern.getTEND();
+            tEnd = tStart + solverSettings._tDURATION.getValue();
+            dt = solverSettings.dt.getValue();
+            final boolean recalculateMatrix = dt != solverSettings._dt_ALT;
+            solverSettings._dt_ALT = dt;
+            _simKern.setZeiten(tStart, tEnd, dt);
+            nlContainer = NetListContainer.fabricContinueSimulation(_se, _simKern, nlContainer);
+            _simKern.initSimulation(dt, tStart, _simKern.getZeitAktuell(), tEnd, solverSettings._tPAUSE.getValue(),
+                    false, nlContainer, recalculateMatrix);
+            _simKern.setInitialConditionsFromContinue();
+            setScopeTimeBoundaries();
+            if (!_stopped) { // initSimulation() resets a pause of stopSimulation()
+                _simKern.runSimulation();
+            }
+        }
+
+        _simKern._simulationStatus = SimulationsKern.SimulationStatus.FINISHED;
+        getScopeData().setContainerStatus(ContainerStatus.PAUSED);
+        _simKern.tearDownOnPause();
+        waitForDataSavers();
+        _simulationMillis = System.currentTimeMillis() - start;
+    }
+
+    /**
+     * ends a running simulation of another thread after the current time step,
+     * e.g. to cancel a parameter sweep. runSimulation() returns with the data
+     * simulated so far.
+     */
+    public void stopSimulation() {
+        _stopped = true;
+        final SimulationsKern simKern = _simKern;
+        if (simKern != null) {
+            simKern._simulationStatus = SimulationsKern.SimulationStatus.PAUSED;
+        }
+    }
+
+    private void setScopeTimeBoundaries() {
+        for (AbstractBlockInterface block : _se.getElementCONTROL()) {
+            if (block instanceof ReglerOSZI) {
+                ((ReglerOSZI) block).setSimulationTimeBoundaries(_simKern.getTSTART(), _simKern.getTEND());
+            }
+        }
+    }
+
+    private static void waitForDataSavers() {
+        final long start = System.currentTimeMillis();
+        while (DataSaver.WAIT_COUNTER.get() != 0 && System.currentTimeMillis() - start < MILLIS_TO_WAIT_FOR_DATA_SAVERS) {
+            try {
+                Thread.sleep(SLEEP_MILLIS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return all signals which are connected to a scope of the model
+     */
+    public AbstractDataContainer getScopeData() {
+        if (_simKern == null) {
+            throw new IllegalStateException("No simulation was run.");
+        }
+        return _simKern.getSimulationContext().getDataContainer();
+    }
+
+    public List<String> getSignalNames() {
+        final AbstractDataContainer data = getScopeData();
+        final List<String> returnValue = new ArrayList<String>();
+        for (int row = 0; row < data.getRowLength(); row++) {
+            returnValue.add(data.getSignalName(row));
+        }
+        return returnValue;
+    }
+
+    /**
+     * writes the time and the given scope signals as tab-separated columns,
+     * with a header line of the signal names.
+     *
+     * @param signalNames if empty, all scope signals are written
+     */
+    public void writeSignals(final File file, final List<String> signalNames) throws IOException {
+        final AbstractDataContainer data = getScopeData();
+        final List<String> allNames = getSignalNames();
+        final List<String> names = signalNames.isEmpty() ? allNames : signalNames;
+        final int[] rows = new int[names.size()];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = allNames.indexOf(names.get(i));
+            if (rows[i] < 0) {
+                throw new IllegalArgumentException("Signal \"" + names.get(i) + "\" is not connected to a scope. "
+                        + "Available signals: " + allNames);
+            }
+        }
+
+        final BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+        try {
+            writer.write(data.getXDataName());
+            for (String name : names) {
+                writer.write('\t');
+                writer.write(name);
+            }
+            writer.newLine();
+            final int maxIndex = data.getRowLength() == 0 ? -1 : data.getMaximumTimeIndex(0);
+            for (int index = 0; index <= maxIndex; index++) {
+                writer.write(Double.toString(data.getTimeValue(index, 0)));
+                for (int row : rows) {
+                    writer.write('\t');
+                    writer.write(Float.toString(data.getValue(row, index)));
+                }
+                writer.newLine();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * finds a component of this model. The model is independent of the name
+     * table of the main window (IDStringDialog), the names are searched in
+     * this model only.
+     *
+     * @param name e.g. "R.1", or "SUBCIRCUIT.1#R.1" for a component of a
+     * subcircuit
+     */
+    public AbstractBlockInterface getComponentByName(final String name) {
+        final List<AbstractBlockInterface> candidates;
+        final String elementName;
+        if (name.indexOf('#') < 0) {
+            candidates = _se._circuitSheet.getAllElements().getClassFromContainer(AbstractBlockInterface.class);
+            elementName = name;
+        } else {
+            final CircuitSheet parent = _se._circuitSheet.findSubCircuit(name);
+            if (parent == null) {
+                throw new NoSuchElementException("Could not find subcircuit component with name: " + name);
+            }
+            candidates = parent.allElements.getClassFromContainer(AbstractBlockInterface.class);
+            elementName = name.substring(name.lastIndexOf('#') + 1);
+        }
+        AbstractBlockInterface returnValue = null;
+        for (AbstractBlockInterface candidate : candidates) {
+            if (candidate.getStringID().equals(elementName)) {
+                if (returnValue != null) {
+                    throw new IllegalArgumentException("Name ambiguousness error! The model contains several "
+                            + "components with the name: " + name + ".");
+                }
+                returnValue = candidate;
+            }
+        }
+        if (returnValue == null) {
+            throw new NoSuchElementException("A component with the name " + name + " could not be found!");
+        }
+        return returnValue;
+    }
+
+    public SchematischeEingabe2 getSchematicEntry() {
+        return _se;
+    }
+
+    /**
+     * @return the solver settings of the loaded model, independent of the
+     * settings of other models in the same JVM.
+     */
+    public SolverSettings getSolverSettings() {
+        return _solverSettings;
+    }
+
+    public long getLoadMillis() {
+        return _loadMillis;
+    }
+
+    public long getSimulationMillis() {
+        return _simulationMillis;
+    }
+
+    /**
+     * @param args model.ipes output.txt [signal1 signal2 ...]
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: java -jar GeckoCIRCUITS.jar -headless model.ipes output.txt [signal1 signal2 ...]");
+            System.exit(2);
+        }
+        GeckoSim.operatingmode = OperatingMode.HEADLESS;
+        Fenster.IS_APPLET = false;
+        GlobalFilePathes.PFAD_JAR_HOME = GetJarPath.getJarPath();
+        final HeadlessSimulation simulation = new HeadlessSimulation();
+        simulation.openFile(new File(args[0]).getAbsolutePath());
+        System.out.println("Model loaded in " + simulation.getLoadMillis() + " ms");
+        simulation.runSimulation();
+        System.out.println("Simulation finished in " + simulation.getSimulationMillis() + " ms");
+        simulation.writeSignals(new File(args[1]), Arrays.asList(args).subList(2, args.length));
+    }
+}
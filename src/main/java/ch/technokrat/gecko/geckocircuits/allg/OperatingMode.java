@@ -19,5 +19,6 @@ public enum OperatingMode {
     SIMULINK,
     EXTERNAL,
     REMOTE,    
-    MMF
+    MMF,
+    HEADLESS // batch simulation without any window, see HeadlessSimulation
 }
@@ -17,7 +17,6 @@ import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.geckocircuits.circuit.*;
 import ch.technokrat.gecko.geckocircuits.circuit.SimulationsKern.SimulationStatus;
 import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
-import ch.technokrat.gecko.geckocircuits.control.NetzlisteCONTROL;
 import ch.technokrat.gecko.geckocircuits.control.ReglerOSZI;
 import ch.technokrat.gecko.geckocircuits.datacontainer.ContainerStatus;
 import ch.technokrat.gecko.geckocircuits.control.DataSaver;
@@ -111,7 +110,7 @@ public final class SimulationRunner {
         } else { // Pause-Continue
             simKern._simulationStatus = SimulationStatus.RUNNING;
             simKern.setScopeMenuesStartStop();
-            NetzlisteCONTROL.globalData.setContainerStatus(ContainerStatus.RUNNING);
+            simKern.getSimulationContext().getDataContainer().setContainerStatus(ContainerStatus.RUNNING);
         }
 
         Thread calc = new Thread(new RunThreadRun());
@@ -143,7 +142,7 @@ public final class SimulationRunner {
             }
 
             _fenster.setMenuDuringSimulation(false, true);
-            NetzlisteCONTROL.globalData.setContainerStatus(ContainerStatus.PAUSED);
+            simKern.getSimulationContext().getDataContainer().setContainerStatus(ContainerStatus.PAUSED);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -181,7 +180,7 @@ public final class SimulationRunner {
 
         for (AbstractBlockInterface block : _se.getElementCONTROL()) {
             if (block instanceof ReglerOSZI) {
-                ((ReglerOSZI) block).setSimulationTimeBoundaries(SimulationsKern.tSTART, SimulationsKern.tEND);
+                ((ReglerOSZI) block).setSimulationTimeBoundaries(simKern.getTSTART(), simKern.getTEND());
             }
         }
 
@@ -207,7 +206,7 @@ public final class SimulationRunner {
             try {
                 for (AbstractBlockInterface block : _se.getElementCONTROL()) {
                     if (block instanceof ReglerOSZI) {
-                        ((ReglerOSZI) block).setSimulationTimeBoundaries(SimulationsKern.tSTART, SimulationsKern.tEND);
+                        ((ReglerOSZI) block).setSimulationTimeBoundaries(simKern.getTSTART(), simKern.getTEND());
                     }
                 }
 
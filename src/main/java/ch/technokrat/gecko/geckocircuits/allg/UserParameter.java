@@ -174,7 +174,7 @@ public final class UserParameter<T> {
 
     public T getValue() {
         if (!_nameOpt.isEmpty() && _value.getValue() instanceof Number) {            
-            Double returnValue = (Double) Fenster.optimizerParameterData.getNumberFromNameWOException(_nameOpt);
+            Double returnValue = (Double) getOptimizerParameterData().getNumberFromNameWOException(_nameOpt);
             if(_value.getValue() instanceof Integer) {
                 return (T) (Integer) returnValue.intValue();
             } else {
@@ -193,35 +193,44 @@ public final class UserParameter<T> {
     }
 
     public void setFromDoubleValue(double newValue) {        
+        _value.setValue(convertFromDouble(newValue));
+    }
+
+    /**
+     * as setFromDoubleValue, but without an undo entry and without events when
+     * the value does not change. For values which are set repeatedly during a
+     * simulation, e.g. through a ParameterHandle of GeckoSCRIPT.
+     */
+    public void setFromDoubleValueWithoutUndo(final double newValue) {
+        _value.setValueWithoutUndo(convertFromDouble(newValue));
+    }
+
+    private T convertFromDouble(final double newValue) {
         if (_value.getValue() instanceof Double) {
-            _value.setValue((T) (Double) newValue);
-            return;
+            return (T) (Double) newValue;
         }
 
         if (_value.getValue() instanceof Integer) {
-            _value.setValue((T) (Integer) (int) newValue);
-            return;
+            return (T) (Integer) (int) newValue;
         }
         if (_value.getValue() instanceof Boolean) {
             if (newValue > 0.5) {
-                _value.setValue((T) (Boolean) true);
+                return (T) (Boolean) true;
             } else {
-                _value.setValue((T) (Boolean) false);
+                return (T) (Boolean) false;
             }
-            return;
         }
 
         if (_value.getValue() instanceof ControlSourceType) {
-            _value.setValue((T) ControlSourceType.getFromID((int) newValue));
-            return;
+            return (T) ControlSourceType.getFromID((int) newValue);
         }
 
         if (_value.getValue() instanceof CircuitSourceType) {
-            _value.setValue((T) CircuitSourceType.getFromID((int) newValue));
-            return;
+            return (T) CircuitSourceType.getFromID((int) newValue);
         }
 
         assert false : _value.getValue().getClass() + " for component " + _parameterableObject;
+        return _value.getValue();
     }
 
     public String getSaveIdentifier() {
@@ -232,9 +241,16 @@ public final class UserParameter<T> {
         _index = newIndex;
     }
 
+    private OptimizerParameterData getOptimizerParameterData() {
+        if (_parameterableObject == null) {
+            return Fenster.optimizerParameterData;
+        }
+        return _parameterableObject.getOptimizerParameterData();
+    }
+
     public double getDoubleValue() {
         if (!_nameOpt.isEmpty()) {
-                return Fenster.optimizerParameterData.getNumberFromNameWOException(_nameOpt);
+                return getOptimizerParameterData().getNumberFromNameWOException(_nameOpt);
         }
 
         if (_value.getValue() instanceof Number) {
@@ -18,6 +18,7 @@ import ch.technokrat.gecko.geckocircuits.allg.AbstractComponentTyp;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractSwitch;
 import ch.technokrat.gecko.geckocircuits.allg.DatenSpeicher;
 import ch.technokrat.gecko.geckocircuits.allg.Fenster;
+import ch.technokrat.gecko.geckocircuits.allg.OptimizerParameterData;
 import ch.technokrat.gecko.geckocircuits.allg.UserParameter;
 import static ch.technokrat.gecko.geckocircuits.circuit.AbstractCircuitSheetComponent.dpix;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractCircuitBlockInterface;
@@ -109,18 +110,12 @@ public abstract class AbstractBlockInterface extends AbstractCircuitSheetCompone
     }
 
     public final void setAccessibleParameter(final String paramname, final double paramValue) throws IllegalAccessException {
-        for (UserParameter par : getRegisteredParameters()) {
-            if (paramname.equalsIgnoreCase(par.getShortName())) {                
+        final List<UserParameter<? extends Object>> parameters = findAccessibleParameters(paramname);
+        if (!parameters.isEmpty()) {
+            for (UserParameter<? extends Object> par : parameters) {
                 par.setFromDoubleValue(paramValue);
-                return;
-            }
-        }
-
-        for (UserParameter par : getRegisteredParameters()) {
-            if (paramname.equalsIgnoreCase(par.getAlternativeShortName())) {
-                par.setFromDoubleValue(paramValue);
-                // no return here! Search all possible names.
             }
+            return;
         }
         
         if(paramname.equalsIgnoreCase("enabled")) { // this is only for forward compatibility.
@@ -145,21 +140,34 @@ public abstract class AbstractBlockInterface extends AbstractCircuitSheetCompone
     }
 
     public final double getAccessibleParameterValue(final String paramname) throws IllegalAccessException {
+        final List<UserParameter<? extends Object>> parameters = findAccessibleParameters(paramname);
+        if (!parameters.isEmpty()) {
+            return parameters.get(0).getDoubleValue();
+        }
 
-        for (UserParameter par : getRegisteredParameters()) {
-            if (paramname.equalsIgnoreCase(par.getShortName())) {
-                return par.getDoubleValue();
+        throw new IllegalAccessException("Parameter with name " + paramname + " not found in " + getStringID() + ".");
+    }
 
+    /**
+     * @return the parameter with the given short name, or, if there is none,
+     * all parameters with the given alternative short name (empty, if the name
+     * is unknown). The first entry is the one which is read by
+     * getAccessibleParameterValue.
+     */
+    public final List<UserParameter<? extends Object>> findAccessibleParameters(final String paramname) {
+        for (UserParameter<? extends Object> par : getRegisteredParameters()) {
+            if (paramname.equalsIgnoreCase(par.getShortName())) {
+                return Collections.<UserParameter<? extends Object>>singletonList(par);
             }
         }
 
-        for (UserParameter par : getRegisteredParameters()) {
+        final List<UserParameter<? extends Object>> returnValue = new ArrayList<UserParameter<? extends Object>>();
+        for (UserParameter<? extends Object> par : getRegisteredParameters()) {
             if (paramname.equalsIgnoreCase(par.getAlternativeShortName())) {
-                return par.getDoubleValue();
+                returnValue.add(par); // no break here! Search all possible names.
             }
         }
-
-        throw new IllegalAccessException("Parameter with name " + paramname + " not found in " + getStringID() + ".");
+        return returnValue;
     }
 
     public final String[] getAccessibleParameterDescriptionVerbose() {
@@ -353,12 +361,24 @@ public abstract class AbstractBlockInterface extends AbstractCircuitSheetCompone
     public void checkNameOptParameter() {
         for (UserParameter par : getRegisteredParameters()) {
             if (!par.getNameOpt().isEmpty()) {
-                double number = Fenster.optimizerParameterData.getNumberFromName(par.getNameOpt());
+                double number = getOptimizerParameterData().getNumberFromName(par.getNameOpt());
             }
 
         }
     }
 
+    /**
+     * @return the values of the $-parameter names of the model which contains
+     * this block.
+     */
+    public final OptimizerParameterData getOptimizerParameterData() {
+        final CircuitSheet sheet = getParentCircuitSheet();
+        if (sheet == null || sheet._se == null) {
+            return Fenster.optimizerParameterData;
+        }
+        return sheet._se.getOptimizerParameterData();
+    }
+
     /*
      * overwrite this mehtod for additional parameters to load! (Template method pattern)
      *
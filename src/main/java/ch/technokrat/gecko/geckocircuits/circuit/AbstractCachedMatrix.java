@@ -27,7 +27,75 @@ abstract class AbstractCachedMatrix {
 
     abstract public double[] solve(final double[] bVector);
 
-    abstract int calculateMemoryRequirement();
+    /**
+     * @return the memory which is occupied by this matrix in bytes, including
+     * the array headers. Data which is shared with other matrices (e.g. the
+     * symbolic analysis of the sparse decomposition) is not included.
+     */
+    abstract long calculateMemoryRequirement();
+
+    // approximate size of the object header of an array
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    static long sizeOf(final double[] array) {
+        return array == null ? 0 : ARRAY_HEADER_BYTES + (long) array.length * Double.SIZE / Byte.SIZE;
+    }
+
+    static long sizeOf(final int[] array) {
+        return array == null ? 0 : ARRAY_HEADER_BYTES + (long) array.length * Integer.SIZE / Byte.SIZE;
+    }
+
+    static long sizeOf(final short[] array) {
+        return array == null ? 0 : ARRAY_HEADER_BYTES + (long) array.length * Short.SIZE / Byte.SIZE;
+    }
+
+    static long sizeOf(final boolean[] array) {
+        return array == null ? 0 : ARRAY_HEADER_BYTES + array.length;
+    }
+
+    static long sizeOf(final double[][] matrix) {
+        if (matrix == null) {
+            return 0;
+        }
+        long returnValue = ARRAY_HEADER_BYTES + (long) matrix.length * Long.SIZE / Byte.SIZE;
+        for (double[] row : matrix) {
+            returnValue += sizeOf(row);
+        }
+        return returnValue;
+    }
+
+    static long sizeOf(final int[][] matrix) {
+        if (matrix == null) {
+            return 0;
+        }
+        long returnValue = ARRAY_HEADER_BYTES + (long) matrix.length * Long.SIZE / Byte.SIZE;
+        for (int[] row : matrix) {
+            returnValue += sizeOf(row);
+        }
+        return returnValue;
+    }
+
+    static long sizeOf(final short[][] matrix) {
+        if (matrix == null) {
+            return 0;
+        }
+        long returnValue = ARRAY_HEADER_BYTES + (long) matrix.length * Long.SIZE / Byte.SIZE;
+        for (short[] row : matrix) {
+            returnValue += sizeOf(row);
+        }
+        return returnValue;
+    }
+
+    static long sizeOf(final boolean[][] matrix) {
+        if (matrix == null) {
+            return 0;
+        }
+        long returnValue = ARRAY_HEADER_BYTES + (long) matrix.length * Long.SIZE / Byte.SIZE;
+        for (boolean[] row : matrix) {
+            returnValue += sizeOf(row);
+        }
+        return returnValue;
+    }
 
     public long secondHashCode() {
         if (_secondHashCode == -1) {
@@ -57,8 +57,10 @@ public final class CachedMatrix extends AbstractCachedMatrix {
     }
 
     @Override
-    int calculateMemoryRequirement() {
-        return 2 * _originalMatrix.length * _originalMatrix.length * Double.SIZE / 8;
+    long calculateMemoryRequirement() {
+        return sizeOf(_originalMatrix) + sizeOf(_LUDecomp) + sizeOf(_luMatrixNotZero)
+                + sizeOf(numberOfRowEntries) + sizeOf(_piv) + sizeOf(_lowerLUIndices) + sizeOf(_upperLUIndices)
+                + sizeOf(_XCol) + sizeOf(LUcolj);
     }
 
     public void initHelperArrays(final int size) {
@@ -0,0 +1,35 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+/**
+ * A system matrix without the ground row and column, in compressed sparse
+ * column (CSC) format, as assembled by MatrixStamps. The non-zero pattern is
+ * fixed, only the values change. The row indices within a column are
+ * ascending.
+ */
+final class CompressedColumns {
+
+    final int _size;
+    final int[] _colPointers;
+    final int[] _rowIndices;
+    final double[] _values;
+
+    CompressedColumns(final int size, final int[] colPointers, final int[] rowIndices) {
+        _size = size;
+        _colPointers = colPointers;
+        _rowIndices = rowIndices;
+        _values = new double[rowIndices.length];
+    }
+}
@@ -31,6 +31,8 @@ public final class IDStringDialog {
     private final AbstractBlockInterface _parent;
     private String _idString;
     private static Map<String, ArrayList<AbstractBlockInterface>> _allIDStrings = new HashMap<String, ArrayList<AbstractBlockInterface>>();
+    // incremented when a name is removed, see getNameGeneration():
+    private static volatile int _nameGeneration;
     public static Random rand = new Random(System.currentTimeMillis());
     public static final int MAX_SEARCH_NUMBER = 10000;
     final List<ActionListener> actionListeners = new ArrayList<ActionListener>();
@@ -42,6 +44,47 @@ public final class IDStringDialog {
 
     public static void clearAllNames() {
         _allIDStrings.clear();
+        _nameGeneration++;
+    }
+
+    /**
+     * replaces the name table by an empty one, e.g. while a model is loaded
+     * without the main window. The names of the main window model are kept
+     * unchanged for restoreAllNames().
+     */
+    public static NameTableSnapshot replaceAllNamesByEmptyTable() {
+        final NameTableSnapshot returnValue = new NameTableSnapshot(_allIDStrings, _nameGeneration);
+        _allIDStrings = new HashMap<String, ArrayList<AbstractBlockInterface>>();
+        return returnValue;
+    }
+
+    /**
+     * restores the name table and the name generation of the snapshot; the
+     * names which were registered since then are dropped.
+     */
+    public static void restoreAllNames(final NameTableSnapshot snapshot) {
+        _allIDStrings = snapshot._names;
+        _nameGeneration = snapshot._generation;
+    }
+
+    public static final class NameTableSnapshot {
+
+        private final Map<String, ArrayList<AbstractBlockInterface>> _names;
+        private final int _generation;
+
+        private NameTableSnapshot(final Map<String, ArrayList<AbstractBlockInterface>> names, final int generation) {
+            _names = names;
+            _generation = generation;
+        }
+    }
+
+    /**
+     * @return a counter which changes whenever a component name is removed
+     * (renaming, deleting, loading a new model). Components which were found
+     * by name before may not be found under the same name any more.
+     */
+    public static int getNameGeneration() {
+        return _nameGeneration;
     }
 
     /**
@@ -206,6 +249,7 @@ public final class IDStringDialog {
 
     public void deleteIDString() {
         if (_allIDStrings.containsKey(this.toString())) {
+            _nameGeneration++;
             List<AbstractBlockInterface> possibleComponents = _allIDStrings.get(this.toString());
             for (AbstractBlockInterface deleteSearch : possibleComponents.toArray(new AbstractBlockInterface[0])) {
                 if (_parent == deleteSearch) {
@@ -20,12 +20,16 @@ import ch.technokrat.gecko.geckocircuits.allg.SolverType;
 import ch.technokrat.gecko.geckocircuits.allg.TechFormat;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractNonLinearCircuitComponent;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractResistor;
+import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp;
+import static ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp.LK_D;
 import static ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp.LK_LKOP2;
 import static ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp.REL_RELUCTANCE;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.Diode;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.DiodeCharacteristic;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SourceType;
 import java.text.NumberFormat;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class LKMatrices {
 
@@ -40,11 +44,52 @@ public class LKMatrices {
     // zur Implementierung der magnetischen Kopplungen -->
     public double[][] zuLKOP2gehoerigeM_spgQnr, zuLKOP2gehoerigeM_kWerte;
     private SolverType _solverType;
+    // state of the matrix a for the LU decomposition cache, see getMatrixStateKey():
+    private static final AtomicLong MATRIX_GENERATIONS = new AtomicLong();
+    private static final int MATRIX_INPUTS_PER_ELEMENT = 3;
+    private double[] _matrixInputs;
+    private int[] _switchElements;
+    private double[] _switchOnResistances;
+    private double[] _switchOffResistances;
+    private double[] _switchOtherResistances;
+    private MatrixStateKey _matrixStateKey;
+    private long _matrixGeneration;
+    private boolean _isMatrixModifiedInPlace;
+    private double _matrixStepWidth;
+    // precompiled assembly of the matrix a, see MatrixStamps:
+    private MatrixStamps _stamps;
+    private int[] _elementStampStart;
+    // a large sparse matrix is assembled in compressed columns instead of a, see allowSparseAssembly():
+    private boolean _isSparseAssemblyAllowed;
+    private CompressedColumns _columns;
+    // the components which contribute to the vector b:
+    private int[] _historyElements;
 
     public LKMatrices(final SolverType solverType) {
         _solverType = solverType;
     }
 
+    /**
+     * a large sparse matrix is then assembled directly in compressed columns
+     * for the sparse LU decomposition, and the dense matrix a is null. Only
+     * for circuits whose matrix is not read otherwise (e.g. by low rank
+     * updates), has to be called before initMatrizen.
+     */
+    void allowSparseAssembly() {
+        _isSparseAssemblyAllowed = true;
+    }
+
+    /**
+     * @return the LU decomposition of the matrix of the last
+     * schreibeMatrix_A, from the given cache
+     */
+    AbstractCachedMatrix getCachedLUDecomposition(final LUDecompositionCache cache, final double time) {
+        if (_columns != null) {
+            return cache.getCachedSparseLUDecomposition(_columns, getMatrixStateKey(), time);
+        }
+        return cache.getCachedLUDecomposition(a, getMatrixStateKey(), time);
+    }
+
     public void initMatrizen(NetListLK netzliste, boolean typLK, final SolverType solverType) {
         this.initMatrizen(netzliste, false, typLK, solverType);
     }
@@ -67,7 +112,11 @@ public class LKMatrices {
 
         matrixSize = netzliste.knotenMAX + netzliste.spgQuelleMAX + 1;  // 'plus Eins' weil Null-Potential (Bezug fuer alle Knoten) vorhanden
         //System.out.println("netzliste.knotenMAX= "+netzliste.knotenMAX+"\tnetzliste.spgQuelleMAX= "+netzliste.spgQuelleMAX);
-        a = new double[matrixSize][matrixSize];
+        // with sparse assembly, the decision between a and compressed columns is done in recordStamps()
+        a = _isSparseAssemblyAllowed ? null : new double[matrixSize][matrixSize];
+        _columns = null;
+        _stamps = null;
+        _historyElements = null;
         bVector = new double[matrixSize];
         p = new double[matrixSize];
         pALT = new double[matrixSize];
@@ -91,16 +140,19 @@ public class LKMatrices {
     }
 
     // Setzen der Anfangsbedingungen in 'setzeAnfangsbedingungen()' -->
-    // wird nur von innerhalb dieser Klassse aufgerufen
+    // wird nur von innerhalb dieser Klassse (und von Benchmarks) aufgerufen
     //
-    private void initMatrizen(NetListLK netzliste) {
+    void initMatrizen(NetListLK netzliste) {
         this.netzliste = netzliste;
         this.elementANZAHL = netzliste.getElementANZAHLinklusiveSubcircuit();
         //------------------------------------
         // netzliste.knotenMAX ... Zahl der Knoten minus Einer (eben der 'Ground'-Knoten) --> daher '+1' in der Bestimmungsgleichung fuer k -->
         // Ordnung der Matrix a[][] ist  gesamtknotenzahl minus ground plus alleSpgQuellen plus alleLKOP2elemente -->
         matrixSize = netzliste.knotenMAX + netzliste.spgQuelleMAX + 1;  // 'plus Eins' weil Null-Potential (Bezug fuer alle Knoten) vorhanden
-        a = new double[matrixSize][matrixSize];
+        a = _isSparseAssemblyAllowed ? null : new double[matrixSize][matrixSize];
+        _columns = null;
+        _stamps = null;
+        _historyElements = null;
         bVector = new double[matrixSize];
         p = new double[matrixSize];
         pALT = new double[matrixSize];
@@ -114,206 +166,17 @@ public class LKMatrices {
     }
 
     public void schreibeMatrix_A(double dt, double time, boolean capError) {
-
-        if (netzliste.elements != null) {
-            for (int i1 = 0; i1 < matrixSize; i1++) {
-                for (int i2 = 0; i2 < matrixSize; i2++) {
-                    a[i1][i2] = 0;
-                }
-            }
-        }
-
-        for (int index : netzliste._singularityEntries) {
-            a[index][index] = 1;
-        }
-
-        double aW = -1;
-        for (int i1 = 0; i1 < elementANZAHL; i1++) {
-
-            int x = netzliste.knotenX[i1];
-            int y = netzliste.knotenY[i1];
-            int z = netzliste.knotenMAX + netzliste.spgQuelleNr[i1];
-
-            //System.out.println("xyz: " + i1 + " " + x + " " + y + " " + z);
-            switch (netzliste.typ[i1]) {
-                case REL_RELUCTANCE:
-                case LK_R:
-                case TH_RTH:
-                    if (netzliste.parameter[i1][0] < FAST_NULL_R) {
-                        aW = 1.0 / FAST_NULL_R;  // falls R==0
-                    } else {
-                        aW = 1.0 / netzliste.parameter[i1][0];  //  +1/R
-                    }
-                    a[x][x] += (+aW);
-                    a[y][y] += (+aW);
-                    a[x][y] += (-aW);
-                    a[y][x] += (-aW);
-
-                    break;
-                case TH_AMBIENT:
-                case LK_S:  // verhaelt sich exakt wie ein hoch- bzw. niederohmiger Widerstand
-                case LK_MOSFET:
-                    if (netzliste.parameter[i1][0] < FAST_NULL_R) {
-                        aW = 1.0 / FAST_NULL_R;  // falls R==0
-                    } else {
-                        aW = 1.0 / netzliste.parameter[i1][0];  //  +1/R
-                    }
-
-                    a[x][x] += (+aW);
-                    a[y][y] += (+aW);
-                    a[x][y] += (-aW);
-                    a[y][x] += (-aW);
-
-                    break;
-                case LK_L:                    
-                case NONLIN_REL:
-                    aW = getAWForInductance(netzliste.parameter[i1][0], netzliste.parameter[i1], dt);
-                    netzliste.parameter[i1][11] = aW;
-                    a[x][x] += (+aW);
-                    a[y][y] += (+aW);
-                    a[x][y] += (-aW);
-                    a[y][x] += (-aW);
-                    break;
-                case LK_LKOP2:
-                    a[x][z] += (+1.0);
-                    a[y][z] += (-1.0);
-                    a[z][x] += (+1.0);
-                    a[z][y] += (-1.0);
-                    //aW = -netzliste.parameter[i1][0] / dt;  //  +L/dt
-                    final double inductanceInAMatrix = netzliste.parameter[i1][0];
-                    netzliste.parameter[i1][10] = inductanceInAMatrix;
-                    if (_solverType == SolverType.SOLVER_BE) {
-                        aW = -inductanceInAMatrix / dt;  //  +L/dt
-                    } else if (_solverType == SolverType.SOLVER_TRZ) {
-                        aW = -2 * inductanceInAMatrix / dt;  //  +2L/dt
-                    } else if (_solverType == SolverType.SOLVER_GS) {
-                        aW = -1.5 * inductanceInAMatrix / dt;
-                    }
-
-                    a[z][z] += (+aW);
-
-                    int anzahlKoppelPartner = 0;
-                    if ((zuLKOP2gehoerigeM_spgQnr != null) && (zuLKOP2gehoerigeM_spgQnr[i1] != null)) {
-                        anzahlKoppelPartner = zuLKOP2gehoerigeM_spgQnr[i1].length;
-                        for (int i7 = 0; i7 < anzahlKoppelPartner; i7++) {
-                            if (_solverType == SolverType.SOLVER_BE) {
-                                a[z][netzliste.knotenMAX + (int) zuLKOP2gehoerigeM_spgQnr[i1][i7]] += (-zuLKOP2gehoerigeM_kWerte[i1][i7] / dt);  //  +M/dt
-                            } else if (_solverType == SolverType.SOLVER_TRZ) {
-                                a[z][netzliste.knotenMAX + (int) zuLKOP2gehoerigeM_spgQnr[i1][i7]] += (-2 * zuLKOP2gehoerigeM_kWerte[i1][i7] / dt);  //  +2M/dt
-                            } else if (_solverType == SolverType.SOLVER_GS) {
-                                a[z][netzliste.knotenMAX + (int) zuLKOP2gehoerigeM_spgQnr[i1][i7]] += (-1.5 * zuLKOP2gehoerigeM_kWerte[i1][i7] / dt); //+1.5M/dt
-                            }
-                        }
-                    }
-                    break;
-                case TH_CTH:
-                    // bug fix after introducing nonlinear capacitors.
-                    // for thermal capacitance, set the parameters correctly.
-                    netzliste.parameter[i1][6] = netzliste.parameter[i1][0];
-                    netzliste.parameter[i1][7] = netzliste.parameter[i1][0];
-                case LK_C:
-                    // aW = netzliste.parameter[i1][0] / dt;  //  +C/dt
-                    //aW = 2 * netzliste.parameter[i1][6] / dt;  //  +C/dt
-                    if (_solverType == SolverType.SOLVER_BE) {
-                        aW = netzliste.parameter[i1][6] / dt;  //  +C/dt
-                    } else if (_solverType == SolverType.SOLVER_TRZ) {
-                        aW = 2 * netzliste.parameter[i1][6] / dt;
-                    } else if (_solverType == SolverType.SOLVER_GS) {
-                        aW = 1.5 * netzliste.parameter[i1][6] / dt;
-                    }
-                    a[x][x] += (+aW);
-                    a[y][y] += (+aW);
-                    a[x][y] += (-aW);
-                    a[y][x] += (-aW);
-                    break;
-                case LK_IGBT:
-                case LK_D:
-                case LK_THYR:
-                    aW = 1.0 / netzliste.parameter[i1][0];  //  +1/r
-                    a[x][x] += (+aW);
-                    a[y][y] += (+aW);
-                    a[x][y] += (-aW);
-                    a[y][x] += (-aW);
-                    break;
-                case LK_I:
-                    if ((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY_NEW
-                            || (int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY) {
-                        double gain = netzliste.parameter[i1][11];
-                        int[][] nodePairDVC = netzliste.nodePairDirVoltContSrc;
-                        int x1 = nodePairDVC[i1][0], y1 = nodePairDVC[i1][1];
-                        a[x][x1] += gain;
-                        a[y][y1] += gain;
-                        a[x][y1] -= gain;
-                        a[y][x1] -= gain;
-                    }
-                case TH_FLOW:
-                    // kein Beitrag
-                    break;
-                case LK_U:
-                case REL_MMF:
-                case TH_TEMP:  //  +1                    
-                    a[x][z] += (+1.0);
-                    a[y][z] += (-1.0);
-                    if (!((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER_NEW)
-                            && !((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER)) {
-                        a[z][x] += (+1.0);
-                        a[z][y] += (-1.0);
-                    }
-
-                    try {
-                        switch ((int) netzliste.parameter[i1][0]) {
-                            case SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY_NEW:
-                            case SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY:
-
-                                if (netzliste.parameter[i1][14] == 0) {
-                                    // voltage is function of node-potentials and, therefore, calculated here in matrix A
-                                    double gain = netzliste.parameter[i1][11];
-                                    int[][] nodePairDVC = netzliste.nodePairDirVoltContSrc;
-                                    int x1 = nodePairDVC[i1][0], y1 = nodePairDVC[i1][1];
-                                    a[z][x1] += (-gain);
-                                    a[z][y1] += (+gain);
-                                }
-
-                                break;
-                            case SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER_NEW:
-                            case SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER:
-                                double gain2 = netzliste.parameter[i1][11];
-                                a[z][z] = 1.0 / gain2;
-                                a[z][z - 1] = 1;
-                                break;
-                            case SourceType.QUELLE_DIDTCURRENTCONTROLLED_NEW:
-                            case SourceType.QUELLE_DIDTCURRENTCONTROLLED:
-                                double gain3 = netzliste.parameter[i1][11];
-                                a[z][z + 1] += gain3 / dt;
-                                break;
-                            case SourceType.QUELLE_CURRENTCONTROLLED_DIRECTLY_NEW:
-                            case SourceType.QUELLE_CURRENTCONTROLLED_DIRECTLY:
-                                double gain4 = netzliste.parameter[i1][11];
-                                a[z][z - 1] -= gain4;
-                                break;
-                        }
-
-                    } catch (NullPointerException npe) {
-                    }  // at initialization nodePairDirectVoltageControlledSource[][] is not defined --> all according values set to zero
-                    break;
-                case LK_M:
-                    // wird in LK_LKOP2 abgehandelt
-                    System.out.println("Fehler a0'wetj2423443");
-                    break;
-
-                case LK_TERMINAL:
-                case TH_TERMINAL:
-                case REL_TERMINAL:
-                case LK_GLOBAL_TERMINAL:
-                case TH_GLOBAL_TERMINAL:
-                case REL_GLOBAL_TERMINAL:
-                    break;
-                default:
-                    System.out.println("Fehler : Bauteil nicht definiert!");
-                    break;
+        if (_stamps != null) {
+            _stamps.beginUpdate(0);
+            writeStamps(dt);
+            if (!_stamps.endUpdate(_stamps.getNumberOfStamps())) {
+                recordStamps(dt);
             }
-
+        } else {
+            recordStamps(dt);
         }
+        assembleStamps();
+        recordMatrixInputs(dt);
 
 //        if(a.length > 2) {
 //            System.out.println("printing a matrix: ");
@@ -360,14 +223,381 @@ public class LKMatrices {
 //        }
     }
 
-    public void schreibeMatrix_B(double dt, double t, boolean capError) {
+    private void assembleStamps() {
+        if (_columns != null) {
+            _stamps.assemble(_columns);
+        } else {
+            _stamps.assemble(a);
+        }
+    }
 
-        for (int i1 = 0; i1 < matrixSize; i1++) {
-            bVector[i1] = 0;
+    /**
+     * records the stamps of all components anew, e.g. at the first assembly
+     * or when a source changed its type. Only the entries of the previous
+     * stamps are cleared, apart from the very first assembly.
+     */
+    private void recordStamps(final double dt) {
+        if (a != null) {
+            if (_stamps == null) {
+                for (int i1 = 0; i1 < matrixSize; i1++) {
+                    Arrays.fill(a[i1], 0);
+                }
+            } else {
+                _stamps.clear(a);
+            }
+        }
+        _stamps = new MatrixStamps(matrixSize);
+        _elementStampStart = new int[elementANZAHL + 1];
+        writeStamps(dt);
+        _stamps.compile();
+        if (!_isSparseAssemblyAllowed) {
+            return;
+        }
+        if (LUDecompositionCache.isSparseSolverPreferable(matrixSize, _stamps.getNumberOfSlots())) {
+            a = null;
+            _columns = _stamps.createColumns();
+        } else {
+            _columns = null;
+            if (a == null) {
+                a = new double[matrixSize][matrixSize];
+            }
         }
+    }
 
-        double bW = 0;
+    /**
+     * re-writes the stamps of a single component after its parameters were
+     * modified within berechneBauteilStroeme(), instead of correcting the
+     * entries of a in place.
+     */
+    private void restampElement(final int i1, final double dt) {
+        if (_stamps == null) {
+            schreibeMatrix_A(dt, 0, false);
+            return;
+        }
+        _stamps.beginUpdate(_elementStampStart[i1]);
+        writeElementStamps(i1, dt);
+        if (!_stamps.endUpdate(_elementStampStart[i1 + 1])) {
+            recordStamps(dt);
+        }
+        assembleStamps();
+    }
+
+    private void writeStamps(final double dt) {
+        for (int index : netzliste._singularityEntries) {
+            _stamps.set(index, index, 1);
+        }
         for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            _elementStampStart[i1] = _stamps.getPosition();
+            writeElementStamps(i1, dt);
+        }
+        _elementStampStart[elementANZAHL] = _stamps.getPosition();
+    }
+
+    private void stampConductance(final int x, final int y, final double aW) {
+        _stamps.add(x, x, +aW);
+        _stamps.add(y, y, +aW);
+        _stamps.add(x, y, -aW);
+        _stamps.add(y, x, -aW);
+    }
+
+    /**
+     * the contributions of one component to the matrix a. The sequence of the
+     * stamps may only depend on the netlist and the source types, all other
+     * parameters only change the values.
+     */
+    private void writeElementStamps(final int i1, final double dt) {
+        double aW = -1;
+        int x = netzliste.knotenX[i1];
+        int y = netzliste.knotenY[i1];
+        int z = netzliste.knotenMAX + netzliste.spgQuelleNr[i1];
+
+        switch (netzliste.typ[i1]) {
+            case REL_RELUCTANCE:
+            case LK_R:
+            case TH_RTH:
+            case TH_AMBIENT:
+            case LK_S:  // verhaelt sich exakt wie ein hoch- bzw. niederohmiger Widerstand
+            case LK_MOSFET:
+                if (netzliste.parameter[i1][0] < FAST_NULL_R) {
+                    aW = 1.0 / FAST_NULL_R;  // falls R==0
+                } else {
+                    aW = 1.0 / netzliste.parameter[i1][0];  //  +1/R
+                }
+                stampConductance(x, y, aW);
+                break;
+            case LK_L:
+            case NONLIN_REL:
+                aW = getAWForInductance(netzliste.parameter[i1][0], netzliste.parameter[i1], dt);
+                netzliste.parameter[i1][11] = aW;
+                stampConductance(x, y, aW);
+                break;
+            case LK_LKOP2:
+                _stamps.add(x, z, +1.0);
+                _stamps.add(y, z, -1.0);
+                _stamps.add(z, x, +1.0);
+                _stamps.add(z, y, -1.0);
+                final double inductanceInAMatrix = netzliste.parameter[i1][0];
+                netzliste.parameter[i1][10] = inductanceInAMatrix;
+                if (_solverType == SolverType.SOLVER_BE) {
+                    aW = -inductanceInAMatrix / dt;  //  +L/dt
+                } else if (_solverType == SolverType.SOLVER_TRZ) {
+                    aW = -2 * inductanceInAMatrix / dt;  //  +2L/dt
+                } else if (_solverType == SolverType.SOLVER_GS) {
+                    aW = -1.5 * inductanceInAMatrix / dt;
+                }
+                _stamps.add(z, z, +aW);
+
+                if ((zuLKOP2gehoerigeM_spgQnr != null) && (zuLKOP2gehoerigeM_spgQnr[i1] != null)) {
+                    final int anzahlKoppelPartner = zuLKOP2gehoerigeM_spgQnr[i1].length;
+                    for (int i7 = 0; i7 < anzahlKoppelPartner; i7++) {
+                        final int column = netzliste.knotenMAX + (int) zuLKOP2gehoerigeM_spgQnr[i1][i7];
+                        if (_solverType == SolverType.SOLVER_BE) {
+                            _stamps.add(z, column, -zuLKOP2gehoerigeM_kWerte[i1][i7] / dt);  //  +M/dt
+                        } else if (_solverType == SolverType.SOLVER_TRZ) {
+                            _stamps.add(z, column, -2 * zuLKOP2gehoerigeM_kWerte[i1][i7] / dt);  //  +2M/dt
+                        } else if (_solverType == SolverType.SOLVER_GS) {
+                            _stamps.add(z, column, -1.5 * zuLKOP2gehoerigeM_kWerte[i1][i7] / dt); //+1.5M/dt
+                        }
+                    }
+                }
+                break;
+            case TH_CTH:
+                // bug fix after introducing nonlinear capacitors.
+                // for thermal capacitance, set the parameters correctly.
+                netzliste.parameter[i1][6] = netzliste.parameter[i1][0];
+                netzliste.parameter[i1][7] = netzliste.parameter[i1][0];
+            case LK_C:
+                if (_solverType == SolverType.SOLVER_BE) {
+                    aW = netzliste.parameter[i1][6] / dt;  //  +C/dt
+                } else if (_solverType == SolverType.SOLVER_TRZ) {
+                    aW = 2 * netzliste.parameter[i1][6] / dt;
+                } else if (_solverType == SolverType.SOLVER_GS) {
+                    aW = 1.5 * netzliste.parameter[i1][6] / dt;
+                }
+                stampConductance(x, y, aW);
+                break;
+            case LK_IGBT:
+            case LK_D:
+            case LK_THYR:
+                aW = 1.0 / netzliste.parameter[i1][0];  //  +1/r
+                stampConductance(x, y, aW);
+                break;
+            case LK_I:
+                if ((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY_NEW
+                        || (int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY) {
+                    double gain = netzliste.parameter[i1][11];
+                    int[][] nodePairDVC = netzliste.nodePairDirVoltContSrc;
+                    int x1 = nodePairDVC[i1][0], y1 = nodePairDVC[i1][1];
+                    _stamps.add(x, x1, gain);
+                    _stamps.add(y, y1, gain);
+                    _stamps.add(x, y1, -gain);
+                    _stamps.add(y, x1, -gain);
+                }
+            case TH_FLOW:
+                // kein Beitrag
+                break;
+            case LK_U:
+            case REL_MMF:
+            case TH_TEMP:  //  +1
+                _stamps.add(x, z, +1.0);
+                _stamps.add(y, z, -1.0);
+                if (!((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER_NEW)
+                        && !((int) netzliste.parameter[i1][0] == SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER)) {
+                    _stamps.add(z, x, +1.0);
+                    _stamps.add(z, y, -1.0);
+                }
+
+                try {
+                    switch ((int) netzliste.parameter[i1][0]) {
+                        case SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY_NEW:
+                        case SourceType.QUELLE_VOLTAGECONTROLLED_DIRECTLY:
+                            // voltage is function of node-potentials and, therefore, calculated here in matrix A,
+                            // apart from the limited state (parameter[14] != 0), where the entries are zero
+                            final boolean isLimited = netzliste.parameter[i1][14] != 0;
+                            double gain = netzliste.parameter[i1][11];
+                            int[][] nodePairDVC = netzliste.nodePairDirVoltContSrc;
+                            int x1 = nodePairDVC[i1][0], y1 = nodePairDVC[i1][1];
+                            _stamps.add(z, x1, isLimited ? 0 : -gain);
+                            _stamps.add(z, y1, isLimited ? 0 : +gain);
+                            break;
+                        case SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER_NEW:
+                        case SourceType.QUELLE_VOLTAGECONTROLLED_TRANSFORMER:
+                            double gain2 = netzliste.parameter[i1][11];
+                            _stamps.set(z, z, 1.0 / gain2);
+                            _stamps.set(z, z - 1, 1);
+                            break;
+                        case SourceType.QUELLE_DIDTCURRENTCONTROLLED_NEW:
+                        case SourceType.QUELLE_DIDTCURRENTCONTROLLED:
+                            double gain3 = netzliste.parameter[i1][11];
+                            _stamps.add(z, z + 1, gain3 / dt);
+                            break;
+                        case SourceType.QUELLE_CURRENTCONTROLLED_DIRECTLY_NEW:
+                        case SourceType.QUELLE_CURRENTCONTROLLED_DIRECTLY:
+                            double gain4 = netzliste.parameter[i1][11];
+                            _stamps.add(z, z - 1, -gain4);
+                            break;
+                    }
+
+                } catch (NullPointerException npe) {
+                }  // at initialization nodePairDirectVoltageControlledSource[][] is not defined --> all according values set to zero
+                break;
+            case LK_M:
+                // wird in LK_LKOP2 abgehandelt
+                System.out.println("Fehler a0'wetj2423443");
+                break;
+
+            case LK_TERMINAL:
+            case TH_TERMINAL:
+            case REL_TERMINAL:
+            case LK_GLOBAL_TERMINAL:
+            case TH_GLOBAL_TERMINAL:
+            case REL_GLOBAL_TERMINAL:
+                break;
+            default:
+                System.out.println("Fehler : Bauteil nicht definiert!");
+                break;
+        }
+    }
+
+    /**
+     * @return the key which identifies the current content of the matrix a.
+     * The key object is re-used, the caller has to copy it for storage. The
+     * effort is proportional to the number of switches, not to the matrix
+     * size.
+     */
+    MatrixStateKey getMatrixStateKey() {
+        if (_matrixStateKey == null) { // not assembled by schreibeMatrix_A
+            initMatrixState();
+            _matrixGeneration = MATRIX_GENERATIONS.incrementAndGet();
+        }
+        _matrixStateKey.clearSwitchStates();
+        for (int k = 0; k < _switchElements.length; k++) {
+            final double resistance = netzliste.parameter[_switchElements[k]][0];
+            double otherResistance = Double.NaN;
+            if (resistance == _switchOnResistances[k]) {
+                _matrixStateKey.setSwitchOn(k);
+            } else if (resistance != _switchOffResistances[k]) {
+                otherResistance = resistance; // e.g. segment of a diode characteristic
+            }
+            if (Double.doubleToLongBits(otherResistance) != Double.doubleToLongBits(_switchOtherResistances[k])) {
+                _switchOtherResistances[k] = otherResistance;
+                _matrixGeneration = MATRIX_GENERATIONS.incrementAndGet();
+            }
+        }
+        _matrixStateKey.setStepWidth(_matrixStepWidth);
+        _matrixStateKey.setGeneration(_matrixGeneration);
+        return _matrixStateKey;
+    }
+
+    /**
+     * has to be called when the matrix a is corrected in place, apart from
+     * switching a switch or diode on or off.
+     */
+    private void invalidateMatrixState() {
+        _matrixGeneration = MATRIX_GENERATIONS.incrementAndGet();
+        _isMatrixModifiedInPlace = true;
+    }
+
+    /**
+     * stores the values which define the matrix a, apart from the switch
+     * states and the stepwidth. If one of them changed since the previous
+     * assembly, or if a was corrected in place meanwhile, the matrix gets a
+     * new generation.
+     */
+    private void recordMatrixInputs(final double dt) {
+        if (_matrixStateKey == null || _matrixInputs.length != MATRIX_INPUTS_PER_ELEMENT * elementANZAHL) {
+            initMatrixState();
+        }
+        boolean changed = _isMatrixModifiedInPlace;
+        int switchIndex = 0;
+        for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            final double[] par = netzliste.parameter[i1];
+            switch (netzliste.typ[i1]) {
+                case LK_S:
+                    changed |= recordSwitchResistances(switchIndex++, par[1], par[2]);
+                    break;
+                case LK_MOSFET:
+                case LK_IGBT:
+                case LK_D:
+                case LK_THYR:
+                    changed |= recordSwitchResistances(switchIndex++, par[2], par[3]);
+                    break;
+                case LK_C:
+                    changed |= recordMatrixInput(i1, 0, par, 6);
+                    break;
+                case LK_I:
+                case LK_U:
+                case REL_MMF:
+                case TH_TEMP:
+                    changed |= recordMatrixInput(i1, 0, par, 0);
+                    changed |= recordMatrixInput(i1, 1, par, 11);
+                    changed |= recordMatrixInput(i1, 2, par, 14);
+                    break;
+                default: // resistors, inductors, thermal capacitors, ...
+                    changed |= recordMatrixInput(i1, 0, par, 0);
+                    break;
+            }
+        }
+        if (changed) {
+            _matrixGeneration = MATRIX_GENERATIONS.incrementAndGet();
+            _isMatrixModifiedInPlace = false;
+        }
+        _matrixStepWidth = dt;
+    }
+
+    private void initMatrixState() {
+        int numberOfSwitches = 0;
+        for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            if (isSwitchType(netzliste.typ[i1])) {
+                numberOfSwitches++;
+            }
+        }
+        _switchElements = new int[numberOfSwitches];
+        int switchIndex = 0;
+        for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            if (isSwitchType(netzliste.typ[i1])) {
+                _switchElements[switchIndex++] = i1;
+            }
+        }
+        _switchOnResistances = new double[numberOfSwitches];
+        _switchOffResistances = new double[numberOfSwitches];
+        _switchOtherResistances = new double[numberOfSwitches];
+        Arrays.fill(_switchOtherResistances, Double.NaN);
+        _matrixInputs = new double[MATRIX_INPUTS_PER_ELEMENT * elementANZAHL];
+        _matrixStateKey = new MatrixStateKey(numberOfSwitches);
+        _isMatrixModifiedInPlace = true; // new generation
+    }
+
+    private static boolean isSwitchType(final CircuitTyp typ) {
+        return typ == CircuitTyp.LK_S || typ == CircuitTyp.LK_MOSFET || typ == CircuitTyp.LK_IGBT
+                || typ == CircuitTyp.LK_D || typ == CircuitTyp.LK_THYR;
+    }
+
+    private boolean recordSwitchResistances(final int switchIndex, final double onResistance, final double offResistance) {
+        final boolean changed = onResistance != _switchOnResistances[switchIndex]
+                || offResistance != _switchOffResistances[switchIndex];
+        _switchOnResistances[switchIndex] = onResistance;
+        _switchOffResistances[switchIndex] = offResistance;
+        return changed;
+    }
+
+    private boolean recordMatrixInput(final int elementIndex, final int inputIndex,
+            final double[] parameter, final int parameterIndex) {
+        final double value = parameter != null && parameterIndex < parameter.length ? parameter[parameterIndex] : 0;
+        final int index = MATRIX_INPUTS_PER_ELEMENT * elementIndex + inputIndex;
+        final boolean changed = Double.doubleToLongBits(value) != Double.doubleToLongBits(_matrixInputs[index]);
+        _matrixInputs[index] = value;
+        return changed;
+    }
+
+    public void schreibeMatrix_B(double dt, double t, boolean capError) {
+        if (_historyElements == null) {
+            _historyElements = findHistoryElements();
+        }
+        Arrays.fill(bVector, 0);
+
+        double bW = 0;
+        for (int i1 : _historyElements) {
             int x = netzliste.knotenX[i1];
             int y = netzliste.knotenY[i1];
             int z = netzliste.knotenMAX + netzliste.spgQuelleNr[i1];
@@ -587,6 +817,65 @@ public class LKMatrices {
 //        System.out.println("time: " + t + " " + bHash);
     }
 
+    /**
+     * @return the components with a source or history term in the vector b,
+     * i.e. all apart from resistors, switches and terminals.
+     */
+    private int[] findHistoryElements() {
+        final int[] elements = new int[elementANZAHL];
+        int count = 0;
+        for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            switch (netzliste.typ[i1]) {
+                case LK_R:
+                case REL_RELUCTANCE:
+                case TH_RTH:
+                case TH_AMBIENT:
+                case LK_S:
+                case LK_MOSFET:
+                case LK_TERMINAL:
+                case TH_TERMINAL:
+                case REL_TERMINAL:
+                case LK_GLOBAL_TERMINAL:
+                case TH_GLOBAL_TERMINAL:
+                case REL_GLOBAL_TERMINAL:
+                    break;
+                default:
+                    elements[count++] = i1;
+                    break;
+            }
+        }
+        return Arrays.copyOf(elements, count);
+    }
+
+    /**
+     * locates the first diode commutation within the current time step by
+     * linear interpolation of the diode voltage between pALT and p. Only
+     * diodes without a nonlinear characteristic are considered.
+     *
+     * @return the fraction of the time step at which the first diode changes
+     * its state, or 1 if no diode commutates during this step.
+     */
+    public double findDiodeSwitchingFraction() {
+        double returnValue = 1;
+        for (int i1 = 0; i1 < elementANZAHL; i1++) {
+            if (netzliste.typ[i1] != LK_D || ((Diode) netzliste.eLKneu[i1])._diodeChar != null) {
+                continue;
+            }
+            final int x = netzliste.knotenX[i1];
+            final int y = netzliste.knotenY[i1];
+            final double rD = netzliste.parameter[i1][0];
+            final double uf = netzliste.parameter[i1][1];
+            final double oldValue = pALT[x] - pALT[y] - uf;
+            final double newValue = p[x] - p[y] - uf;
+            final boolean turnsOff = rD < 10000 && oldValue > 0 && newValue < 0;
+            final boolean turnsOn = rD > 10000 && oldValue < 0 && newValue > 0;
+            if (turnsOff || turnsOn) {
+                returnValue = Math.min(returnValue, oldValue / (oldValue - newValue));
+            }
+        }
+        return returnValue;
+    }
+
     public boolean berechneBauteilStroeme(double stoergroesse, double dt, double t, boolean isNewIteration,
             int errorCounter) {
 
@@ -664,19 +953,9 @@ public class LKMatrices {
                         if (errorEstimator > 0.025) {
                             // AAAA System.out.println("doing correction of inductance point");
                             einSchrittZurueck = true;
-                            double oldAW = netzliste.parameter[i1][11];
-                            a[x][x] -= oldAW;
-                            a[y][y] -= oldAW;
-                            a[x][y] += oldAW;
-                            a[y][x] += oldAW;
-                            double newAW = getAWForInductance(netzliste.parameter[i1][0], netzliste.parameter[i1], dt);
-                            a[x][x] += newAW;
-                            a[y][y] += newAW;
-                            a[x][y] -= newAW;
-                            a[y][x] -= newAW;
-                            // AAAA System.out.println("new inductance value " + netzliste.parameter[i1][10] + " " + dt / oldAW + " " + dt/newAW);
+                            invalidateMatrixState();
                             netzliste.parameter[i1][12] = netzliste.parameter[i1][11];
-                            netzliste.parameter[i1][11] = newAW;
+                            restampElement(i1, dt); // sets parameter[11] to the new aW
 
 //                            double correctionCurrent = (netzliste.parameter[i1][10] - inductanceInAMatrix) / netzliste.parameter[i1][10] * (bVector[x] - bVector[y]) / 2;
 //                            bVector[x] -= correctionCurrent;
@@ -725,6 +1004,7 @@ public class LKMatrices {
 
                         if (capCorrection) {
                             einSchrittZurueck = true;
+                            invalidateMatrixState();
                             double facOld = (1 - netzliste.parameter[i1][7] / netzliste.parameter[i1][6]);
                             double bWOld = 0;
                             if (_solverType == SolverType.SOLVER_BE) {
@@ -735,19 +1015,6 @@ public class LKMatrices {
                                 bWOld = (netzliste.parameter[i1][6] / dt) * (2 * (pALT[x] - pALT[y]) - 0.5 * (pALTALT[x] - pALTALT[y])) + facOld * netzliste.parameter[i1][10];
                             }
                             //double bWOld = (netzliste.parameter[i1][6] / dt) * (pALT[x] - pALT[y]) + facOld * netzliste.parameter[i1][10];
-                            //double aWOld = netzliste.parameter[i1][6] / dt;  //  +C/dt
-                            double aWOld = 0;
-                            if (_solverType == SolverType.SOLVER_BE) {
-                                aWOld = netzliste.parameter[i1][6] / dt;  //  +C/dt
-                            } else if (_solverType == SolverType.SOLVER_TRZ) {
-                                aWOld = 2 * netzliste.parameter[i1][6] / dt;
-                            } else if (_solverType == SolverType.SOLVER_GS) {
-                                aWOld = 1.5 * netzliste.parameter[i1][6] / dt;
-                            }
-                            a[x][x] -= (+aWOld);
-                            a[y][y] -= (+aWOld);
-                            a[x][y] -= (-aWOld);
-                            a[y][x] -= (-aWOld);
                             //------
                             // correction of the capacitance value
                             netzliste.parameter[i1][6] = netzliste.parameter[i1][7];
@@ -766,19 +1033,7 @@ public class LKMatrices {
                             }
                             bVector[x] += bWNew;
                             bVector[y] -= bWNew;
-                            //double aWNew = netzliste.parameter[i1][6] / dt;  //  +C/dt
-                            double aWNew = 0;
-                            if (_solverType == SolverType.SOLVER_BE) {
-                                aWNew = netzliste.parameter[i1][6] / dt;  //  +C/dt
-                            } else if (_solverType == SolverType.SOLVER_TRZ) {
-                                aWNew = 2 * netzliste.parameter[i1][6] / dt;
-                            } else if (_solverType == SolverType.SOLVER_GS) {
-                                aWNew = 1.5 * netzliste.parameter[i1][6] / dt;
-                            }
-                            a[x][x] += (+aWNew);
-                            a[y][y] += (+aWNew);
-                            a[x][y] += (-aWNew);
-                            a[y][x] += (-aWNew);
+                            restampElement(i1, dt);
                         }
                         netzliste.parameter[i1][10] = netzliste.eLKneu[i1]._currentInAmps;
                         netzliste.eLKneu[i1]._currentInAmps += nonLinearCorrectionCurrent;
@@ -800,19 +1055,14 @@ public class LKMatrices {
                         if (dc.testIfWrongSegment(t, diodeVoltage, stoergroesse, acceptanceThreshold)) {
                             einSchrittZurueck = true;
 
-                            double aALT = 1.0 / netzliste.parameter[i1][0];  // (1/rD)
                             double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];  // (Uf/rD)
                             netzliste.parameter[i1][1] = dc.activeSegment._uF;
                             netzliste.parameter[i1][0] = dc.activeSegment._RDiff;
-                            double aNEU = 1.0 / netzliste.parameter[i1][0];
                             double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
 
                             //System.out.println("Diode t " + errorCounter + " " +  netzliste.eLKneu[i1].getIDStringDialog() + " " + netzliste.parameter[i1][0] + " " +  netzliste.parameter[i1][2] + "  "+ netzliste.parameter[i1][3] + " " + netzliste.parameter[i1][4]); 
                             // Korrektur Matrix a:
-                            a[x][x] += (-aALT + aNEU);
-                            a[y][y] += (-aALT + aNEU);
-                            a[x][y] += (+aALT - aNEU);
-                            a[y][x] += (+aALT - aNEU);
+                            restampElement(i1, dt);
                             // Korrektur Matrix b:
                             bVector[x] += (-bALT + bNEU);
                             bVector[y] += (+bALT - bNEU);
@@ -824,10 +1074,8 @@ public class LKMatrices {
                                  */) < (stoergroesse * uf) + acceptanceThreshold) && (rD < 10000/*
                                  * Typ.rDoffDEFAULT
                                  */)) {  // (uD < uf) und Diode "ON"
-                            double aALT = 1.0 / netzliste.parameter[i1][0];  // (1/rD)
                             double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];  // (Uf/rD)
                             netzliste.parameter[i1][0] = netzliste.parameter[i1][3];  // Diode auf "OFF" setzen
-                            double aNEU = 1.0 / netzliste.parameter[i1][0];
                             double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                             einSchrittZurueck = true;
 //                        for(AbstractCircuitBlockInterface block : netzliste.eLKneu) {
@@ -839,10 +1087,7 @@ public class LKMatrices {
 //                        }
                             //System.out.println("Diode t " + errorCounter + " " +  netzliste.eLKneu[i1].getIDStringDialog() + " " + netzliste.parameter[i1][0] + " " +  netzliste.parameter[i1][2] + "  "+ netzliste.parameter[i1][3] + " " + netzliste.parameter[i1][4]); 
                             // Korrektur Matrix a:
-                            a[x][x] += (-aALT + aNEU);
-                            a[y][y] += (-aALT + aNEU);
-                            a[x][y] += (+aALT - aNEU);
-                            a[y][x] += (+aALT - aNEU);
+                            restampElement(i1, dt);
                             // Korrektur Matrix b:
                             bVector[x] += (-bALT + bNEU);
                             bVector[y] += (+bALT - bNEU);
@@ -851,17 +1096,12 @@ public class LKMatrices {
                                  * == Typ.rDoffDEFAULT
                                  */))) {  // (uD > uf) und Diode "OFF"
 
-                            double aALT = 1.0 / netzliste.parameter[i1][0];
                             double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                             netzliste.parameter[i1][0] = netzliste.parameter[i1][2];  // Diode auf "ON" setzen
-                            double aNEU = 1.0 / netzliste.parameter[i1][0];
                             double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                             einSchrittZurueck = true;
                             // Korrektur Matrix a:
-                            a[x][x] += (-aALT + aNEU);
-                            a[y][y] += (-aALT + aNEU);
-                            a[x][y] += (+aALT - aNEU);
-                            a[y][x] += (+aALT - aNEU);
+                            restampElement(i1, dt);
                             // Korrektur Matrix b:
                             bVector[x] += (-bALT + bNEU);
                             bVector[y] += (+bALT - bNEU);
@@ -925,7 +1165,6 @@ public class LKMatrices {
                     // Logik fuer THYR-Abfrage:
                     // bei 'stoergroesse=1.0' bleibt die Simulation oft haengen!!
                     if (((p[x] - p[y]) < (stoergroesse * uf + acceptanceThreshold)) && (rD < 0.5 * netzliste.parameter[i1][3])) {  // (uD < uf) und Thyristor "ON"                        
-                        double aALT = 1.0 / netzliste.parameter[i1][0];  // (1/rD)
                         double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];  // (Uf/rD)
                         if (t - netzliste.parameter[i1][11] > 3 * netzliste.parameter[i1][9]) {
                             netzliste.parameter[i1][11] = t;
@@ -933,14 +1172,10 @@ public class LKMatrices {
 
                         if (t - netzliste.parameter[i1][11] >= netzliste.parameter[i1][9]) {
                             netzliste.parameter[i1][0] = netzliste.parameter[i1][3];  // Thyristor auf "OFF" setzen                            
-                            double aNEU = 1.0 / netzliste.parameter[i1][0];
                             double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                             einSchrittZurueck = true;
                             // Korrektur Matrix a:
-                            a[x][x] += (-aALT + aNEU);
-                            a[y][y] += (-aALT + aNEU);
-                            a[x][y] += (+aALT - aNEU);
-                            a[y][x] += (+aALT - aNEU);
+                            restampElement(i1, dt);
                             // Korrektur Matrix b:
                             bVector[x] += (-bALT + bNEU);
                             bVector[y] += (+bALT - bNEU);
@@ -948,17 +1183,12 @@ public class LKMatrices {
                     }
                     // in 'parameter[8]' wird beim Thyristor das aktuelle Gate-Signal hineingeschrieben (siehe 'Simulationskern.runSimulation()')
                     if ((netzliste.parameter[i1][8] == 1) && (((p[x] - p[y]) > (stoergroesse * uf - acceptanceThreshold)) && (rD == AbstractSwitch.RD_OFF_DEFAULT))) {  // gate==1  und  (uD > uf) und Thyristor "OFF"                        
-                        double aALT = 1.0 / netzliste.parameter[i1][0];
                         double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         netzliste.parameter[i1][0] = netzliste.parameter[i1][2];  // Thyristor auf "ON" setzen
-                        double aNEU = 1.0 / netzliste.parameter[i1][0];
                         double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         einSchrittZurueck = true;
                         // Korrektur Matrix a:
-                        a[x][x] += (-aALT + aNEU);
-                        a[y][y] += (-aALT + aNEU);
-                        a[x][y] += (+aALT - aNEU);
-                        a[y][x] += (+aALT - aNEU);
+                        restampElement(i1, dt);
                         // Korrektur Matrix b:
                         bVector[x] += (-bALT + bNEU);
                         bVector[y] += (+bALT - bNEU);
@@ -982,17 +1212,12 @@ public class LKMatrices {
                              */) < (stoergroesse * uf + acceptanceThreshold)) && (rD < 10000/*
                              * Typ.rDoffDEFAULT
                              */)) && (netzliste.parameter[i1][8] == 1)) {  // (uD < uf) und IGBT-Serien-Diode "ON" und gateStatusOnOff==1
-                        double aALT = 1.0 / netzliste.parameter[i1][0];  // (1/rD)
                         double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];  // (Uf/rD)
                         netzliste.parameter[i1][0] = netzliste.parameter[i1][3];  // --> IGBT auf "OFF" setzen
-                        double aNEU = 1.0 / netzliste.parameter[i1][0];
                         double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         einSchrittZurueck = true;
                         // Korrektur Matrix a:
-                        a[x][x] += (-aALT + aNEU);
-                        a[y][y] += (-aALT + aNEU);
-                        a[x][y] += (+aALT - aNEU);
-                        a[y][x] += (+aALT - aNEU);
+                        restampElement(i1, dt);
                         // Korrektur Matrix b:
                         bVector[x] += (-bALT + bNEU);
                         bVector[y] += (+bALT - bNEU);
@@ -1001,34 +1226,24 @@ public class LKMatrices {
                     if ((netzliste.parameter[i1][8] == 1) && (((p[x] - p[y]) > (stoergroesse * uf - acceptanceThreshold)) && (rD > 10000/*
                              * == Typ.rDoffDEFAULT
                              */))) {  // gateStatusOnOff==1  und  (uD > uf) und Thyristor "OFF"
-                        double aALT = 1.0 / netzliste.parameter[i1][0];
                         double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         netzliste.parameter[i1][0] = netzliste.parameter[i1][2];  // --> IGBT auf "ON" setzen
-                        double aNEU = 1.0 / netzliste.parameter[i1][0];
                         double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         einSchrittZurueck = true;
                         // Korrektur Matrix a:
-                        a[x][x] += (-aALT + aNEU);
-                        a[y][y] += (-aALT + aNEU);
-                        a[x][y] += (+aALT - aNEU);
-                        a[y][x] += (+aALT - aNEU);
+                        restampElement(i1, dt);
                         // Korrektur Matrix b:
                         bVector[x] += (-bALT + bNEU);
                         bVector[y] += (+bALT - bNEU);
                     }
                     if ((netzliste.parameter[i1][8] == 0) && (netzliste.parameter[i1][0] == netzliste.parameter[i1][2])) {  // bis jetzt 'ON', aber das Gate wurde soeben auf 'OFF' gesetzt
                         // rD(t) - uf - rON - rOFF - i(t) - u(t) - xxx - xxx - gateStatusOnOff   --> aehnlich wie THYR
-                        double aALT = 1.0 / netzliste.parameter[i1][0];
                         double bALT = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         netzliste.parameter[i1][0] = netzliste.parameter[i1][3];  // --> IGBT auf "OFF" setzen
-                        double aNEU = 1.0 / netzliste.parameter[i1][0];
                         double bNEU = netzliste.parameter[i1][1] / netzliste.parameter[i1][0];
                         einSchrittZurueck = true;
                         // Korrektur Matrix a:
-                        a[x][x] += (-aALT + aNEU);
-                        a[y][y] += (-aALT + aNEU);
-                        a[x][y] += (+aALT - aNEU);
-                        a[y][x] += (+aALT - aNEU);
+                        restampElement(i1, dt);
                         // Korrektur Matrix b:
                         bVector[x] += (-bALT + bNEU);
                         bVector[y] += (+bALT - bNEU);
@@ -1080,36 +1295,36 @@ public class LKMatrices {
                         if (netzliste.parameter[i1][14] == 0) { // old state: normal
                             if (voltage < netzliste.parameter[i1][12]) {
                                 einSchrittZurueck = true;
+                                invalidateMatrixState();
                                 netzliste.parameter[i1][14] = -1;
 
-                                a[z][x1] -= (-gain);
-                                a[z][y1] -= (+gain);
+                                restampElement(i1, dt);
 
                                 bVector[z] += netzliste.parameter[i1][12];
                             }
 
                             if (voltage > netzliste.parameter[i1][13]) {
                                 einSchrittZurueck = true;
+                                invalidateMatrixState();
                                 netzliste.parameter[i1][14] = 1;
 
-                                a[z][x1] -= (-gain);
-                                a[z][y1] -= (+gain);
+                                restampElement(i1, dt);
                                 bVector[z] += netzliste.parameter[i1][13];
                             }
                         } else {
                             if (netzliste.parameter[i1][14] == -1 && voltage >= netzliste.parameter[i1][12]) {
                                 einSchrittZurueck = true;
+                                invalidateMatrixState();
                                 netzliste.parameter[i1][14] = 0;
                                 bVector[z] -= netzliste.parameter[i1][12];
-                                a[z][x1] += (-gain);
-                                a[z][y1] += (+gain);
+                                restampElement(i1, dt);
                             }
                             if (netzliste.parameter[i1][14] == 1 && voltage <= netzliste.parameter[i1][13]) {
                                 einSchrittZurueck = true;
+                                invalidateMatrixState();
                                 netzliste.parameter[i1][14] = 0;
                                 bVector[z] -= netzliste.parameter[i1][13];
-                                a[z][x1] += (-gain);
-                                a[z][y1] += (+gain);
+                                restampElement(i1, dt);
                             }
                         }
                     }
@@ -1272,6 +1487,9 @@ public class LKMatrices {
 
     public void schreibeMatrizenGleichung() {
         TechFormat cf = new TechFormat();
+        if (a == null) { // assembled in compressed columns
+            return;
+        }
         for (int i1 = 0; i1 < a.length; i1++) {
             for (int i2 = 0; i2 < a[0].length; i2++) {
                 System.out.print(cf.formatT(a[i1][i2], TechFormat.FORMAT_AUTO) + "\t\t");
@@ -14,51 +14,160 @@
 package ch.technokrat.gecko.geckocircuits.circuit;
 
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-//import java.util.WeakHashMap;
 
 /**
  * Main-Function: getCachedLUDecomposition. For switched converters, one and the
  * same LU decomposition is typically re-computed very often. Therefore, this
  * class provides a cache, which speeds up the calculation for larger matrices.
  *
+ * The circuit matrices are identified by a MatrixStateKey (switch states,
+ * stepwidth and parameter generation), so that a lookup neither hashes nor
+ * compares the matrix entries. The least recently used decompositions are
+ * removed when the memory of the cached decompositions exceeds the limit.
+ *
+ * Low rank updates are cached as well. A cached update keeps a reference to
+ * its base decomposition; whenever the update is used, its base is marked as
+ * used afterwards, so that the least recently used removal drops an update
+ * before its base.
+ *
  * @author andy
  */
 public class LUDecompositionCache {
 
-    private static final int MAX_CACHE_SIZE = 1000;
-    private static int varMaxCacheSize = MAX_CACHE_SIZE;
-    private final Map<Integer, AbstractCachedMatrix> _cachedMatrices = new HashMap<Integer, AbstractCachedMatrix>();
+    // the cache state is per instance, since several simulations may run in parallel
+    private final Map<Object, AbstractCachedMatrix> _cachedMatrices
+            = new LinkedHashMap<Object, AbstractCachedMatrix>(16, 0.75f, true); // access order: LRU first
     private int _cacheHitCounter = 0;
     private int _cacheMissCounter = 0;
     private static final boolean USE_CACHE = true;
-    private static long memoryBytes = 0;
+    private final long _maxMemoryBytes;
+    private long _memoryBytes = 0;
+    private long _latestGeneration = -1;
 
     private static final long maxJVMMemory = Runtime.getRuntime().maxMemory();
+    // the sparse LU decomposition is used for matrices larger than this size...
+    static final int SPARSE_MIN_SIZE = 100;
+    // ... when the fraction of non-zero entries is below this value.
+    static final double SPARSE_MAX_DENSITY = 0.1;
+    private int _solverSelectionSize = -1;
+    private boolean _useSparseSolver = false;
+    private SparseLUSymbolic _sparseSymbolic;
+    private static final boolean USE_LOW_RANK_UPDATES = true;
+    // maximum number of changed matrix rows, for which a Sherman-Morrison-Woodbury
+    // update is done instead of a new LU decomposition
+    static final int MAX_UPDATE_RANK = 16;
+    private AbstractCachedMatrix _lowRankBase;
+    private Object _lowRankBaseKey;
+    private double[][] _lowRankBaseMatrix;
+    // cache key of a low rank update -> cache key of its base decomposition
+    private final Map<Object, Object> _lowRankBaseKeys = new HashMap<Object, Object>();
+
+    public LUDecompositionCache() {
+        this(maxJVMMemory / 3);
+    }
 
     /**
+     * @param maxMemoryBytes memory limit for the cached decompositions
+     */
+    LUDecompositionCache(final long maxMemoryBytes) {
+        _maxMemoryBytes = maxMemoryBytes;
+    }
+
+    /**
+     * lookup via the state of the matrix, the matrix entries are only read on
+     * a cache miss. A cache hit does not allocate any memory.
      *
      * @param matrix the matrix to search in the LU-Cache
-     * @param time actual simulationtime, needed for the cache overflow removal
-     * algorithm
+     * @param key identifies the content of matrix, see
+     * LKMatrices.getMatrixStateKey()
+     * @param time actual simulationtime
+     * @return the matrix in the cache, including the LU-Decomposition
+     */
+    AbstractCachedMatrix getCachedLUDecomposition(final double[][] matrix, final MatrixStateKey key, final double time) {
+        final AbstractCachedMatrix fromCache = _cachedMatrices.get(key);
+        if (fromCache != null) {
+            fromCache.setAccess(time);
+            _cacheHitCounter++;
+            touchLowRankBase(key, fromCache);
+            return fromCache;
+        }
+
+        _cacheMissCounter++;
+        if (key.getGeneration() != _latestGeneration) {
+            removeOtherGenerations(key.getGeneration());
+        }
+        final AbstractCachedMatrix lowRankUpdate = findLowRankUpdate(matrix);
+        if (lowRankUpdate != null) {
+            lowRankUpdate.setAccess(time);
+            addLowRankUpdateToCache(key.copy(), lowRankUpdate);
+            return lowRankUpdate;
+        }
+        final AbstractCachedMatrix newMatrix = createCachedMatrix(matrix);
+        newMatrix.setAccess(time);
+        initLUDecomp(newMatrix);
+        final MatrixStateKey cacheKey = key.copy();
+        addToCache(cacheKey, newMatrix);
+        setLowRankBase(newMatrix, cacheKey, matrix);
+        return newMatrix;
+    }
+
+    /**
+     * lookup via the state of a matrix which is assembled in compressed
+     * columns, see LKMatrices.allowSparseAssembly(). It is always decomposed
+     * with the sparse LU decomposition. Low rank updates are not searched,
+     * since they compare the rows of the dense matrices.
+     *
+     * @param columns the matrix, its values are only read on a cache miss
+     * @param key identifies the content of columns
+     * @param time actual simulationtime
+     */
+    AbstractCachedMatrix getCachedSparseLUDecomposition(final CompressedColumns columns, final MatrixStateKey key,
+            final double time) {
+        final AbstractCachedMatrix fromCache = _cachedMatrices.get(key);
+        if (fromCache != null) {
+            fromCache.setAccess(time);
+            _cacheHitCounter++;
+            return fromCache;
+        }
+
+        _cacheMissCounter++;
+        if (key.getGeneration() != _latestGeneration) {
+            removeOtherGenerations(key.getGeneration());
+        }
+        final AbstractCachedMatrix newMatrix = new SparseLUCachedMatrix(columns, _sparseSymbolic);
+        newMatrix.setAccess(time);
+        initLUDecomp(newMatrix);
+        addToCache(key.copy(), newMatrix);
+        return newMatrix;
+    }
+
+    /**
+     * lookup via the hash code of the matrix entries, for matrices without a
+     * MatrixStateKey.
+     *
+     * @param matrix the matrix to search in the LU-Cache
+     * @param time actual simulationtime
      * @return the matrix in the cache, including the LU-Decomposition
      */
     public AbstractCachedMatrix getCachedLUDecomposition(final double[][] matrix, final double time) {
 
-        final AbstractCachedMatrix newMatrix = new CachedMatrix(matrix);
+        final AbstractCachedMatrix newMatrix = createCachedMatrix(matrix);
         final AbstractCachedMatrix fromCache = _cachedMatrices.get(newMatrix.hashCode());
         if (fromCache == null) {
             _cacheMissCounter++;
             newMatrix.setAccess(time);
-            testForCacheShrink(time);
-            newMatrix.initLUDecomp();
-            if (USE_CACHE) {
-                _cachedMatrices.put(newMatrix.hashCode(), newMatrix);
-                memoryBytes += newMatrix.calculateMemoryRequirement();
+            final AbstractCachedMatrix lowRankUpdate = findLowRankUpdate(matrix);
+            if (lowRankUpdate != null) {
+                lowRankUpdate.setAccess(time);
+                addLowRankUpdateToCache(newMatrix.hashCode(), lowRankUpdate);
+                return lowRankUpdate;
             }
+            initLUDecomp(newMatrix);
+            addToCache(newMatrix.hashCode(), newMatrix);
+            setLowRankBase(newMatrix, newMatrix.hashCode(), matrix);
             return newMatrix;
 
         } else {
@@ -66,130 +175,193 @@ public class LUDecompositionCache {
                 // this is in case something goes really wrong (by accident same hash
                 // code of two actually different matrices
                 newMatrix.setAccess(time);
-                testForCacheShrink(time);
-                newMatrix.initLUDecomp();
-                if (USE_CACHE) {
-                    _cachedMatrices.put(newMatrix.hashCode(), newMatrix);
-                    memoryBytes += newMatrix.calculateMemoryRequirement();
-                }
+                initLUDecomp(newMatrix);
+                addToCache(newMatrix.hashCode(), newMatrix);
                 return newMatrix;
             }
 
             fromCache.setAccess(time);
             _cacheHitCounter++;
-            //System.out.println("matrix size : " + matrix.length);
-//             if(_cacheHitCounter%1000 == 0) {
-//                 printDebugMessages(time);
-//             }
-
+            touchLowRankBase(newMatrix.hashCode(), fromCache);
             return fromCache;
         }
     }
 
-    private void printDebugMessages(final double time) {
-        _cacheHitCounter++;
-
-        System.out.println("cache size: " + _cachedMatrices.size());
-        //for (int key : _cachedMatrices.keySet()) {
-        //    final AbstractCachedMatrix mat = _cachedMatrices.get(key);
-        //    System.out.println("cache: " + mat + " " + (time - mat.getLatestAccessTime()) + " " + mat.getAccessCounter());
-        //}
-        System.out.println("cache hits: " + _cacheHitCounter + " " + _cacheMissCounter + " " + (100.0 * _cacheHitCounter / (_cacheHitCounter + _cacheMissCounter)) + "%");
-        System.out.println("memory requirement in MB: " + memoryBytes / 1024 / 1024);
-        long size = 0;
-        for (Entry<Integer, AbstractCachedMatrix> entry : _cachedMatrices.entrySet()) {
-            size += entry.getValue().calculateMemoryRequirement();
+    /**
+     * a low rank update identical to its base (no changed rows) is the base
+     * itself and is not stored twice. The base is marked as used after the
+     * update, i.e. it is removed later than the update.
+     */
+    private void addLowRankUpdateToCache(final Object key, final AbstractCachedMatrix lowRankUpdate) {
+        if (!USE_CACHE || lowRankUpdate == _lowRankBase) {
+            return;
+        }
+        final AbstractCachedMatrix replaced = _cachedMatrices.put(key, lowRankUpdate);
+        if (replaced != null) {
+            _memoryBytes -= replaced.calculateMemoryRequirement();
         }
+        _memoryBytes += lowRankUpdate.calculateMemoryRequirement();
+        _lowRankBaseKeys.put(key, _lowRankBaseKey);
+        _cachedMatrices.get(_lowRankBaseKey);
+        removeLeastRecentlyUsed();
     }
 
-    /*
-     * if cache is larger than maximum cache size, then remove
-     * the oldest and the two least accessed matrix entry.
-     * careful with the least accessed: put a threshold, so that 
-     * a quite new matrix is not removed immediately!
+    /**
+     * marks the base of a cached low rank update as used, after the update.
      */
-    private void testForCacheShrink(double time) {
-//        if(1>0) {
-//            return; // i disabled this, since we use a weakHashMap for the cache, now!
-//        }
-        if (_cachedMatrices.size() > varMaxCacheSize) {
-            Integer oldestKey = -1;
-            double oldestTime = 1e99;
-
-            for (Map.Entry<Integer, AbstractCachedMatrix> entry : _cachedMatrices.entrySet()) {
-                AbstractCachedMatrix tmp = entry.getValue();
-                if (tmp.getLatestAccessTime() < oldestTime) {
-                    oldestKey = entry.getKey();
-                    oldestTime = tmp.getLatestAccessTime();
-                }
+    private void touchLowRankBase(final Object key, final AbstractCachedMatrix fromCache) {
+        if (fromCache instanceof LowRankUpdatedMatrix) {
+            final Object baseKey = _lowRankBaseKeys.get(key);
+            if (baseKey != null) {
+                _cachedMatrices.get(baseKey);
             }
+        }
+    }
 
-            AbstractCachedMatrix removed = _cachedMatrices.remove(oldestKey);
-            memoryBytes -= removed.calculateMemoryRequirement();
+    private void addToCache(final Object key, final AbstractCachedMatrix newMatrix) {
+        if (!USE_CACHE) {
+            return;
+        }
+        final AbstractCachedMatrix replaced = _cachedMatrices.put(key, newMatrix);
+        if (replaced != null) {
+            _memoryBytes -= replaced.calculateMemoryRequirement();
+            _lowRankBaseKeys.remove(key);
+        }
+        _memoryBytes += newMatrix.calculateMemoryRequirement();
+        removeLeastRecentlyUsed();
+    }
 
-            if (removed != null) {
-                removed.deleteCache();
-            }
+    /**
+     * if the memory limit is exceeded, the least recently used matrices are
+     * removed. The newest matrix is always kept.
+     */
+    private void removeLeastRecentlyUsed() {
+        final Iterator<Map.Entry<Object, AbstractCachedMatrix>> iterator = _cachedMatrices.entrySet().iterator();
+        while (_memoryBytes > _maxMemoryBytes && _cachedMatrices.size() > 1) {
+            final Map.Entry<Object, AbstractCachedMatrix> removed = iterator.next();
+            iterator.remove();
+            _memoryBytes -= removed.getValue().calculateMemoryRequirement();
+            _lowRankBaseKeys.remove(removed.getKey());
+            // no deleteCache(): the matrix (or a low rank update of it) may still be in use by the solver
+        }
+    }
 
-            double accessMinimumAge = (oldestTime + time) / 2;
-            removeLeastAccessedMatrices(accessMinimumAge);
+    /**
+     * matrices of an older generation cannot be requested any more, since the
+     * generation changes with the component parameters.
+     */
+    private void removeOtherGenerations(final long generation) {
+        _latestGeneration = generation;
+        final Iterator<Map.Entry<Object, AbstractCachedMatrix>> iterator = _cachedMatrices.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry<Object, AbstractCachedMatrix> entry = iterator.next();
+            if (entry.getKey() instanceof MatrixStateKey
+                    && ((MatrixStateKey) entry.getKey()).getGeneration() != generation) {
+                _memoryBytes -= entry.getValue().calculateMemoryRequirement();
+                _lowRankBaseKeys.remove(entry.getKey());
+                iterator.remove();
+            }
         }
+        // the base of the next low rank update has to be a decomposition of the new generation
+        _lowRankBase = null;
+        _lowRankBaseKey = null;
+    }
 
-        calculateNewVarMaxCacheSize();
+    int getCacheSize() {
+        return _cachedMatrices.size();
     }
 
-    private void removeLeastAccessedMatrices(double accessMinimumAge) {
-        Integer leastAccessKey = -1;
-        Integer secondLeastAccessKey = -1;
-        Integer thirdLeastAccessKey = -1;
+    int getCacheHitCount() {
+        return _cacheHitCounter;
+    }
 
-        int leastAccessCounter = Integer.MAX_VALUE;
-        int secondLeastAccessCounter = Integer.MAX_VALUE;
-        int thirdLeastAccessCounter = Integer.MAX_VALUE;
+    long getMemoryBytes() {
+        return _memoryBytes;
+    }
 
-        for (Map.Entry<Integer, AbstractCachedMatrix> entry : _cachedMatrices.entrySet()) {
-            AbstractCachedMatrix tmp = entry.getValue();
-            if (tmp.getLatestAccessTime() < accessMinimumAge) {
+    /**
+     * The decision between dense and sparse decomposition is done once per
+     * matrix size, since the structure of the circuit matrix does not change
+     * during a simulation.
+     */
+    AbstractCachedMatrix createCachedMatrix(final double[][] matrix) {
+        if (matrix.length != _solverSelectionSize) {
+            _solverSelectionSize = matrix.length;
+            _useSparseSolver = isSparseSolverPreferable(matrix);
+            _sparseSymbolic = null;
+        }
 
-                int accessCounter = tmp.getAccessCounter();
+        if (_useSparseSolver) {
+            return new SparseLUCachedMatrix(matrix, _sparseSymbolic);
+        } else {
+            return new CachedMatrix(matrix);
+        }
+    }
 
-                if (accessCounter < thirdLeastAccessCounter) {
-                    thirdLeastAccessCounter = accessCounter;
-                    thirdLeastAccessKey = entry.getKey();
-                } else if (accessCounter < secondLeastAccessCounter) {
-                    secondLeastAccessCounter = accessCounter;
-                    secondLeastAccessKey = entry.getKey();
-                } else if (accessCounter < leastAccessCounter) {
-                    leastAccessCounter = accessCounter;
-                    leastAccessKey = entry.getKey();
+    static boolean isSparseSolverPreferable(final double[][] matrix) {
+        final int size = matrix.length;
+        if (size <= SPARSE_MIN_SIZE) {
+            return false;
+        }
+        long nonZeros = 0;
+        for (double[] row : matrix) {
+            for (double value : row) {
+                if (value != 0) {
+                    nonZeros++;
                 }
             }
         }
+        return isSparseSolverPreferable(size, nonZeros);
+    }
 
-        if (leastAccessKey != -1) {
-            AbstractCachedMatrix remove = _cachedMatrices.remove(leastAccessKey);
-            memoryBytes -= remove.calculateMemoryRequirement();
-        }
+    /**
+     * @param size matrix size, including the ground node
+     */
+    static boolean isSparseSolverPreferable(final int size, final long nonZeros) {
+        return size > SPARSE_MIN_SIZE && nonZeros < SPARSE_MAX_DENSITY * size * size;
+    }
 
-        if (secondLeastAccessKey != -1) {
-            AbstractCachedMatrix remove = _cachedMatrices.remove(secondLeastAccessKey);
-            memoryBytes -= remove.calculateMemoryRequirement();
+    private void initLUDecomp(final AbstractCachedMatrix newMatrix) {
+        newMatrix.initLUDecomp();
+        if (newMatrix instanceof SparseLUCachedMatrix) {
+            // the next decomposition with the same structure re-uses the symbolic analysis
+            _sparseSymbolic = ((SparseLUCachedMatrix) newMatrix).getSymbolic();
         }
+    }
 
-        if (thirdLeastAccessKey != -1) {
-            AbstractCachedMatrix remove = _cachedMatrices.remove(thirdLeastAccessKey);
-            memoryBytes -= remove.calculateMemoryRequirement();
+    /**
+     * On a cache miss, the new matrix is solved via a low rank update of the
+     * latest full LU decomposition, if only a few rows (i.e. switch nodes) differ.
+     */
+    private AbstractCachedMatrix findLowRankUpdate(final double[][] matrix) {
+        if (!USE_LOW_RANK_UPDATES || _lowRankBase == null) {
+            return null;
         }
+        // the update only pays off if the rank is small compared to the matrix size
+        final int maxRank = Math.min(MAX_UPDATE_RANK, matrix.length / 4);
+        if (maxRank < 1) {
+            return null;
+        }
+        return LowRankUpdatedMatrix.createLowRankUpdate(_lowRankBase, _lowRankBaseMatrix, matrix, maxRank);
     }
 
-    private void calculateNewVarMaxCacheSize() {
-        if (memoryBytes > maxJVMMemory / 3) {
-            // enshure that the cache size is not too big.
-            varMaxCacheSize = _cachedMatrices.size();
+    private void setLowRankBase(final AbstractCachedMatrix base, final Object baseKey, final double[][] matrix) {
+        if (!USE_LOW_RANK_UPDATES) {
+            return;
         }
-
-        if (memoryBytes < maxJVMMemory / 10) {
-            varMaxCacheSize = MAX_CACHE_SIZE;
+        if (_lowRankBaseMatrix == null || _lowRankBaseMatrix.length != matrix.length) {
+            _lowRankBaseMatrix = new double[matrix.length][matrix.length];
         }
+        for (int i = 0; i < matrix.length; i++) {
+            System.arraycopy(matrix[i], 0, _lowRankBaseMatrix[i], 0, matrix.length);
+        }
+        _lowRankBase = base;
+        _lowRankBaseKey = baseKey;
+    }
+
+    private void printDebugMessages() {
+        System.out.println("cache size: " + _cachedMatrices.size());
+        System.out.println("cache hits: " + _cacheHitCounter + " " + _cacheMissCounter + " " + (100.0 * _cacheHitCounter / (_cacheHitCounter + _cacheMissCounter)) + "%");
+        System.out.println("memory requirement in MB: " + _memoryBytes / 1024 / 1024);
     }
 }
@@ -0,0 +1,256 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Arrays;
+
+/**
+ * When a few switches change their state, only the matrix rows of the
+ * switch nodes change. Instead of a new LU decomposition, the new system
+ * A_new = A_base + E_R * V (E_R selects the k changed rows, V holds the row
+ * differences) is solved with the Sherman-Morrison-Woodbury formula:
+ *
+ * x = y - Z * (I + V*Z)^-1 * V*y, with y = A_base^-1 * b and Z = A_base^-1 * E_R.
+ *
+ * The initialization costs k solves with the base decomposition instead of a
+ * full O(n^3) decomposition, each solve costs one base solve plus O(k*n).
+ */
+final class LowRankUpdatedMatrix extends AbstractCachedMatrix {
+
+    private static final double SINGULARITY_TOLERANCE = 1e-12;
+    private final AbstractCachedMatrix _base;
+    private final int[] _changedRows;
+    private final int[][] _deltaColumns;
+    private final double[][] _deltaValues;
+    private final int _matrixSize;
+    private double[][] _zColumns;
+    private double[][] _capacitanceLU;
+    private int[] _capacitancePivot;
+    private double[] _tmpVector;
+    private double[] _XCol;
+    private boolean _isNonSingular;
+
+    private LowRankUpdatedMatrix(final double[][] matrix, final AbstractCachedMatrix base, final int[] changedRows,
+            final int[][] deltaColumns, final double[][] deltaValues) {
+        super(matrix);
+        _base = base;
+        _changedRows = changedRows;
+        _deltaColumns = deltaColumns;
+        _deltaValues = deltaValues;
+        _matrixSize = matrix.length;
+    }
+
+    /**
+     * @param base the LU decomposition of baseMatrix
+     * @param baseMatrix a copy of the matrix which was decomposed in base
+     * @param matrix the new system matrix
+     * @param maxRank maximum number of changed rows
+     * @return the updated decomposition, or null if more than maxRank rows
+     * differ or if the update is numerically not applicable.
+     */
+    static AbstractCachedMatrix createLowRankUpdate(final AbstractCachedMatrix base, final double[][] baseMatrix,
+            final double[][] matrix, final int maxRank) {
+        final int size = matrix.length;
+        if (baseMatrix.length != size) {
+            return null;
+        }
+
+        final int[] changedRows = new int[maxRank];
+        final int[][] deltaColumns = new int[maxRank][];
+        final double[][] deltaValues = new double[maxRank][];
+        final int[] columnBuffer = new int[size];
+        final double[] valueBuffer = new double[size];
+        int rank = 0;
+
+        for (int i = 1; i < size; i++) {
+            final double[] newRow = matrix[i];
+            final double[] baseRow = baseMatrix[i];
+            int nonZeros = 0;
+            for (int j = 1; j < size; j++) {
+                final double difference = newRow[j] - baseRow[j];
+                if (difference != 0) {
+                    columnBuffer[nonZeros] = j;
+                    valueBuffer[nonZeros] = difference;
+                    nonZeros++;
+                }
+            }
+            if (nonZeros > 0) {
+                if (rank == maxRank) {
+                    return null;
+                }
+                changedRows[rank] = i;
+                deltaColumns[rank] = Arrays.copyOf(columnBuffer, nonZeros);
+                deltaValues[rank] = Arrays.copyOf(valueBuffer, nonZeros);
+                rank++;
+            }
+        }
+
+        if (rank == 0) {
+            return base;
+        }
+
+        final LowRankUpdatedMatrix returnValue = new LowRankUpdatedMatrix(matrix, base,
+                Arrays.copyOf(changedRows, rank), Arrays.copyOf(deltaColumns, rank),
+                Arrays.copyOf(deltaValues, rank));
+        returnValue.initLUDecomp();
+        if (returnValue._isNonSingular) {
+            return returnValue;
+        } else {
+            return null;
+        }
+    }
+
+    int getRank() {
+        return _changedRows.length;
+    }
+
+    @Override
+    void initLUDecomp() {
+        // the matrix is overwritten by the simulation kernel afterwards:
+        hashCode();
+        secondHashCode();
+        _originalMatrix = null;
+
+        final int rank = _changedRows.length;
+        _XCol = new double[_matrixSize];
+        _tmpVector = new double[rank];
+        _zColumns = new double[rank][];
+        final double[] unitVector = new double[_matrixSize];
+        for (int r = 0; r < rank; r++) {
+            unitVector[_changedRows[r]] = 1;
+            _zColumns[r] = _base.solve(unitVector).clone();
+            unitVector[_changedRows[r]] = 0;
+        }
+
+        // capacitance matrix I + V*Z
+        _capacitanceLU = new double[rank][rank];
+        for (int a = 0; a < rank; a++) {
+            final int[] columns = _deltaColumns[a];
+            final double[] values = _deltaValues[a];
+            for (int b = 0; b < rank; b++) {
+                final double[] zColumn = _zColumns[b];
+                double sum = a == b ? 1 : 0;
+                for (int p = 0; p < columns.length; p++) {
+                    sum += values[p] * zColumn[columns[p]];
+                }
+                _capacitanceLU[a][b] = sum;
+            }
+        }
+        _isNonSingular = decomposeCapacitanceMatrix();
+    }
+
+    /**
+     * dense LU decomposition with partial pivoting of the small k x k
+     * capacitance matrix.
+     */
+    private boolean decomposeCapacitanceMatrix() {
+        final int rank = _capacitanceLU.length;
+        final double[][] lu = _capacitanceLU;
+        _capacitancePivot = new int[rank];
+        double maxAbs = 0;
+        for (double[] row : lu) {
+            for (double value : row) {
+                maxAbs = Math.max(maxAbs, Math.abs(value));
+            }
+        }
+
+        for (int j = 0; j < rank; j++) {
+            int p = j;
+            for (int i = j + 1; i < rank; i++) {
+                if (Math.abs(lu[i][j]) > Math.abs(lu[p][j])) {
+                    p = i;
+                }
+            }
+            if (Math.abs(lu[p][j]) <= SINGULARITY_TOLERANCE * maxAbs) {
+                return false;
+            }
+            _capacitancePivot[j] = p;
+            if (p != j) {
+                final double[] tmp = lu[p];
+                lu[p] = lu[j];
+                lu[j] = tmp;
+            }
+            for (int i = j + 1; i < rank; i++) {
+                final double factor = lu[i][j] / lu[j][j];
+                lu[i][j] = factor;
+                for (int k = j + 1; k < rank; k++) {
+                    lu[i][k] -= factor * lu[j][k];
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public double[] solve(final double[] bVector) {
+        final double[] yVector = _base.solve(bVector);
+        final double[] xVector = _XCol;
+        System.arraycopy(yVector, 0, xVector, 0, _matrixSize);
+
+        final int rank = _changedRows.length;
+        final double[] tmp = _tmpVector;
+        for (int a = 0; a < rank; a++) {
+            final int[] columns = _deltaColumns[a];
+            final double[] values = _deltaValues[a];
+            double sum = 0;
+            for (int p = 0; p < columns.length; p++) {
+                sum += values[p] * xVector[columns[p]];
+            }
+            tmp[a] = sum;
+        }
+
+        // solve (I + V*Z) * w = V*y
+        final double[][] lu = _capacitanceLU;
+        for (int j = 0; j < rank; j++) {
+            final int p = _capacitancePivot[j];
+            if (p != j) {
+                final double swap = tmp[p];
+                tmp[p] = tmp[j];
+                tmp[j] = swap;
+            }
+        }
+        for (int i = 1; i < rank; i++) {
+            for (int k = 0; k < i; k++) {
+                tmp[i] -= lu[i][k] * tmp[k];
+            }
+        }
+        for (int i = rank - 1; i >= 0; i--) {
+            for (int k = i + 1; k < rank; k++) {
+                tmp[i] -= lu[i][k] * tmp[k];
+            }
+            tmp[i] /= lu[i][i];
+        }
+
+        for (int b = 0; b < rank; b++) {
+            final double[] zColumn = _zColumns[b];
+            final double factor = tmp[b];
+            for (int i = 1; i < _matrixSize; i++) {
+                xVector[i] -= factor * zColumn[i];
+            }
+        }
+        return xVector;
+    }
+
+    @Override
+    long calculateMemoryRequirement() {
+        // without the base decomposition, which is cached on its own
+        return sizeOf(_changedRows) + sizeOf(_deltaColumns) + sizeOf(_deltaValues) + sizeOf(_zColumns)
+                + sizeOf(_capacitanceLU) + sizeOf(_capacitancePivot) + sizeOf(_tmpVector) + sizeOf(_XCol);
+    }
+
+    @Override
+    public void deleteCache() {
+        _zColumns = null;
+    }
+}
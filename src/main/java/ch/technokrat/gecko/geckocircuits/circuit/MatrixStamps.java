@@ -0,0 +1,297 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Precompiled assembly of a system matrix. Each stamp is one contribution of
+ * a component to a matrix entry (a[row][col] += value, or a[row][col] =
+ * value). The first pass over all components records the stamps and compiles
+ * them into slots: one slot per non-zero matrix entry, in row-major (CSR)
+ * order, each with the list of its stamps.
+ *
+ * Later passes must write the same sequence of stamps, only the values may
+ * change. A slot is recalculated only if one of its stamp values changed, and
+ * the matrix entries outside of the slots are never touched. The stamps of a
+ * slot are summed in the recording order, so that an entry is bit-identical
+ * to the result of a complete re-assembly.
+ *
+ * The slots are written either to a dense matrix, or to the values of
+ * compressed columns (see createColumns()) for the sparse LU decomposition.
+ */
+final class MatrixStamps {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private final int _matrixSize;
+    private boolean _isRecording = true;
+    private int _cursor;
+    private boolean _isMismatch;
+    // stamps, in the order of writing:
+    private int _stampCount;
+    private int[] _stampRows = new int[INITIAL_CAPACITY];
+    private int[] _stampCols = new int[INITIAL_CAPACITY];
+    private boolean[] _isAssignment = new boolean[INITIAL_CAPACITY];
+    private double[] _values = new double[INITIAL_CAPACITY];
+    private int[] _stampSlots;
+    // slots, the stamps of slot s are _slotStamps[_slotStart[s]] ... _slotStamps[_slotStart[s + 1] - 1]:
+    private int[] _slotRows;
+    private int[] _slotCols;
+    private int[] _slotStart;
+    private int[] _slotStamps;
+    // index of each slot in the values of the compressed columns, -1 in the ground row or column:
+    private int[] _slotValueIndices;
+    private int[] _colPointers;
+    private int[] _rowIndices;
+    private boolean[] _isSlotDirty;
+    private int[] _dirtySlots;
+    private int _dirtyCount;
+
+    MatrixStamps(final int matrixSize) {
+        _matrixSize = matrixSize;
+    }
+
+    /**
+     * a[row][col] += value
+     */
+    void add(final int row, final int col, final double value) {
+        write(row, col, value, false);
+    }
+
+    /**
+     * a[row][col] = value, the stamps written before to this entry are
+     * overwritten.
+     */
+    void set(final int row, final int col, final double value) {
+        write(row, col, value, true);
+    }
+
+    /**
+     * @return the index of the next stamp to be written
+     */
+    int getPosition() {
+        return _cursor;
+    }
+
+    /**
+     * ends the recording pass, all slots have to be written to the matrix.
+     */
+    void compile() {
+        if (!_isRecording) {
+            throw new IllegalStateException("Matrix stamps are already compiled.");
+        }
+        _isRecording = false;
+        final Map<Long, Integer> slotIndices = new HashMap<Long, Integer>();
+        final long[] positions = new long[_stampCount];
+        int slotCount = 0;
+        for (int i = 0; i < _stampCount; i++) {
+            final long position = (long) _stampRows[i] * _matrixSize + _stampCols[i];
+            if (!slotIndices.containsKey(position)) {
+                slotIndices.put(position, slotCount);
+                positions[slotCount++] = position;
+            }
+        }
+        final long[] sortedPositions = Arrays.copyOf(positions, slotCount);
+        Arrays.sort(sortedPositions);
+        _slotRows = new int[slotCount];
+        _slotCols = new int[slotCount];
+        for (int s = 0; s < slotCount; s++) {
+            _slotRows[s] = (int) (sortedPositions[s] / _matrixSize);
+            _slotCols[s] = (int) (sortedPositions[s] % _matrixSize);
+            slotIndices.put(sortedPositions[s], s);
+        }
+
+        _stampSlots = new int[_stampCount];
+        _slotStart = new int[slotCount + 1];
+        for (int i = 0; i < _stampCount; i++) {
+            _stampSlots[i] = slotIndices.get((long) _stampRows[i] * _matrixSize + _stampCols[i]);
+            _slotStart[_stampSlots[i] + 1]++;
+        }
+        for (int s = 0; s < slotCount; s++) {
+            _slotStart[s + 1] += _slotStart[s];
+        }
+        _slotStamps = new int[_stampCount];
+        final int[] fill = Arrays.copyOf(_slotStart, slotCount);
+        for (int i = 0; i < _stampCount; i++) { // keeps the recording order within each slot
+            _slotStamps[fill[_stampSlots[i]]++] = i;
+        }
+
+        compileColumns();
+        _isSlotDirty = new boolean[slotCount];
+        _dirtySlots = new int[slotCount];
+        for (int s = 0; s < slotCount; s++) {
+            markDirty(s);
+        }
+    }
+
+    /**
+     * the non-zero pattern of the slots without the ground row and column:
+     * matrix index i is row or column i - 1 of the compressed columns.
+     */
+    private void compileColumns() {
+        final int size = _matrixSize - 1;
+        _colPointers = new int[size + 1];
+        for (int s = 0; s < _slotRows.length; s++) {
+            if (_slotRows[s] > 0 && _slotCols[s] > 0) {
+                _colPointers[_slotCols[s]]++;
+            }
+        }
+        for (int j = 0; j < size; j++) {
+            _colPointers[j + 1] += _colPointers[j];
+        }
+        _rowIndices = new int[_colPointers[size]];
+        _slotValueIndices = new int[_slotRows.length];
+        final int[] fill = Arrays.copyOf(_colPointers, size);
+        for (int s = 0; s < _slotRows.length; s++) { // row-major order: ascending rows in each column
+            if (_slotRows[s] > 0 && _slotCols[s] > 0) {
+                final int index = fill[_slotCols[s] - 1]++;
+                _rowIndices[index] = _slotRows[s] - 1;
+                _slotValueIndices[s] = index;
+            } else {
+                _slotValueIndices[s] = -1;
+            }
+        }
+    }
+
+    /**
+     * @return compressed columns with the pattern of the slots; the values are
+     * written by assemble(CompressedColumns). The ground row and column are
+     * not included.
+     */
+    CompressedColumns createColumns() {
+        return new CompressedColumns(_matrixSize - 1, _colPointers, _rowIndices);
+    }
+
+    /**
+     * starts re-writing the stamps, beginning with the stamp at the given
+     * position.
+     */
+    void beginUpdate(final int position) {
+        _cursor = position;
+        _isMismatch = false;
+    }
+
+    /**
+     * @return false, if the written stamps do not match the recorded ones
+     * (e.g. a source changed its type): the stamps have to be recorded anew.
+     */
+    boolean endUpdate(final int expectedPosition) {
+        return !_isMismatch && _cursor == expectedPosition;
+    }
+
+    int getNumberOfStamps() {
+        return _stampCount;
+    }
+
+    int getNumberOfSlots() {
+        return _slotRows.length;
+    }
+
+    /**
+     * writes the slots with changed stamp values to the matrix.
+     */
+    void assemble(final double[][] matrix) {
+        for (int k = 0; k < _dirtyCount; k++) {
+            final int slot = _dirtySlots[k];
+            matrix[_slotRows[slot]][_slotCols[slot]] = calculateSlotValue(slot);
+            _isSlotDirty[slot] = false;
+        }
+        _dirtyCount = 0;
+    }
+
+    /**
+     * writes the slots with changed stamp values to the compressed columns of
+     * createColumns(). The slots in the ground row and column are skipped.
+     */
+    void assemble(final CompressedColumns columns) {
+        final double[] values = columns._values;
+        for (int k = 0; k < _dirtyCount; k++) {
+            final int slot = _dirtySlots[k];
+            final int index = _slotValueIndices[slot];
+            if (index >= 0) {
+                values[index] = calculateSlotValue(slot);
+            }
+            _isSlotDirty[slot] = false;
+        }
+        _dirtyCount = 0;
+    }
+
+    private double calculateSlotValue(final int slot) {
+        double sum = 0;
+        for (int j = _slotStart[slot]; j < _slotStart[slot + 1]; j++) {
+            final int stamp = _slotStamps[j];
+            if (_isAssignment[stamp]) {
+                sum = _values[stamp];
+            } else {
+                sum += _values[stamp];
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * sets all entries of the slots to zero, before the matrix is assembled
+     * with a new set of stamps.
+     */
+    void clear(final double[][] matrix) {
+        for (int s = 0; s < _slotRows.length; s++) {
+            matrix[_slotRows[s]][_slotCols[s]] = 0;
+        }
+    }
+
+    private void write(final int row, final int col, final double value, final boolean isAssignment) {
+        if (_isRecording) {
+            record(row, col, value, isAssignment);
+            return;
+        }
+        if (_isMismatch) {
+            return;
+        }
+        if (_cursor >= _stampCount || _stampRows[_cursor] != row || _stampCols[_cursor] != col
+                || _isAssignment[_cursor] != isAssignment) {
+            _isMismatch = true;
+            return;
+        }
+        if (Double.doubleToRawLongBits(_values[_cursor]) != Double.doubleToRawLongBits(value)) {
+            _values[_cursor] = value;
+            markDirty(_stampSlots[_cursor]);
+        }
+        _cursor++;
+    }
+
+    private void record(final int row, final int col, final double value, final boolean isAssignment) {
+        if (_stampCount == _values.length) {
+            final int capacity = 2 * _stampCount;
+            _stampRows = Arrays.copyOf(_stampRows, capacity);
+            _stampCols = Arrays.copyOf(_stampCols, capacity);
+            _isAssignment = Arrays.copyOf(_isAssignment, capacity);
+            _values = Arrays.copyOf(_values, capacity);
+        }
+        _stampRows[_stampCount] = row;
+        _stampCols[_stampCount] = col;
+        _isAssignment[_stampCount] = isAssignment;
+        _values[_stampCount] = value;
+        _stampCount++;
+        _cursor = _stampCount;
+    }
+
+    private void markDirty(final int slot) {
+        if (!_isSlotDirty[slot]) {
+            _isSlotDirty[slot] = true;
+            _dirtySlots[_dirtyCount++] = slot;
+        }
+    }
+}
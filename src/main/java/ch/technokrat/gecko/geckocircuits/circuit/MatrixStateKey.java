@@ -0,0 +1,91 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Arrays;
+
+/**
+ * Identifies the content of a system matrix without looking at its entries:
+ * one bit per switch or diode (on/off), the stepwidth of the matrix assembly
+ * and a generation number, which changes whenever any other matrix
+ * contribution changes (parameter change, nonlinear component, ...). See
+ * LKMatrices.getMatrixStateKey().
+ *
+ * The key of LKMatrices is mutable and re-used for each lookup, the cache
+ * stores a copy.
+ */
+final class MatrixStateKey {
+
+    private static final int BITS_PER_WORD = 64;
+    private final long[] _switchStates;
+    private long _stepWidthBits;
+    private long _generation;
+
+    MatrixStateKey(final int numberOfSwitches) {
+        _switchStates = new long[(numberOfSwitches + BITS_PER_WORD - 1) / BITS_PER_WORD];
+    }
+
+    private MatrixStateKey(final MatrixStateKey original) {
+        _switchStates = original._switchStates.clone();
+        _stepWidthBits = original._stepWidthBits;
+        _generation = original._generation;
+    }
+
+    MatrixStateKey copy() {
+        return new MatrixStateKey(this);
+    }
+
+    void clearSwitchStates() {
+        Arrays.fill(_switchStates, 0);
+    }
+
+    void setSwitchOn(final int switchIndex) {
+        _switchStates[switchIndex / BITS_PER_WORD] |= 1L << (switchIndex % BITS_PER_WORD);
+    }
+
+    boolean isSwitchOn(final int switchIndex) {
+        return (_switchStates[switchIndex / BITS_PER_WORD] & (1L << (switchIndex % BITS_PER_WORD))) != 0;
+    }
+
+    void setStepWidth(final double dt) {
+        _stepWidthBits = Double.doubleToLongBits(dt);
+    }
+
+    void setGeneration(final long generation) {
+        _generation = generation;
+    }
+
+    long getGeneration() {
+        return _generation;
+    }
+
+    @Override
+    public int hashCode() {
+        long hash = _generation * 31 + _stepWidthBits;
+        for (long word : _switchStates) {
+            hash = hash * 31 + word;
+        }
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (!(obj instanceof MatrixStateKey)) {
+            return false;
+        }
+        final MatrixStateKey other = (MatrixStateKey) obj;
+        return _generation == other._generation && _stepWidthBits == other._stepWidthBits
+                && Arrays.equals(_switchStates, other._switchStates);
+    }
+}
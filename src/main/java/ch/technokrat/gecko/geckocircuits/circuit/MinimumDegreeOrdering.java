@@ -0,0 +1,88 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.BitSet;
+
+/**
+ * Fill-reducing ordering for the sparse LU decomposition. The MNA matrices of
+ * the power circuit are structurally (nearly) symmetric, therefore we apply a
+ * minimum degree ordering on the graph of A + A^T. The elimination graph is
+ * kept explicitly as one bitset per node, which is fast enough for the matrix
+ * sizes occuring in circuit simulation (some thousand nodes).
+ */
+final class MinimumDegreeOrdering {
+
+    private MinimumDegreeOrdering() {
+        // pure utility class
+    }
+
+    /**
+     * @param size matrix dimension
+     * @param colPointers column pointers of the matrix in CSC format
+     * @param rowIndices row indices of the matrix in CSC format
+     * @return the elimination order, order[k] is the k-th column to eliminate
+     */
+    static int[] calculateOrdering(final int size, final int[] colPointers, final int[] rowIndices) {
+        final BitSet[] adjacency = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            adjacency[i] = new BitSet(size);
+        }
+
+        for (int col = 0; col < size; col++) {
+            for (int p = colPointers[col]; p < colPointers[col + 1]; p++) {
+                final int row = rowIndices[p];
+                if (row != col) {
+                    adjacency[row].set(col);
+                    adjacency[col].set(row);
+                }
+            }
+        }
+
+        final int[] degree = new int[size];
+        for (int i = 0; i < size; i++) {
+            degree[i] = adjacency[i].cardinality();
+        }
+
+        final boolean[] eliminated = new boolean[size];
+        final int[] order = new int[size];
+
+        for (int k = 0; k < size; k++) {
+            int pivotNode = -1;
+            int minDegree = Integer.MAX_VALUE;
+            for (int i = 0; i < size; i++) {
+                if (!eliminated[i] && degree[i] < minDegree) {
+                    minDegree = degree[i];
+                    pivotNode = i;
+                }
+            }
+
+            order[k] = pivotNode;
+            eliminated[pivotNode] = true;
+
+            // the neighbours of the eliminated node form a clique in the elimination graph:
+            final BitSet neighbours = adjacency[pivotNode];
+            for (int u = neighbours.nextSetBit(0); u >= 0; u = neighbours.nextSetBit(u + 1)) {
+                final BitSet uAdjacency = adjacency[u];
+                uAdjacency.or(neighbours);
+                uAdjacency.clear(u);
+                uAdjacency.clear(pivotNode);
+                degree[u] = uAdjacency.cardinality();
+            }
+            adjacency[pivotNode] = null;
+        }
+
+        return order;
+    }
+}
@@ -28,7 +28,7 @@ public class NetListContainer {
         NetListLK nlL = schematicEntry.getNetzliste(ConnectorType.LK_AND_RELUCTANCE);
         
         NetListLK nlT = schematicEntry.getNetzliste(ConnectorType.THERMAL);
-        NetzlisteCONTROL nlC = NetzlisteCONTROL.FabricRunSimulation(nlC1);
+        NetzlisteCONTROL nlC = NetzlisteCONTROL.FabricRunSimulation(nlC1, simKern.getSimulationContext());
         
         for(AbstractCircuitSheetComponent elem : schematicEntry._circuitSheet.getAllElements()) {
             if(elem instanceof AbstractCircuitBlockInterface) {
@@ -186,9 +186,10 @@ public class NetListLK {
 
     /**
      * this version is only for the initalization/ internal replacement of
-     * capacitors with voltage sources.
+     * capacitors with voltage sources, and for benchmarks of the matrix
+     * assembly.
      */
-    private NetListLK(CircuitTyp[] typ, int[] knotenX, int[] knotenY, double[][] parameter, int[] spgQuelleNr) {
+    NetListLK(CircuitTyp[] typ, int[] knotenX, int[] knotenY, double[][] parameter, int[] spgQuelleNr) {
         // Voraussetzung 1: Knoten sind durchgehend von Null weg aufsteigend numeriert
         //------------------------------
         this.typ = typ;
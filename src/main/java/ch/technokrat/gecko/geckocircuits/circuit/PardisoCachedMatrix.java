@@ -29,7 +29,7 @@ public class PardisoCachedMatrix extends AbstractCachedMatrix {
     }
 
     @Override
-    int calculateMemoryRequirement() {
+    long calculateMemoryRequirement() {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
     
@@ -17,10 +17,12 @@ import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.geckocircuits.allg.AbstractComponentTyp;
 import ch.technokrat.gecko.geckocircuits.allg.DatenSpeicher;
 import ch.technokrat.gecko.geckocircuits.allg.Fenster;
+import ch.technokrat.gecko.geckocircuits.allg.OptimizerParameterData;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractCircuitBlockInterface;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractCircuitGlobalTerminal;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SubcircuitBlock;
 import ch.technokrat.gecko.geckocircuits.control.*;
+import ch.technokrat.gecko.geckocircuits.control.javablock.JavaBlockCompiler;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics2D;
@@ -125,7 +127,9 @@ public final class SchematischeEingabe2 implements MouseListener, MouseMotionLis
         }
         _visibleCircuitSheet.removeMouseListener(this);
         _visibleCircuitSheet.removeMouseMotionListener(this);
-        _visibleCircuitSheet.removeKeyListener(win.keyAdapter);
+        if (win != null) {
+            _visibleCircuitSheet.removeKeyListener(win.keyAdapter);
+        }
 
         _visibleCircuitSheet = _circuitSheet;
         _visibleCircuitSheet = newCircuitSheet;
@@ -137,7 +141,9 @@ public final class SchematischeEingabe2 implements MouseListener, MouseMotionLis
         Fenster.seScroll.setViewportView(centerPanel);
         _visibleCircuitSheet.addMouseListener(this);
         _visibleCircuitSheet.addMouseMotionListener(this);
-        _visibleCircuitSheet.addKeyListener(win.keyAdapter);
+        if (win != null) {
+            _visibleCircuitSheet.addKeyListener(win.keyAdapter);
+        }
         Fenster.seScroll.revalidate();
 
         for (AbstractCircuitSheetComponent searchTerminal
@@ -609,6 +615,8 @@ public final class SchematischeEingabe2 implements MouseListener, MouseMotionLis
         this.simulatorAktiviert = simulatorAktiviert;
     }
     public static SchematischeEingabe2 Singleton;
+    // values of the $-parameter names; the model of the main window uses the global data
+    private OptimizerParameterData _optimizerParameterData = Fenster.optimizerParameterData;
 
     // damit man die Titelleiste modifizieren kann, wenn die Aenderungen noch nicht gespeichert sind --> 
     public void setFenster(Fenster win) {
@@ -629,6 +637,14 @@ public final class SchematischeEingabe2 implements MouseListener, MouseMotionLis
 
     }
 
+    public OptimizerParameterData getOptimizerParameterData() {
+        return _optimizerParameterData;
+    }
+
+    public void setOptimizerParameterData(final OptimizerParameterData optimizerParameterData) {
+        _optimizerParameterData = optimizerParameterData;
+    }
+
     public void resetModelModified() {
         this.zustandGeaendert = false;
     }
@@ -666,7 +682,12 @@ public final class SchematischeEingabe2 implements MouseListener, MouseMotionLis
                 ((GeckoFileable) elem).initExtraFiles();
             }
         }
-        Fenster._scripter.initExtraFiles();
+        if (Fenster._scripter != null) { // no scripter in headless mode
+            Fenster._scripter.initExtraFiles();
+        }
+        if (JavaBlockCompiler.isCompilationAtModelLoad()) {
+            JavaBlockCompiler.compileInBackground(geckoFileables);
+        }
     }
 
     public void resetCircuitSheetsForNewFile() {
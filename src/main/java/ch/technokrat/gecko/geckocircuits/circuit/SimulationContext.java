@@ -0,0 +1,76 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.Fenster;
+import ch.technokrat.gecko.geckocircuits.control.NetzlisteCONTROL;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
+
+/**
+ * State which belongs to one simulation run: the solver settings, the data
+ * container for the scope signals and the simulated time interval. Each
+ * SimulationsKern has its own context, so that several simulations can run
+ * in parallel within one JVM. The simulation of the GUI uses
+ * createGuiContext(), which writes into the data container shown by the
+ * scopes.
+ */
+public final class SimulationContext {
+
+    private final SolverSettings _solverSettings;
+    private final DataContainerGlobal _dataContainer;
+    private double _tStart;
+    private double _tEnd;
+
+    public SimulationContext(final SolverSettings solverSettings, final DataContainerGlobal dataContainer) {
+        _solverSettings = solverSettings;
+        _dataContainer = dataContainer;
+    }
+
+    /**
+     * context of the simulation which is controlled by the main window (and
+     * by GeckoSCRIPT, GeckoREMOTE, ...).
+     */
+    public static SimulationContext createGuiContext() {
+        return new SimulationContext(Fenster._solverSettings, NetzlisteCONTROL.globalData);
+    }
+
+    public SolverSettings getSolverSettings() {
+        return _solverSettings;
+    }
+
+    public DataContainerGlobal getDataContainer() {
+        return _dataContainer;
+    }
+
+    /**
+     * @return the seed for the random signal sources, or null if the random
+     * values should differ in each simulation.
+     */
+    public Long getRandomSeed() {
+        return _solverSettings._randomSeed;
+    }
+
+    public double getTStart() {
+        return _tStart;
+    }
+
+    public double getTEnd() {
+        return _tEnd;
+    }
+
+    void setSimulationInterval(final double tStart, final double tEnd) {
+        _tStart = tStart;
+        _tEnd = tEnd;
+    }
+}
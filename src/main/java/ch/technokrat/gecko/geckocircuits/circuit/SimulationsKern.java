@@ -18,12 +18,11 @@ import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractMotor
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractVoltageSource;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.AbstractCurrentSource;
 import ch.technokrat.gecko.geckocircuits.allg.DialogWarningNodeNumber;
-import ch.technokrat.gecko.geckocircuits.allg.Fenster;
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.ReluctanceInductor;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SourceType;
 import ch.technokrat.gecko.geckocircuits.control.*;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
-import ch.technokrat.gecko.geckocircuits.datacontainer.CompressorIntMatrix;
 import ch.technokrat.gecko.geckocircuits.datacontainer.IntegerMatrixCache;
 import ch.technokrat.gecko.geckocircuits.datacontainer.ShortMatrixCache;
 import ch.technokrat.gecko.geckocircuits.newscope.ScopeFrame;
@@ -34,7 +33,6 @@ public class SimulationsKern {
 
     private boolean diodenSchaltfehler;
     private double dt, t, tPAUSE;
-    public static double tSTART, tEND;
     private LKMatrices lkmLK;  // Leistungskreis
     private LKMatrices lkmTHERM;  // thermischer Kreis
     private NetListLK nl;  // Leistungskreis
@@ -73,6 +71,9 @@ public class SimulationsKern {
     LUDecompositionCache _thLuDecompCache;
     private AbstractControlCalculatable[] sortedCalculators;
     private AbstractControlCalculatable[] unsortedCalculators;
+    private StepWidthController _stepWidthController;  // null, if the simulation runs with constant dt
+    private SwitchingEventLocator _eventLocator;  // only defined together with _stepWidthController
+    private final SimulationContext _context;
 
     public enum SimulationStatus {
 
@@ -81,9 +82,18 @@ public class SimulationsKern {
         PAUSED,
         FINISHED
     };
-    public SimulationStatus _simulationStatus = SimulationStatus.NOT_INIT;
+    // volatile: other threads pause the simulation loop, e.g. HeadlessSimulation.stopSimulation()
+    public volatile SimulationStatus _simulationStatus = SimulationStatus.NOT_INIT;
 
+    /**
+     * kernel for the simulation of the GUI model
+     */
     public SimulationsKern() {
+        this(SimulationContext.createGuiContext());
+    }
+
+    public SimulationsKern(final SimulationContext context) {
+        _context = context;
         _thLuDecompCache = new LUDecompositionCache();
         _luDecompCache = new LUDecompositionCache();
     }
@@ -96,35 +106,58 @@ public class SimulationsKern {
     }
 
     public double getTEND() {
-        return tEND;
+        return _context.getTEnd();
     }
 
     public double getTSTART() {
-        return tSTART;
+        return _context.getTStart();
+    }
+
+    public SimulationContext getSimulationContext() {
+        return _context;
     }
 
     public double getdt() {
         return dt;
     }
-    static int counter = 0;
 
     private void simulateOneTimeStep() {
-        counter++;
         if (simuliereLeistungskreis) {
             nl.updateNonlinearCapacitancesAndResistors();
             final boolean mindestensEineAktiveSchalthandlung = checkForSwitchAction();
 
             if (mindestensEineAktiveSchalthandlung) {
+                if (_stepWidthController != null) { // resolve the switching action with the minimum stepwidth
+                    changeStepWidth(_stepWidthController.resetToMinimumStepWidth());
+                }
                 lkmLK.schreibeMatrix_A(dt, t, false);
-                _lkCachedMatrix = _luDecompCache.getCachedLUDecomposition(lkmLK.a, t);
+                _lkCachedMatrix = lkmLK.getCachedLUDecomposition(_luDecompCache, t);
             }
 
             lkmLK.schreibeMatrix_B(dt, t, false);
-            lkmLK.p = _lkCachedMatrix.solve(lkmLK.bVector);            
-            doDiodeErrorsRecalculations();
+            lkmLK.p = _lkCachedMatrix.solve(lkmLK.bVector);
+            if (_stepWidthController != null && !mindestensEineAktiveSchalthandlung) {
+                // up to now, only p and the matrices were modified --> the step can still be repeated
+                while (!_stepWidthController.isStepAccepted(lkmLK.p, lkmLK.pALT, lkmLK.pALTALT, lkmLK.pALTALTALT)) {
+                    changeStepWidth(_stepWidthController.getStepWidth());
+                    lkmLK.schreibeMatrix_B(dt, t, false);
+                    lkmLK.p = _lkCachedMatrix.solve(lkmLK.bVector);
+                }
+                // end the step at the first diode commutation:
+                final double diodeEventDt = _eventLocator.getDiodeEventStepWidth(dt, lkmLK.findDiodeSwitchingFraction());
+                if (diodeEventDt < dt) {
+                    changeStepWidth(_stepWidthController.limitStepWidth(diodeEventDt));
+                    lkmLK.schreibeMatrix_B(dt, t, false);
+                    lkmLK.p = _lkCachedMatrix.solve(lkmLK.bVector);
+                }
+            }
+            final boolean diodeSwitched = doDiodeErrorsRecalculations();
             nl.berechneSubCircuitAlsDifferentialgleichung(dt, t);  // interne Berechungen in SubCircuits diverser LK-Elemente
             lkmLK.aktualisiereKnotenpotentiale(dt, t);     // pALT=p;
             dataTransferLK_Control();
+            if (_stepWidthController != null) {
+                _stepWidthController.stepFinished(mindestensEineAktiveSchalthandlung || diodeSwitched);
+            }
         }
 
         if (simuliereThermKreis) {
@@ -151,9 +184,18 @@ public class SimulationsKern {
         if ((t - dt / 2 <= tPAUSE) && (tPAUSE <= t + dt / 2)) {
             _simulationStatus = SimulationStatus.PAUSED;
         }
+
+        if (_stepWidthController != null) { // stepwidth for the next step, t is not changed here
+            final double nextDt = _eventLocator.predictStepWidth(dt, _stepWidthController.getStepWidth());
+            // the last step ends at tEND (or at the first grid point after tEND, as with constant dt)
+            setStepWidth(_stepWidthController.limitStepWidth(Math.min(nextDt, _context.getTEnd() - t)));
+        }
     }
 
-    private void doDiodeErrorsRecalculations() {
+    /**
+     * @return true, if at least one diode changed its state
+     */
+    private boolean doDiodeErrorsRecalculations() {
         int switchingErrorCounter = 0;   // 'stoergroesse<1.0' verhindert, dass der Algorithmus beim Dioden-Umschalten zwischen Zustaenden haengen bleibt
         double stoergroesse = 1;//0.9999999;
         boolean isNewIteration = false;
@@ -171,9 +213,62 @@ public class SimulationsKern {
                 stoergroesse *= 0.99;
             }
 
-            _lkCachedMatrix = _luDecompCache.getCachedLUDecomposition(lkmLK.a, t);
+            _lkCachedMatrix = lkmLK.getCachedLUDecomposition(_luDecompCache, t);
             lkmLK.p = _lkCachedMatrix.solve(lkmLK.bVector);
         }
+        return isNewIteration;
+    }
+
+    /**
+     * repeats the current step with a different stepwidth: the time t is
+     * moved, since t is the end of the current step.
+     */
+    private void changeStepWidth(final double newDt) {
+        if (newDt != dt) {
+            t += newDt - dt;
+            setStepWidth(newDt);
+        }
+    }
+
+    private void setStepWidth(final double newDt) {
+        if (newDt == dt) {
+            return;
+        }
+        dt = newDt;
+        lkmLK.schreibeMatrix_A(dt, t, false);
+        _lkCachedMatrix = lkmLK.getCachedLUDecomposition(_luDecompCache, t);
+        if (simuliereThermKreis) {
+            lkmTHERM.schreibeMatrix_A(dt, t, false);
+            _thCachedMatrix = lkmTHERM.getCachedLUDecomposition(_thLuDecompCache, t);
+        }
+    }
+
+    /**
+     * @return the stepwidth controller, or null if the adaptive stepwidth is
+     * switched off or not possible with the current model.
+     */
+    private StepWidthController createStepWidthController(final double dtMin) {
+        final SolverSettings solverSettings = _context.getSolverSettings();
+        if (!solverSettings._adaptiveStepWidth.getValue() || !simuliereLeistungskreis) {
+            return null;
+        }
+
+        if (solverSettings.SOLVER_TYPE.getValue() == SolverType.SOLVER_GS) {
+            System.err.println("Adaptive stepwidth is not available for the Gear-Shichman solver, using constant dt.");
+            return null;
+        }
+
+        // these blocks store their history with a fixed dt:
+        for (AbstractControlCalculatable calculator : sortedCalculators) {
+            if (calculator instanceof IsDtChangeSensitive || calculator instanceof ConstantStepWidthMarker
+                    || (calculator instanceof MemoryInitializable && !(calculator instanceof NotCalculateableMarker))) {
+                System.err.println("Adaptive stepwidth is not available with control block "
+                        + calculator.getClass().getSimpleName() + ", using constant dt.");
+                return null;
+            }
+        }
+        return new StepWidthController(dtMin, solverSettings._dtMax.getValue(),
+                solverSettings._relTolerance.getValue(), solverSettings.SOLVER_TYPE.getValue());
     }
 
     private void setControlledSourcesFromControlValue() {
@@ -332,7 +427,7 @@ public class SimulationsKern {
     }
 
     public void runSimulation() {        
-        while ((t <= tEND) && (_simulationStatus != _simulationStatus.PAUSED)) {
+        while ((t <= _context.getTEnd()) && (_simulationStatus != _simulationStatus.PAUSED)) {
             simulateOneTimeStep();
             t += dt;
         }
@@ -347,18 +442,51 @@ public class SimulationsKern {
     }
 
     public void simulateOneStep() throws Exception {
-        if (t + dt > tEND) {
+        if (t + dt > _context.getTEnd()) {
             throw new Exception("Specified end of simulation reached! Cannot simulate another step.");
         }
         simulateOneTimeStep();
         t += dt;
     }
 
+    /**
+     * co-simulation step: writes the inputs to the FromEXTERNAL blocks,
+     * simulates the given number of steps with these inputs and copies the
+     * values of the ToEXTERNAL blocks to outputs. Nothing is allocated.
+     */
+    public void simulateSteps(final CoSimulationPorts ports, final double[] inputs, final double[] outputs,
+            final int steps) throws Exception {
+        ports.writeInputs(inputs, 0);
+        for (int i = 0; i < steps; i++) {
+            simulateOneStep();
+        }
+        ports.readOutputs(outputs, 0);
+    }
+
+    /**
+     * co-simulation with queued inputs: simulates one step for each queued
+     * input vector, until the input queue is empty, the output queue is full
+     * or maxSteps steps are simulated.
+     *
+     * @return the number of simulated steps
+     */
+    public int simulateQueuedSteps(final CoSimulationPorts ports, final CoSimulationQueue queue,
+            final int maxSteps) throws Exception {
+        int steps = 0;
+        while (steps < maxSteps && queue.takeInputs(ports)) {
+            final double stepTime = t;
+            simulateOneStep();
+            queue.putOutputs(stepTime, ports);
+            steps++;
+        }
+        return steps;
+    }
+
     public void simulateTime(double time) throws Exception {
         double simtime = t + time;
         boolean overReach = false;
-        if (simtime > tEND) {
-            simtime = tEND;
+        if (simtime > _context.getTEnd()) {
+            simtime = _context.getTEnd();
             overReach = true;
         }
         while (t <= simtime) {
@@ -396,8 +524,7 @@ public class SimulationsKern {
     }
 
     public void setZeiten(double tSTART, double tEND, double dt) {
-        this.tSTART = tSTART;
-        this.tEND = tEND;
+        _context.setSimulationInterval(tSTART, tEND);
         this.dt = dt;
     }
 
@@ -408,8 +535,7 @@ public class SimulationsKern {
         _simulationStatus = SimulationStatus.RUNNING;
 
         this.dt = dt;
-        this.tSTART = tSTART;
-        this.tEND = tEND;
+        _context.setSimulationInterval(tSTART, tEND);
         this.tPAUSE = tPAUSE;
         this.t = tAktuell;
         //            
@@ -458,14 +584,16 @@ public class SimulationsKern {
         //
         // Leistungskreis:
         if (getAnfangsbedVomDialogfenster) {
-            lkmLK = new LKMatrices(Fenster._solverSettings.SOLVER_TYPE.getValue());
-            lkmLK.initMatrizen(nl, getAnfangsbedVomDialogfenster, true, Fenster._solverSettings.SOLVER_TYPE.getValue());  // pALT= new double[..];   iALT= new double[..];
+            final SolverType solverType = _context.getSolverSettings().SOLVER_TYPE.getValue();
+            lkmLK = new LKMatrices(solverType);
+            lkmLK.initMatrizen(nl, getAnfangsbedVomDialogfenster, true, solverType);  // pALT= new double[..];   iALT= new double[..];
             lkmLK.schreibeMatrix_A(dt, tAktuell, false);
 
             //
             // thermischer Kreis:
-            lkmTHERM = new LKMatrices(Fenster._solverSettings.SOLVER_TYPE.getValue());
-            lkmTHERM.initMatrizen((NetListLK) thermNL, getAnfangsbedVomDialogfenster, false, Fenster._solverSettings.SOLVER_TYPE.getValue());
+            lkmTHERM = new LKMatrices(solverType);
+            lkmTHERM.allowSparseAssembly(); // its matrix is only read by the LU decomposition
+            lkmTHERM.initMatrizen((NetListLK) thermNL, getAnfangsbedVomDialogfenster, false, solverType);
             lkmTHERM.schreibeMatrix_A(dt, tAktuell, false);
         }
         //=============================
@@ -473,14 +601,14 @@ public class SimulationsKern {
             simuliereLeistungskreis = false;
         } else {
             simuliereLeistungskreis = true;
-            _lkCachedMatrix = _luDecompCache.getCachedLUDecomposition(lkmLK.a, t);
+            _lkCachedMatrix = lkmLK.getCachedLUDecomposition(_luDecompCache, t);
         }
 
         if (lkmTHERM.matrixSize < 2) { // wenn der thermische Kreis nicht exisiert, wird er konsequent nicht simuliert:
             simuliereThermKreis = false;
         } else {
             simuliereThermKreis = true;
-            _thCachedMatrix = _thLuDecompCache.getCachedLUDecomposition(lkmTHERM.a, t);
+            _thCachedMatrix = lkmTHERM.getCachedLUDecomposition(_thLuDecompCache, t);
         }
         if (controlANZAHL < 1) {
             simuliereRegelkreis = false;
@@ -489,13 +617,23 @@ public class SimulationsKern {
         }
 
         diodenSchaltfehler = false;
+        _stepWidthController = createStepWidthController(dt);
+        if (_stepWidthController != null) {
+            final List<ZeroCrossingDetectable> detectables = new ArrayList<ZeroCrossingDetectable>();
+            for (AbstractControlCalculatable calculator : sortedCalculators) {
+                if (calculator instanceof ZeroCrossingDetectable) {
+                    detectables.add((ZeroCrossingDetectable) calculator);
+                }
+            }
+            _eventLocator = new SwitchingEventLocator(detectables, _stepWidthController);
+        }
     }
 
     public void setScopeMenuesStartStop() {
         // ganz am Anfang sofort einmal auffrischen:
         for (int i1 = 0; i1 < c.length; i1++) {
             try {
-                if (c[i1] instanceof ReglerOSZI) {
+                if (c[i1] instanceof ReglerOSZI && ((ReglerOSZI) c[i1])._scopeFrame != null) {
                     ((ReglerOSZI) c[i1])._scopeFrame.setScopeMenueEnabled(true);
                 }
                 if (c[i1] instanceof ReglerCISPR16) {
@@ -510,7 +648,6 @@ public class SimulationsKern {
         controlNL.initializeAtSimulationStart(dt);
         ShortMatrixCache.clearCache();
         IntegerMatrixCache.clearCache();
-        CompressorIntMatrix.clearCache();
     }
 
     private int[][] definiereInteraktion_SignalgesteuerteQuelle_Regler(final NetListLK netlist) {
@@ -759,7 +896,7 @@ public class SimulationsKern {
         //---------------------------
         for (int i1 = 0; i1 < c.length; i1++) {
             try {
-                if (c[i1] instanceof ReglerOSZI) {
+                if (c[i1] instanceof ReglerOSZI && ((ReglerOSZI) c[i1])._scopeFrame != null) {
                     ScopeFrame sf = ((ReglerOSZI) c[i1])._scopeFrame;
                     sf.setScopeMenueEnabled(false);
                 }
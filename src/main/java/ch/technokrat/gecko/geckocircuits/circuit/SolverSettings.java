@@ -26,6 +26,15 @@ public class SolverSettings {
     public final ModelMVC<Double> _tDURATION = new ModelMVC<Double>(20e-3, "simulation time");
     public final ModelMVC<Double> _tPAUSE = new ModelMVC<Double>(-1.0, "simulation pause time");
     
+    // adaptive stepwidth: dt is the minimum stepwidth, the stepwidth is increased up to _dtMax
+    public final ModelMVC<Boolean> _adaptiveStepWidth = new ModelMVC<Boolean>(false, "adaptive stepwidth");
+    public final ModelMVC<Double> _dtMax = new ModelMVC<Double>(10e-6, "maximum stepwidth");
+    public final ModelMVC<Double> _relTolerance = new ModelMVC<Double>(1e-3, "relative local truncation error");
+    
+    // seed for the random signal sources, e.g. for reproducible Monte-Carlo
+    // simulations from GeckoSCRIPT. null: different random values in each simulation
+    public Long _randomSeed;
+    
     public double _dt_ALT;  // Merken der alten Werten nach einer Aenderung in 'DialogSimParameter'
     // flag used for solver start
     public boolean inPreCalculationMode = false;
@@ -0,0 +1,485 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Arrays;
+
+/**
+ * Sparse LU decomposition for large circuit matrices. The matrix (without the
+ * ground row and column) is stored in compressed sparse column (CSC) format
+ * and factorized with a left-looking Gilbert-Peierls algorithm, after a
+ * minimum degree column ordering. The cost is proportional to the number of
+ * floating point operations, not to n^3 as in the dense Crout algorithm of
+ * CachedMatrix.
+ *
+ * If a symbolic analysis of a matrix with the same non-zero pattern is
+ * available (typically, when only switch resistances have changed), the
+ * ordering, the pivot sequence and the structure of L and U are re-used and
+ * only a numerical refactorization is done. The refactorization falls back to
+ * the full factorization when a re-used pivot becomes too small.
+ */
+public final class SparseLUCachedMatrix extends AbstractCachedMatrix {
+
+    // threshold partial pivoting: the diagonal element is preferred as pivot,
+    // as long as it is not smaller than this fraction of the column maximum.
+    private static final double PIVOT_TOLERANCE = 0.1;
+    private static final double REFACTOR_PIVOT_TOLERANCE = 1e-3;
+    private static final int INITIAL_FILL_FACTOR = 4;
+    private SparseLUSymbolic _symbolic;
+    private int _nn;
+    private int[] _colPointers;
+    private int[] _rowIndices;
+    private double[] _values;
+    private double[] _lValues;
+    private double[] _uValues;
+    private double[] _workVector;
+    private double[] _XCol;
+
+    public SparseLUCachedMatrix(final double[][] matrix) {
+        this(matrix, null);
+    }
+
+    /**
+     * @param matrix the system matrix, including the ground node at index 0
+     * @param symbolic symbolic analysis of a previous decomposition, which is
+     * re-used if the non-zero pattern matches. May be null.
+     */
+    SparseLUCachedMatrix(final double[][] matrix, final SparseLUSymbolic symbolic) {
+        super(matrix);
+        _symbolic = symbolic;
+    }
+
+    /**
+     * @param columns the matrix without the ground node, as assembled by
+     * MatrixStamps. The values are copied, the pattern is shared. There is no
+     * dense matrix: the decomposition can only be cached via a MatrixStateKey.
+     * @param symbolic see above, may be null
+     */
+    SparseLUCachedMatrix(final CompressedColumns columns, final SparseLUSymbolic symbolic) {
+        super(null);
+        _symbolic = symbolic;
+        _nn = columns._size;
+        _colPointers = columns._colPointers;
+        _rowIndices = columns._rowIndices;
+        _values = columns._values.clone();
+    }
+
+    @Override
+    void initLUDecomp() {
+        if (_originalMatrix != null) {
+            // the dense matrix is overwritten by the simulation kernel afterwards,
+            // therefore calculate the hash codes now, before the reference is dropped.
+            hashCode();
+            secondHashCode();
+            buildCompressedColumns();
+            _originalMatrix = null;
+        }
+
+        _workVector = new double[_nn];
+        _XCol = new double[_nn + 1];
+
+        if (_symbolic != null && _symbolic.matchesPattern(_nn, _colPointers, _rowIndices)) {
+            if (refactorize()) {
+                return;
+            }
+            factorize(_symbolic._colOrder);
+        } else {
+            factorize(MinimumDegreeOrdering.calculateOrdering(_nn, _colPointers, _rowIndices));
+        }
+    }
+
+    SparseLUSymbolic getSymbolic() {
+        return _symbolic;
+    }
+
+    int getNonZerosLU() {
+        return _symbolic.getNonZerosL() + _symbolic.getNonZerosU();
+    }
+
+    private void buildCompressedColumns() {
+        _nn = _originalMatrix.length - 1;
+        int nonZeros = 0;
+        for (int i = 1; i <= _nn; i++) {
+            final double[] row = _originalMatrix[i];
+            for (int j = 1; j <= _nn; j++) {
+                if (row[j] != 0) {
+                    nonZeros++;
+                }
+            }
+        }
+
+        _colPointers = new int[_nn + 1];
+        _rowIndices = new int[nonZeros];
+        _values = new double[nonZeros];
+        int counter = 0;
+        for (int j = 0; j < _nn; j++) {
+            _colPointers[j] = counter;
+            for (int i = 0; i < _nn; i++) {
+                final double value = _originalMatrix[i + 1][j + 1];
+                if (value != 0) {
+                    _rowIndices[counter] = i;
+                    _values[counter] = value;
+                    counter++;
+                }
+            }
+        }
+        _colPointers[_nn] = counter;
+    }
+
+    /**
+     * Left-looking LU factorization with threshold partial pivoting,
+     * see T. Davis, "Direct Methods for Sparse Linear Systems", SIAM 2006.
+     */
+    private void factorize(final int[] colOrder) {
+        final int n = _nn;
+        int lCapacity = INITIAL_FILL_FACTOR * _values.length + n;
+        int uCapacity = lCapacity;
+        final int[] lp = new int[n + 1];
+        int[] li = new int[lCapacity];
+        double[] lx = new double[lCapacity];
+        final int[] up = new int[n + 1];
+        int[] ui = new int[uCapacity];
+        double[] ux = new double[uCapacity];
+
+        final int[] pinv = new int[n];
+        Arrays.fill(pinv, -1);
+        final int[] xi = new int[2 * n];
+        final int[] marker = new int[n];
+        final double[] x = _workVector;
+        int lnz = 0;
+        int unz = 0;
+
+        for (int k = 0; k < n; k++) {
+            lp[k] = lnz;
+            up[k] = unz;
+            if (lnz + n > lCapacity) {
+                lCapacity = 2 * lCapacity + n;
+                li = Arrays.copyOf(li, lCapacity);
+                lx = Arrays.copyOf(lx, lCapacity);
+            }
+            if (unz + n > uCapacity) {
+                uCapacity = 2 * uCapacity + n;
+                ui = Arrays.copyOf(ui, uCapacity);
+                ux = Arrays.copyOf(ux, uCapacity);
+            }
+
+            final int col = colOrder[k];
+            final int top = solveLowerSparse(col, lp, li, lx, pinv, xi, marker, k + 1);
+
+            int ipiv = -1;
+            double maxAbs = -1;
+            for (int p = top; p < n; p++) {
+                final int i = xi[p];
+                if (pinv[i] < 0) {
+                    final double absValue = Math.abs(x[i]);
+                    if (absValue > maxAbs) {
+                        maxAbs = absValue;
+                        ipiv = i;
+                    }
+                } else {
+                    ui[unz] = pinv[i];
+                    ux[unz] = x[i];
+                    unz++;
+                }
+            }
+
+            if (ipiv == -1 || maxAbs <= 0) {
+                throw new RuntimeException("Matrix is singular.");
+            }
+
+            if (pinv[col] < 0 && marker[col] == k + 1 && Math.abs(x[col]) >= PIVOT_TOLERANCE * maxAbs) {
+                ipiv = col;
+            }
+
+            final double pivot = x[ipiv];
+            ui[unz] = k;
+            ux[unz] = pivot;
+            unz++;
+            pinv[ipiv] = k;
+            li[lnz] = ipiv;
+            lx[lnz] = 1;
+            lnz++;
+
+            for (int p = top; p < n; p++) {
+                final int i = xi[p];
+                if (pinv[i] < 0) {
+                    li[lnz] = i;
+                    lx[lnz] = x[i] / pivot;
+                    lnz++;
+                }
+                x[i] = 0;
+            }
+        }
+        lp[n] = lnz;
+        up[n] = unz;
+
+        for (int p = 0; p < lnz; p++) {
+            li[p] = pinv[li[p]];
+        }
+
+        _lValues = Arrays.copyOf(lx, lnz);
+        _uValues = Arrays.copyOf(ux, unz);
+        _symbolic = new SparseLUSymbolic(n, _colPointers, _rowIndices, colOrder, pinv,
+                lp, Arrays.copyOf(li, lnz), up, Arrays.copyOf(ui, unz));
+    }
+
+    /**
+     * solves x = L \ A(:,col) for the already computed columns of L.
+     *
+     * @return top, the non-zero pattern of x is xi[top..n-1] in topological
+     * order
+     */
+    private int solveLowerSparse(final int col, final int[] lp, final int[] li, final double[] lx,
+            final int[] pinv, final int[] xi, final int[] marker, final int mark) {
+        final int n = _nn;
+        final double[] x = _workVector;
+        int top = n;
+        for (int p = _colPointers[col]; p < _colPointers[col + 1]; p++) {
+            final int row = _rowIndices[p];
+            if (marker[row] != mark) {
+                top = depthFirstSearch(row, lp, li, pinv, top, xi, marker, mark);
+            }
+        }
+
+        for (int p = _colPointers[col]; p < _colPointers[col + 1]; p++) {
+            x[_rowIndices[p]] = _values[p];
+        }
+
+        for (int px = top; px < n; px++) {
+            final int j = xi[px];
+            final int jj = pinv[j];
+            if (jj < 0) {
+                continue;
+            }
+            final double xj = x[j];
+            for (int p = lp[jj] + 1; p < lp[jj + 1]; p++) {
+                x[li[p]] -= lx[p] * xj;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * non-recursive depth first search in the graph of L, starting at node j.
+     * xi[0..n-1] is used as stack, xi[n..2n-1] holds the stack positions.
+     */
+    private static int depthFirstSearch(final int startNode, final int[] lp, final int[] li, final int[] pinv,
+            final int startTop, final int[] xi, final int[] marker, final int mark) {
+        final int n = pinv.length;
+        int top = startTop;
+        int head = 0;
+        xi[0] = startNode;
+        while (head >= 0) {
+            final int j = xi[head];
+            final int jj = pinv[j];
+            if (marker[j] != mark) {
+                marker[j] = mark;
+                xi[n + head] = jj < 0 ? 0 : lp[jj] + 1;
+            }
+            boolean done = true;
+            final int pEnd = jj < 0 ? 0 : lp[jj + 1];
+            for (int p = xi[n + head]; p < pEnd; p++) {
+                final int i = li[p];
+                if (marker[i] == mark) {
+                    continue;
+                }
+                xi[n + head] = p;
+                head++;
+                xi[head] = i;
+                done = false;
+                break;
+            }
+            if (done) {
+                head--;
+                top--;
+                xi[top] = j;
+            }
+        }
+        return top;
+    }
+
+    /**
+     * numerical refactorization with the structure and pivot sequence of the
+     * symbolic analysis.
+     *
+     * @return false, if a pivot became too small. Then, a new factorization
+     * with pivot search is required.
+     */
+    private boolean refactorize() {
+        final SparseLUSymbolic sym = _symbolic;
+        final int n = _nn;
+        final int[] lp = sym._lColPointers;
+        final int[] li = sym._lRowIndices;
+        final int[] up = sym._uColPointers;
+        final int[] ui = sym._uRowIndices;
+        final int[] pinv = sym._pinv;
+        final double[] lx = new double[li.length];
+        final double[] ux = new double[ui.length];
+        final double[] x = _workVector;
+
+        for (int k = 0; k < n; k++) {
+            final int col = sym._colOrder[k];
+            for (int p = up[k]; p < up[k + 1]; p++) {
+                x[ui[p]] = 0;
+            }
+            for (int p = lp[k]; p < lp[k + 1]; p++) {
+                x[li[p]] = 0;
+            }
+            for (int p = _colPointers[col]; p < _colPointers[col + 1]; p++) {
+                x[pinv[_rowIndices[p]]] = _values[p];
+            }
+
+            final int diagIndex = up[k + 1] - 1;
+            for (int p = up[k]; p < diagIndex; p++) {
+                final int j = ui[p];
+                final double xj = x[j];
+                ux[p] = xj;
+                for (int q = lp[j] + 1; q < lp[j + 1]; q++) {
+                    x[li[q]] -= lx[q] * xj;
+                }
+            }
+
+            final double pivot = x[k];
+            double maxAbs = Math.abs(pivot);
+            for (int p = lp[k] + 1; p < lp[k + 1]; p++) {
+                maxAbs = Math.max(maxAbs, Math.abs(x[li[p]]));
+            }
+            if (pivot == 0 || Math.abs(pivot) < REFACTOR_PIVOT_TOLERANCE * maxAbs) {
+                Arrays.fill(x, 0);
+                return false;
+            }
+
+            ux[diagIndex] = pivot;
+            lx[lp[k]] = 1;
+            for (int p = lp[k] + 1; p < lp[k + 1]; p++) {
+                lx[p] = x[li[p]] / pivot;
+            }
+        }
+
+        Arrays.fill(x, 0);
+        _lValues = lx;
+        _uValues = ux;
+        // share the pattern arrays with the symbolic analysis
+        _colPointers = sym._patternColPointers;
+        _rowIndices = sym._patternRowIndices;
+        return true;
+    }
+
+    @Override
+    public double[] solve(final double[] bVector) {
+        final SparseLUSymbolic sym = _symbolic;
+        final int n = _nn;
+        final double[] w = _workVector;
+        final int[] pinv = sym._pinv;
+        for (int i = 0; i < n; i++) {
+            w[pinv[i]] = bVector[i + 1];
+        }
+
+        // Solve L*Y = B(piv,:)
+        final int[] lp = sym._lColPointers;
+        final int[] li = sym._lRowIndices;
+        final double[] lx = _lValues;
+        for (int j = 0; j < n; j++) {
+            final double wj = w[j];
+            if (wj != 0) {
+                for (int p = lp[j] + 1; p < lp[j + 1]; p++) {
+                    w[li[p]] -= lx[p] * wj;
+                }
+            }
+        }
+
+        // Solve U*X = Y;
+        final int[] up = sym._uColPointers;
+        final int[] ui = sym._uRowIndices;
+        final double[] ux = _uValues;
+        for (int j = n - 1; j >= 0; j--) {
+            final int diagIndex = up[j + 1] - 1;
+            final double wj = w[j] / ux[diagIndex];
+            w[j] = wj;
+            if (wj != 0) {
+                for (int p = up[j]; p < diagIndex; p++) {
+                    w[ui[p]] -= ux[p] * wj;
+                }
+            }
+        }
+
+        final int[] colOrder = sym._colOrder;
+        for (int k = 0; k < n; k++) {
+            _XCol[colOrder[k] + 1] = w[k];
+        }
+        return _XCol;
+    }
+
+    @Override
+    long calculateMemoryRequirement() {
+        // the symbolic analysis may be shared with other matrices of the same structure. It is
+        // counted for every entry anyway, since the cache can evict the entries in any order.
+        long returnValue = sizeOf(_values) + sizeOf(_lValues) + sizeOf(_uValues) + sizeOf(_workVector)
+                + sizeOf(_XCol);
+        if (_symbolic != null) {
+            returnValue += _symbolic.calculateMemoryRequirement();
+        }
+        if (_symbolic == null || _colPointers != _symbolic._patternColPointers) {
+            returnValue += sizeOf(_colPointers) + sizeOf(_rowIndices);
+        }
+        return returnValue;
+    }
+
+    @Override
+    public void deleteCache() {
+        _lValues = null;
+        _uValues = null;
+        _values = null;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        final SparseLUCachedMatrix other = (SparseLUCachedMatrix) obj;
+        if (_originalMatrix != null && other._originalMatrix != null) {
+            return super.equals(obj);
+        }
+        if (_originalMatrix != null) {
+            return other.equalsDenseMatrix(_originalMatrix);
+        }
+        if (other._originalMatrix != null) {
+            return equalsDenseMatrix(other._originalMatrix);
+        }
+        return Arrays.equals(_colPointers, other._colPointers) && Arrays.equals(_rowIndices, other._rowIndices)
+                && Arrays.equals(_values, other._values);
+    }
+
+    private boolean equalsDenseMatrix(final double[][] matrix) {
+        if (matrix.length != _nn + 1) {
+            return false;
+        }
+        for (int j = 0; j < _nn; j++) {
+            int p = _colPointers[j];
+            for (int i = 0; i < _nn; i++) {
+                final double value = matrix[i + 1][j + 1];
+                if (p < _colPointers[j + 1] && _rowIndices[p] == i) {
+                    if (value != _values[p]) {
+                        return false;
+                    }
+                    p++;
+                } else if (value != 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
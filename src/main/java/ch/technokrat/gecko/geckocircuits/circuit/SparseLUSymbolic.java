@@ -0,0 +1,75 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Arrays;
+
+/**
+ * Symbolic part of a sparse LU decomposition: the non-zero pattern of the
+ * system matrix, the fill-reducing column ordering, the row pivot sequence and
+ * the non-zero structure of the factors L and U. When a switch toggles, only
+ * the values of the system matrix change, not its structure. Then, all
+ * decompositions with the same pattern share one instance of this class and
+ * only the numerical values have to be recalculated.
+ *
+ * The row indices of L are stored in pivoted order, the entries of each
+ * U-column are stored in topological order with the diagonal as last entry.
+ * This is exactly the order required by the numeric refactorization.
+ */
+final class SparseLUSymbolic {
+
+    final int _size;
+    final int[] _patternColPointers;
+    final int[] _patternRowIndices;
+    final int[] _colOrder;
+    final int[] _pinv;
+    final int[] _lColPointers;
+    final int[] _lRowIndices;
+    final int[] _uColPointers;
+    final int[] _uRowIndices;
+
+    SparseLUSymbolic(final int size, final int[] patternColPointers, final int[] patternRowIndices,
+            final int[] colOrder, final int[] pinv, final int[] lColPointers, final int[] lRowIndices,
+            final int[] uColPointers, final int[] uRowIndices) {
+        _size = size;
+        _patternColPointers = patternColPointers;
+        _patternRowIndices = patternRowIndices;
+        _colOrder = colOrder;
+        _pinv = pinv;
+        _lColPointers = lColPointers;
+        _lRowIndices = lRowIndices;
+        _uColPointers = uColPointers;
+        _uRowIndices = uRowIndices;
+    }
+
+    boolean matchesPattern(final int size, final int[] colPointers, final int[] rowIndices) {
+        return _size == size && Arrays.equals(_patternColPointers, colPointers)
+                && Arrays.equals(_patternRowIndices, rowIndices);
+    }
+
+    int getNonZerosL() {
+        return _lColPointers[_size];
+    }
+
+    int getNonZerosU() {
+        return _uColPointers[_size];
+    }
+
+    long calculateMemoryRequirement() {
+        return AbstractCachedMatrix.sizeOf(_patternColPointers) + AbstractCachedMatrix.sizeOf(_patternRowIndices)
+                + AbstractCachedMatrix.sizeOf(_colOrder) + AbstractCachedMatrix.sizeOf(_pinv)
+                + AbstractCachedMatrix.sizeOf(_lColPointers) + AbstractCachedMatrix.sizeOf(_lRowIndices)
+                + AbstractCachedMatrix.sizeOf(_uColPointers) + AbstractCachedMatrix.sizeOf(_uRowIndices);
+    }
+}
@@ -0,0 +1,196 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
+
+/**
+ * Step width control for the adaptive simulation mode. The step width is
+ * always dtMin * 2^k, so that only a few different system matrices (and LU
+ * decompositions) occur during a simulation, and all time values stay on the
+ * grid of the minimum step width.
+ *
+ * The local truncation error is estimated from the divided differences of the
+ * node potentials p, pALT, pALTALT (and pALTALTALT for the trapezoidal rule):
+ * BE: LTE = dt^2/2 * x'', TRZ: LTE = dt^3/12 * x'''. A step is rejected when
+ * the error exceeds the tolerance, the step width is doubled when the error
+ * stays clearly below the tolerance. After a switching action, the step width
+ * is reset to the minimum, since the history is not smooth any more.
+ * Switching events and the end of the simulation shorten a single step to
+ * the next smaller step width of the grid, see limitStepWidth().
+ */
+final class StepWidthController {
+
+    private static final double ABS_TOLERANCE = 1e-6;
+    private static final double GROW_SAFETY = 0.5;
+    // relative tolerance for the rounding errors of time differences
+    private static final double GRID_TOLERANCE = 1e-9;
+    private final double _dtMin;
+    private final int _maxExponent;
+    private final double _relTolerance;
+    private final int _order;
+    private int _exponent;
+    private double _stepLimit = Double.POSITIVE_INFINITY;
+    // step widths of the two previously accepted steps
+    private double _dtOld;
+    private double _dtOldOld;
+    // number of accepted steps since the last discontinuity
+    private int _validHistory;
+    private int _stepsSinceChange;
+    private double _lastErrorRatio = Double.POSITIVE_INFINITY;
+    private long _acceptedSteps;
+    private long _rejectedSteps;
+
+    StepWidthController(final double dtMin, final double dtMax, final double relTolerance, final SolverType solverType) {
+        if (solverType == SolverType.SOLVER_GS) {
+            throw new IllegalArgumentException("Adaptive stepwidth is not available for the Gear-Shichman solver.");
+        }
+        if (dtMin <= 0 || relTolerance <= 0) {
+            throw new IllegalArgumentException("Invalid stepwidth control parameters: dt=" + dtMin
+                    + " tolerance=" + relTolerance);
+        }
+        _dtMin = dtMin;
+        _relTolerance = relTolerance;
+        _order = solverType == SolverType.SOLVER_TRZ ? 2 : 1;
+        int maxExponent = 0;
+        while (maxExponent < Double.MAX_EXPONENT && Math.scalb(dtMin, maxExponent + 1) <= dtMax * (1 + GRID_TOLERANCE)) {
+            maxExponent++;
+        }
+        _maxExponent = maxExponent;
+    }
+
+    double getStepWidth() {
+        return Math.min(Math.scalb(_dtMin, _exponent), _stepLimit);
+    }
+
+    double resetToMinimumStepWidth() {
+        if (_exponent != 0) {
+            _exponent = 0;
+            _stepsSinceChange = 0;
+        }
+        return getStepWidth();
+    }
+
+    /**
+     * limits the width of the current step, e.g. to end the step at a
+     * switching event. The limit is rounded down to the grid dtMin * 2^k, but
+     * never below dtMin. The limit is removed when the step is finished.
+     *
+     * @return the new stepwidth
+     */
+    double limitStepWidth(final double maxStepWidth) {
+        _stepLimit = Math.min(_stepLimit, quantizeStepWidth(maxStepWidth));
+        return getStepWidth();
+    }
+
+    /**
+     * @return the largest step width dtMin * 2^k (k <= maximum exponent),
+     * which is not larger than stepWidth, or dtMin.
+     */
+    double quantizeStepWidth(final double stepWidth) {
+        int exponent = 0;
+        while (exponent < _maxExponent && Math.scalb(_dtMin, exponent + 1) <= stepWidth * (1 + GRID_TOLERANCE)) {
+            exponent++;
+        }
+        return Math.scalb(_dtMin, exponent);
+    }
+
+    /**
+     * @return true, if the solution p of the current step is accurate enough
+     * or if the step width cannot be decreased any more. Otherwise, the step
+     * width is decreased and the step has to be repeated with the new
+     * getStepWidth().
+     */
+    boolean isStepAccepted(final double[] p, final double[] pALT, final double[] pALTALT, final double[] pALTALTALT) {
+        if (_validHistory < _order + 1) {
+            _lastErrorRatio = Double.POSITIVE_INFINITY;
+            return true;
+        }
+        _lastErrorRatio = estimateErrorRatio(p, pALT, pALTALT, pALTALTALT);
+        if (_lastErrorRatio <= 1 || getStepWidth() <= _dtMin) {
+            return true;
+        }
+        // the error scales with dt^(order+1):
+        final int decrease = (int) Math.ceil(Math.log(_lastErrorRatio) / Math.log(2) / (_order + 1));
+        final double rejectedStepWidth = getStepWidth();
+        _exponent = Math.max(0, _exponent - Math.max(1, decrease));
+        while (_exponent > 0 && getStepWidth() >= rejectedStepWidth) { // the step may have been limited
+            _exponent--;
+        }
+        _stepsSinceChange = 0;
+        _rejectedSteps++;
+        return false;
+    }
+
+    /**
+     * @return maximum of the estimated local truncation error, relative to the
+     * tolerance of the corresponding entry.
+     */
+    double estimateErrorRatio(final double[] p, final double[] pALT, final double[] pALTALT, final double[] pALTALTALT) {
+        final double dt = getStepWidth();
+        double maxRatio = 0;
+        // index 0 is the ground node
+        for (int i = 1; i < p.length; i++) {
+            final double diff01 = (p[i] - pALT[i]) / dt;
+            final double diff12 = (pALT[i] - pALTALT[i]) / _dtOld;
+            final double diff012 = (diff01 - diff12) / (dt + _dtOld);
+            final double error;
+            if (_order == 1) {
+                error = dt * dt * diff012;
+            } else {
+                final double diff23 = (pALTALT[i] - pALTALTALT[i]) / _dtOldOld;
+                final double diff123 = (diff12 - diff23) / (_dtOld + _dtOldOld);
+                final double diff0123 = (diff012 - diff123) / (dt + _dtOld + _dtOldOld);
+                error = dt * dt * dt * diff0123 / 2;
+            }
+            final double tolerance = ABS_TOLERANCE + _relTolerance * Math.max(Math.abs(p[i]), Math.abs(pALT[i]));
+            maxRatio = Math.max(maxRatio, Math.abs(error) / tolerance);
+        }
+        return maxRatio;
+    }
+
+    /**
+     * has to be called after each accepted step.
+     *
+     * @param isDiscontinuity true, if a switch or a diode changed its state
+     * during the step.
+     */
+    void stepFinished(final boolean isDiscontinuity) {
+        _acceptedSteps++;
+        _dtOldOld = _dtOld;
+        _dtOld = getStepWidth();
+        _stepLimit = Double.POSITIVE_INFINITY;
+        if (isDiscontinuity) {
+            resetToMinimumStepWidth();
+            _validHistory = 0;
+        } else {
+            _validHistory++;
+            _stepsSinceChange++;
+            if (_lastErrorRatio < GROW_SAFETY * Math.scalb(1.0, -(_order + 1))
+                    && _stepsSinceChange > _order && _exponent < _maxExponent) {
+                _exponent++;
+                _stepsSinceChange = 0;
+            }
+        }
+        _lastErrorRatio = Double.POSITIVE_INFINITY;
+    }
+
+    long getAcceptedSteps() {
+        return _acceptedSteps;
+    }
+
+    long getRejectedSteps() {
+        return _rejectedSteps;
+    }
+}
@@ -0,0 +1,83 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.control.ZeroCrossingDetectable;
+import java.util.List;
+
+/**
+ * Locates switching events of the control (e.g. PWM carrier crossings) inside
+ * a time step. The control netlist cannot repeat a step, therefore the
+ * crossing is predicted: the switching functions of all comparators are
+ * linearly extrapolated from the last two control steps, and the next step
+ * is shortened so that it ends at the last grid point of the stepwidth
+ * controller before the predicted crossing. The following steps approach the
+ * crossing with smaller grid values, until the crossing lies within a step of
+ * the minimum stepwidth. Since all step widths are on the grid, the shortened
+ * steps re-use the cached LU decompositions.
+ */
+final class SwitchingEventLocator {
+
+    private final ZeroCrossingDetectable[] _detectables;
+    private final double[] _oldValues;
+    private final StepWidthController _stepWidthController;
+    private boolean _isOldValueDefined;
+
+    SwitchingEventLocator(final List<ZeroCrossingDetectable> detectables, final StepWidthController stepWidthController) {
+        _detectables = detectables.toArray(new ZeroCrossingDetectable[detectables.size()]);
+        _oldValues = new double[_detectables.length];
+        _stepWidthController = stepWidthController;
+    }
+
+    /**
+     * has to be called after each control step.
+     *
+     * @param dt stepwidth of the control step which was just calculated
+     * @param dtNext proposed stepwidth of the next step
+     * @return the stepwidth of the next step, which is a smaller grid value
+     * than dtNext if a zero crossing is expected within dtNext.
+     */
+    double predictStepWidth(final double dt, final double dtNext) {
+        double returnValue = dtNext;
+        for (int i = 0; i < _detectables.length; i++) {
+            final double value = _detectables[i].getSwitchingFunction();
+            if (_isOldValueDefined) {
+                final double slope = (value - _oldValues[i]) / dt;
+                if (value * slope < 0) { // approaching zero
+                    final double timeToCrossing = -value / slope;
+                    if (timeToCrossing < returnValue) {
+                        returnValue = _stepWidthController.quantizeStepWidth(timeToCrossing);
+                    }
+                }
+            }
+            _oldValues[i] = value;
+        }
+        _isOldValueDefined = true;
+        return Math.min(returnValue, dtNext);
+    }
+
+    /**
+     * @param diodeSwitchingFraction fraction of the step where the first diode
+     * commutates, see LKMatrices.findDiodeSwitchingFraction()
+     * @return the grid stepwidth which ends before the diode commutation (at
+     * least the minimum stepwidth), or dt if no smaller grid value fits.
+     */
+    double getDiodeEventStepWidth(final double dt, final double diodeSwitchingFraction) {
+        return Math.min(dt, _stepWidthController.quantizeStepWidth(diodeSwitchingFraction * dt));
+    }
+
+    int getNumberOfDetectables() {
+        return _detectables.length;
+    }
+}
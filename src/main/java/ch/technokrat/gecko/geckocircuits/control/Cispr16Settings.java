@@ -36,6 +36,7 @@ public final class Cispr16Settings {
     public final UserParameter<Double> _filterThreshold;
     
     public final UserParameter<Boolean> _automaticQPSelection;
+    public final UserParameter<Boolean> _streaming;
     
     public Cispr16Settings(final ReglerCISPR16 regler) {
          _showName = UserParameter.Builder.
@@ -120,6 +121,14 @@ public final class Cispr16Settings {
             arrayIndex(regler, -1).
             build();
          
+         _streaming = UserParameter.Builder.
+            <Boolean>start("streamingReceiver", false).
+            longName(I18nKeys.STREAMING_TEST_RECEIVER).
+            shortName("streamingReceiver").            
+            showInTextInfo(TextInfoType.SHOW_NEVER).            
+            arrayIndex(regler, -1).
+            build();
+         
          _qpInteval = UserParameter.Builder.
             <Double>start("QPinterval", 9000.0).
             longName(I18nKeys.QP_INTERVAL).
@@ -26,6 +26,7 @@ public class CisprBlockSettings extends GeckoDialog {
         jTextFieldName.setText(regler.getStringID());        
         _regler = regler;
         jCheckBoxShowName.setSelected(regler._settings._showName.getValue());
+        jCheckBoxStreaming.setSelected(regler._settings._streaming.getValue());
         getRootPane().setDefaultButton(jButtonOk);
         setTitle("CISPR 16 Component settings");
     }
@@ -43,6 +44,7 @@ public class CisprBlockSettings extends GeckoDialog {
         jButtonCancel = new javax.swing.JButton();
         jLabel1 = new javax.swing.JLabel();
         jCheckBoxShowName = new javax.swing.JCheckBox();
+        jCheckBoxStreaming = new javax.swing.JCheckBox();
         jTextFieldName = new javax.swing.JTextField();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
@@ -69,6 +71,9 @@ public class CisprBlockSettings extends GeckoDialog {
         jCheckBoxShowName.setFont(new java.awt.Font("Dialog", 0, 12)); // NOI18N
         jCheckBoxShowName.setText("Show name at component");
 
+        jCheckBoxStreaming.setFont(new java.awt.Font("Dialog", 0, 12)); // NOI18N
+        jCheckBoxStreaming.setText("Streaming receiver (calculated during the simulation)");
+
         jTextFieldName.setFont(new java.awt.Font("Dialog", 0, 12)); // NOI18N
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
@@ -86,6 +91,7 @@ public class CisprBlockSettings extends GeckoDialog {
                         .addGap(25, 25, 25)
                         .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.LEADING)
                             .addComponent(jCheckBoxShowName)
+                            .addComponent(jCheckBoxStreaming)
                             .addGroup(layout.createSequentialGroup()
                                 .addComponent(jLabel1)
                                 .addGap(18, 18, 18)
@@ -101,6 +107,8 @@ public class CisprBlockSettings extends GeckoDialog {
                     .addComponent(jTextFieldName, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
                 .addGap(4, 4, 4)
                 .addComponent(jCheckBoxShowName)
+                .addGap(4, 4, 4)
+                .addComponent(jCheckBoxStreaming)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
                 .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(jButtonOk)
@@ -126,6 +134,7 @@ public class CisprBlockSettings extends GeckoDialog {
             return;
         }
         _regler._settings._showName.setUserValue(jCheckBoxShowName.isSelected());
+        _regler._settings._streaming.setUserValue(jCheckBoxStreaming.isSelected());
         dispose();
     }//GEN-LAST:event_jButtonOkActionPerformed
     
@@ -133,6 +142,7 @@ public class CisprBlockSettings extends GeckoDialog {
     private javax.swing.JButton jButtonCancel;
     private javax.swing.JButton jButtonOk;
     private javax.swing.JCheckBox jCheckBoxShowName;
+    private javax.swing.JCheckBox jCheckBoxStreaming;
     private javax.swing.JLabel jLabel1;
     private javax.swing.JTextField jTextFieldName;
     // End of variables declaration//GEN-END:variables
@@ -0,0 +1,100 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+/**
+ * The FromEXTERNAL and ToEXTERNAL blocks of a model, packed into one input and
+ * one output vector for co-simulation: the terminals of the first port come
+ * first, then those of the second port, and so on. Create it after the
+ * initialization of the simulation, when the terminal numbers are fixed.
+ */
+public final class CoSimulationPorts {
+
+    private final ReglerFromEXTERNAL[] _inputPorts;
+    private final int[] _inputWidths;
+    private final int _inputWidth;
+    private final ReglerToEXTERNAL[] _outputPorts;
+    private final int[] _outputWidths;
+    private final int _outputWidth;
+
+    private CoSimulationPorts() {
+        _inputPorts = ReglerFromEXTERNAL.fromExternals.toArray(new ReglerFromEXTERNAL[0]);
+        _inputWidths = new int[_inputPorts.length];
+        int inputWidth = 0;
+        for (int i = 0; i < _inputPorts.length; i++) {
+            _inputWidths[i] = _inputPorts[i].getTerminalNumber();
+            inputWidth += _inputWidths[i];
+        }
+        _inputWidth = inputWidth;
+
+        _outputPorts = ReglerToEXTERNAL.toExternals.toArray(new ReglerToEXTERNAL[0]);
+        _outputWidths = new int[_outputPorts.length];
+        int outputWidth = 0;
+        for (int i = 0; i < _outputPorts.length; i++) {
+            _outputWidths[i] = _outputPorts[i].XIN.size();
+            outputWidth += _outputWidths[i];
+        }
+        _outputWidth = outputWidth;
+    }
+
+    public static CoSimulationPorts fabricFromModel() {
+        return new CoSimulationPorts();
+    }
+
+    /**
+     * @return the sum of the terminal numbers of all FromEXTERNAL blocks
+     */
+    public int getInputWidth() {
+        return _inputWidth;
+    }
+
+    /**
+     * @return the sum of the terminal numbers of all ToEXTERNAL blocks
+     */
+    public int getOutputWidth() {
+        return _outputWidth;
+    }
+
+    /**
+     * sets the signals of all FromEXTERNAL blocks to inputs[offset] ...
+     * inputs[offset + getInputWidth() - 1].
+     */
+    public void writeInputs(final double[] inputs, final int offset) {
+        if (inputs.length - offset < _inputWidth) {
+            throw new IllegalArgumentException("The input array has " + (inputs.length - offset)
+                    + " values, the FromEXTERNAL blocks of the model need " + _inputWidth + ".");
+        }
+        int index = offset;
+        for (int i = 0; i < _inputPorts.length; i++) {
+            System.arraycopy(inputs, index, _inputPorts[i].dataVector, 0, _inputWidths[i]);
+            index += _inputWidths[i];
+        }
+    }
+
+    /**
+     * copies the current signals of all ToEXTERNAL blocks to outputs[offset]
+     * ... outputs[offset + getOutputWidth() - 1].
+     */
+    public void readOutputs(final double[] outputs, final int offset) {
+        if (outputs.length - offset < _outputWidth) {
+            throw new IllegalArgumentException("The output array has space for " + (outputs.length - offset)
+                    + " values, the ToEXTERNAL blocks of the model have " + _outputWidth + ".");
+        }
+        int index = offset;
+        for (int i = 0; i < _outputPorts.length; i++) {
+            System.arraycopy(_outputPorts[i].dataVector, 0, outputs, index, _outputWidths[i]);
+            index += _outputWidths[i];
+        }
+    }
+}
@@ -0,0 +1,130 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded queues between an external program and a co-simulation: the
+ * external side queues the input vectors of many steps ahead and collects
+ * the output vectors, while the simulation steps through the queued inputs
+ * (SimulationsKern.simulateQueuedSteps). Neither side waits for the other:
+ * offerInputs returns false if the input queue is full, the simulation stops
+ * if there is no queued input or no space for the outputs.
+ *
+ * One thread may call the methods of the external side, and one (other)
+ * thread the methods of the simulation side. The records are stored in
+ * preallocated arrays, nothing is allocated per step.
+ */
+public final class CoSimulationQueue {
+
+    private final int _capacity;
+    private final int _inputWidth;
+    private final int _outputRecordWidth;
+    private final double[] _inputs;
+    private final double[] _outputs;
+    // record counters: the tails are written by the producer, the heads by the consumer.
+    private final AtomicLong _inputHead = new AtomicLong();
+    private final AtomicLong _inputTail = new AtomicLong();
+    private final AtomicLong _outputHead = new AtomicLong();
+    private final AtomicLong _outputTail = new AtomicLong();
+
+    public CoSimulationQueue(final int capacity, final int inputWidth, final int outputWidth) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The capacity of the queue must be positive.");
+        }
+        _capacity = capacity;
+        _inputWidth = inputWidth;
+        _outputRecordWidth = outputWidth + 1;
+        _inputs = new double[capacity * inputWidth];
+        _outputs = new double[capacity * _outputRecordWidth];
+    }
+
+    public CoSimulationQueue(final int capacity, final CoSimulationPorts ports) {
+        this(capacity, ports.getInputWidth(), ports.getOutputWidth());
+    }
+
+    public int getCapacity() {
+        return _capacity;
+    }
+
+    /**
+     * external side: queues the inputs of the next step.
+     *
+     * @return false, if the queue is full
+     */
+    public boolean offerInputs(final double[] inputs) {
+        final long tail = _inputTail.get();
+        if (tail - _inputHead.get() == _capacity) {
+            return false;
+        }
+        System.arraycopy(inputs, 0, _inputs, (int) (tail % _capacity) * _inputWidth, _inputWidth);
+        _inputTail.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * external side: takes the outputs of the oldest simulated step.
+     *
+     * @param outputs outputs[0] is set to the time of the step, outputs[1]
+     * ... the values of the ToEXTERNAL blocks.
+     * @return false, if no output is queued
+     */
+    public boolean pollOutputs(final double[] outputs) {
+        final long head = _outputHead.get();
+        if (head == _outputTail.get()) {
+            return false;
+        }
+        System.arraycopy(_outputs, (int) (head % _capacity) * _outputRecordWidth, outputs, 0, _outputRecordWidth);
+        _outputHead.lazySet(head + 1);
+        return true;
+    }
+
+    public int getQueuedInputs() {
+        return (int) (_inputTail.get() - _inputHead.get());
+    }
+
+    public int getQueuedOutputs() {
+        return (int) (_outputTail.get() - _outputHead.get());
+    }
+
+    /**
+     * simulation side: writes the oldest queued inputs to the FromEXTERNAL
+     * blocks.
+     *
+     * @return false, if there is no queued input or no space for the outputs
+     * of the step: the ports are not changed.
+     */
+    public boolean takeInputs(final CoSimulationPorts ports) {
+        final long head = _inputHead.get();
+        if (head == _inputTail.get() || _outputTail.get() - _outputHead.get() == _capacity) {
+            return false;
+        }
+        ports.writeInputs(_inputs, (int) (head % _capacity) * _inputWidth);
+        _inputHead.lazySet(head + 1);
+        return true;
+    }
+
+    /**
+     * simulation side: queues the current values of the ToEXTERNAL blocks.
+     * Only call after a successful takeInputs, which reserved the space.
+     */
+    public void putOutputs(final double time, final CoSimulationPorts ports) {
+        final long tail = _outputTail.get();
+        final int offset = (int) (tail % _capacity) * _outputRecordWidth;
+        _outputs[offset] = time;
+        ports.readOutputs(_outputs, offset + 1);
+        _outputTail.lazySet(tail + 1);
+    }
+}
@@ -0,0 +1,269 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.allg.GeckoFile;
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InlineableCalculator;
+import ch.technokrat.gecko.geckocircuits.control.javablock.CompileObject;
+import ch.technokrat.gecko.geckocircuits.control.javablock.CompileStatus;
+import ch.technokrat.gecko.geckocircuits.control.javablock.JavaBlockClassLoader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.tools.ToolProvider;
+
+/**
+ * Compiles the sorted calculators of a control netlist into one generated
+ * class. The generated code holds all signals in a flat double[] vector. It
+ * inlines the code of the InlineableCalculators in the order of the netlist,
+ * and calls all other calculators through berechneYOUT, like
+ * NetzlisteCONTROL.berechneZeitschritt. The inlined results are still copied
+ * to the output arrays of the calculators, since the scopes, the interpreted
+ * calculators and the GUI read them from there.
+ *
+ * The generated source depends only on the structure of the netlist (the
+ * parameters are read by getters at each step), therefore the compiled
+ * classes are cached, e.g. for scripts which run the same model many times.
+ */
+final class ControlNetlistCompiler {
+
+    static final String CLASS_NAME = "GeckoCompiledControl";
+    private static final String CALCULATOR_TYPE = AbstractControlCalculatable.class.getName();
+    /**
+     * the JIT compiler does not compile methods with more than 8000 bytes of
+     * bytecode, therefore the step is split into several methods.
+     */
+    private static final int CALCULATORS_PER_METHOD = 50;
+    private static final int CACHE_SIZE = 8;
+    private static final Map<String, Class<?>> COMPILED_CLASSES
+            = new LinkedHashMap<String, Class<?>>(CACHE_SIZE, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<String, Class<?>> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    private final AbstractControlCalculatable[] _calculators;
+    private final boolean[] _isInlined;
+    private final Map<double[], Integer> _signalIndices = new IdentityHashMap<double[], Integer>();
+    private final List<double[]> _signals = new ArrayList<double[]>();
+    private final BitSet _isReadByInlined = new BitSet();
+    /**
+     * signals which are read by an inlined calculator before they are written
+     * within the step: inputs without connection, constants, feedback loops.
+     */
+    private final BitSet _isReadBeforeWritten = new BitSet();
+    private int _inlinedCount;
+
+    ControlNetlistCompiler(final AbstractControlCalculatable[] sortedCalculators) {
+        _calculators = sortedCalculators.clone();
+        _isInlined = new boolean[_calculators.length];
+        for (AbstractControlCalculatable calculator : _calculators) {
+            for (double[] output : calculator._outputSignal) {
+                getSignalIndex(output);
+            }
+        }
+
+        final BitSet isWritten = new BitSet();
+        for (int i = 0; i < _calculators.length; i++) {
+            final AbstractControlCalculatable calculator = _calculators[i];
+            _isInlined[i] = isInlineable(calculator);
+            if (_isInlined[i]) {
+                _inlinedCount++;
+                for (double[] input : calculator._inputSignal) {
+                    final int signal = getSignalIndex(input);
+                    _isReadByInlined.set(signal);
+                    if (!isWritten.get(signal)) {
+                        _isReadBeforeWritten.set(signal);
+                    }
+                }
+            }
+            for (double[] output : calculator._outputSignal) {
+                isWritten.set(getSignalIndex(output));
+            }
+        }
+    }
+
+    private static boolean isInlineable(final AbstractControlCalculatable calculator) {
+        final Class<?> type = calculator.getClass();
+        return calculator instanceof InlineableCalculator && Modifier.isPublic(type.getModifiers())
+                && type.getCanonicalName() != null;
+    }
+
+    private int getSignalIndex(final double[] signal) {
+        final Integer index = _signalIndices.get(signal);
+        if (index != null) {
+            return index;
+        }
+        _signalIndices.put(signal, _signals.size());
+        _signals.add(signal);
+        return _signals.size() - 1;
+    }
+
+    int getNumberOfInlinedCalculators() {
+        return _inlinedCount;
+    }
+
+    String generateSource() {
+        final StringBuilder code = new StringBuilder();
+        code.append("public final class ").append(CLASS_NAME).append(" implements ")
+                .append(CompiledControlStep.class.getName()).append(" {\n\n");
+        code.append("    private final double[] _s;\n");
+        code.append("    private final double[][] _o;\n");
+        for (int i = 0; i < _calculators.length; i++) {
+            code.append("    private final ").append(getFieldType(i)).append(" _c").append(i).append(";\n");
+        }
+
+        code.append("\n    public ").append(CLASS_NAME).append("(final ").append(CALCULATOR_TYPE)
+                .append("[] calculators, final double[][] signals) {\n");
+        code.append("        _o = signals;\n");
+        code.append("        _s = new double[signals.length];\n");
+        for (int i = 0; i < _calculators.length; i++) {
+            code.append("        _c").append(i).append(" = (").append(getFieldType(i)).append(") calculators[")
+                    .append(i).append("];\n");
+        }
+        code.append("    }\n");
+
+        code.append("\n    @Override\n    public void calculate(final double deltaT, final double time) {\n");
+        appendLocals(code);
+        for (int signal = _isReadBeforeWritten.nextSetBit(0); signal >= 0;
+                signal = _isReadBeforeWritten.nextSetBit(signal + 1)) {
+            appendLoad(code, signal);
+        }
+        for (int start = 0; start < _calculators.length; start += CALCULATORS_PER_METHOD) {
+            code.append("        calculate").append(start).append("(deltaT, time);\n");
+        }
+        code.append("    }\n");
+
+        for (int start = 0; start < _calculators.length; start += CALCULATORS_PER_METHOD) {
+            code.append("\n    private void calculate").append(start)
+                    .append("(final double deltaT, final double time) {\n");
+            appendLocals(code);
+            for (int i = start; i < Math.min(start + CALCULATORS_PER_METHOD, _calculators.length); i++) {
+                if (_isInlined[i]) {
+                    appendInlined(code, i);
+                } else {
+                    appendInterpreted(code, i);
+                }
+            }
+            code.append("    }\n");
+        }
+        return code.append("}\n").toString();
+    }
+
+    private String getFieldType(final int index) {
+        return _isInlined[index] ? _calculators[index].getClass().getCanonicalName() : CALCULATOR_TYPE;
+    }
+
+    private static void appendLocals(final StringBuilder code) {
+        code.append("        final double[] s = _s;\n");
+        code.append("        final double[][] o = _o;\n");
+    }
+
+    private static void appendLoad(final StringBuilder code, final int signal) {
+        code.append("        s[").append(signal).append("] = o[").append(signal).append("][0];\n");
+    }
+
+    private void appendInlined(final StringBuilder code, final int index) {
+        final AbstractControlCalculatable calculator = _calculators[index];
+        final String[] inputs = new String[calculator._inputSignal.length];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = "s[" + getSignalIndex(calculator._inputSignal[i]) + "]";
+        }
+        final String[] outputs = new String[calculator._outputSignal.length];
+        for (int i = 0; i < outputs.length; i++) {
+            outputs[i] = "s[" + getSignalIndex(calculator._outputSignal[i]) + "]";
+        }
+        final String inlineCode = ((InlineableCalculator) calculator).getInlineCode("_c" + index, inputs, outputs);
+        code.append("        { // ").append(calculator.getClass().getSimpleName()).append('\n');
+        for (String line : inlineCode.split("\n")) {
+            code.append("            ").append(line).append('\n');
+        }
+        code.append("        }\n");
+        for (String output : outputs) {
+            code.append("        o").append(output.substring(1)).append("[0] = ").append(output).append(";\n");
+        }
+    }
+
+    private void appendInterpreted(final StringBuilder code, final int index) {
+        code.append("        _c").append(index).append(".setTime(time);\n");
+        code.append("        _c").append(index).append(".berechneYOUT(deltaT);\n");
+        for (double[] output : _calculators[index]._outputSignal) {
+            final int signal = getSignalIndex(output);
+            if (_isReadByInlined.get(signal)) {
+                appendLoad(code, signal);
+            }
+        }
+    }
+
+    /**
+     * @return null, if the netlist could not be compiled (e.g. no Java
+     * compiler available): the calculators have to be called one by one.
+     */
+    CompiledControlStep compile() {
+        final String source = generateSource();
+        try {
+            Class<?> compiledClass;
+            synchronized (COMPILED_CLASSES) {
+                compiledClass = COMPILED_CLASSES.get(source);
+            }
+            if (compiledClass == null) {
+                compiledClass = compileClass(source);
+                if (compiledClass == null) {
+                    return null;
+                }
+                synchronized (COMPILED_CLASSES) {
+                    COMPILED_CLASSES.put(source, compiledClass);
+                }
+            }
+            return (CompiledControlStep) compiledClass
+                    .getConstructor(AbstractControlCalculatable[].class, double[][].class)
+                    .newInstance(_calculators, _signals.toArray(new double[_signals.size()][]));
+        } catch (ClassNotFoundException ex) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING, null, ex);
+        } catch (NoSuchMethodException ex) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING, null, ex);
+        } catch (InstantiationException ex) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING, null, ex);
+        } catch (IllegalAccessException ex) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING, null, ex);
+        } catch (InvocationTargetException ex) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING, null, ex);
+        }
+        return null;
+    }
+
+    private static Class<?> compileClass(final String source) throws ClassNotFoundException {
+        if (ToolProvider.getSystemJavaCompiler() == null) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.INFO,
+                    "No Java compiler available, the control blocks are calculated one by one.");
+            return null;
+        }
+        final CompileObject compileObject = new CompileObject(source, CLASS_NAME, Collections.<GeckoFile>emptyList());
+        if (compileObject.getCompileStatus() != CompileStatus.COMPILED_SUCCESSFULL) {
+            Logger.getLogger(ControlNetlistCompiler.class.getName()).log(Level.WARNING,
+                    "Compilation of the control netlist failed:\n{0}", compileObject.getCompilerMessage());
+            return null;
+        }
+        return new JavaBlockClassLoader(compileObject.getClassNameFileMap()).loadClass(CLASS_NAME);
+    }
+}
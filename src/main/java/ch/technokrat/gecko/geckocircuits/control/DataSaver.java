@@ -15,6 +15,7 @@ package ch.technokrat.gecko.geckocircuits.control;
 
 import ch.technokrat.gecko.geckocircuits.control.ReglerSaveData;
 import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import ch.technokrat.gecko.geckocircuits.datacontainer.ColumnarDataFileWriter;
 import ch.technokrat.gecko.geckocircuits.datacontainer.ContainerStatus;
 import java.io.*;
 import java.text.DecimalFormat;
@@ -205,6 +206,9 @@ public final class DataSaver extends Observable implements Observer {
             case BINARY:
                 _linePrinter = new BinaryLinePrinter(new File(_regler._file.getValue()), data, _regler);
                 break;
+            case COLUMNAR:
+                _linePrinter = new ColumnarLinePrinter(new File(_regler._file.getValue()), data, _regler);
+                break;
             default:
                 assert false;
         }
@@ -506,6 +510,56 @@ public final class DataSaver extends Observable implements Observer {
         }
     }
 
+    /**
+     * writes the columnar binary format, which can be read partially with the
+     * ColumnarDataFileReader. The data is always stored column by column,
+     * therefore the transposed output is identical to the regular one.
+     */
+    private class ColumnarLinePrinter extends AbstractLinePrinter {
+
+        private ColumnarDataFileWriter _writer;
+        private final float[] _values;
+
+        ColumnarLinePrinter(final File file, final AbstractDataContainer data, final ReglerSaveData settings)
+                throws SignalMissingException {
+            super(file, data, settings);
+            _values = new float[_selectedIndices.length];
+        }
+
+        @Override
+        void initStream() throws IOException {
+            final String[] signalNames = new String[_selectedIndices.length];
+            for (int i = 0; i < signalNames.length; i++) {
+                signalNames[i] = _data.getSignalName(_selectedIndices[i]);
+            }
+            _writer = new ColumnarDataFileWriter(_file, _data.getXDataName(), signalNames,
+                    ColumnarDataFileWriter.DEFAULT_CHUNK_SIZE, _settings._compressColumnar.getValue());
+        }
+
+        @Override
+        void closeStream() throws IOException {
+            if (_writer != null) {
+                _writer.close();
+            }
+        }
+
+        @Override
+        void printLine(final int lineNumber) throws IOException {
+            for (int i = 0; i < _values.length; i++) {
+                _values[i] = _data.getValue(_selectedIndices[i], lineNumber);
+            }
+            _writer.append(_data.getTimeValue(lineNumber, 0), _values);
+        }
+
+        @Override
+        void printTransposedData() throws IOException {
+            final int maxIndex = _data.getMaximumTimeIndex(0);
+            for (int i = 0; i <= maxIndex; i++) {
+                printLine(i);
+            }
+        }
+    }
+
     class SignalMissingException extends Exception {
 
         public SignalMissingException(String message) {
@@ -83,6 +83,7 @@ public final class DialogDataExport extends javax.swing.JDialog {
         jSpinnerSkip.setValue(_reglerDataSave._skipDataPoints.getValue());
         jCheckPrintHdr.setSelected(_reglerDataSave._printHeader.getValue());
         jCheckBoxTranspose.setSelected(_reglerDataSave._transposeData.getValue());
+        jCheckBoxCompress.setSelected(_reglerDataSave._compressColumnar.getValue());
         disableContSave();
         _initDone = true;
     }
@@ -223,6 +224,16 @@ public final class DialogDataExport extends javax.swing.JDialog {
             }
         });
 
+        switch (_reglerDataSave._outputType) {
+            case BINARY:
+                jRadioBinary.setSelected(true);
+                break;
+            case COLUMNAR:
+                jRadioColumnar.setSelected(true);
+                break;
+            default:
+                jRadioText.setSelected(true);
+        }
         switchBinaryTxt();
 
     }
@@ -239,6 +250,9 @@ public final class DialogDataExport extends javax.swing.JDialog {
         if (jRadioBinary.isSelected()) {
             _txtFormat = false;
             _reglerDataSave._outputType = OutputType.BINARY;
+        } else if (jRadioColumnar.isSelected()) {
+            _txtFormat = false;
+            _reglerDataSave._outputType = OutputType.COLUMNAR;
         } else {
             _txtFormat = true;
             _reglerDataSave._outputType = OutputType.TEXT;
@@ -247,6 +261,7 @@ public final class DialogDataExport extends javax.swing.JDialog {
         jSpinnerDigits.setEnabled(_txtFormat);
         jComboSeparator.setEnabled(_txtFormat);
         jComboHeaderSym.setEnabled(_txtFormat);
+        jCheckBoxCompress.setEnabled(jRadioColumnar.isSelected());
 
     }
 
@@ -291,6 +306,8 @@ public final class DialogDataExport extends javax.swing.JDialog {
         jSpinnerDigits = new javax.swing.JSpinner();
         jRadioBinary = new javax.swing.JRadioButton();
         jRadioText = new javax.swing.JRadioButton();
+        jRadioColumnar = new javax.swing.JRadioButton();
+        jCheckBoxCompress = new javax.swing.JCheckBox();
         jPanel4 = new javax.swing.JPanel();
         jScrollPane1 = new javax.swing.JScrollPane();
         jTextArea1 = new javax.swing.JTextArea();
@@ -560,6 +577,23 @@ public final class DialogDataExport extends javax.swing.JDialog {
             }
         });
 
+        _buttonGroup1.add(jRadioColumnar);
+        jRadioColumnar.setFont(new java.awt.Font("Dialog", 0, 12)); // NOI18N
+        jRadioColumnar.setText("Columnar binary format");
+        jRadioColumnar.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jRadioColumnarActionPerformed(evt);
+            }
+        });
+
+        jCheckBoxCompress.setFont(new java.awt.Font("Dialog", 0, 12)); // NOI18N
+        jCheckBoxCompress.setText("Compress columnar data");
+        jCheckBoxCompress.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jCheckBoxCompressActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout jPanel1Layout = new javax.swing.GroupLayout(jPanel1);
         jPanel1.setLayout(jPanel1Layout);
         jPanel1Layout.setHorizontalGroup(
@@ -571,6 +605,10 @@ public final class DialogDataExport extends javax.swing.JDialog {
                         .addComponent(jRadioBinary)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
                         .addComponent(jRadioText))
+                    .addGroup(jPanel1Layout.createSequentialGroup()
+                        .addComponent(jRadioColumnar)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                        .addComponent(jCheckBoxCompress))
                     .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.TRAILING, false)
                         .addGroup(javax.swing.GroupLayout.Alignment.LEADING, jPanel1Layout.createSequentialGroup()
                             .addComponent(jLabel4)
@@ -597,7 +635,11 @@ public final class DialogDataExport extends javax.swing.JDialog {
                 .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(jRadioBinary)
                     .addComponent(jRadioText))
-                .addGap(31, 31, 31)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(jRadioColumnar)
+                    .addComponent(jCheckBoxCompress))
+                .addGap(18, 18, 18)
                 .addGroup(jPanel1Layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
                     .addComponent(jComboSeparator, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
                     .addComponent(jLabel2))
@@ -621,7 +663,7 @@ public final class DialogDataExport extends javax.swing.JDialog {
         jTextArea1.setColumns(20);
         jTextArea1.setFont(new java.awt.Font("Dialog", 0, 10)); // NOI18N
         jTextArea1.setRows(5);
-        jTextArea1.setText("Please be aware that saving simulation data can produce large\nfiles (several GB!) on your harddisc. To reduce the amount of \ndata, you can lower the number of significant digits, skip data \npoints and select only the signals that you are interested in.\n\nThe independent variable (time or frequency) will always be\nsaved as double precision number, since a high resolution is\ntypically required, here.\n\nSaving the data as binary file is another possibility to reduce the\namount of storage needed on your harddisc. In binary mode, \nno header is written, but just the raw data. When reading the\nbinary data files, you have to consider the following:\n   - The independent variable is saved as double precision \n      value (8 bytes).\n   - Signal values are saved as single precisioin values (4 bytes)\n    - there is no linebreak-character in binary data, therefore\n      you have to know the number of signals (independent \n      variable + number of selected signals) to re-read the data \n      in separate program, as e.g. Matlab.");
+        jTextArea1.setText("Please be aware that saving simulation data can produce large\nfiles (several GB!) on your harddisc. To reduce the amount of \ndata, you can lower the number of significant digits, skip data \npoints and select only the signals that you are interested in.\n\nThe independent variable (time or frequency) will always be\nsaved as double precision number, since a high resolution is\ntypically required, here.\n\nSaving the data as binary file is another possibility to reduce the\namount of storage needed on your harddisc. In binary mode, \nno header is written, but just the raw data. When reading the\nbinary data files, you have to consider the following:\n   - The independent variable is saved as double precision \n      value (8 bytes).\n   - Signal values are saved as single precisioin values (4 bytes)\n    - there is no linebreak-character in binary data, therefore\n      you have to know the number of signals (independent \n      variable + number of selected signals) to re-read the data \n      in separate program, as e.g. Matlab.\n\nThe columnar binary format stores the data in blocks of 4096\nsamples per signal, with an index of the time range and the\nminimum, maximum and mean value of each block at the end of\nthe file. The signal values can be compressed. The file can be\nread with ColumnarDataFileReader (GeckoCIRCUITS.jar), which\nonly reads the blocks of a given time window.");
         jScrollPane1.setViewportView(jTextArea1);
 
         javax.swing.GroupLayout jPanel4Layout = new javax.swing.GroupLayout(jPanel4);
@@ -755,6 +797,14 @@ public final class DialogDataExport extends javax.swing.JDialog {
         switchBinaryTxt();
     }//GEN-LAST:event_jRadioTextActionPerformed
 
+    private void jRadioColumnarActionPerformed(java.awt.event.ActionEvent evt) {//NOPMD//GEN-FIRST:event_jRadioColumnarActionPerformed
+        switchBinaryTxt();
+    }//GEN-LAST:event_jRadioColumnarActionPerformed
+
+    private void jCheckBoxCompressActionPerformed(java.awt.event.ActionEvent evt) {//NOPMD//GEN-FIRST:event_jCheckBoxCompressActionPerformed
+        _reglerDataSave._compressColumnar.setUserValue(jCheckBoxCompress.isSelected());
+    }//GEN-LAST:event_jCheckBoxCompressActionPerformed
+
     private void jButtonCloseActionPerformed(java.awt.event.ActionEvent evt) {//NOPMD//GEN-FIRST:event_jButtonCloseActionPerformed
         dispose();
     }//GEN-LAST:event_jButtonCloseActionPerformed
@@ -865,6 +915,7 @@ public final class DialogDataExport extends javax.swing.JDialog {
     private javax.swing.JButton jButtonDoSave;
     private javax.swing.JButton jButtonFileChooser;
     private javax.swing.JButton jButtonTable;
+    private javax.swing.JCheckBox jCheckBoxCompress;
     private javax.swing.JCheckBox jCheckBoxTranspose;
     private javax.swing.JCheckBox jCheckPrintHdr;
     private javax.swing.JComboBox jComboBoxFilter;
@@ -891,6 +942,7 @@ public final class DialogDataExport extends javax.swing.JDialog {
     private javax.swing.JRadioButton jRadButtManSave;
     private javax.swing.JRadioButton jRadButtOverwrite;
     private javax.swing.JRadioButton jRadioBinary;
+    private javax.swing.JRadioButton jRadioColumnar;
     private javax.swing.JRadioButton jRadioText;
     private javax.swing.JScrollPane jScrollPane1;
     private javax.swing.JScrollPane jScrollPane2;
@@ -13,6 +13,8 @@
  */
 package ch.technokrat.gecko.geckocircuits.control;
 
+import ch.technokrat.gecko.geckocircuits.circuit.SimulationContext;
+
 /**
  *
  * @author andreas
@@ -21,5 +23,5 @@ public interface MemoryInitializable {
     /*
      * This function should called every simulation start & continue!
      */
-    void doInit(final double deltaT);
+    void doInit(final double deltaT, final SimulationContext context);
 }
@@ -14,19 +14,31 @@
 package ch.technokrat.gecko.geckocircuits.control;
 
 import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
+import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.SystemOutputRedirect;
 import ch.technokrat.gecko.geckocircuits.circuit.*;
 import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
 import ch.technokrat.gecko.geckocircuits.circuit.NetzlisteAllg;
 import ch.technokrat.gecko.geckocircuits.circuit.PotentialArea;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SignalCalculatorRandom;
+import ch.technokrat.gecko.geckocircuits.control.javablock.JavaBlockCompiler;
+import ch.technokrat.gecko.geckocircuits.newscope.AbstractTimeSerie;
+import ch.technokrat.gecko.geckocircuits.newscope.TimeSeriesConstantDt;
+import ch.technokrat.gecko.geckocircuits.newscope.TimeSeriesVariableArray;
 import java.io.*;
 import java.util.*;
 import java.util.Map.Entry;
 
 public final class NetzlisteCONTROL {
 
+    /**
+     * scope data of the simulation which is controlled by the GUI, see
+     * SimulationContext.createGuiContext(). Other simulations write into the
+     * data container of their own context.
+     */
     public static final DataContainerGlobal globalData = new DataContainerGlobal();
+    private SimulationContext _context;
     private List<Integer> potIndex; // contains the potential indices for potentials connected with a scope
     private int[][] potIndexArray;
     //-------------------------------------------
@@ -45,6 +57,11 @@ public final class NetzlisteCONTROL {
     private AbstractControlCalculatable[] _allSortedCalculatables;
     public AbstractControlCalculatable[] _allUnSortedControlCalculators;
     private RegelBlock[] _sortedReglerWONonCalculatables;
+    /**
+     * generated code for the calculation of _sortedControlBlocksNew, or null,
+     * if the calculators are called one by one.
+     */
+    private CompiledControlStep _compiledStep;
 
     /**
      * use static factory method for object construction!
@@ -63,6 +80,8 @@ public final class NetzlisteCONTROL {
         returnValue.elementsControl.addAll(previousNetList.elementsControl);
         returnValue._allSortedCalculatables = previousNetList._allSortedCalculatables;
         returnValue._allUnSortedControlCalculators = previousNetList._allUnSortedControlCalculators;
+        returnValue._compiledStep = previousNetList._compiledStep;
+        returnValue._context = previousNetList._context;
         returnValue.setGlobalDatacontainer();
         return returnValue;
     }
@@ -73,18 +92,33 @@ public final class NetzlisteCONTROL {
         return returnValue;
     }
 
-    public static NetzlisteCONTROL FabricRunSimulation(final NetzlisteAllg nlC) {
+    public static NetzlisteCONTROL FabricRunSimulation(final NetzlisteAllg nlC, final SimulationContext context) {
         SystemOutputRedirect.reset();
         final NetzlisteCONTROL returnValue = new NetzlisteCONTROL();
+        returnValue._context = context;
         returnValue.connectPotentialLabels(nlC);
         returnValue.removeMuxAndDemux();
         returnValue.optimiereAbarbeitungsListe();
         returnValue.setGlobalDatacontainer();
         returnValue.createControlCalculators();
+        returnValue.seedRandomSources();
         returnValue.initializeConnections();
+        returnValue.compileControlStep();
         return returnValue;
     }
 
+    /**
+     * application property COMPILED_CONTROL=TRUE: the control blocks are
+     * calculated by generated code, see ControlNetlistCompiler. If the
+     * netlist cannot be compiled, the blocks are calculated one by one.
+     */
+    private void compileControlStep() {
+        if (GeckoSim.applicationProps != null
+                && "TRUE".equals(GeckoSim.applicationProps.getProperty("COMPILED_CONTROL"))) {
+            _compiledStep = new ControlNetlistCompiler(_sortedControlBlocksNew).compile();
+        }
+    }
+
     public static List<RegelBlock> getOptimizedList(final NetzlisteAllg nlA) {
         final NetzlisteCONTROL nlC = new NetzlisteCONTROL();
         nlC.connectPotentialLabels(nlA);
@@ -216,6 +250,24 @@ public final class NetzlisteCONTROL {
         }
     }
 
+    /**
+     * If the context defines a random seed, each random source gets its own
+     * seed, derived in the order of the blocks in the model. Then, the
+     * random signals are reproducible, independent of the execution order.
+     */
+    private void seedRandomSources() {
+        final Long seed = _context.getRandomSeed();
+        if (seed == null) {
+            return;
+        }
+        final Random seedGenerator = new Random(seed);
+        for (AbstractControlCalculatable calculator : _allUnSortedControlCalculators) {
+            if (calculator instanceof SignalCalculatorRandom) {
+                ((SignalCalculatorRandom) calculator).setSeed(seedGenerator.nextLong());
+            }
+        }
+    }
+
     public void initializeAtSimulationStart(final double dt) {
         for (AbstractControlCalculatable calculatable : _sortedControlBlocksNew) {
             if (calculatable instanceof InitializableAtSimulationStart) {
@@ -227,7 +279,7 @@ public final class NetzlisteCONTROL {
     public void doMemorInits(final double deltaT) {
         for (AbstractControlCalculatable calculatable : _allSortedCalculatables) {
             if (calculatable instanceof MemoryInitializable) {
-                ((MemoryInitializable) calculatable).doInit(deltaT);
+                ((MemoryInitializable) calculatable).doInit(deltaT, _context);
             }
         }
     }
@@ -321,7 +373,6 @@ public final class NetzlisteCONTROL {
     }
 
     public void berechneZeitschritt(final double deltaT, final double time) {
-        AbstractControlCalculatable.setTime(time);
 
 ////        if (!initDone) {
 ////            initDone = true;
@@ -351,9 +402,15 @@ public final class NetzlisteCONTROL {
 //            }                        
 //            System.exit(3);
 //        }
-        for (int i = 0; i < _sortedControlBlocksNew.length; i++) {
-            _sortedControlBlocksNew[i].berechneYOUT(deltaT);
-        }        
+        if (_compiledStep == null) {
+            for (int i = 0; i < _sortedControlBlocksNew.length; i++) {
+                final AbstractControlCalculatable calculator = _sortedControlBlocksNew[i];
+                calculator.setTime(time);
+                calculator.berechneYOUT(deltaT);
+            }
+        } else {
+            _compiledStep.calculate(deltaT, time);
+        }
 
 //        for(AbstractControlCalculatable calc : _sortedControlBlocksNew) {
 //            for(int i =0 ;i < calc._outputSignal.length; i++) {
@@ -401,8 +458,13 @@ public final class NetzlisteCONTROL {
         _allUnSortedControlCalculators = new AbstractControlCalculatable[elementsControl.size()];
 
         List<RegelBlock> sortedWONonCalculators = new ArrayList<RegelBlock>();
+        // all Java blocks which are not compiled yet are compiled in parallel, each block waits for its classes
+        JavaBlockCompiler.compileInBackground(Arrays.asList(_orderedControlBlocks));
 
         for (int i = 0; i < _orderedControlBlocks.length; i++) {
+            if (_orderedControlBlocks[i] instanceof ReglerSaveData) {
+                ((ReglerSaveData) _orderedControlBlocks[i]).setSimulationData(_context.getDataContainer());
+            }
             try {
                 AbstractControlCalculatable calc = _orderedControlBlocks[i].getInternalControlCalculatableForSimulationStart();
                 _allSortedCalculatables[i] = calc;
@@ -465,7 +527,7 @@ public final class NetzlisteCONTROL {
                 }
             }
             // TIBOR System.out.println(Arrays.toString(dataIndex));
-            ((ReglerOSZI) (_orderedControlBlocks[scopeIndices.get(scopeInd)])).setDataContainerIndices(dataIndex);
+            ((ReglerOSZI) (_orderedControlBlocks[scopeIndices.get(scopeInd)])).setDataContainerIndices(dataIndex, _context.getDataContainer());
         }
 
         String[] dataNames = new String[potIndex.size()];
@@ -478,8 +540,15 @@ public final class NetzlisteCONTROL {
             counter++;
         }
 
-        globalData.clear();
-        ((DataContainerGlobal) globalData).init(potIndex.size(), dataNames, "t");
+        final DataContainerGlobal dataContainer = _context.getDataContainer();
+        dataContainer.clear();
+        final AbstractTimeSerie timeSerie;
+        if (_context.getSolverSettings()._adaptiveStepWidth.getValue()) {
+            timeSerie = new TimeSeriesVariableArray();
+        } else {
+            timeSerie = new TimeSeriesConstantDt();
+        }
+        dataContainer.init(potIndex.size(), dataNames, "t", timeSerie);
 
         for (RegelBlock reg : elementsControl) {
             if (reg != null && reg instanceof ReglerCISPR16) {
@@ -497,12 +566,13 @@ public final class NetzlisteCONTROL {
      */
     private void writeData(final double time) {
         try {
-            float[] scopeData = globalData.getDataArray();
+            final DataContainerGlobal dataContainer = _context.getDataContainer();
+            float[] scopeData = dataContainer.getDataArray();
             for (int i = 0; i < potIndexArray.length; i++) {
                 scopeData[i] = (float) _allSortedCalculatables[potIndexArray[i][0]]._inputSignal[potIndexArray[i][1]][0];
             }
 
-            globalData.insertValuesAtEnd(scopeData, time);
+            dataContainer.insertValuesAtEnd(scopeData, time);
         } catch (NullPointerException ex) {
             ex.printStackTrace();
         }
@@ -171,12 +171,50 @@ public abstract class RegelBlock extends AbstractBlockInterface implements Seria
             throw new IllegalAccessException(getStringID() + " has more than one output");
         }
 
-        try {
-            return _calculator._outputSignal[0][0];
-        } catch (Throwable exc) {
+        if (!hasOutputSignal(0)) {
             throw new IllegalAccessException(getStringID() + " has no output");
         }
+        return _calculator._outputSignal[0][0];
+    }
+
+    /**
+     * @param outputName the output name, or an empty String for blocks with a
+     * single output (as getOutput())
+     * @return the index for getOutput(int)
+     */
+    public final int getOutputIndex(final String outputName) throws IllegalAccessException {
+        if (outputName.isEmpty()) {
+            if (YOUT.size() > 1) {
+                throw new IllegalAccessException(getStringID() + " has more than one output");
+            }
+            return 0;
+        }
+        String[] outputNames = getOutputNames();
+        for (int i = 0; i < outputNames.length; i++) {
+            if (outputNames[i].equals(outputName)) {
+                return i;
+            }
+        }
+        throw new IllegalAccessException("output " + outputName + " in block " + getStringID() + " does not exist");
+    }
 
+    /**
+     * the current output value, without the search by name.
+     */
+    public final double getOutput(final int outputIndex) throws IllegalAccessException {
+        if (!hasOutputSignal(outputIndex)) {
+            throw new IllegalAccessException(getStringID() + " has no output with index " + outputIndex);
+        }
+        return _calculator._outputSignal[outputIndex][0];
+    }
+
+    /**
+     * the calculator exists only after the block was used in a simulation.
+     */
+    private boolean hasOutputSignal(final int outputIndex) {
+        return _calculator != null && _calculator._outputSignal != null && outputIndex >= 0
+                && outputIndex < _calculator._outputSignal.length && _calculator._outputSignal[outputIndex] != null
+                && _calculator._outputSignal[outputIndex].length > 0;
     }
 
     // zum Ueberschreiben bei PI-Block und aehnlichen:
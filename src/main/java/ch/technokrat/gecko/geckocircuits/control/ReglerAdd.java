@@ -14,6 +14,8 @@
 package ch.technokrat.gecko.geckocircuits.control;
 
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.AddCalculatorMultiInputs;
+import ch.technokrat.gecko.geckocircuits.control.calculators.AddCalculatorTwoInputs;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 
 public final class ReglerAdd extends AbstractReglerVariableInputs {
@@ -36,24 +38,9 @@ public final class ReglerAdd extends AbstractReglerVariableInputs {
     @Override
     public AbstractControlCalculatable getInternalControlCalculatableForSimulationStart() {
         if (XIN.size() == 2) {
-            return new AbstractControlCalculatable(2, 1) {
-
-                @Override
-                public void berechneYOUT(final double deltaT) {
-                    _outputSignal[0][0] = _inputSignal[0][0] + _inputSignal[1][0];
-                }
-            };
+            return new AddCalculatorTwoInputs();
         } else {
-            return new AbstractControlCalculatable(XIN.size(), 1) {
-
-                @Override
-                public void berechneYOUT(final double deltaT) {
-                    _outputSignal[0][0] = 0;
-                    for (int i1 = 0; i1 < _inputSignal.length; i1++) {
-                        _outputSignal[0][0] += _inputSignal[i1][0];
-                    }
-                }
-            };
+            return new AddCalculatorMultiInputs(XIN.size());
         }
     }    
 }
@@ -34,6 +34,8 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
     public static final ControlTypeInfo tinfo = new ControlTypeInfo(ReglerCISPR16.class, "CISPR16", I18nKeys.EMI_TEST_RECEIVER);
     // alle ZV-Daten nicht komprimiert fuer eventuelle Festplattenspeicherung --> Speicherkritisch
     DataContainerSimple _zvDatenRam;
+    // only in the streaming mode, then no data is recorded:
+    private StreamingTestReceiver _streamingReceiver;
     public final Cispr16Settings _settings = new Cispr16Settings(this);
     private TestReceiverWindow _testReceiverCISPR16;
     /**
@@ -62,12 +64,16 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
 
     @Override
     protected void exportAsciiIndividual(final StringBuffer ascii) {
-        _testReceiverCISPR16.exportAscii(ascii);
+        if (_testReceiverCISPR16 != null) { // null without display
+            _testReceiverCISPR16.exportAscii(ascii);
+        }
     }
 
     @Override
     protected void importIndividual(final TokenMap tokenMap) {
-        _testReceiverCISPR16.importAscii(tokenMap);        
+        if (_testReceiverCISPR16 != null) {
+            _testReceiverCISPR16.importAscii(tokenMap);
+        }
     }            
 
     @Override
@@ -164,6 +170,34 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
                 return _testReceiverNew.calculateAvgAtFrequency(((Number) parameterValue).doubleValue());
             }
         });        
+
+        returnValue.add(new OperationInterface("getReceiverFrequencies", I18nKeys.GET_RECEIVER_FREQUENCIES_DOC) {
+            @Override
+            public Object doOperation(final Object parameterValue) {
+                return getStreamingReceiver().getFrequencies();
+            }
+        });
+
+        returnValue.add(new OperationInterface("getReceiverPeak", I18nKeys.GET_RECEIVER_PEAK_DOC) {
+            @Override
+            public Object doOperation(final Object parameterValue) {
+                return scaleReceiverValues(getStreamingReceiver().getPeak());
+            }
+        });
+
+        returnValue.add(new OperationInterface("getReceiverQuasiPeak", I18nKeys.GET_RECEIVER_QUASI_PEAK_DOC) {
+            @Override
+            public Object doOperation(final Object parameterValue) {
+                return scaleReceiverValues(getStreamingReceiver().getQuasiPeak());
+            }
+        });
+
+        returnValue.add(new OperationInterface("getReceiverAverage", I18nKeys.GET_RECEIVER_AVERAGE_DOC) {
+            @Override
+            public Object doOperation(final Object parameterValue) {
+                return scaleReceiverValues(getStreamingReceiver().getAverage());
+            }
+        });
                 
         return Collections.unmodifiableList(returnValue);
     }
@@ -179,6 +213,27 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
         }
     }
 
+    private StreamingTestReceiver getStreamingReceiver() {
+        if (_streamingReceiver == null) {
+            throw new IllegalStateException("No streaming test receiver result available. Set the parameter "
+                    + "\"streamingReceiver\" of " + getStringID() + " and run a simulation.");
+        }
+        return _streamingReceiver;
+    }
+
+    /**
+     * the streaming receiver calculates amplitudes; like in the test
+     * receiver window, they are converted to RMS values, if selected.
+     */
+    private double[] scaleReceiverValues(final double[] values) {
+        if (_settings._showRMSValues.getValue()) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= Math.sqrt(2);
+            }
+        }
+        return values;
+    }
+
     private class CisprCalculator extends AbstractControlCalculatable implements MemoryInitializable {
 
         public CisprCalculator() {
@@ -187,9 +242,14 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
 
         
         private float[] dataValue = new float[1];
+        private StreamingTestReceiver _receiver;
         
         @Override
         public void berechneYOUT(final double deltaT) {
+            if (_receiver != null) {
+                _receiver.addSample(_inputSignal[0][0]);
+                return;
+            }
             // be careful, this is complicated by intention! If we would just insert
             // the  inputSignal[0], it would be overwritten in the next simulation step.            
             dataValue[0] = (float) _inputSignal[0][0];
@@ -199,9 +259,17 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
         }
 
         @Override
-        public void doInit(final double deltaT) {
+        public void doInit(final double deltaT, final SimulationContext context) {
+            if (_settings._streaming.getValue()) {
+                _zvDatenRam = null;
+                _receiver = new StreamingTestReceiver(deltaT, _settings._minFreq.getValue(), _settings._maxFreq.getValue());
+                _streamingReceiver = _receiver;
+                return;
+            }
+            _receiver = null;
+            _streamingReceiver = null;
             try {
-                _zvDatenRam = DataContainerSimple.fabricConstantDtTimeSeries(1, (int) ((SimulationsKern.tEND - SimulationsKern.tSTART) / deltaT)
+                _zvDatenRam = DataContainerSimple.fabricConstantDtTimeSeries(1, (int) ((context.getTEnd() - context.getTStart()) / deltaT)
                         + DATA_INDEX_ADD);
             } catch (java.lang.OutOfMemoryError err) {
                 _zvDatenRam = null;
@@ -277,8 +345,10 @@ public final class ReglerCISPR16 extends RegelBlock implements SpecialNameVisibl
     }
 
     public void setTestReceiverCISPR16MenueEnabled(final boolean value) {
-        _testReceiverCISPR16.setTestReceiverCISPR16MenueEnabled(value);
-        if (value) {
+        if (_testReceiverCISPR16 != null) { // the calculation of the window needs the recorded data
+            _testReceiverCISPR16.setTestReceiverCISPR16MenueEnabled(value && _zvDatenRam != null);
+        }
+        if (value && _zvDatenRam != null) {
             _zvDatenRam.setContainerStatus(ContainerStatus.FINISHED);
         }
 
@@ -16,6 +16,8 @@ package ch.technokrat.gecko.geckocircuits.control;
 import ch.technokrat.gecko.geckocircuits.allg.AbstractComponentTyp;
 import ch.technokrat.gecko.geckocircuits.circuit.TokenMap;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.MulCalculatorMultiInputs;
+import ch.technokrat.gecko.geckocircuits.control.calculators.MulCalculatorTwoInputs;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 
 public final class ReglerMUL extends AbstractReglerVariableInputs {
@@ -35,39 +37,12 @@ public final class ReglerMUL extends AbstractReglerVariableInputs {
         return new I18nKeys[]{I18nKeys.MULTIPLICATION_OF_INPUT};
     }            
 
-    private class TwoParameterMultiplication extends AbstractControlCalculatable {
-
-        public TwoParameterMultiplication() {
-            super(2, 1);
-        }
-        
-        @Override
-        public void berechneYOUT(final double deltaT) {
-            _outputSignal[0][0] = _inputSignal[0][0] * _inputSignal[1][0];
-        }
-    }
-
-    private class MoreParameterMultiplication extends AbstractControlCalculatable {
-
-        public MoreParameterMultiplication() {
-            super(XIN.size(), 1);
-        }
-        
-        @Override
-        public void berechneYOUT(final double deltaT) {
-            _outputSignal[0][0] = _inputSignal[0][0];
-            for (int i = 1; i < _inputSignal.length; i++) {
-                _outputSignal[0][0] *= _inputSignal[i][0];
-            }
-        }
-    }
-
     @Override
     public AbstractControlCalculatable getInternalControlCalculatableForSimulationStart() {        
         if (XIN.size() == 2) {
-            return new TwoParameterMultiplication();
+            return new MulCalculatorTwoInputs();
         } else {
-            return new MoreParameterMultiplication();
+            return new MulCalculatorMultiInputs(XIN.size());
         }
 
     }
@@ -13,12 +13,14 @@
  */
 package ch.technokrat.gecko.geckocircuits.control;
 
+import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.geckocircuits.allg.DatenSpeicher;
 import ch.technokrat.gecko.geckocircuits.allg.Fenster;
 import ch.technokrat.gecko.geckocircuits.allg.UserParameter;
 import ch.technokrat.gecko.geckocircuits.circuit.*;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
 import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
 import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerNullData;
 import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerScopeWrapper;
 import ch.technokrat.gecko.geckocircuits.datacontainer.ScopeWrapperIndices;
@@ -76,7 +78,8 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
     private String[] _saveLoadSignalNames;
     private final ScopeSettings _scopeSettings = new ScopeSettings();  // initiale ScopeSettings definieren   ;    
     private final GraferV4 _grafer = new GraferV4(_scopeSettings);
-    public ScopeFrame _scopeFrame = new ScopeFrame(_grafer);
+    // no scope window in headless mode: the signals are read from getZVDatenImRAM()
+    public ScopeFrame _scopeFrame = GeckoSim.isHeadless() ? null : new ScopeFrame(_grafer);
     private boolean _isShowName;
     Stack<AbstractScopeSignal> _scopeInputSignals = new Stack<AbstractScopeSignal>();
     private final DefinedMeanSignals _meanSignals = new DefinedMeanSignals(_scopeInputSignals);
@@ -158,10 +161,11 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         final DataContainerNullData nullData = new DataContainerNullData(_grafer.getManager().getAllScopeSignals());
         nullData.setDefinedMeanSignals(_meanSignals);        
         _zvDatenRAM = nullData;
-        _scopeFrame._scope.setDataContainer(_zvDatenRAM);
-
-        _scopeFrame.setReferenzAufRegelBlock(this);
-        _scopeFrame.setTitle(" " + getStringID());
+        if (_scopeFrame != null) {
+            _scopeFrame._scope.setDataContainer(_zvDatenRAM);
+            _scopeFrame.setReferenzAufRegelBlock(this);
+            _scopeFrame.setTitle(" " + getStringID());
+        }
         if (_waveformChar != null) {
             _waveformChar.setInvalid();
         }
@@ -177,12 +181,16 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         // TODO ??? _zvDatenRAM.setSignalName(knotenIndex, newLabel);
     }
 
-    public void setDataContainerIndices(final int[] indices) {                
+    /**
+     * @param simulationData the data container of the running simulation,
+     * NetzlisteCONTROL.globalData for the simulation of the main window
+     */
+    public void setDataContainerIndices(final int[] indices, final DataContainerGlobal simulationData) {
         final List<Integer> globalIndices = new ArrayList<Integer>();
         for (int index : indices) {
             globalIndices.add(index);
         }
-        _scopeWrapperIndices = new ScopeWrapperIndices(globalIndices, NetzlisteCONTROL.globalData);
+        _scopeWrapperIndices = new ScopeWrapperIndices(globalIndices, simulationData);
     }
 
     // wird von ReglerOSZI ueberschrieben, um als Zusatzfunktionalitaet die Terminal-Anzahl direkt aendern zu koennen
@@ -217,7 +225,9 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
     @Override
     public void deleteActionIndividual() {
         try {
-            _scopeFrame.dispose();
+            if (_scopeFrame != null) {
+                _scopeFrame.dispose();
+            }
             if (_zvDatenRAM instanceof DataContainerScopeWrapper) {
                 ((DataContainerScopeWrapper) _zvDatenRAM).deregisterObserver();
             }
@@ -270,8 +280,8 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         }
 
         @Override
-        public void doInit(double deltaT) {
-            doInitialCalculation();
+        public void doInit(final double deltaT, final SimulationContext context) {
+            doInitialCalculation(context.getDataContainer());
         }
     }
 
@@ -355,9 +365,11 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
             _grafer.exportIndividualCONTROL(appendLater);
             appendLater.append("\n<\\ScopeSettings>\n");
 
-            appendLater.append("\n<ScopeWindowSettings>\n");
-            _scopeFrame.exportIndividualCONTROL(appendLater);
-            appendLater.append("\n<\\ScopeWindowSettings>\n");
+            if (_scopeFrame != null) {
+                appendLater.append("\n<ScopeWindowSettings>\n");
+                _scopeFrame.exportIndividualCONTROL(appendLater);
+                appendLater.append("\n<\\ScopeWindowSettings>\n");
+            }
         } catch (Throwable ex) {
             ex.printStackTrace();
         }
@@ -393,7 +405,7 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         }
 
         final TokenMap windowSettingsMap = tokenMap.getBlockTokenMap("<ScopeWindowSettings>");
-        if (settingsMap != null) {
+        if (settingsMap != null && _scopeFrame != null) {
             _scopeFrame.importIndividualCONTROL(windowSettingsMap);
         }
 
@@ -403,7 +415,7 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
             importScopeSettings(scopeMap);
         }
 
-        if (Fenster.IS_APPLET && !Fenster.IS_BRANDED) {
+        if (Fenster.IS_APPLET && !Fenster.IS_BRANDED && _scopeFrame != null) {
             _scopeFrame.setVisible(true);
         }
     }
@@ -449,7 +461,7 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         return channelFourier;
     }
 
-    public void doInitialCalculation() {
+    public void doInitialCalculation(final DataContainerGlobal simulationData) {
         List<ExternalSignal> externalSignals;
         // (b) wenn die Simulation ein zweites, drittes usw. weiteres Mal neugestartet wird
         if (_zvDatenRAM != null) {
@@ -457,7 +469,7 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         }
 
         final DataContainerScopeWrapper scopeWrapper;
-        scopeWrapper = new DataContainerScopeWrapper(NetzlisteCONTROL.globalData,
+        scopeWrapper = new DataContainerScopeWrapper(simulationData,
                 _scopeWrapperIndices,
                 _meanSignals,                
                 _grafer.getManager().getAllScopeSignals());
@@ -469,8 +481,10 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
 
         _zvDatenRAM = scopeWrapper;
 
-        _scopeFrame.clearZVDaten();
-        _scopeFrame._scope.setDataContainer(_zvDatenRAM);
+        if (_scopeFrame != null) {
+            _scopeFrame.clearZVDaten();
+            _scopeFrame._scope.setDataContainer(_zvDatenRAM);
+        }
         //------------
         // jedesmal, wenn ein neues SCOPE-Fenster 'laeuft', beginnt die ZV-Datenspeicherung von Neuem
         if (_waveformChar != null) {
@@ -485,7 +499,7 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
 
     void importScopeSettings(final TokenMap scopeMap) {
         _scopeSettings.importASCII(scopeMap);
-        _scopeSettings.loadSettings(_scopeFrame.getGrafer());  // hier wird 'this' parametrisiert                
+        _scopeSettings.loadSettings(_grafer);  // hier wird 'this' parametrisiert                
     }
 
     public boolean isAntiAliasing() {
@@ -509,7 +523,9 @@ public final class ReglerOSZI extends RegelBlock implements VariableTerminalNumb
         try {
             if (_grafer != null) {
                 _grafer.getManager().defineNewSignalNumber(this, XIN.size(), _meanSignals);
-                _scopeFrame.setNewTerminalNumber(XIN.size());
+                if (_scopeFrame != null) {
+                    _scopeFrame.setNewTerminalNumber(XIN.size());
+                }
             }
 
         } catch (Exception ex) {
@@ -19,8 +19,8 @@ import ch.technokrat.gecko.geckocircuits.allg.DatenSpeicher;
 import ch.technokrat.gecko.geckocircuits.allg.Fenster;
 import ch.technokrat.gecko.geckocircuits.allg.GlobalFilePathes;
 import ch.technokrat.gecko.geckocircuits.allg.UserParameter;
+import ch.technokrat.gecko.geckocircuits.circuit.CircuitSheet;
 import ch.technokrat.gecko.geckocircuits.circuit.Enabled;
-import ch.technokrat.gecko.geckocircuits.circuit.SchematischeEingabe2;
 import ch.technokrat.gecko.geckocircuits.circuit.TokenMap;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
 import ch.technokrat.gecko.geckocircuits.datacontainer.*;
@@ -50,6 +50,13 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
             arrayIndex(this, -1).
             build();                               
     
+    final UserParameter<Boolean> _compressColumnar = UserParameter.Builder.
+            <Boolean>start("compressColumnar", false).
+            longName(I18nKeys.IF_TRUE_COMPRESS_COLUMNAR_DATA).
+            shortName("compressColumnar").
+            arrayIndex(this, -1).
+            build();
+
     final UserParameter<Integer> _skipDataPoints = UserParameter.Builder.
             <Integer>start("skipDataPoints", 1).                       
             longName(I18nKeys.SKIP_DATA_POINTS).
@@ -76,6 +83,7 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
     private static final int BLOCK_WIDTH = 6;
     public static final ControlTypeInfo tinfo = new ControlTypeInfo(ReglerSaveData.class, "DataExport", I18nKeys.DATA_EXPORT_TO_FILE);
     private DataSaver _dataSaver;
+    private AbstractDataContainer _simulationData = NetzlisteCONTROL.globalData;
     private String _statusTxt = "waiting";
 
     
@@ -87,7 +95,18 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
     enum OutputType {
 
         BINARY,
-        TEXT;
+        TEXT,
+        COLUMNAR; // see ColumnarDataFileWriter
+
+        static OutputType getFromOrdinal(final int testOrdinal) {
+            for (OutputType type : OutputType.values()) {
+                if (type.ordinal() == testOrdinal) {
+                    return type;
+                }
+            }
+            assert false;
+            return null;
+        }
     }
 
     enum SaveModus {
@@ -211,7 +230,7 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
     @Override
     public AbstractControlCalculatable getInternalControlCalculatableForSimulationStart() {
         if (_isEnabled.getValue() == Enabled.ENABLED) {
-            _dataSaver = new DataSaver(NetzlisteCONTROL.globalData, this);
+            _dataSaver = new DataSaver(_simulationData, this);
             _dataSaver.addObserver(new Observer() {
                 @Override
                 public void update(final Observable obs, final Object arg) {
@@ -234,7 +253,19 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
             }
         }
 
-        SchematischeEingabe2.Singleton._circuitSheet.repaint();
+        final CircuitSheet sheet = getParentCircuitSheet();
+        if (sheet != null) {
+            sheet.repaint();
+        }
+    }
+
+    /**
+     * the data of the simulation which creates the next calculator, see
+     * NetzlisteCONTROL. The main window simulation writes into
+     * NetzlisteCONTROL.globalData.
+     */
+    void setSimulationData(final AbstractDataContainer simulationData) {
+        _simulationData = simulationData;
     }
 
     @Override
@@ -251,6 +282,7 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
         DatenSpeicher.appendAsString(ascii.append("\nheaderSymbol"), _headerSymbol.ordinal());
         DatenSpeicher.appendAsString(ascii.append("\nsaveModus"), _saveModus.ordinal());
         DatenSpeicher.appendAsString(ascii.append("\nfileOverwrite"), _fileOverwrite.ordinal());
+        DatenSpeicher.appendAsString(ascii.append("\noutputType"), _outputType.ordinal());
     }
 
     @Override
@@ -268,6 +300,7 @@ public final class ReglerSaveData extends RegelBlock implements Operationable {
         }
         _saveModus = SaveModus.getFromOrdinal(tokenMap.readDataLine("saveModus", _saveModus.ordinal()));
         _fileOverwrite = FileOverwrite.getFromOrdinal(tokenMap.readDataLine("fileOverwrite", _fileOverwrite.ordinal()));        
+        _outputType = OutputType.getFromOrdinal(tokenMap.readDataLine("outputType", _outputType.ordinal()));
     }
     
 
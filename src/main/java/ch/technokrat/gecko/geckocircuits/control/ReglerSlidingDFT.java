@@ -19,9 +19,12 @@ import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
 import ch.technokrat.gecko.geckocircuits.circuit.TokenMap;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.TextInfoType;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.MultiChannelSlidingDFTCalculator;
 import ch.technokrat.gecko.geckocircuits.control.calculators.SlidingDFTCalculator;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 import java.awt.Window;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -54,6 +57,20 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
     public ReglerSlidingDFT() {
         super(1);
         _data.add(new FrequencyData(DEFAULT_FREQENCY, OutputData.ABS));
+        _inputTerminalNumber.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(final ActionEvent event) {
+                updateOutputTerminalNumber();
+            }
+        });
+    }
+
+    /**
+     * each input signal (channel) has one output for each frequency, see
+     * MultiChannelSlidingDFTCalculator.
+     */
+    void updateOutputTerminalNumber() {
+        setOutputTerminalNumber(_inputTerminalNumber.getValue() * _data.size());
     }
     
     public List<FrequencyData> getFrequencyData() {
@@ -68,7 +85,7 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
         } 
         
         _data = newList;
-        setOutputTerminalNumber(_data.size());
+        updateOutputTerminalNumber();
     }
 
     @Override
@@ -195,7 +212,10 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
 
     @Override
     public AbstractControlCalculatable getInternalControlCalculatableForSimulationStart() {
-        return new SlidingDFTCalculator(YOUT.size(), _averageSpan.getValue(), _data);
+        if (XIN.size() == 1) {
+            return new SlidingDFTCalculator(YOUT.size(), _averageSpan.getValue(), _data);
+        }
+        return new MultiChannelSlidingDFTCalculator(XIN.size(), YOUT.size(), _averageSpan.getValue(), _data);
     }    
     
 
@@ -243,7 +263,7 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
             }            
             _data.add(data);
         }
-        setOutputTerminalNumber(_data.size());
+        updateOutputTerminalNumber();
     }
 
     
@@ -267,7 +287,7 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
         @Override
         public void undo() {
             _data = _oldList;
-            setOutputTerminalNumber(_data.size());
+            updateOutputTerminalNumber();
         }
 
         @Override
@@ -278,7 +298,7 @@ public final class ReglerSlidingDFT extends AbstractReglerVariableInputs {
         @Override
         public void redo() {
             _data = _newList;
-            setOutputTerminalNumber(_data.size());
+            updateOutputTerminalNumber();
         }
 
         @Override
@@ -73,7 +73,7 @@ class ReglerSlidingDFTDialog extends DialogElementCONTROL<ReglerSlidingDFT> {
         jpM.setBorder(BorderFactory.createTitledBorder(BorderFactory.createEtchedBorder(),
                 "Parameter", TitledBorder.LEFT, TitledBorder.TOP));
 
-        final JPanel pPT1a = createParameterPanel(element._averageSpan);
+        final JPanel pPT1a = createParameterPanel(element._averageSpan, element._inputTerminalNumber);
         jpM.add(pPT1a, BorderLayout.NORTH);
         jpM.add(jPanelFreqs, BorderLayout.CENTER);
 
@@ -182,7 +182,6 @@ class ReglerSlidingDFTDialog extends DialogElementCONTROL<ReglerSlidingDFT> {
     @Override
     public void processInputIndividual() {
         super.processInputIndividual(); //To change body of generated methods, choose Tools | Templates.
-        element.setOutputTerminalNumber(_freqFields.size());
                 
         for(JComboBox combo : _frequencySelectionList) {
             int index = _frequencySelectionList.indexOf(combo);            
@@ -196,6 +195,7 @@ class ReglerSlidingDFTDialog extends DialogElementCONTROL<ReglerSlidingDFT> {
         for(int i = 0; i < makeSmaller; i++) {
             element.removeLastFrequencyData();
         }                        
+        element.updateOutputTerminalNumber();
     }
     
     
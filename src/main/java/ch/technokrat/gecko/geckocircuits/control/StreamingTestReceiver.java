@@ -0,0 +1,380 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under 
+ *  the terms of the GNU General Public License as published by the Free Software 
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.newscope.MyFFT;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * EMI test receiver which evaluates the signal while the simulation runs,
+ * instead of one FFT of the complete recording (TestReceiverCalculation).
+ * Each CISPR 16 band (A: 9 - 150 kHz, B: 0.15 - 30 MHz, C/D: 30 - 1000 MHz)
+ * is a short-time Fourier transform with a Gaussian window, whose -6 dB
+ * bandwidth is the resolution bandwidth of the band (200 Hz, 9 kHz, 120 kHz).
+ * The magnitude of a frequency bin is the envelope of the band-filtered
+ * signal at this frequency. After each hop of the window, the peak,
+ * quasi-peak and average detectors of all bins are updated.
+ *
+ * The simulation thread only decimates the samples into a ring buffer per
+ * band. At each hop, a copy of the buffer is transformed in a background
+ * thread; the bands are transformed in parallel to each other and to the
+ * simulation. At most one transform per band is pending: if the transforms
+ * are slower than the simulation, the simulation waits.
+ *
+ * All values are amplitudes of the input signal.
+ */
+public final class StreamingTestReceiver {
+
+    private static final double[] BAND_LIMITS = {9e3, 150e3, 30e6, 1e9};
+    private static final double[] RESOLUTION_BANDWIDTHS = {200, 9e3, 120e3};
+    private static final double[] TAU_CHARGE = {45e-3, 1e-3, 1e-3};
+    private static final double[] TAU_DISCHARGE = {500e-3, 160e-3, 550e-3};
+    /**
+     * the decimated sample rate is at least this factor times the highest
+     * frequency of a band.
+     */
+    private static final double DECIMATION_OVERSAMPLING = 16;
+    /**
+     * window length and hop, in multiples of the standard deviation of the
+     * Gaussian window.
+     */
+    private static final double WINDOW_SIGMAS = 8;
+    private static final double HOP_SIGMAS = 0.5;
+    /**
+     * the quasi-peak detector is settled after this factor times its charge
+     * time constant, as in QuasiPeakCalculator.
+     */
+    private static final double SETTLING_TAU_FACTOR = 8;
+    private static final int MAX_THREADS = BAND_LIMITS.length - 1;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+    private final Band[] _bands;
+
+    /**
+     * @param deltaT the (constant) time step of the simulation
+     * @param minFrequency lowest frequency of the receiver
+     * @param maxFrequency highest frequency of the receiver, limited to the
+     * Nyquist frequency of the simulation
+     */
+    public StreamingTestReceiver(final double deltaT, final double minFrequency, final double maxFrequency) {
+        final List<Band> bands = new ArrayList<Band>();
+        final double upperLimit = Math.min(maxFrequency, 0.5 / deltaT);
+        for (int i = 0; i < RESOLUTION_BANDWIDTHS.length; i++) {
+            final double lower = Math.max(BAND_LIMITS[i], minFrequency);
+            final double upper = Math.min(BAND_LIMITS[i + 1], upperLimit);
+            if (lower < upper) {
+                final Band band = new Band(i, deltaT, lower, upper);
+                if (band._binCount > 0) {
+                    bands.add(band);
+                }
+            }
+        }
+        _bands = bands.toArray(new Band[bands.size()]);
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "StreamingTestReceiver-" + threadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * called once per simulation step, with the input signal of this step.
+     */
+    public void addSample(final double value) {
+        for (int i = 0; i < _bands.length; i++) {
+            _bands[i].addSample(value);
+        }
+    }
+
+    /**
+     * @return the frequencies of the receiver, in ascending order. The other
+     * results have the same order.
+     */
+    public double[] getFrequencies() {
+        final double[] returnValue = new double[getNumberOfFrequencies()];
+        int offset = 0;
+        for (Band band : _bands) {
+            for (int i = 0; i < band._binCount; i++) {
+                returnValue[offset++] = band.getFrequency(i);
+            }
+        }
+        return returnValue;
+    }
+
+    /**
+     * the results are zero as long as no window of the band was completed.
+     */
+    public double[] getPeak() {
+        final double[] returnValue = new double[getNumberOfFrequencies()];
+        int offset = 0;
+        for (Band band : _bands) {
+            band.awaitPendingTransform();
+            System.arraycopy(band._peak, 0, returnValue, offset, band._binCount);
+            offset += band._binCount;
+        }
+        return returnValue;
+    }
+
+    /**
+     * If the simulated time is shorter than the settling time of the
+     * quasi-peak detector, the envelope is repeated until the detector is
+     * settled, i.e. the signal is assumed to be in a periodic steady state.
+     */
+    public double[] getQuasiPeak() {
+        final double[] returnValue = new double[getNumberOfFrequencies()];
+        int offset = 0;
+        for (Band band : _bands) {
+            band.awaitPendingTransform();
+            band.calculateQuasiPeak(returnValue, offset);
+            offset += band._binCount;
+        }
+        return returnValue;
+    }
+
+    public double[] getAverage() {
+        final double[] returnValue = new double[getNumberOfFrequencies()];
+        int offset = 0;
+        for (Band band : _bands) {
+            band.awaitPendingTransform();
+            for (int i = 0; i < band._binCount; i++) {
+                returnValue[offset++] = band._hopCount == 0 ? 0 : band._averageSum[i] / band._hopCount;
+            }
+        }
+        return returnValue;
+    }
+
+    private int getNumberOfFrequencies() {
+        int returnValue = 0;
+        for (Band band : _bands) {
+            returnValue += band._binCount;
+        }
+        return returnValue;
+    }
+
+    private static final class Band implements Runnable {
+
+        private final int _decimation;
+        private final double _bandDeltaT;
+        private final int _size;
+        private final int _hop;
+        private final int _firstBin;
+        private final int _binCount;
+        private final double[] _window;
+        private final double[] _envelopeScale;
+        private final double[] _twiddleReal;
+        private final double[] _twiddleImaginary;
+        private final MyFFT _fft;
+        private final double[] _ring;
+        private final double[] _frame;
+        private final double[] _real;
+        private final double[] _imaginary;
+        private int _ringIndex;
+        private int _ringFill;
+        private int _samplesSinceHop;
+        private double _decimationSum;
+        private int _decimationCount;
+        private volatile Future<?> _pendingTransform;
+        // detectors, written by the transform only:
+        private final double _chargeFactor;
+        private final double _dischargeFactor;
+        private final double _quasiPeakNormalization;
+        private final double[] _peak;
+        private final double[] _averageSum;
+        private final double[] _charge;
+        private final double[] _quasiPeak;
+        private final int _historyLength;
+        private final float[] _history;
+        private int _hopCount;
+
+        Band(final int band, final double deltaT, final double lowerFrequency, final double upperFrequency) {
+            _decimation = Math.max(1, (int) (1 / (DECIMATION_OVERSAMPLING * upperFrequency * deltaT)));
+            _bandDeltaT = _decimation * deltaT;
+            final double sigma = Math.sqrt(2 * Math.log(2)) / (Math.PI * RESOLUTION_BANDWIDTHS[band]);
+            int size = 2;
+            while (size < WINDOW_SIGMAS * sigma / _bandDeltaT) {
+                size *= 2;
+            }
+            _size = size;
+            _hop = Math.max(1, (int) Math.round(HOP_SIGMAS * sigma / _bandDeltaT));
+            _firstBin = Math.max(1, (int) Math.ceil(lowerFrequency * _size * _bandDeltaT));
+            final int lastBin = Math.min(_size / 2 - 1, (int) Math.floor(upperFrequency * _size * _bandDeltaT));
+            _binCount = Math.max(0, lastBin - _firstBin + 1);
+
+            _window = new double[_size];
+            double windowSum = 0;
+            for (int n = 0; n < _size; n++) {
+                final double time = (n - (_size - 1) / 2.0) * _bandDeltaT;
+                _window[n] = Math.exp(-0.5 * time * time / (sigma * sigma));
+                windowSum += _window[n];
+            }
+            // MyFFT of size / 2 scales with 4/size; the block average of the decimation attenuates the higher frequencies:
+            _envelopeScale = new double[_binCount];
+            _twiddleReal = new double[_binCount];
+            _twiddleImaginary = new double[_binCount];
+            for (int i = 0; i < _binCount; i++) {
+                final double phase = Math.PI * getFrequency(i) * deltaT;
+                final double decimationGain = _decimation == 1 ? 1
+                        : Math.abs(Math.sin(_decimation * phase) / (_decimation * Math.sin(phase)));
+                _envelopeScale[i] = _size / (2 * windowSum) / decimationGain;
+                _twiddleReal[i] = Math.cos(2 * Math.PI * (_firstBin + i) / _size);
+                _twiddleImaginary[i] = -Math.sin(2 * Math.PI * (_firstBin + i) / _size);
+            }
+
+            final double hopTime = _hop * _bandDeltaT;
+            _chargeFactor = hopTime / TAU_CHARGE[band];
+            _dischargeFactor = hopTime / TAU_DISCHARGE[band];
+            // a continuous wave charges the detector to tau_d / (tau_c + tau_d) of its amplitude:
+            _quasiPeakNormalization = 1 + TAU_CHARGE[band] / TAU_DISCHARGE[band];
+            _historyLength = (int) Math.ceil(SETTLING_TAU_FACTOR * TAU_CHARGE[band] / hopTime);
+
+            _fft = _binCount > 0 ? new MyFFT(_size / 2) : null;
+            _ring = new double[_size];
+            _frame = new double[_size];
+            _real = new double[_size / 2];
+            _imaginary = new double[_size / 2];
+            _peak = new double[_binCount];
+            _averageSum = new double[_binCount];
+            _charge = new double[_binCount];
+            _quasiPeak = new double[_binCount];
+            _history = new float[_historyLength * _binCount];
+        }
+
+        double getFrequency(final int bin) {
+            return (_firstBin + bin) / (_size * _bandDeltaT);
+        }
+
+        void addSample(final double value) {
+            _decimationSum += value;
+            if (++_decimationCount < _decimation) {
+                return;
+            }
+            _ring[_ringIndex] = _decimationSum / _decimation;
+            _decimationSum = 0;
+            _decimationCount = 0;
+            _ringIndex = (_ringIndex + 1) & (_size - 1);
+            if (_ringFill < _size) {
+                _ringFill++;
+            }
+            if (++_samplesSinceHop >= _hop && _ringFill == _size) {
+                _samplesSinceHop = 0;
+                awaitPendingTransform(); // the frame is still in use, otherwise
+                System.arraycopy(_ring, _ringIndex, _frame, 0, _size - _ringIndex);
+                System.arraycopy(_ring, 0, _frame, _size - _ringIndex, _ringIndex);
+                _pendingTransform = EXECUTOR.submit(this);
+            }
+        }
+
+        void awaitPendingTransform() {
+            final Future<?> pending = _pendingTransform;
+            if (pending == null) {
+                return;
+            }
+            try {
+                pending.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("EMI test receiver calculation failed.", ex.getCause());
+            }
+        }
+
+        /**
+         * real FFT of the windowed frame: the even samples are the real part,
+         * the odd samples the imaginary part of a complex FFT of half the
+         * size, which is then split into the spectra of both halves.
+         */
+        @Override
+        public void run() {
+            final int halfSize = _size / 2;
+            for (int n = 0; n < halfSize; n++) {
+                _real[n] = _frame[2 * n] * _window[2 * n];
+                _imaginary[n] = _frame[2 * n + 1] * _window[2 * n + 1];
+            }
+            _fft.fft(_real, _imaginary);
+            final boolean isRecorded = _hopCount < _historyLength;
+            final int historyOffset = _hopCount * _binCount;
+            for (int i = 0; i < _binCount; i++) {
+                final int k = _firstBin + i;
+                final double evenReal = 0.5 * (_real[k] + _real[halfSize - k]);
+                final double evenImaginary = 0.5 * (_imaginary[k] - _imaginary[halfSize - k]);
+                final double oddReal = 0.5 * (_imaginary[k] + _imaginary[halfSize - k]);
+                final double oddImaginary = -0.5 * (_real[k] - _real[halfSize - k]);
+                final double real = evenReal + _twiddleReal[i] * oddReal - _twiddleImaginary[i] * oddImaginary;
+                final double imaginary = evenImaginary + _twiddleImaginary[i] * oddReal + _twiddleReal[i] * oddImaginary;
+                final double envelope = Math.sqrt(real * real + imaginary * imaginary) * _envelopeScale[i];
+                if (envelope > _peak[i]) {
+                    _peak[i] = envelope;
+                }
+                _averageSum[i] += envelope;
+                updateQuasiPeak(_charge, _quasiPeak, i, envelope);
+                if (isRecorded) {
+                    _history[historyOffset + i] = (float) envelope;
+                }
+            }
+            _hopCount++;
+        }
+
+        /**
+         * backward Euler step of the quasi-peak detector: charged with
+         * tau_c while the envelope is above the detector voltage, always
+         * discharged with tau_d.
+         */
+        private void updateQuasiPeak(final double[] charge, final double[] quasiPeak, final int bin, final double envelope) {
+            double value = charge[bin];
+            if (envelope > value) {
+                value = (value + _chargeFactor * envelope) / (1 + _chargeFactor + _dischargeFactor);
+            } else {
+                value = value / (1 + _dischargeFactor);
+            }
+            charge[bin] = value;
+            final double reading = value * _quasiPeakNormalization;
+            if (reading > quasiPeak[bin]) {
+                quasiPeak[bin] = reading;
+            }
+        }
+
+        void calculateQuasiPeak(final double[] target, final int offset) {
+            final double[] charge = _charge.clone();
+            final double[] quasiPeak = _quasiPeak.clone();
+            int hops = _hopCount;
+            while (hops > 0 && hops < _historyLength) { // all hops are recorded
+                for (int hop = 0; hop < _hopCount && hops < _historyLength; hop++, hops++) {
+                    for (int i = 0; i < _binCount; i++) {
+                        updateQuasiPeak(charge, quasiPeak, i, _history[hop * _binCount + i]);
+                    }
+                }
+            }
+            System.arraycopy(quasiPeak, 0, target, offset, _binCount);
+        }
+    }
+}
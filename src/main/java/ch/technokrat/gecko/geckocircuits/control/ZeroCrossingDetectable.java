@@ -0,0 +1,31 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under 
+ *  the terms of the GNU General Public License as published by the Free Software 
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+/**
+ * control blocks whose output switches when a continuous function of the
+ * inputs crosses zero, e.g. the comparison of a PWM carrier with a reference.
+ * With adaptive stepwidth, the simulation kernel extrapolates this function
+ * linearly and ends the steps at the last grid point (dtMin * 2^k) before the
+ * predicted crossing, so that the crossing is resolved to the minimum
+ * stepwidth dtMin, see SwitchingEventLocator.
+ */
+public interface ZeroCrossingDetectable {
+
+    /**
+     * @return a continuous function of the current input values, whose sign
+     * change changes the block output.
+     */
+    double getSwitchingFunction();
+}
@@ -20,9 +20,13 @@ package ch.technokrat.gecko.geckocircuits.control.calculators;
  */
 public abstract class AbstractControlCalculatable {
     public static final double SIGNAL_THRESHOLD = 0.5;
-    public static double _time = 0;
+    /**
+     * simulation time of the current step. This is an instance value (and not
+     * global), since several simulations may run in parallel.
+     */
+    protected double _time = 0;
     
-    public static void setTime(final double time) {
+    public void setTime(final double time) {
         _time = time;
     }
     
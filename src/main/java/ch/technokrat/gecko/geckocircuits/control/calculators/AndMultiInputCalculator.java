@@ -17,7 +17,7 @@ package ch.technokrat.gecko.geckocircuits.control.calculators;
  * Multiple inputs means: more than two signals can tested for the "AND" logic.
  * @author andreas
  */
-public final class AndMultiInputCalculator extends AbstractControlCalculatable {
+public final class AndMultiInputCalculator extends AbstractControlCalculatable implements InlineableCalculator {
 
     public AndMultiInputCalculator(final int inputNumber) {
         super(inputNumber, 1);
@@ -33,4 +33,13 @@ public final class AndMultiInputCalculator extends AbstractControlCalculatable {
             }
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = 1;\nif (");
+        for (int i = 0; i < inputs.length; i++) {
+            code.append(i == 0 ? "" : " || ").append(inputs[i]).append(" < ").append(SIGNAL_THRESHOLD);
+        }
+        return code.append(") {\n").append(outputs[0]).append(" = 0;\n}").toString();
+    }
 }
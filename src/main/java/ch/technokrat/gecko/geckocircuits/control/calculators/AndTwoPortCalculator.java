@@ -17,7 +17,7 @@ package ch.technokrat.gecko.geckocircuits.control.calculators;
  * Logic AND for two input signals
  * @author andreas
  */
-public final class AndTwoPortCalculator extends AbstractTwoInputsOneOutputCalculator {
+public final class AndTwoPortCalculator extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -28,4 +28,10 @@ public final class AndTwoPortCalculator extends AbstractTwoInputsOneOutputCalcul
         }
 
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return "if (" + inputs[0] + " > " + SIGNAL_THRESHOLD + " && " + inputs[1] + " > " + SIGNAL_THRESHOLD
+                + ") {\n" + outputs[0] + " = 1;\n} else {\n" + outputs[0] + " = 0;\n}";
+    }
 }
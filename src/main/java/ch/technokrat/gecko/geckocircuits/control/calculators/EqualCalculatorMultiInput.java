@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class EqualCalculatorMultiInput extends AbstractControlCalculatable {
+public final class EqualCalculatorMultiInput extends AbstractControlCalculatable implements InlineableCalculator {
 
     public EqualCalculatorMultiInput(final int intputSize) {
         super(intputSize, 1);
@@ -30,4 +30,13 @@ public final class EqualCalculatorMultiInput extends AbstractControlCalculatable
         }
         
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = 1;\nif (false");
+        for (int i = 1; i < inputs.length; i++) {
+            code.append(" || ").append(inputs[i]).append(" != ").append(inputs[0]);
+        }
+        return code.append(") {\n").append(outputs[0]).append(" = 0;\n}").toString();
+    }
 }
@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class EqualCalculatorTwoInputs extends AbstractTwoInputsOneOutputCalculator {    
+public final class EqualCalculatorTwoInputs extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {    
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -23,4 +23,10 @@ public final class EqualCalculatorTwoInputs extends AbstractTwoInputsOneOutputCa
             _outputSignal[0][0] = 0;
         }                
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return "if (" + inputs[0] + " == " + inputs[1] + ") {\n" + outputs[0] + " = 1;\n} else {\n"
+                + outputs[0] + " = 0;\n}";
+    }
 }
@@ -17,7 +17,7 @@ package ch.technokrat.gecko.geckocircuits.control.calculators;
  *
  * @author andreas
  */
-public final class GainCalculator extends AbstractSingleInputSingleOutputCalculator {
+public final class GainCalculator extends AbstractSingleInputSingleOutputCalculator implements InlineableCalculator {
 
     private double _gain;
 
@@ -34,4 +34,13 @@ public final class GainCalculator extends AbstractSingleInputSingleOutputCalcula
     public void setGain(final double gain) {
         _gain = gain;
     }
+
+    public double getGain() {
+        return _gain;
+    }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = " + self + ".getGain() * " + inputs[0] + ";";
+    }
 }
@@ -13,7 +13,9 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class GreaterEqualCalculator extends AbstractTwoInputsOneOutputCalculator {    
+import ch.technokrat.gecko.geckocircuits.control.ZeroCrossingDetectable;
+
+public final class GreaterEqualCalculator extends AbstractTwoInputsOneOutputCalculator implements ZeroCrossingDetectable , InlineableCalculator {    
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -23,4 +25,15 @@ public final class GreaterEqualCalculator extends AbstractTwoInputsOneOutputCalc
             _outputSignal[0][0] = 0;
         }
     }
+
+    @Override
+    public double getSwitchingFunction() {
+        return _inputSignal[0][0] - _inputSignal[1][0];
+    }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return "if (" + inputs[0] + " >= " + inputs[1] + ") {\n" + outputs[0] + " = 1;\n} else {\n"
+                + outputs[0] + " = 0;\n}";
+    }
 }
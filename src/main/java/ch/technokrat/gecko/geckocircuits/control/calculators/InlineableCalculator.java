@@ -0,0 +1,35 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.calculators;
+
+/**
+ * A stateless calculator whose berechneYOUT can be inlined into the generated
+ * code of a compiled control netlist (see ControlNetlistCompiler). All other
+ * calculators are called through berechneYOUT by the generated code.
+ * ControlNetlistCompilerTest checks for each implementation that the inlined
+ * code gives bit-identical results, also for NaN, infinite and limit values.
+ */
+public interface InlineableCalculator {
+
+    /**
+     * @param self expression of this calculator, with its own (public) type,
+     * e.g. for reading the current parameter values with a getter
+     * @param inputs expressions of the input values, instead of
+     * _inputSignal[i][0]
+     * @param outputs variables of the output values, instead of
+     * _outputSignal[i][0]
+     * @return java statements which do exactly the same as berechneYOUT
+     */
+    String getInlineCode(String self, String[] inputs, String[] outputs);
+}
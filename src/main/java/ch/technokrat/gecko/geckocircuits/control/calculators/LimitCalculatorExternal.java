@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class LimitCalculatorExternal extends AbstractControlCalculatable {
+public final class LimitCalculatorExternal extends AbstractControlCalculatable implements InlineableCalculator {
 
     private static final int NUMBER_INPUTS = 3;
 
@@ -33,4 +33,15 @@ public final class LimitCalculatorExternal extends AbstractControlCalculatable {
             _outputSignal[0][0] = youtMIN;
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = " + inputs[0] + ";\n"
+                + "if (" + inputs[0] + " >= " + inputs[2] + ") {\n"
+                + outputs[0] + " = " + inputs[2] + ";\n"
+                + "}\n"
+                + "if (" + inputs[0] + " <= " + inputs[1] + ") {\n"
+                + outputs[0] + " = " + inputs[1] + ";\n"
+                + "}";
+    }
 }
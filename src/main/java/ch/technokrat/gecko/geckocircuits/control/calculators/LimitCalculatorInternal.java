@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class LimitCalculatorInternal extends AbstractControlCalculatable {
+public final class LimitCalculatorInternal extends AbstractControlCalculatable implements InlineableCalculator {
 
     private double _lowerLimit;
     private double _upperLimit;
@@ -42,4 +42,22 @@ public final class LimitCalculatorInternal extends AbstractControlCalculatable {
         _lowerLimit = min;
         _upperLimit = max;
     }
+
+    public double getLowerLimit() {
+        return _lowerLimit;
+    }
+
+    public double getUpperLimit() {
+        return _upperLimit;
+    }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = " + inputs[0] + ";\n"
+                + "if (" + inputs[0] + " <= " + self + ".getLowerLimit()) {\n"
+                + outputs[0] + " = " + self + ".getLowerLimit();\n"
+                + "} else if (" + inputs[0] + " >= " + self + ".getUpperLimit()) {\n"
+                + outputs[0] + " = " + self + ".getUpperLimit();\n"
+                + "}";
+    }
 }
@@ -14,7 +14,7 @@
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
 
-public final class MaxCalculatorMultiInputs extends AbstractControlCalculatable {
+public final class MaxCalculatorMultiInputs extends AbstractControlCalculatable implements InlineableCalculator {
 
     public MaxCalculatorMultiInputs(final int noInputs) {
         super(noInputs, 1);
@@ -27,4 +27,14 @@ public final class MaxCalculatorMultiInputs extends AbstractControlCalculatable
             _outputSignal[0][0] = Math.max(_outputSignal[0][0], _inputSignal[i][0]);
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = " + inputs[0] + ";");
+        for (int i = 1; i < inputs.length; i++) {
+            code.append('\n').append(outputs[0]).append(" = Math.max(").append(outputs[0]).append(", ")
+                    .append(inputs[i]).append(");");
+        }
+        return code.toString();
+    }
 }
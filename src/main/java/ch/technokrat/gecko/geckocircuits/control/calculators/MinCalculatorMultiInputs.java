@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class MinCalculatorMultiInputs extends AbstractControlCalculatable {        
+public final class MinCalculatorMultiInputs extends AbstractControlCalculatable implements InlineableCalculator {        
         public MinCalculatorMultiInputs(final int inputSize) {
             super(inputSize, 1);
         }
@@ -25,4 +25,14 @@ public final class MinCalculatorMultiInputs extends AbstractControlCalculatable
                 _outputSignal[0][0] = Math.min(_outputSignal[0][0], _inputSignal[i][0]);
             }
         }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = " + inputs[0] + ";");
+        for (int i = 1; i < inputs.length; i++) {
+            code.append('\n').append(outputs[0]).append(" = Math.min(").append(outputs[0]).append(", ")
+                    .append(inputs[i]).append(");");
+        }
+        return code.toString();
+    }
 }
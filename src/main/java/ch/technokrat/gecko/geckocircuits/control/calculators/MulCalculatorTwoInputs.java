@@ -0,0 +1,31 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.calculators;
+
+public final class MulCalculatorTwoInputs extends AbstractControlCalculatable implements InlineableCalculator {
+
+    public MulCalculatorTwoInputs() {
+        super(2, 1);
+    }
+
+    @Override
+    public void berechneYOUT(final double deltaT) {
+        _outputSignal[0][0] = _inputSignal[0][0] * _inputSignal[1][0];
+    }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = " + inputs[0] + " * " + inputs[1] + ";";
+    }
+}
@@ -0,0 +1,201 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under 
+ *  the terms of the GNU General Public License as published by the Free Software 
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.calculators;
+
+import ch.technokrat.gecko.geckocircuits.control.IsDtChangeSensitive;
+import ch.technokrat.gecko.geckocircuits.control.ReglerSlidingDFT;
+import ch.technokrat.gecko.geckocircuits.control.ReglerSlidingDFT.FrequencyData;
+import ch.technokrat.gecko.geckocircuits.control.ReglerSlidingDFT.OutputData;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sliding DFT of several input signals (channels), with the same result as
+ * one SlidingDFTCalculator per channel. The twiddle factors cos/sin(-2 pi m
+ * / N) are calculated once at the simulation start, and the twiddle index of
+ * each harmonic is advanced by the harmonic number in each step, instead of
+ * evaluating Math.cos and Math.sin for each harmonic and step. The twiddle
+ * factor of a harmonic is loaded once and applied to all channels.
+ *
+ * The outputs are ordered by channel: outputs 0 ... F-1 are the F frequency
+ * outputs of input 0, outputs F ... 2F-1 belong to input 1, and so on.
+ */
+public final class MultiChannelSlidingDFTCalculator extends AbstractControlCalculatable
+        implements InitializableAtSimulationStart, IsDtChangeSensitive {
+
+    private final int _channels;
+    private final double _averageSpanSecs;
+    private final List<FrequencyData> _data;
+    private final OutputData[] _outputTypes;
+    private int[] _frequencyIndicesMap;
+    private int[] _frequencyIndicesSet;
+    private int _size;
+    private int _idx; // array index for input and output signals
+    // input signals, the samples of all channels at one index are stored side by side
+    private double[] _timeData;
+    private double[] _deltas;
+    private double[] _cosTable;
+    private double[] _sinTable;
+    // (_frequencyIndicesSet[k] * _idx) % _size, updated incrementally, zero at _idx == 0
+    private int[] _twiddleIndices;
+    private int[] _twiddleIncrements;
+    // frequencies of the input signals after ft, index k * _channels + channel
+    private double[] _freqsReal;
+    private double[] _freqsImag;
+
+    public MultiChannelSlidingDFTCalculator(final int channels, final int noOutputs, final double avgSpan,
+            final List<ReglerSlidingDFT.FrequencyData> freqData) {
+        super(channels, noOutputs);
+        _channels = channels;
+        _averageSpanSecs = avgSpan;
+        _data = new ArrayList<ReglerSlidingDFT.FrequencyData>(freqData);
+        _outputTypes = new OutputData[_data.size()];
+    }
+
+    @Override
+    public void berechneYOUT(final double deltaT) {
+        final int offset = _idx * _channels;
+        for (int ch = 0; ch < _channels; ch++) {
+            final double newestData = _inputSignal[ch][0];
+            _deltas[ch] = newestData - _timeData[offset + ch];
+            _timeData[offset + ch] = newestData;
+        }
+
+        doSlidingFourierStep();
+
+        if (++_idx == _size) {
+            _idx = 0; // bump global index
+            for (int k = 0; k < _twiddleIndices.length; k++) {
+                _twiddleIndices[k] = 0;
+            }
+        }
+        calculateOutputs();
+    }
+
+    private void doSlidingFourierStep() {
+        for (int k = 0; k < _twiddleIndices.length; k++) {
+            final int twiddleIndex = _twiddleIndices[k];
+            final double cos = _cosTable[twiddleIndex];
+            final double sin = _sinTable[twiddleIndex];
+            final int start = k * _channels;
+            for (int ch = 0; ch < _channels; ch++) {
+                _freqsReal[start + ch] += _deltas[ch] * cos;
+                _freqsImag[start + ch] += _deltas[ch] * sin;
+            }
+            final int nextIndex = twiddleIndex + _twiddleIncrements[k];
+            _twiddleIndices[k] = nextIndex >= _size ? nextIndex - _size : nextIndex;
+        }
+    }
+
+    private void calculateOutputs() {
+        final int noFrequencies = _outputTypes.length;
+        final int usedOutputs = Math.min(_outputSignal.length, _channels * noFrequencies);
+        for (int output = 0; output < usedOutputs; output++) {
+            final int ch = output / noFrequencies;
+            final int i = output - ch * noFrequencies;
+            final int index = _frequencyIndicesMap[i] * _channels + ch;
+            final double real = _freqsReal[index];
+            final double imag = _freqsImag[index];
+            switch (_outputTypes[i]) {
+                case ABS:
+                    _outputSignal[output][0] = 2 * Math.sqrt((real * real + imag * imag)) / _size;
+                    break;
+                case REAL:
+                    _outputSignal[output][0] = 2 * real / _size;
+                    break;
+                case IMAG:
+                    _outputSignal[output][0] = 2 * imag / _size;
+                    break;
+                case PHASE:
+                    _outputSignal[output][0] = Math.atan2(imag, real);
+                    break;
+                default:
+                    assert false;
+                    _outputSignal[output][0] = 0;
+            }
+        }
+    }
+
+    @Override
+    public void initializeAtSimulationStart(final double deltaT) {
+        _size = (int) Math.round(_averageSpanSecs / deltaT);
+        _timeData = new double[_size * _channels];
+        _deltas = new double[_channels];
+        _idx = 0;
+        calculateTwiddleTables();
+        calculateFrequencyIndices();
+        _freqsReal = new double[_frequencyIndicesSet.length * _channels];
+        _freqsImag = new double[_frequencyIndicesSet.length * _channels];
+    }
+
+    /**
+     * the same arguments as in SlidingDFTCalculator, so that the results are
+     * bit-identical.
+     */
+    private void calculateTwiddleTables() {
+        _cosTable = new double[_size];
+        _sinTable = new double[_size];
+        for (int index = 0; index < _size; index++) {
+            final double argument = -Math.PI * 2 * index / ((double) _size);
+            _cosTable[index] = Math.cos(argument);
+            _sinTable[index] = Math.sin(argument);
+        }
+    }
+
+    private void calculateFrequencyIndices() {
+        _frequencyIndicesMap = new int[_data.size()];
+        final List<Integer> freqIndicesReduced = new ArrayList<Integer>();
+        for (int i = 0; i < _data.size(); i++) {
+            final double freq = _data.get(i)._frequency.getDoubleValue();
+            final int index = (int) Math.round((freq * _averageSpanSecs));
+            if (!freqIndicesReduced.contains(index)) {
+                freqIndicesReduced.add(index);
+            }
+            _frequencyIndicesMap[i] = freqIndicesReduced.indexOf(index);
+            _outputTypes[i] = _data.get(i)._outputData;
+        }
+        _frequencyIndicesSet = new int[freqIndicesReduced.size()];
+        _twiddleIndices = new int[freqIndicesReduced.size()];
+        _twiddleIncrements = new int[freqIndicesReduced.size()];
+        for (int k = 0; k < freqIndicesReduced.size(); k++) {
+            _frequencyIndicesSet[k] = freqIndicesReduced.get(k);
+            _twiddleIncrements[k] = (_frequencyIndicesSet[k] % _size + _size) % _size;
+        }
+    }
+
+    @Override
+    public void initWithNewDt(final double deltaT) {
+        final int oldSize = _size;
+        final double scalingFactor = 1.0 * Math.round(_averageSpanSecs / deltaT) / oldSize;
+        final double[] inRealOld = _timeData;
+        final double[] freqsRealOld = _freqsReal;
+        final double[] freqsImagOld = _freqsImag;
+
+        initializeAtSimulationStart(deltaT);
+        _freqsReal = freqsRealOld;
+        _freqsImag = freqsImagOld;
+
+        for (int i = 0; i < _freqsReal.length; i++) {
+            _freqsReal[i] *= scalingFactor;
+            _freqsImag[i] *= scalingFactor;
+        }
+
+        for (int i = 0; i < _size; i++) {
+            final int oldIndex = (int) (i / scalingFactor);
+            for (int ch = 0; ch < _channels; ch++) {
+                _timeData[i * _channels + ch] = inRealOld[oldIndex * _channels + ch];
+            }
+        }
+    }
+}
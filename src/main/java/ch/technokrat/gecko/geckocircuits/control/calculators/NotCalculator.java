@@ -14,7 +14,7 @@
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
 
-public final class NotCalculator extends AbstractSingleInputSingleOutputCalculator {
+public final class NotCalculator extends AbstractSingleInputSingleOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -24,4 +24,10 @@ public final class NotCalculator extends AbstractSingleInputSingleOutputCalculat
             _outputSignal[0][0] = 0;
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return "if (" + inputs[0] + " < " + SIGNAL_THRESHOLD + ") {\n" + outputs[0] + " = 1;\n} else {\n"
+                + outputs[0] + " = 0;\n}";
+    }
 }
@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class NotEqualCalculator extends AbstractTwoInputsOneOutputCalculator {
+public final class NotEqualCalculator extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -22,4 +22,9 @@ public final class NotEqualCalculator extends AbstractTwoInputsOneOutputCalculat
             _outputSignal[0][0] = 1;
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = 0;\nif (" + inputs[0] + " != " + inputs[1] + ") {\n" + outputs[0] + " = 1;\n}";
+    }
 }
@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class OrCalculatorMultipleInputs extends AbstractControlCalculatable {
+public final class OrCalculatorMultipleInputs extends AbstractControlCalculatable implements InlineableCalculator {
 
     public OrCalculatorMultipleInputs(final int noInputs) {
         super(noInputs, 1);
@@ -29,4 +29,13 @@ public final class OrCalculatorMultipleInputs extends AbstractControlCalculatabl
             }
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = 0;\nif (");
+        for (int i = 0; i < inputs.length; i++) {
+            code.append(i == 0 ? "" : " || ").append(inputs[i]).append(" > ").append(SIGNAL_THRESHOLD);
+        }
+        return code.append(") {\n").append(outputs[0]).append(" = 1;\n}").toString();
+    }
 }
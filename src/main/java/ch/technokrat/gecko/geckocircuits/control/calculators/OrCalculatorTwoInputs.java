@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class OrCalculatorTwoInputs extends AbstractTwoInputsOneOutputCalculator {
+public final class OrCalculatorTwoInputs extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {        
@@ -23,4 +23,10 @@ public final class OrCalculatorTwoInputs extends AbstractTwoInputsOneOutputCalcu
             _outputSignal[0][0] = 0;
         }                
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return "if (" + inputs[0] + " > " + SIGNAL_THRESHOLD + " || " + inputs[1] + " > " + SIGNAL_THRESHOLD
+                + ") {\n" + outputs[0] + " = 1;\n} else {\n" + outputs[0] + " = 0;\n}";
+    }
 }
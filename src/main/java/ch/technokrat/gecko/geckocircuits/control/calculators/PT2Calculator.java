@@ -13,7 +13,9 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class PT2Calculator extends AbstractPTCalculator {
+import ch.technokrat.gecko.geckocircuits.control.ConstantStepWidthMarker;
+
+public final class PT2Calculator extends AbstractPTCalculator implements ConstantStepWidthMarker {
 
     private double _yalt = 0;
     private double _yaltalt = 0;
@@ -34,6 +34,12 @@ public final class SignalCalculatorExternalWrapper extends AbstractControlCalcul
         _outputSignal[0] = _wrapped._outputSignal[0];
     }
 
+    @Override
+    public void setTime(final double time) {
+        super.setTime(time);
+        _wrapped.setTime(time);
+    }
+
     @Override
     public void berechneYOUT(final double deltaT) {
         _wrapped.setAmplitudeAC(_inputSignal[AMPLITUDE_INDEX][0]);
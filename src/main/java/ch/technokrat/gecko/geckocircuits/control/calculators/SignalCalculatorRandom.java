@@ -13,16 +13,26 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
+import java.util.Random;
+
 public final class SignalCalculatorRandom extends AbstractSignalCalculator {
     private double _randomVal = 0;  // Startwert fuer Random Walk
+    private final Random _random = new Random();
     
     public SignalCalculatorRandom() {
         super(0);
     }
 
+    /**
+     * for reproducible random signals, e.g. in Monte-Carlo simulations
+     */
+    public void setSeed(final long seed) {
+        _random.setSeed(seed);
+    }
+
     @Override
     public void berechneYOUT(final double deltaT) {
-        _randomVal += 1 - 2 * Math.random();  // [-1 .. +1]
+        _randomVal += 1 - 2 * _random.nextDouble();  // [-1 .. +1]
         _outputSignal[0][0] = _randomVal;
     }
 }
@@ -13,10 +13,15 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class SignumCalculator extends AbstractSingleInputSingleOutputCalculator {    
+public final class SignumCalculator extends AbstractSingleInputSingleOutputCalculator implements InlineableCalculator {    
     
     @Override
     public void berechneYOUT(final double deltaT) {
         _outputSignal[0][0] = Math.signum(_inputSignal[0][0]);
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = Math.signum(" + inputs[0] + ");";
+    }
 }
@@ -15,7 +15,6 @@ package ch.technokrat.gecko.geckocircuits.control.calculators;
 
 import ch.technokrat.gecko.geckocircuits.control.IsDtChangeSensitive;
 import ch.technokrat.gecko.geckocircuits.control.SSAShape;
-import static ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable._time;
 import static ch.technokrat.gecko.geckocircuits.control.calculators.AbstractSignalCalculator.TWO_PI;
 import ch.technokrat.gecko.geckocircuits.newscope.Cispr16Fft;
 import ch.technokrat.gecko.geckocircuits.newscope.FFTLibrary;
@@ -32,7 +31,7 @@ public class SmallSignalCalculator extends AbstractControlCalculatable implement
     private static final int FOUR = 4;
     private static final int NOFREQSMAX = 50;
 
-    public static double[][] _bode = new double[THREE][];
+    public final double[][] _bode = new double[THREE][];
 
     private final SSAShape _signalType;
     private final double _amplitude;
@@ -89,9 +88,12 @@ public class SmallSignalCalculator extends AbstractControlCalculatable implement
         }
     }
 
-    public void externalSetTime(double time) {
-        _time = time;
-        _signalTypeCalculator._time = time;
+    @Override
+    public void setTime(final double time) {
+        super.setTime(time);
+        if (_signalTypeCalculator != null) {
+            _signalTypeCalculator.setTime(time);
+        }
     }
 
     @Override
@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class SubtractionMoreParameter extends AbstractControlCalculatable {
+public final class SubtractionMoreParameter extends AbstractControlCalculatable implements InlineableCalculator {
 
     public SubtractionMoreParameter(final int noInputs) {
         super(noInputs, 1);
@@ -26,4 +26,13 @@ public final class SubtractionMoreParameter extends AbstractControlCalculatable
             _outputSignal[0][0] -= _inputSignal[i][0];
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        final StringBuilder code = new StringBuilder(outputs[0] + " = " + inputs[0] + ";");
+        for (int i = 1; i < inputs.length; i++) {
+            code.append('\n').append(outputs[0]).append(" -= ").append(inputs[i]).append(';');
+        }
+        return code.toString();
+    }
 }
@@ -13,10 +13,15 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class SubtractionTwoParameter extends AbstractTwoInputsOneOutputCalculator {
+public final class SubtractionTwoParameter extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {
         _outputSignal[0][0] = _inputSignal[0][0] - _inputSignal[1][0];
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = " + inputs[0] + " - " + inputs[1] + ";";
+    }
 }
@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.control.calculators;
 
-public final class XORCalculator extends AbstractTwoInputsOneOutputCalculator {
+public final class XORCalculator extends AbstractTwoInputsOneOutputCalculator implements InlineableCalculator {
 
     @Override
     public void berechneYOUT(final double deltaT) {
@@ -25,4 +25,15 @@ public final class XORCalculator extends AbstractTwoInputsOneOutputCalculator {
             _outputSignal[0][0] = 1;
         }
     }
+
+    @Override
+    public String getInlineCode(final String self, final String[] inputs, final String[] outputs) {
+        return outputs[0] + " = 0;\n"
+                + "if (" + inputs[0] + " >= " + SIGNAL_THRESHOLD + " && " + inputs[1] + " < " + SIGNAL_THRESHOLD + ") {\n"
+                + outputs[0] + " = 1;\n"
+                + "}\n"
+                + "if (" + inputs[0] + " < " + SIGNAL_THRESHOLD + " && " + inputs[1] + " >= " + SIGNAL_THRESHOLD + ") {\n"
+                + outputs[0] + " = 1;\n"
+                + "}";
+    }
 }
@@ -22,6 +22,8 @@ import ch.technokrat.gecko.geckocircuits.circuit.TokenMap;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +34,11 @@ public abstract class AbstractJavaBlock {
     JavaBlockSource _javaBlockSource = new JavaBlockSource.Builder().build();
     final List<GeckoFile> _additionalSourceFiles = new ArrayList<GeckoFile>();
     protected Map<String, CompiledClassContainer> _classNameFileMap;
+    /**
+     * compilation in a thread of the JavaBlockCompiler, the result is taken
+     * over when the block is needed.
+     */
+    private Future<AbstractCompileObject> _pendingCompilation;
 
     AbstractJavaBlock(final ReglerJavaFunction reglerJavaBlock) {
         _reglerJavaBlock = reglerJavaBlock;
@@ -46,22 +53,71 @@ public abstract class AbstractJavaBlock {
     public abstract void findAndLoadClass();
 
     public void doCompilationIfRequired() throws IOException {
+        finishPendingCompilation();
         if (!checkIfCompilationRequired()) {
             return;
         }
+        final String className = createClassName();
+        setCompileObject(JavaBlockCompiler.compile(createSourceCode(className), className, _additionalSourceFiles));
+    }
+
+    /**
+     * starts the compilation in a thread of the JavaBlockCompiler, if the
+     * block was not compiled yet or if the classes are outdated (e.g. from a
+     * model file of an older version).
+     */
+    void startBackgroundCompilation() {
+        if (_pendingCompilation != null || !checkIfCompilationRequired()) {
+            return;
+        }
+        final String className = createClassName();
+        _pendingCompilation = JavaBlockCompiler.submit(createSourceCode(className), className, _additionalSourceFiles);
+    }
+
+    /**
+     * waits for the compilation which was started by
+     * startBackgroundCompilation(), if any.
+     */
+    void finishPendingCompilation() {
+        if (_pendingCompilation == null) {
+            return;
+        }
+        final Future<AbstractCompileObject> pendingCompilation = _pendingCompilation;
+        _pendingCompilation = null;
+        try {
+            setCompileObject(pendingCompilation.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ex) {
+            Logger.getLogger(AbstractJavaBlock.class.getName()).log(Level.SEVERE, null, ex.getCause());
+        }
+    }
+
+    private String createSourceCode(final String className) {
+        return SourceFileGenerator.createSourceCode(_javaBlockSource, className, _reglerJavaBlock.YOUT.size(),
+                _reglerJavaBlock._variableBusWidth);
+    }
+
+    /**
+     * the class name is derived from the code, so that the JavaBlockCompiler
+     * finds the classes of the same code in its cache.
+     */
+    private String createClassName() {
+        return JavaBlockCompiler.createClassName(createSourceCode(JavaBlockCompiler.getPlaceholderClassName()));
+    }
+
+    private void setCompileObject(final AbstractCompileObject compileObject) {
         SchematischeEingabe2.zustandGeaendert = true;
-        
-        String className = CompileObject.findUniqueClassName();
-        String sourceString = SourceFileGenerator.createSourceCode(_javaBlockSource, className, _reglerJavaBlock.YOUT.size(), _reglerJavaBlock._variableBusWidth);
-                
-        _compileObject = new CompileObject(sourceString, className, _additionalSourceFiles);
-        
+        _compileObject = compileObject;
+
         if (_compileObject.getCompileStatus() == CompileStatus.COMPILED_SUCCESSFULL) {
             findAndLoadClass();
         }
 
         // repaint schematic entry - because color of JavaCode-Block could change            
-        SchematischeEingabe2.Singleton._circuitSheet.repaint();
+        if (SchematischeEingabe2.Singleton != null) { // null in headless mode
+            SchematischeEingabe2.Singleton._circuitSheet.repaint();
+        }
     }
 
     private boolean checkIfCompilationRequired() {
@@ -115,10 +171,12 @@ public abstract class AbstractJavaBlock {
     }
 
     public String getCompilerSource() {
+        finishPendingCompilation();
         return _compileObject.getSourceCode();
     }
 
     public String getCompilerMessage() {
+        finishPendingCompilation();
         return _compileObject.getCompilerMessage();
     }
 
@@ -221,6 +279,7 @@ public abstract class AbstractJavaBlock {
 
     void resetCompileObject() {
         _compileObject = new CompileObjectNull();
+        _pendingCompilation = null;
     }
 
     private void saveSourcesForDebug(final String className, final String sourceCode) {
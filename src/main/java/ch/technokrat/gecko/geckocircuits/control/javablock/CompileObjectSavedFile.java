@@ -24,6 +24,7 @@ public final class CompileObjectSavedFile extends AbstractCompileObject {
     private final String _sourceString;
     private final String _sourceFileName;
     private final CompileStatus _compileStatus;
+    private final String _compilerMessage;
     
     /**
      * Immutable object creation
@@ -34,6 +35,16 @@ public final class CompileObjectSavedFile extends AbstractCompileObject {
      */
     public CompileObjectSavedFile(final String sourceFileName, 
             final Map<String, CompiledClassContainer> classNameFileMap, final CompileStatus compileStatus) {
+        this(sourceFileName, classNameFileMap, compileStatus, "File was not changed from last compilation!");
+    }
+
+    /**
+     * @param compilerMessage e.g. the origin of the classes, if they were not
+     * read from the model file
+     */
+    public CompileObjectSavedFile(final String sourceFileName,
+            final Map<String, CompiledClassContainer> classNameFileMap, final CompileStatus compileStatus,
+            final String compilerMessage) {
         super();
         
         if(classNameFileMap != null && classNameFileMap.containsKey(sourceFileName)) {
@@ -49,6 +60,7 @@ public final class CompileObjectSavedFile extends AbstractCompileObject {
         }
         
         _compileStatus = compileStatus;
+        _compilerMessage = compilerMessage;
     }
         
     @Override
@@ -63,7 +75,7 @@ public final class CompileObjectSavedFile extends AbstractCompileObject {
 
     @Override
     public String getCompilerMessage() {
-        return "File was not changed from last compilation!";
+        return _compilerMessage;
     }
 
     @Override
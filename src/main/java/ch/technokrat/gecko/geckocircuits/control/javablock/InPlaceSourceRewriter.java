@@ -0,0 +1,309 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rewrites the code of a Java block without matrix signals for the in-place
+ * calculation (ControlCalculatableInPlace): xIN[i] becomes xINSignals[i][0],
+ * yOUT[i] becomes yOUTSignals[i][0], xIN.length becomes xINSignals.length and
+ * "return yOUT;" becomes "return;". Comments and literals are not changed.
+ *
+ * The code is only rewritten, if xIN and yOUT are used by index, e.g. they are
+ * not passed to a method, xIN is not written, and yOUT is not used in the
+ * variables and init code. Otherwise, rewrite() returns null and the block
+ * copies the signals, as before.
+ */
+final class InPlaceSourceRewriter {
+
+    static final String IN_SIGNALS = "xINSignals";
+    static final String OUT_SIGNALS = "yOUTSignals";
+    private static final String XIN = "xIN";
+    private static final String YOUT = "yOUT";
+    // longest first, so that e.g. ">>=" is not split into ">" and ">="
+    private static final List<String> OPERATORS = Arrays.asList(">>>=", "<<=", ">>=", ">>>", "->", "++", "--", "+=",
+            "-=", "*=", "/=", "%=", "&=", "|=", "^=", "==", "!=", "<=", ">=", "&&", "||", "::", "<<", ">>");
+    private static final List<String> WRITE_OPERATORS = Arrays.asList("=", "+=", "-=", "*=", "/=", "%=", "&=",
+            "|=", "^=", "<<=", ">>=", ">>>=", "++", "--");
+    // local and anonymous classes, lambdas: a "return yOUT;" there must not be changed
+    private static final List<String> REJECTED_TOKENS = Arrays.asList("->", "class", "interface", "enum",
+            IN_SIGNALS, OUT_SIGNALS);
+
+    private static final class Token {
+
+        private final int _start;
+        private final int _end;
+        private final String _text;
+        private final boolean _isLiteral;
+
+        Token(final String code, final int start, final int end, final boolean isLiteral) {
+            _start = start;
+            _end = end;
+            _text = code.substring(start, end);
+            _isLiteral = isLiteral;
+        }
+
+        boolean is(final String text) {
+            return !_isLiteral && _text.equals(text);
+        }
+    }
+
+    private final String _code;
+    private final List<Token> _tokens;
+
+    private InPlaceSourceRewriter(final String code) {
+        _code = code;
+        _tokens = tokenize(code);
+    }
+
+    /**
+     * @return the code of the in-place calculation, or null, if the block
+     * has to copy its signals.
+     */
+    static String rewrite(final JavaBlockSource source) {
+        if (new InPlaceSourceRewriter(source._variablesCode).containsIdentifier(YOUT)
+                || new InPlaceSourceRewriter(source._initCode).containsIdentifier(YOUT)) {
+            return null; // e.g. initial output values in the yOUT field
+        }
+        return new InPlaceSourceRewriter(source._sourceCode).rewrite();
+    }
+
+    private String rewrite() {
+        if (containsAnonymousClass()) {
+            return null;
+        }
+        final StringBuilder returnValue = new StringBuilder(_code.length() + _code.length() / 2);
+        if (!appendRewritten(0, _tokens.size(), 0, _code.length(), returnValue)) {
+            return null;
+        }
+        return returnValue.toString();
+    }
+
+    private boolean containsIdentifier(final String identifier) {
+        for (Token token : _tokens) {
+            if (token.is(identifier)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * appends the characters from charStart to charEnd, which contain the
+     * tokens from (inclusive) to (exclusive), with the replacements.
+     *
+     * @return false, if the code cannot be calculated in place
+     */
+    private boolean appendRewritten(final int from, final int to, final int charStart, final int charEnd,
+            final StringBuilder out) {
+        int copied = charStart;
+        int index = from;
+        while (index < to) {
+            final Token token = _tokens.get(index);
+            if (isRejected(token)) {
+                return false;
+            }
+            if (token.is("return")) {
+                if (index + 2 >= to || !_tokens.get(index + 1).is(YOUT) || !_tokens.get(index + 2).is(";")) {
+                    return false;
+                }
+                out.append(_code, copied, token._end);
+                copied = _tokens.get(index + 1)._end;
+                index += 2;
+                continue;
+            }
+            if (!token.is(XIN) && !token.is(YOUT)) {
+                index++;
+                continue;
+            }
+
+            final boolean isInput = token.is(XIN);
+            if (index > 0 && _tokens.get(index - 1).is(".")) {
+                return false; // e.g. this.yOUT
+            }
+            if (index + 1 < to && _tokens.get(index + 1).is("[")) {
+                final int close = findClosingBracket(index + 1, to);
+                if (close < 0 || close == index + 2) {
+                    return false; // e.g. the declaration "double yOUT[]"
+                }
+                if (isInput && (isIncrement(index - 1) || isWriteOperator(close + 1))) {
+                    return false; // the input signals belong to other blocks
+                }
+                out.append(_code, copied, token._start);
+                out.append(isInput ? IN_SIGNALS : OUT_SIGNALS).append('[');
+                if (!appendRewritten(index + 2, close, _tokens.get(index + 1)._end, _tokens.get(close)._start, out)) {
+                    return false;
+                }
+                out.append("][0]");
+                copied = _tokens.get(close)._end;
+                index = close + 1;
+                continue;
+            }
+            if (index + 2 < to && _tokens.get(index + 1).is(".") && _tokens.get(index + 2).is("length")) {
+                if (isInput) { // yOUT.length is the length of the yOUT field, which still exists
+                    out.append(_code, copied, token._start);
+                    out.append(IN_SIGNALS);
+                    copied = token._end;
+                }
+                index += 3;
+                continue;
+            }
+            return false;
+        }
+        out.append(_code, copied, charEnd);
+        return true;
+    }
+
+    private static boolean isRejected(final Token token) {
+        for (String rejected : REJECTED_TOKENS) {
+            if (token.is(rejected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isWriteOperator(final int index) {
+        if (index < 0 || index >= _tokens.size()) {
+            return false;
+        }
+        for (String operator : WRITE_OPERATORS) {
+            if (_tokens.get(index).is(operator)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isIncrement(final int index) {
+        return index >= 0 && (_tokens.get(index).is("++") || _tokens.get(index).is("--"));
+    }
+
+    /**
+     * @return index of the bracket which closes the one at open, or -1
+     */
+    private int findClosingBracket(final int open, final int to) {
+        final String openText = _tokens.get(open)._text;
+        final String closeText = "[".equals(openText) ? "]" : ")";
+        int depth = 0;
+        for (int index = open; index < to; index++) {
+            if (_tokens.get(index).is(openText)) {
+                depth++;
+            } else if (_tokens.get(index).is(closeText)) {
+                depth--;
+                if (depth == 0) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * "new Type(...) {": the body may contain a "return yOUT;" of another
+     * method.
+     */
+    private boolean containsAnonymousClass() {
+        for (int index = 0; index < _tokens.size(); index++) {
+            if (!_tokens.get(index).is("new")) {
+                continue;
+            }
+            int open = index + 1;
+            while (open < _tokens.size() && !_tokens.get(open).is("(") && !_tokens.get(open).is("[")
+                    && !_tokens.get(open).is(";")) {
+                open++;
+            }
+            if (open < _tokens.size() && _tokens.get(open).is("(")) {
+                final int close = findClosingBracket(open, _tokens.size());
+                if (close < 0 || close + 1 < _tokens.size() && _tokens.get(close + 1).is("{")) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static List<Token> tokenize(final String code) {
+        final List<Token> returnValue = new ArrayList<Token>();
+        final int length = code.length();
+        int index = 0;
+        while (index < length) {
+            final char character = code.charAt(index);
+            int end;
+            boolean isLiteral = false;
+            if (Character.isWhitespace(character)) {
+                index++;
+                continue;
+            } else if (code.startsWith("//", index)) {
+                end = code.indexOf('\n', index);
+                index = end < 0 ? length : end;
+                continue;
+            } else if (code.startsWith("/*", index)) {
+                end = code.indexOf("*/", index + 2);
+                index = end < 0 ? length : end + 2;
+                continue;
+            } else if (code.startsWith("\"\"\"", index)) { // text block
+                end = code.indexOf("\"\"\"", index + 3);
+                end = end < 0 ? length : end + 3;
+                isLiteral = true;
+            } else if (character == '"' || character == '\'') {
+                end = index + 1;
+                while (end < length && code.charAt(end) != character) {
+                    if (code.charAt(end) == '\\') {
+                        end++;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, length);
+                isLiteral = true;
+            } else if (Character.isJavaIdentifierStart(character)) {
+                end = index + 1;
+                while (end < length && Character.isJavaIdentifierPart(code.charAt(end))) {
+                    end++;
+                }
+            } else if (Character.isDigit(character)
+                    || character == '.' && index + 1 < length && Character.isDigit(code.charAt(index + 1))) {
+                end = index + 1;
+                while (end < length && isNumberPart(code, end)) {
+                    end++;
+                }
+                isLiteral = true;
+            } else {
+                end = index + 1;
+                for (String operator : OPERATORS) {
+                    if (code.startsWith(operator, index)) {
+                        end = index + operator.length();
+                        break;
+                    }
+                }
+            }
+            returnValue.add(new Token(code, index, end, isLiteral));
+            index = end;
+        }
+        return returnValue;
+    }
+
+    private static boolean isNumberPart(final String code, final int index) {
+        final char character = code.charAt(index);
+        if (Character.isLetterOrDigit(character) || character == '.' || character == '_') {
+            return true;
+        }
+        final char previous = code.charAt(index - 1);
+        // exponent sign, e.g. 1e-3
+        return (character == '+' || character == '-') && (previous == 'e' || previous == 'E');
+    }
+}
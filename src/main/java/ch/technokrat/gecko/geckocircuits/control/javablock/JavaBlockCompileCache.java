@@ -0,0 +1,263 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.GeckoSim;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The compile cache of the Java blocks on the disk. The cached classes are
+ * loaded into the application, therefore the cache directory and its files
+ * must belong to the current user and must not be accessible by others; on
+ * other directories, the cache is disabled. A cache file holds the plain
+ * class bytes (no Java serialization) and ends with the SHA-256 digest of its
+ * contents and of its key, so that a damaged, truncated or renamed file is
+ * not used.
+ */
+final class JavaBlockCompileCache {
+
+    private static final String CACHE_FILE_EXTENSION = ".classes";
+    private static final String DEFAULT_DIRECTORY_NAME = "javablock-cache";
+    private static final int FILE_MAGIC = 0x4745434A; // "GECJ"
+    private static final int DIGEST_LENGTH = 32;
+    private static final Set<PosixFilePermission> OWNER_DIRECTORY_PERMISSIONS = EnumSet.of(
+            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE, PosixFilePermission.OWNER_EXECUTE);
+    private static final Set<PosixFilePermission> OWNER_FILE_PERMISSIONS = EnumSet.of(
+            PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE);
+    private static final Logger LOGGER = Logger.getLogger(JavaBlockCompileCache.class.getName());
+
+    private JavaBlockCompileCache() {
+        // pure utility class!
+    }
+
+    /**
+     * @return null, if the compile cache is disabled, or if its directory
+     * cannot be created or is accessible by other users
+     */
+    static File findCacheFile(final String key) {
+        if (GeckoSim.applicationProps != null
+                && "FALSE".equals(GeckoSim.applicationProps.getProperty("JAVA_BLOCK_CACHE"))) {
+            return null;
+        }
+        final File directory = findDirectory();
+        if (directory == null) {
+            return null;
+        }
+        try {
+            final Path path = directory.toPath();
+            if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+                createPrivateDirectory(path);
+            }
+            if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS) || !isPrivate(path)) {
+                LOGGER.log(Level.WARNING, "The Java block compile cache is disabled: {0} is not a directory which "
+                        + "belongs to the current user only.", directory);
+                return null;
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "The Java block compile cache is disabled: " + directory, ex);
+            return null;
+        }
+        return new File(directory, key + CACHE_FILE_EXTENSION);
+    }
+
+    private static File findDirectory() {
+        final String directoryName = GeckoSim.applicationProps == null ? ""
+                : GeckoSim.applicationProps.getProperty("JAVA_BLOCK_CACHE_DIRECTORY", "");
+        if (!directoryName.isEmpty()) {
+            return new File(directoryName);
+        }
+        final File appDataDirectory = GeckoSim.findOrCreateAppDataDirectory();
+        if (appDataDirectory == null) {
+            return null;
+        }
+        return new File(appDataDirectory, DEFAULT_DIRECTORY_NAME);
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    private static void createPrivateDirectory(final Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        if (isPosix()) {
+            Files.createDirectory(path, PosixFilePermissions.asFileAttribute(OWNER_DIRECTORY_PERMISSIONS));
+        } else {
+            Files.createDirectory(path);
+        }
+    }
+
+    /**
+     * @return true, if the file or directory belongs to the current user, and
+     * (on POSIX file systems) neither the group nor others have any permission
+     */
+    static boolean isPrivate(final Path path) throws IOException {
+        final UserPrincipal owner = Files.getOwner(path, LinkOption.NOFOLLOW_LINKS);
+        final UserPrincipal currentUser = path.getFileSystem().getUserPrincipalLookupService()
+                .lookupPrincipalByName(System.getProperty("user.name"));
+        if (!owner.equals(currentUser)) {
+            return false;
+        }
+        if (isPosix()) {
+            final Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path, LinkOption.NOFOLLOW_LINKS);
+            return OWNER_DIRECTORY_PERMISSIONS.containsAll(permissions);
+        }
+        return true;
+    }
+
+    /**
+     * @return null, if the file is not valid for the key; it is deleted then.
+     */
+    static Map<String, CompiledClassContainer> read(final File cacheFile, final String key) {
+        try {
+            final Path path = cacheFile.toPath();
+            if (!Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS) || !isPrivate(path)) {
+                LOGGER.log(Level.WARNING, "Compile cache file {0} is accessible by other users, it is deleted.",
+                        cacheFile);
+            } else {
+                final Map<String, CompiledClassContainer> returnValue = decode(Files.readAllBytes(path), key);
+                if (returnValue != null) {
+                    return returnValue;
+                }
+                LOGGER.log(Level.WARNING, "Invalid compile cache file {0}, it is deleted.", cacheFile);
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Invalid compile cache file " + cacheFile + ", it is deleted.", ex);
+        }
+        cacheFile.delete();
+        return null;
+    }
+
+    /**
+     * writes a temporary file first: other processes never read an incomplete
+     * cache file.
+     */
+    static void write(final File cacheFile, final String key, final Map<String, CompiledClassContainer> classMap) {
+        Path tmpFile = null;
+        try {
+            final byte[] contents = encode(classMap, key);
+            final Path directory = cacheFile.getParentFile().toPath();
+            if (isPosix()) {
+                final FileAttribute<Set<PosixFilePermission>> ownerOnly
+                        = PosixFilePermissions.asFileAttribute(OWNER_FILE_PERMISSIONS);
+                tmpFile = Files.createTempFile(directory, cacheFile.getName(), ".tmp", ownerOnly);
+            } else {
+                tmpFile = Files.createTempFile(directory, cacheFile.getName(), ".tmp");
+            }
+            Files.write(tmpFile, contents);
+            try {
+                Files.move(tmpFile, cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(tmpFile, cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Could not write the compile cache file " + cacheFile, ex);
+            if (tmpFile != null) {
+                tmpFile.toFile().delete();
+            }
+        }
+    }
+
+    static byte[] encode(final Map<String, CompiledClassContainer> classMap, final String key) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream outStream = new DataOutputStream(bytes);
+        outStream.writeInt(FILE_MAGIC);
+        outStream.writeInt(classMap.size());
+        for (Map.Entry<String, CompiledClassContainer> entry : classMap.entrySet()) {
+            writeBytes(outStream, entry.getKey().getBytes(StandardCharsets.UTF_8));
+            writeBytes(outStream, entry.getValue().getSourceString().getBytes(StandardCharsets.UTF_8));
+            writeBytes(outStream, entry.getValue().getClassBytes());
+        }
+        outStream.flush();
+        final byte[] contents = bytes.toByteArray();
+        outStream.write(digest(contents, contents.length, key));
+        outStream.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return null, if the digest does not match
+     */
+    static Map<String, CompiledClassContainer> decode(final byte[] fileBytes, final String key) throws IOException {
+        final int contentsLength = fileBytes.length - DIGEST_LENGTH;
+        if (contentsLength < 0 || !MessageDigest.isEqual(digest(fileBytes, contentsLength, key),
+                Arrays.copyOfRange(fileBytes, contentsLength, fileBytes.length))) {
+            return null;
+        }
+        final DataInputStream inStream = new DataInputStream(new ByteArrayInputStream(fileBytes, 0, contentsLength));
+        if (inStream.readInt() != FILE_MAGIC) {
+            return null;
+        }
+        final int classCount = inStream.readInt();
+        final Map<String, CompiledClassContainer> returnValue = new HashMap<String, CompiledClassContainer>();
+        for (int i = 0; i < classCount; i++) {
+            final String className = new String(readBytes(inStream), StandardCharsets.UTF_8);
+            final String sourceString = new String(readBytes(inStream), StandardCharsets.UTF_8);
+            returnValue.put(className, new CompiledClassContainer(readBytes(inStream), sourceString));
+        }
+        return returnValue;
+    }
+
+    private static void writeBytes(final DataOutputStream outStream, final byte[] bytes) throws IOException {
+        outStream.writeInt(bytes.length);
+        outStream.write(bytes);
+    }
+
+    private static byte[] readBytes(final DataInputStream inStream) throws IOException {
+        final int length = inStream.readInt();
+        if (length < 0 || length > inStream.available()) {
+            throw new IOException("Invalid length " + length);
+        }
+        final byte[] returnValue = new byte[length];
+        inStream.readFully(returnValue);
+        return returnValue;
+    }
+
+    private static byte[] digest(final byte[] contents, final int length, final String key) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(key.getBytes(StandardCharsets.UTF_8));
+            digest.update(contents, 0, length);
+            return digest.digest();
+        } catch (NoSuchAlgorithmException ex) { // every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.GeckoSim;
+import ch.technokrat.gecko.geckocircuits.allg.GeckoFile;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.tools.ToolProvider;
+
+/**
+ * Compilation of the Java blocks, with a content-addressed compile cache on
+ * the disk: the compiled classes are stored under the SHA-256 hash of the
+ * source code, the additional source files and the Java version. The class
+ * name is derived from the source code as well, therefore a model which is
+ * loaded again, or a copy of a block, finds its classes in the cache.
+ *
+ * Application properties: JAVA_BLOCK_CACHE=FALSE disables the cache,
+ * JAVA_BLOCK_CACHE_DIRECTORY sets its directory (default: a sub directory
+ * of the application data directory of the user), see JavaBlockCompileCache. JAVA_BLOCK_COMPILATION=LAZY
+ * does not compile the blocks when a model is loaded, but only at the
+ * simulation start; otherwise, the blocks are compiled in the background
+ * while the model is displayed. In both cases, all blocks of a model are
+ * compiled in parallel.
+ */
+public final class JavaBlockCompiler {
+
+    private static final String CACHE_FORMAT_VERSION = "2";
+    private static final String CLASS_NAME_PREFIX = "tmpJav";
+    private static final String PLACEHOLDER_CLASS_NAME = "GeckoJavaBlock";
+    private static final int CLASS_NAME_HASH_LENGTH = 16;
+    private static final int MAX_THREADS = 4;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+    private static final Map<String, Future<AbstractCompileObject>> RUNNING_COMPILATIONS
+            = new ConcurrentHashMap<String, Future<AbstractCompileObject>>();
+
+    private JavaBlockCompiler() {
+        // pure utility class!
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final int threads = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "JavaBlockCompiler-" + threadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * starts the compilation of all Java blocks within the components, which
+     * are not compiled or whose classes are outdated. The blocks take over
+     * the result when they are needed for a simulation, or when the code is
+     * shown.
+     */
+    public static void compileInBackground(final Collection<?> components) {
+        if (ToolProvider.getSystemJavaCompiler() == null) {
+            return; // JRE only: the block reports the missing compiler, when it is compiled
+        }
+        for (Object component : components) {
+            if (component instanceof ReglerJavaFunction) {
+                ((ReglerJavaFunction) component).getJavaBlock().startBackgroundCompilation();
+            }
+        }
+    }
+
+    /**
+     * @return true, if the Java blocks of a loaded model should be compiled
+     * in the background (application property JAVA_BLOCK_COMPILATION is not
+     * LAZY)
+     */
+    public static boolean isCompilationAtModelLoad() {
+        return GeckoSim.applicationProps == null
+                || !"LAZY".equals(GeckoSim.applicationProps.getProperty("JAVA_BLOCK_COMPILATION"));
+    }
+
+    /**
+     * @return the class name of a block, derived from its source code
+     * (generated with a placeholder class name).
+     */
+    static String createClassName(final String placeholderSource) {
+        return CLASS_NAME_PREFIX + toHex(sha256(placeholderSource)).substring(0, CLASS_NAME_HASH_LENGTH);
+    }
+
+    static String getPlaceholderClassName() {
+        return PLACEHOLDER_CLASS_NAME;
+    }
+
+    static Future<AbstractCompileObject> submit(final String sourceString, final String className,
+            final List<GeckoFile> additionalSourceFiles) {
+        final List<GeckoFile> files = new ArrayList<GeckoFile>(additionalSourceFiles);
+        final String key = createCacheKey(sourceString, files);
+        final FutureTask<AbstractCompileObject> task = new FutureTask<AbstractCompileObject>(
+                new Callable<AbstractCompileObject>() {
+            @Override
+            public AbstractCompileObject call() {
+                try {
+                    return compile(sourceString, className, files, key);
+                } finally {
+                    RUNNING_COMPILATIONS.remove(key);
+                }
+            }
+        });
+        final Future<AbstractCompileObject> running = RUNNING_COMPILATIONS.putIfAbsent(key, task);
+        if (running != null) { // e.g. a copy of a block with the same code
+            return running;
+        }
+        EXECUTOR.execute(task);
+        return task;
+    }
+
+    /**
+     * compiles the source code in the calling thread, or reads the classes
+     * from the compile cache.
+     */
+    static AbstractCompileObject compile(final String sourceString, final String className,
+            final List<GeckoFile> additionalSourceFiles) {
+        return compile(sourceString, className, additionalSourceFiles,
+                createCacheKey(sourceString, additionalSourceFiles));
+    }
+
+    private static AbstractCompileObject compile(final String sourceString, final String className,
+            final List<GeckoFile> additionalSourceFiles, final String key) {
+        final File cacheFile = JavaBlockCompileCache.findCacheFile(key);
+        if (cacheFile != null && cacheFile.exists()) {
+            final Map<String, CompiledClassContainer> classMap = JavaBlockCompileCache.read(cacheFile, key);
+            if (classMap != null && classMap.containsKey(className)) {
+                return new CompileObjectSavedFile(className, classMap, CompileStatus.COMPILED_SUCCESSFULL,
+                        "Classes were read from the compile cache: " + cacheFile.getAbsolutePath());
+            }
+        }
+
+        final CompileObject compileObject = new CompileObject(sourceString, className, additionalSourceFiles);
+        if (cacheFile != null && compileObject.getCompileStatus() == CompileStatus.COMPILED_SUCCESSFULL) {
+            JavaBlockCompileCache.write(cacheFile, key, compileObject.getClassNameFileMap());
+        }
+        return compileObject;
+    }
+
+    private static String createCacheKey(final String sourceString, final List<GeckoFile> additionalSourceFiles) {
+        final StringBuilder keySource = new StringBuilder();
+        keySource.append(CACHE_FORMAT_VERSION).append('\n');
+        keySource.append(System.getProperty("java.version")).append('\n');
+        keySource.append(sourceString);
+        for (GeckoFile file : additionalSourceFiles) {
+            keySource.append('\u0000').append(file.getName()).append('\u0000').append(file.getContentsString());
+        }
+        return toHex(sha256(keySource.toString()));
+    }
+
+    private static byte[] sha256(final String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException ex) { // every Java platform supports SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder returnValue = new StringBuilder(2 * bytes.length);
+        for (byte value : bytes) {
+            returnValue.append(Character.forDigit((value >> 4) & 0xF, 16));
+            returnValue.append(Character.forDigit(value & 0xF, 16));
+        }
+        return returnValue.toString();
+    }
+}
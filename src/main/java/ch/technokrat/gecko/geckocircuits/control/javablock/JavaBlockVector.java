@@ -14,11 +14,19 @@
 package ch.technokrat.gecko.geckocircuits.control.javablock;
 
 import ch.technokrat.gecko.ControlCalculatable;
+import ch.technokrat.gecko.ControlCalculatableInPlace;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class JavaBlockVector extends AbstractJavaBlock {
     private ControlCalculatable _compiledInstance;
+    /**
+     * the compiled instance during a simulation, if it calculates in place.
+     * null: the signals are copied into and from the vectors of
+     * ControlCalculatable.
+     */
+    private ControlCalculatableInPlace _inPlaceInstance;
+    private boolean _inPlaceEnabled = true;
     private double[] _xINVector;
     
     JavaBlockVector(final ReglerJavaFunction regler) {
@@ -36,6 +44,11 @@ public class JavaBlockVector extends AbstractJavaBlock {
     @SuppressWarnings({"PMD.SignatureDeclareThrowsException", "PMD.AvoidArrayLoops"})
     void calculateYOUT(final double time, final double deltaT, final double[][] inputSignals,
             final double[][] outputSignals) throws Exception {
+        if (_inPlaceInstance != null) {
+            _inPlaceInstance.calculateYOUT(inputSignals, outputSignals, time, deltaT);
+            checkOutputsForNANorINFValues(outputSignals);
+            return;
+        }
 
         for (int i = 0; i < _xINVector.length; i++) {
             _xINVector[i] = inputSignals[i][0];
@@ -66,6 +79,35 @@ public class JavaBlockVector extends AbstractJavaBlock {
     void initialize(double[][] inputSignals, double[][] outputSignals) throws Exception {
         _xINVector = new double[inputSignals.length];
         super.initialize(inputSignals, outputSignals); //To change body of generated methods, choose Tools | Templates.
+        _inPlaceInstance = null;
+        // an output which is fed back to an input of the same block would change the input during the calculation
+        if (_inPlaceEnabled && _compiledInstance instanceof ControlCalculatableInPlace
+                && !sharesSignalArrays(inputSignals, outputSignals)) {
+            _inPlaceInstance = (ControlCalculatableInPlace) _compiledInstance;
+        }
+    }
+
+    private static boolean sharesSignalArrays(final double[][] inputSignals, final double[][] outputSignals) {
+        for (double[] input : inputSignals) {
+            for (double[] output : outputSignals) {
+                if (input == output) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * for the comparison of both calculations, e.g. in JavaBlockStepBenchmark.
+     * Takes effect at the next simulation start.
+     */
+    void setInPlaceEnabled(final boolean enabled) {
+        _inPlaceEnabled = enabled;
+    }
+
+    boolean isCalculatedInPlace() {
+        return _inPlaceInstance != null;
     }
 
     
@@ -28,7 +28,6 @@ import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
 import ch.technokrat.gecko.geckocircuits.control.SpecialNameVisible;
 import ch.technokrat.gecko.geckocircuits.control.VariableTerminalNumber;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
-import static ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable._time;
 import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 import java.awt.Color;
@@ -99,6 +98,11 @@ public final class ReglerJavaFunction extends RegelBlock implements VariableTerm
     private AbstractJavaBlock _javaBlock = new JavaBlockVector(this);
     private final Set<String> _additionalFilesHashKeys = new TreeSet();
     private boolean _isConsoleOutput = true;
+    /**
+     * output destination during the simulation, resolved at the simulation
+     * start instead of at each step.
+     */
+    private SystemOutputRedirect.OutputBinding _outputBinding;
     private static final int DIAMETER = 4;
     private static final double HEIGHT = 0.6, WIDTH = 1.4;
     private boolean _clearOutput = true;
@@ -259,6 +263,7 @@ public final class ReglerJavaFunction extends RegelBlock implements VariableTerm
 
         @Override
         protected double[][] createOutputSignal(int noOutputs) {
+            _javaBlock.finishPendingCompilation();
             if (_javaBlock._compileObject.getCompileStatus() == CompileStatus.COMPILED_SUCCESSFULL) {
                 _javaBlock.findAndLoadClass();
             }
@@ -272,12 +277,10 @@ public final class ReglerJavaFunction extends RegelBlock implements VariableTerm
 
         @Override
         public void berechneYOUT(final double deltaT) {
-
-            if (_isConsoleOutput) {
-                SystemOutputRedirect.setConsoleOutput(getStringID());
-            } else {
-                SystemOutputRedirect.setAlternativeOutput(_outputStringBuffer, getStringID());
+            if (_outputBinding == null) {
+                updateOutputBinding();
             }
+            SystemOutputRedirect.bind(_outputBinding);
 
             try {
                 _javaBlock.calculateYOUT(_time, deltaT, _inputSignal, _outputSignal);
@@ -304,11 +307,8 @@ public final class ReglerJavaFunction extends RegelBlock implements VariableTerm
 
         @Override
         public void initializeAtSimulationStart(double deltaT) {
-            if (_isConsoleOutput) {
-                SystemOutputRedirect.setConsoleOutput(getStringID());
-            } else {
-                SystemOutputRedirect.setAlternativeOutput(_outputStringBuffer, getStringID());
-            }
+            updateOutputBinding();
+            SystemOutputRedirect.bind(_outputBinding);
             try {
                 _javaBlock.initialize(_inputSignal, _outputSignal);
             } catch (Exception ex) {
@@ -565,6 +565,12 @@ public final class ReglerJavaFunction extends RegelBlock implements VariableTerm
 
     public void setConsoleOutput(final boolean value) {
         _isConsoleOutput = value;
+        updateOutputBinding();
+    }
+
+    private void updateOutputBinding() {
+        _outputBinding = SystemOutputRedirect.createBinding(_isConsoleOutput ? null : _outputStringBuffer,
+                getStringID());
     }
 
     @Override
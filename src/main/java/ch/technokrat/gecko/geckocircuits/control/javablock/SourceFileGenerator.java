@@ -54,14 +54,17 @@ public final class SourceFileGenerator {
         try {
 
             final StringBuilder sourceStringBuilder = new StringBuilder(estimateTotalStringSize(source));
+            // the matrix blocks work on the signal arrays anyway
+            final String inPlaceCode = variableBusWidth._useMatrix.getValue() ? null
+                    : InPlaceSourceRewriter.rewrite(source);
 
             appendClassImportsAndHeader(sourceStringBuilder, source._importsCode, className, 
-                    variableBusWidth._useMatrix.getValue());
+                    variableBusWidth._useMatrix.getValue(), inPlaceCode != null);
             appendVariablesCode(sourceStringBuilder, source._variablesCode, outTerminalNumber, 
                     variableBusWidth);
             appendInitCode(sourceStringBuilder, source._initCode);
             appendFunctionSourceCode(sourceStringBuilder, source._sourceCode, variableBusWidth._useMatrix.getValue());
-            appendClassFooter(sourceStringBuilder);
+            appendClassFooter(sourceStringBuilder, inPlaceCode);
             return sourceStringBuilder.toString();
         } catch (IOException ex) {
             Logger.getLogger(JavaBlockSource.class.getName()).log(Level.SEVERE, null, ex);
@@ -71,7 +74,8 @@ public final class SourceFileGenerator {
     }
 
     private static void appendClassImportsAndHeader(final StringBuilder sourceStringBuilder,
-            final String importsCode, final String className, final boolean isMatrix) throws IOException {
+            final String importsCode, final String className, final boolean isMatrix, final boolean isInPlace)
+            throws IOException {
 
         final BufferedReader reader = new BufferedReader(new StringReader(importsCode));
         for (String strLine = reader.readLine(); strLine != null; strLine = reader.readLine()) {
@@ -84,7 +88,11 @@ public final class SourceFileGenerator {
         if (isMatrix) {
             sourceStringBuilder.append(" implements java.io.Serializable, ch.technokrat.gecko.ControlCalculatableMatrix { \n");
         } else {
-            sourceStringBuilder.append(" implements java.io.Serializable, ch.technokrat.gecko.ControlCalculatable { \n");
+            sourceStringBuilder.append(" implements java.io.Serializable, ch.technokrat.gecko.ControlCalculatable");
+            if (isInPlace) {
+                sourceStringBuilder.append(", ch.technokrat.gecko.ControlCalculatableInPlace");
+            }
+            sourceStringBuilder.append(" { \n");
         }
 
     }
@@ -168,9 +176,36 @@ public final class SourceFileGenerator {
         sourceStringBuilder.append("// ****************** end of code segment **********************\n");
     }
 
-    private static void appendClassFooter(final StringBuilder sourceStringBuilder) {
+    /**
+     * @param inPlaceCode the code of the in-place calculation, see
+     * InPlaceSourceRewriter. May be null.
+     */
+    private static void appendClassFooter(final StringBuilder sourceStringBuilder, final String inPlaceCode)
+            throws IOException {
         sourceStringBuilder.append("    }\n");
+        if (inPlaceCode != null) {
+            appendInPlaceFunctionSourceCode(sourceStringBuilder, inPlaceCode);
+        }
         sourceStringBuilder.append("}\n");
 
     }
+
+    private static void appendInPlaceFunctionSourceCode(final StringBuilder sourceStringBuilder,
+            final String inPlaceCode) throws IOException {
+        sourceStringBuilder.append("\n    @Override\n");
+        sourceStringBuilder.append("    public void calculateYOUT(final double[][] " + InPlaceSourceRewriter.IN_SIGNALS
+                + ", final double[][] " + InPlaceSourceRewriter.OUT_SIGNALS + ", final double time, "
+                + "final double dt) throws Exception {\n");
+        sourceStringBuilder.append("// ****************** your code segment, in place **********************\n");
+        final BufferedReader reader = new BufferedReader(new StringReader(inPlaceCode));
+
+        for (String strLine = reader.readLine(); strLine != null; strLine = reader.readLine()) {
+            sourceStringBuilder.append("\t\t");
+            sourceStringBuilder.append(strLine);
+            sourceStringBuilder.append("\n");
+        }
+
+        sourceStringBuilder.append("// ****************** end of code segment **********************\n");
+        sourceStringBuilder.append("    }\n");
+    }
 }
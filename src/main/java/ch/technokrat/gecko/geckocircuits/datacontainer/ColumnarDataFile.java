@@ -0,0 +1,86 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Constants of the columnar binary data file (.gcb). All numbers are little
+ * endian. The file consists of
+ *
+ * header: "GECKOCOL", int version, int flags (1: compressed), int chunk size,
+ * int number of signals, the name of the x-data and the signal names (each
+ * int byte length + UTF-8 bytes)
+ *
+ * chunks: the time values (double) of up to chunk size samples, followed by
+ * the values (float) of each signal. With compression, each signal block is
+ * compressed with the DeflaterCodec, the time values are never compressed.
+ *
+ * index: int number of chunks, for each chunk: long offset and int byte length
+ * of the time block, int number of samples, double start and stop time, for
+ * each signal: long offset, int byte length, float minimum, maximum and mean
+ * value of the block
+ *
+ * trailer: long offset of the index, "GECKOIDX"
+ *
+ * The chunks are written during the simulation, the index when the file is
+ * closed.
+ */
+final class ColumnarDataFile {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+    static final byte[] MAGIC = "GECKOCOL".getBytes(UTF_8);
+    static final byte[] INDEX_MAGIC = "GECKOIDX".getBytes(UTF_8);
+    static final int VERSION = 1;
+    static final int FLAG_COMPRESSED = 1;
+    static final int TIME_BYTES = 8;
+    static final int VALUE_BYTES = 4;
+    static final int CHUNK_ENTRY_BYTES = 8 + 4 + 4 + 8 + 8;
+    static final int SIGNAL_ENTRY_BYTES = 8 + 4 + 3 * 4;
+    static final int TRAILER_BYTES = 8 + 8;
+
+    private ColumnarDataFile() {
+        // pure utility class!
+    }
+
+    static ByteBuffer allocate(final int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static ByteBuffer allocateDirect(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static ByteBuffer readFully(final FileChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of the columnar data file.");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
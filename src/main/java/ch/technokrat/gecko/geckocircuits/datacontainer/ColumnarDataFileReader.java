@@ -0,0 +1,270 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Random access to a columnar binary data file (see ColumnarDataFile). Only
+ * the header and the index are read when the file is opened. A time window of
+ * a signal reads the chunks of the window only, and only the blocks of the
+ * requested signal. Can be used from several threads.
+ */
+public final class ColumnarDataFileReader implements Closeable {
+
+    private final FileChannel _channel;
+    private final boolean _isCompressed;
+    private final String _xDataName;
+    private final List<String> _signalNames = new ArrayList<String>();
+    private final int _signals;
+    // index, per chunk:
+    private final long[] _timeOffsets;
+    private final int[] _timeLengths;
+    private final int[] _sampleCounts;
+    private final double[] _startTimes;
+    private final double[] _stopTimes;
+    // index, per chunk and signal (chunk * signals + signal):
+    private final long[] _valueOffsets;
+    private final int[] _valueLengths;
+    private final float[] _minimum;
+    private final float[] _maximum;
+    private final float[] _mean;
+    private final long _numberOfSamples;
+
+    public ColumnarDataFileReader(final File file) throws IOException {
+        _channel = new FileInputStream(file).getChannel();
+        try {
+            final int fixedHeaderBytes = ColumnarDataFile.MAGIC.length + 4 * 4;
+            final ByteBuffer header = ColumnarDataFile.readFully(_channel, 0, fixedHeaderBytes);
+            checkMagic(header, ColumnarDataFile.MAGIC, file);
+            final int version = header.getInt();
+            if (version != ColumnarDataFile.VERSION) {
+                throw new IOException("Unsupported version " + version + " of the data file " + file);
+            }
+            _isCompressed = (header.getInt() & ColumnarDataFile.FLAG_COMPRESSED) != 0;
+            header.getInt(); // chunk size, only required for writing
+            _signals = header.getInt();
+            long position = fixedHeaderBytes;
+            final String[] names = new String[_signals + 1];
+            for (int i = 0; i < names.length; i++) {
+                final int length = ColumnarDataFile.readFully(_channel, position, 4).getInt();
+                final ByteBuffer name = ColumnarDataFile.readFully(_channel, position + 4, length);
+                names[i] = new String(name.array(), 0, length, ColumnarDataFile.UTF_8);
+                position += 4 + length;
+            }
+            _xDataName = names[0];
+            _signalNames.addAll(Arrays.asList(names).subList(1, names.length));
+
+            final ByteBuffer trailer = ColumnarDataFile.readFully(_channel, _channel.size() - ColumnarDataFile.TRAILER_BYTES,
+                    ColumnarDataFile.TRAILER_BYTES);
+            final long indexOffset = trailer.getLong();
+            checkMagic(trailer, ColumnarDataFile.INDEX_MAGIC, file);
+            final int chunks = ColumnarDataFile.readFully(_channel, indexOffset, 4).getInt();
+            final ByteBuffer index = ColumnarDataFile.readFully(_channel, indexOffset + 4,
+                    chunks * (ColumnarDataFile.CHUNK_ENTRY_BYTES + _signals * ColumnarDataFile.SIGNAL_ENTRY_BYTES));
+            _timeOffsets = new long[chunks];
+            _timeLengths = new int[chunks];
+            _sampleCounts = new int[chunks];
+            _startTimes = new double[chunks];
+            _stopTimes = new double[chunks];
+            _valueOffsets = new long[chunks * _signals];
+            _valueLengths = new int[chunks * _signals];
+            _minimum = new float[chunks * _signals];
+            _maximum = new float[chunks * _signals];
+            _mean = new float[chunks * _signals];
+            long numberOfSamples = 0;
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                _timeOffsets[chunk] = index.getLong();
+                _timeLengths[chunk] = index.getInt();
+                _sampleCounts[chunk] = index.getInt();
+                _startTimes[chunk] = index.getDouble();
+                _stopTimes[chunk] = index.getDouble();
+                numberOfSamples += _sampleCounts[chunk];
+                for (int signal = 0; signal < _signals; signal++) {
+                    final int entry = chunk * _signals + signal;
+                    _valueOffsets[entry] = index.getLong();
+                    _valueLengths[entry] = index.getInt();
+                    _minimum[entry] = index.getFloat();
+                    _maximum[entry] = index.getFloat();
+                    _mean[entry] = index.getFloat();
+                }
+            }
+            _numberOfSamples = numberOfSamples;
+        } catch (IOException ex) {
+            _channel.close();
+            throw ex;
+        }
+    }
+
+    private static void checkMagic(final ByteBuffer buffer, final byte[] magic, final File file) throws IOException {
+        final byte[] found = new byte[magic.length];
+        buffer.get(found);
+        if (!Arrays.equals(found, magic)) {
+            throw new IOException("The file " + file + " is not a complete columnar GeckoCIRCUITS data file.");
+        }
+    }
+
+    public String getXDataName() {
+        return _xDataName;
+    }
+
+    public List<String> getSignalNames() {
+        return Collections.unmodifiableList(_signalNames);
+    }
+
+    public boolean isCompressed() {
+        return _isCompressed;
+    }
+
+    public long getNumberOfSamples() {
+        return _numberOfSamples;
+    }
+
+    public int getNumberOfChunks() {
+        return _sampleCounts.length;
+    }
+
+    public double getChunkStartTime(final int chunk) {
+        return _startTimes[chunk];
+    }
+
+    public double getChunkStopTime(final int chunk) {
+        return _stopTimes[chunk];
+    }
+
+    public float getChunkMinimum(final int signal, final int chunk) {
+        return _minimum[chunk * _signals + signal];
+    }
+
+    public float getChunkMaximum(final int signal, final int chunk) {
+        return _maximum[chunk * _signals + signal];
+    }
+
+    /**
+     * @return the arithmetic mean of the samples of the chunk
+     */
+    public float getChunkMean(final int signal, final int chunk) {
+        return _mean[chunk * _signals + signal];
+    }
+
+    /**
+     * reads all samples of the signal with startTime <= t <= stopTime.
+     */
+    public SignalWindow readWindow(final int signal, final double startTime, final double stopTime) throws IOException {
+        if (signal < 0 || signal >= _signals) {
+            throw new IllegalArgumentException("Invalid signal index: " + signal);
+        }
+        int firstChunk = Arrays.binarySearch(_stopTimes, startTime);
+        if (firstChunk < 0) {
+            firstChunk = -firstChunk - 1;
+        }
+        while (firstChunk > 0 && _stopTimes[firstChunk - 1] >= startTime) { // equal stop times
+            firstChunk--;
+        }
+
+        final List<double[]> timeBlocks = new ArrayList<double[]>();
+        final List<float[]> valueBlocks = new ArrayList<float[]>();
+        int totalLength = 0;
+        for (int chunk = firstChunk; chunk < _startTimes.length && _startTimes[chunk] <= stopTime; chunk++) {
+            final double[] times = readTimes(chunk);
+            final float[] values = readValues(signal, chunk);
+            int from = 0;
+            while (from < times.length && times[from] < startTime) {
+                from++;
+            }
+            int to = times.length;
+            while (to > from && times[to - 1] > stopTime) {
+                to--;
+            }
+            timeBlocks.add(Arrays.copyOfRange(times, from, to));
+            valueBlocks.add(Arrays.copyOfRange(values, from, to));
+            totalLength += to - from;
+        }
+
+        final double[] times = new double[totalLength];
+        final float[] values = new float[totalLength];
+        int position = 0;
+        for (int i = 0; i < timeBlocks.size(); i++) {
+            final int length = timeBlocks.get(i).length;
+            System.arraycopy(timeBlocks.get(i), 0, times, position, length);
+            System.arraycopy(valueBlocks.get(i), 0, values, position, length);
+            position += length;
+        }
+        return new SignalWindow(times, values);
+    }
+
+    private double[] readTimes(final int chunk) throws IOException {
+        final ByteBuffer buffer = ColumnarDataFile.readFully(_channel, _timeOffsets[chunk], _timeLengths[chunk]);
+        final double[] returnValue = new double[_sampleCounts[chunk]];
+        buffer.asDoubleBuffer().get(returnValue);
+        return returnValue;
+    }
+
+    private float[] readValues(final int signal, final int chunk) throws IOException {
+        final int entry = chunk * _signals + signal;
+        final ByteBuffer buffer = ColumnarDataFile.readFully(_channel, _valueOffsets[entry], _valueLengths[entry]);
+        final float[] returnValue = new float[_sampleCounts[chunk]];
+        if (_isCompressed) {
+            final int[] intBits = new int[returnValue.length];
+            new DeflaterCodec().decode(buffer.array(), intBits);
+            for (int j = 0; j < intBits.length; j++) {
+                returnValue[j] = Float.intBitsToFloat(intBits[j]);
+            }
+        } else {
+            buffer.asFloatBuffer().get(returnValue);
+        }
+        return returnValue;
+    }
+
+    @Override
+    public void close() throws IOException {
+        _channel.close();
+    }
+
+    /**
+     * time and signal values of a time window. The arrays are not copied, do
+     * not modify them.
+     */
+    public static final class SignalWindow {
+
+        private final double[] _times;
+        private final float[] _values;
+
+        SignalWindow(final double[] times, final float[] values) {
+            _times = times;
+            _values = values;
+        }
+
+        public double[] getTimes() {
+            return _times;
+        }
+
+        public float[] getValues() {
+            return _values;
+        }
+
+        public int getLength() {
+            return _times.length;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a columnar binary data file (see ColumnarDataFile) incrementally:
+ * the samples are collected column by column in direct buffers and written
+ * through the FileChannel whenever a chunk is full. Together with each chunk,
+ * the minimum, maximum and mean value of each signal are stored in the index,
+ * so that a reader can find a time window without scanning the file.
+ */
+public final class ColumnarDataFileWriter implements Closeable {
+
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+    private final FileChannel _channel;
+    private final int _chunkSize;
+    private final int _signals;
+    private final IntArrayCodec _codec;
+    private final ByteBuffer _timeBuffer;
+    private final ByteBuffer[] _valueBuffers;
+    private final float[] _minimum;
+    private final float[] _maximum;
+    private final double[] _sum;
+    private final int[] _intBits;
+    private final List<ByteBuffer> _indexEntries = new ArrayList<ByteBuffer>();
+    private int _samplesInChunk;
+    private double _chunkStartTime;
+    private double _lastTime;
+
+    /**
+     * @param compress if true, the signal values are compressed (lossless)
+     */
+    public ColumnarDataFileWriter(final File file, final String xDataName, final String[] signalNames,
+            final int chunkSize, final boolean compress) throws IOException {
+        _channel = new FileOutputStream(file).getChannel();
+        _chunkSize = chunkSize;
+        _signals = signalNames.length;
+        _codec = compress ? new DeflaterCodec() : null;
+        _timeBuffer = ColumnarDataFile.allocateDirect(chunkSize * ColumnarDataFile.TIME_BYTES);
+        _valueBuffers = new ByteBuffer[_signals];
+        for (int i = 0; i < _signals; i++) {
+            _valueBuffers[i] = ColumnarDataFile.allocateDirect(chunkSize * ColumnarDataFile.VALUE_BYTES);
+        }
+        _minimum = new float[_signals];
+        _maximum = new float[_signals];
+        _sum = new double[_signals];
+        _intBits = compress ? new int[chunkSize] : null;
+        writeHeader(xDataName, signalNames);
+    }
+
+    private void writeHeader(final String xDataName, final String[] signalNames) throws IOException {
+        final List<byte[]> names = new ArrayList<byte[]>();
+        names.add(xDataName.getBytes(ColumnarDataFile.UTF_8));
+        int headerBytes = ColumnarDataFile.MAGIC.length + 4 * 4;
+        for (String name : signalNames) {
+            names.add(name.getBytes(ColumnarDataFile.UTF_8));
+        }
+        for (byte[] name : names) {
+            headerBytes += 4 + name.length;
+        }
+
+        final ByteBuffer header = ColumnarDataFile.allocate(headerBytes);
+        header.put(ColumnarDataFile.MAGIC);
+        header.putInt(ColumnarDataFile.VERSION);
+        header.putInt(_codec == null ? 0 : ColumnarDataFile.FLAG_COMPRESSED);
+        header.putInt(_chunkSize);
+        header.putInt(_signals);
+        for (byte[] name : names) {
+            header.putInt(name.length);
+            header.put(name);
+        }
+        header.flip();
+        ColumnarDataFile.writeFully(_channel, header);
+    }
+
+    /**
+     * appends one sample of all signals
+     */
+    public void append(final double time, final float[] values) throws IOException {
+        if (_samplesInChunk == 0) {
+            _chunkStartTime = time;
+            for (int i = 0; i < _signals; i++) {
+                _minimum[i] = Float.NaN;
+                _maximum[i] = Float.NaN;
+                _sum[i] = 0;
+            }
+        }
+        _timeBuffer.putDouble(time);
+        for (int i = 0; i < _signals; i++) {
+            final float value = values[i];
+            _valueBuffers[i].putFloat(value);
+            if (!(value >= _minimum[i])) { // also true for the initial NaN
+                _minimum[i] = value;
+            }
+            if (!(value <= _maximum[i])) {
+                _maximum[i] = value;
+            }
+            _sum[i] += value;
+        }
+        _lastTime = time;
+        _samplesInChunk++;
+        if (_samplesInChunk == _chunkSize) {
+            writeChunk();
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        final ByteBuffer entry = ColumnarDataFile.allocate(ColumnarDataFile.CHUNK_ENTRY_BYTES
+                + _signals * ColumnarDataFile.SIGNAL_ENTRY_BYTES);
+        entry.putLong(_channel.position());
+        entry.putInt(_samplesInChunk * ColumnarDataFile.TIME_BYTES);
+        entry.putInt(_samplesInChunk);
+        entry.putDouble(_chunkStartTime);
+        entry.putDouble(_lastTime);
+        _timeBuffer.flip();
+        ColumnarDataFile.writeFully(_channel, _timeBuffer);
+        _timeBuffer.clear();
+
+        for (int i = 0; i < _signals; i++) {
+            final ByteBuffer values = _valueBuffers[i];
+            values.flip();
+            ByteBuffer block = values;
+            if (_codec != null) {
+                final int[] intBits = _samplesInChunk == _chunkSize ? _intBits : new int[_samplesInChunk];
+                for (int j = 0; j < intBits.length; j++) {
+                    intBits[j] = values.getInt(j * ColumnarDataFile.VALUE_BYTES);
+                }
+                block = ByteBuffer.wrap(_codec.encode(intBits));
+            }
+            entry.putLong(_channel.position());
+            entry.putInt(block.remaining());
+            entry.putFloat(_minimum[i]);
+            entry.putFloat(_maximum[i]);
+            entry.putFloat((float) (_sum[i] / _samplesInChunk));
+            ColumnarDataFile.writeFully(_channel, block);
+            values.clear();
+        }
+        entry.flip();
+        _indexEntries.add(entry);
+        _samplesInChunk = 0;
+    }
+
+    /**
+     * writes the last (incomplete) chunk and the index.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!_channel.isOpen()) {
+            return;
+        }
+        try {
+            if (_samplesInChunk > 0) {
+                writeChunk();
+            }
+            final long indexOffset = _channel.position();
+            final ByteBuffer count = ColumnarDataFile.allocate(4);
+            count.putInt(_indexEntries.size());
+            count.flip();
+            ColumnarDataFile.writeFully(_channel, count);
+            for (ByteBuffer entry : _indexEntries) {
+                ColumnarDataFile.writeFully(_channel, entry);
+            }
+            final ByteBuffer trailer = ColumnarDataFile.allocate(ColumnarDataFile.TRAILER_BYTES);
+            trailer.putLong(indexOffset);
+            trailer.put(ColumnarDataFile.INDEX_MAGIC);
+            trailer.flip();
+            ColumnarDataFile.writeFully(_channel, trailer);
+        } finally {
+            _channel.close();
+        }
+    }
+}
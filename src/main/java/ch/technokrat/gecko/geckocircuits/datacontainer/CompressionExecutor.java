@@ -0,0 +1,65 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared thread pool for the compression of the data junks. The number of
+ * threads is bounded, so that the compression does not compete with the
+ * simulation thread for all cores. When more junks are waiting than
+ * QUEUE_CAPACITY, the junk is compressed in the calling (simulation) thread:
+ * this slows down the simulation to the compression speed, instead of
+ * keeping an unlimited number of uncompressed junks in the memory.
+ */
+final class CompressionExecutor {
+
+    private static final int MAX_THREADS = 4;
+    static final int THREADS = Math.max(1, Math.min(MAX_THREADS, Runtime.getRuntime().availableProcessors() - 1));
+    static final int QUEUE_CAPACITY = 4 * THREADS;
+    private static final long KEEP_ALIVE_SECONDS = 10;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private CompressionExecutor() {
+        // pure utility class!
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(THREADS, THREADS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(QUEUE_CAPACITY), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "DataCompression-" + threadCounter.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.NORM_PRIORITY - 1);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    static void execute(final Runnable task) {
+        EXECUTOR.execute(task);
+    }
+
+    static int getPoolSize() {
+        return EXECUTOR.getPoolSize();
+    }
+}
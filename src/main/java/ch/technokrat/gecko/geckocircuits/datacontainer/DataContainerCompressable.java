@@ -53,6 +53,7 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
     private int[] _avgIndicesArray = new int[0];
     private final Set<ScopeSignalMean> _definedAverageSignals = new HashSet<ScopeSignalMean>();
     private MemoryContainer _memoryContainer;
+    private final MinMaxPyramid _pyramid;
 
     public DataContainerCompressable(final int rows,
             final AbstractTimeSerie timeSerie, final String[] signalNames, final String xDataName) {
@@ -75,6 +76,7 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
         _memoryContainer = MemoryContainer.getMemoryContainer(rows);
         _containsInvalidNumbers = new boolean[rows];
         _integralValues = new double[rows];
+        _pyramid = new MinMaxPyramid(rows, this);
     }
 
     @Override
@@ -90,6 +92,10 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
         return stopJunk.getIntegralValue(row, stopIndex) - startJunk.getIntegralValue(row, startIndex);
     }
 
+    /**
+     * the value is not included in the MinMaxPyramid, use insertValuesAtEnd
+     * for scope data.
+     */
     public void setValue(final float value, final int row, final int column) {
         checkContainerSize(column);
 
@@ -139,6 +145,9 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
             final int columnMax) {
 
         assert columnMin <= columnMax : columnMin + " " + columnMax;
+        if (columnMax - columnMin >= MinMaxPyramid.MIN_SPAN) {
+            return _pyramid.getHiLoValue(row, columnMin, columnMax);
+        }
 
         final ArrayList<HiLoData> mergeList = new ArrayList<HiLoData>();
 
@@ -167,6 +176,7 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
         final int column = _timeSerie.getMaximumIndex() + 1;
         checkContainerSize(column);
         _data.get(column / JUNK_SIZE).setValues(values, column);
+        _pyramid.append(values, column > 0 ? timeValue - _timeSerie.getValue(column - 1) : 0);
 
         if (_avgIndicesArray.length > 0) {
             double timeInterval = 0;
@@ -226,6 +236,7 @@ public final class DataContainerCompressable extends AbstractDataContainer imple
         for (DataJunk junk : _data) {
             returnValue += junk.getCacheSizeInBytes();
         }
+        returnValue += _pyramid.getSizeInBytes();
         returnValue /= MEGA_BYTES;
 
         return returnValue;
@@ -13,10 +13,15 @@
  */
 package ch.technokrat.gecko.geckocircuits.datacontainer;
 
+import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.geckocircuits.newscope.*;
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Observable;
 import java.util.Observer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * We use a separate class containing the actual datacontainer, for easier
@@ -29,6 +34,8 @@ public final class DataContainerGlobal extends AbstractDataContainer implements
   private AbstractDataContainer _data;
   private DataContainerValuesSettable _settable;
   private int _lastDataIndex = -1;
+  private final List<WaveformSubscription> _subscriptions = new CopyOnWriteArrayList<WaveformSubscription>();
+  private final AtomicInteger _subscriptionCounter = new AtomicInteger();
 
   public DataContainerGlobal(){
     super();      
@@ -39,14 +46,93 @@ public final class DataContainerGlobal extends AbstractDataContainer implements
   }
 
   public void init(final int rows, final String[] signalNames, final String xDataName){
-    
-      final DataContainerCompressable data = new DataContainerCompressable(rows, new TimeSeriesConstantDt(),
-                                                                         signalNames, xDataName);      
+    init(rows, signalNames, xDataName, new TimeSeriesConstantDt());
+  }
+
+  /**
+   * @param timeSerie use a TimeSeriesVariableArray when the simulation runs with adaptive stepwidth
+   */
+  public void init(final int rows, final String[] signalNames, final String xDataName, final AbstractTimeSerie timeSerie){
+    initData(rows, signalNames, xDataName, timeSerie);
+    for(WaveformSubscription subscription : _subscriptions){
+      subscription.flush();
+      subscription.resolveRows(_data);
+    }
+  }
+
+  private void initData(final int rows, final String[] signalNames, final String xDataName, final AbstractTimeSerie timeSerie){
+    if(isMemoryMappedStore()){
+      try{
+        final DataContainerMappedFile data = new DataContainerMappedFile(rows, signalNames, xDataName, getMemoryMappedDirectory());
+        _settable = data;
+        _data = data;
+        _data.addObserver(this);
+        return;
+      }catch(IOException ex){
+        ex.printStackTrace(); // fall back to the data storage in the heap
+      }
+    }
+    final DataContainerCompressable data = new DataContainerCompressable(rows, timeSerie, signalNames, xDataName);
     _settable = data;
     _data = data;
     _data.addObserver(this);
   }
 
+  /**
+   * registers a live stream of the given signals, see WaveformSubscription.
+   * The subscription stays valid for the following simulations, until it is
+   * removed with unsubscribe.
+   *
+   * @param blockingMillis maximum waiting time of each simulation in total,
+   * only used with OverflowPolicy.BLOCK
+   */
+  public WaveformSubscription subscribe(final String[] signalNames, final int decimation, final int blockSize,
+          final int queueCapacity, final WaveformSubscription.OverflowPolicy policy, final long blockingMillis){
+    final WaveformSubscription subscription = new WaveformSubscription(_subscriptionCounter.incrementAndGet(),
+            signalNames, decimation, blockSize, queueCapacity, policy, blockingMillis);
+    if(_data != null){
+      subscription.resolveRows(_data);
+    }
+    _subscriptions.add(subscription);
+    return subscription;
+  }
+
+  /**
+   * @return null, if there is no subscription with the given id
+   */
+  public WaveformSubscription getWaveformSubscription(final int subscriptionID){
+    for(WaveformSubscription subscription : _subscriptions){
+      if(subscription.getId() == subscriptionID){
+        return subscription;
+      }
+    }
+    return null;
+  }
+
+  public void unsubscribe(final WaveformSubscription subscription){
+    subscription.close();
+    _subscriptions.remove(subscription);
+  }
+
+  /**
+   * application property MEMORY_MAPPED_STORE=TRUE: the simulation data is
+   * written to memory-mapped files (DataContainerMappedFile) instead of the
+   * java heap. The files are stored in the directory MEMORY_MAPPED_DIRECTORY,
+   * or in the temporary directory of the system, if not defined.
+   */
+  private static boolean isMemoryMappedStore(){
+    return GeckoSim.applicationProps != null
+            && "TRUE".equals(GeckoSim.applicationProps.getProperty("MEMORY_MAPPED_STORE"));
+  }
+
+  private static File getMemoryMappedDirectory(){
+    final String directory = GeckoSim.applicationProps.getProperty("MEMORY_MAPPED_DIRECTORY", "");
+    if(directory.isEmpty()){
+      return new File(System.getProperty("java.io.tmpdir"));
+    }
+    return new File(directory);
+  }
+
   @Override
   public HiLoData getHiLoValue(final int row, final int columnMin, final int columnMax){
     return _data.getHiLoValue(row, columnMin, columnMax);
@@ -75,6 +161,9 @@ public final class DataContainerGlobal extends AbstractDataContainer implements
   @Override
   public void insertValuesAtEnd(final float[] values, final double timeValue){
     _settable.insertValuesAtEnd(values, timeValue);
+    for(WaveformSubscription subscription : _subscriptions){
+      subscription.offer(values, timeValue);
+    }
   }
 
   @Override
@@ -132,6 +221,11 @@ public final class DataContainerGlobal extends AbstractDataContainer implements
   @Override
   public void setContainerStatus(final ContainerStatus containerStatus){
     _data.setContainerStatus(containerStatus);
+    if(containerStatus == ContainerStatus.PAUSED || containerStatus == ContainerStatus.FINISHED){
+      for(WaveformSubscription subscription : _subscriptions){
+        subscription.flush();
+      }
+    }
   }
 
   @Override
@@ -0,0 +1,430 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.AbstractTimeSerie;
+import ch.technokrat.gecko.geckocircuits.newscope.DefinedMeanSignals;
+import ch.technokrat.gecko.geckocircuits.newscope.HiLoData;
+import ch.technokrat.gecko.geckocircuits.newscope.ScopeSignalMean;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stores the simulation data outside of the java heap, in memory-mapped
+ * segment files. Each segment holds SEGMENT_SIZE time steps, column-oriented:
+ * first the time values (double), then one float column per signal. The
+ * recording length is therefore limited by the disk space, not by the heap.
+ *
+ * There is exactly one writer (the simulation thread, insertValuesAtEnd), all
+ * other threads (scope, characteristics calculation) are readers without
+ * locks: the writer fills a time step completely and publishes it by writing
+ * the volatile maximum index. A reader only accesses time steps up to the
+ * maximum index it has read before.
+ */
+public final class DataContainerMappedFile extends AbstractDataContainer implements DataContainerValuesSettable,
+        DataContainerIntegralCalculatable {
+
+    public static final int SEGMENT_SIZE = 65536;
+    private static final int TIME_BYTES = 8;
+    private static final int VALUE_BYTES = 4;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+    private final int _rows;
+    private final File _directory;
+    private final String[] _signalNames;
+    private final String[] _signalPathNames;
+    private final String _xDataName;
+    private final float[] _dataArray;
+    private final MappedTimeSerie _timeSerie = new MappedTimeSerie();
+    private final Set<ScopeSignalMean> _definedAverageSignals = new HashSet<ScopeSignalMean>();
+    private volatile Segment[] _segments = new Segment[0];
+    private volatile int _maximumIndex = -1;
+    private volatile ContainerStatus _containerStatus = ContainerStatus.NOT_INITIALIZED;
+    private final MinMaxPyramid _pyramid;
+    // written by the simulation thread only, published together with _maximumIndex:
+    private double _lastTimeValue;
+    private final float[] _totalMin;
+    private final float[] _totalMax;
+    private final boolean[] _containsInvalidNumbers;
+
+    /**
+     * @param parentDirectory the segment files are written into a new
+     * temporary directory within parentDirectory
+     */
+    public DataContainerMappedFile(final int rows, final String[] signalNames, final String xDataName,
+            final File parentDirectory) throws IOException {
+        super();
+        assert signalNames.length == rows;
+        if (Segment.getSegmentBytes(rows) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many signals for a memory-mapped data container: " + rows);
+        }
+        _rows = rows;
+        _directory = Files.createTempDirectory(parentDirectory.toPath(), "gecko-waveforms").toFile();
+        _directory.deleteOnExit();
+        _signalNames = Arrays.copyOf(signalNames, rows);
+        _signalPathNames = new String[rows];
+        Arrays.fill(_signalPathNames, "");
+        _xDataName = xDataName;
+        _dataArray = new float[rows];
+        _pyramid = new MinMaxPyramid(rows, this);
+        _totalMin = new float[rows];
+        _totalMax = new float[rows];
+        Arrays.fill(_totalMin, Float.NaN);
+        Arrays.fill(_totalMax, Float.NaN);
+        _containsInvalidNumbers = new boolean[rows];
+        setContainerStatus(ContainerStatus.RUNNING);
+    }
+
+    @Override
+    public void insertValuesAtEnd(final float[] values, final double timeValue) {
+        final int index = _maximumIndex + 1;
+        final int position = index % SEGMENT_SIZE;
+        if (position == 0) {
+            appendSegment();
+        }
+        final Segment[] segments = _segments;
+        final Segment segment = segments[segments.length - 1];
+        segment.putTime(position, timeValue);
+        _pyramid.append(values, index > 0 ? timeValue - _lastTimeValue : 0);
+        _lastTimeValue = timeValue;
+        for (int row = 0; row < _rows; row++) {
+            final float value = values[row];
+            segment.putValue(row, position, value);
+            if (Float.isNaN(value) || Float.isInfinite(value)) {
+                _containsInvalidNumbers[row] = true;
+                continue;
+            }
+            if (!(value >= _totalMin[row])) { // also true for the initial NaN
+                _totalMin[row] = value;
+            }
+            if (!(value <= _totalMax[row])) {
+                _totalMax[row] = value;
+            }
+        }
+        _maximumIndex = index;
+    }
+
+    private void appendSegment() {
+        final Segment[] oldSegments = _segments;
+        final File file = new File(_directory, "segment" + oldSegments.length + ".bin");
+        final Segment[] newSegments = Arrays.copyOf(oldSegments, oldSegments.length + 1);
+        try {
+            newSegments[oldSegments.length] = new Segment(file, _rows);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the waveform file " + file, ex);
+        }
+        _segments = newSegments;
+        setChanged();
+        notifyObservers();
+    }
+
+    @Override
+    public float getValue(final int row, final int column) {
+        assert column <= _maximumIndex;
+        return _segments[column / SEGMENT_SIZE].getValue(row, column % SEGMENT_SIZE);
+    }
+
+    @Override
+    public int getRowLength() {
+        return _rows;
+    }
+
+    @Override
+    public double getTimeValue(final int index, final int row) {
+        return _timeSerie.getValue(index);
+    }
+
+    @Override
+    public int getMaximumTimeIndex(final int row) {
+        return _maximumIndex;
+    }
+
+    @Override
+    public HiLoData getHiLoValue(final int row, final int columnMin, final int columnMax) {
+        assert columnMin <= columnMax : columnMin + " " + columnMax;
+        if (columnMax - columnMin >= MinMaxPyramid.MIN_SPAN) {
+            return _pyramid.getHiLoValue(row, columnMin, columnMax);
+        }
+        float low = Float.NaN;
+        float high = Float.NaN;
+        for (int column = columnMin; column <= columnMax; column++) {
+            final float value = getValue(row, column);
+            low = minIgnoringNaN(low, value);
+            high = maxIgnoringNaN(high, value);
+        }
+        return HiLoData.hiLoDataFabric(low, high);
+    }
+
+    private static float minIgnoringNaN(final float oldValue, final float value) {
+        return value >= oldValue || Float.isNaN(value) ? oldValue : value;
+    }
+
+    private static float maxIgnoringNaN(final float oldValue, final float value) {
+        return value <= oldValue || Float.isNaN(value) ? oldValue : value;
+    }
+
+    @Override
+    public HiLoData getAbsoluteMinMaxValue(final int row) {
+        if (_maximumIndex < 0 || Float.isNaN(_totalMin[row])) {
+            throw new ArithmeticException("No valid data available!");
+        }
+        return HiLoData.hiLoDataFabric(_totalMin[row], _totalMax[row]);
+    }
+
+    @Override
+    public boolean isInvalidNumbers(final int row) {
+        return _containsInvalidNumbers[row];
+    }
+
+    @Override
+    public int findTimeIndex(final double time, final int row) {
+        return _timeSerie.findTimeIndex(time);
+    }
+
+    /**
+     * the data is stored outside of the java heap, therefore no heap memory
+     * is reported.
+     */
+    @Override
+    public int getUsedRAMSizeInMB() {
+        return 0;
+    }
+
+    /**
+     * @return the size of the MinMaxPyramid
+     */
+    @Override
+    public long getCachedRAMSizeInMB() {
+        return _pyramid.getSizeInBytes() / BYTES_PER_MB;
+    }
+
+    public long getFileSizeInBytes() {
+        return (long) _segments.length * Segment.getSegmentBytes(_rows);
+    }
+
+    @Override
+    public Object getDataValueInInterval(final double intervalStart, final double intervalStop, final int columnIndex) {
+        final int startIndex = _timeSerie.findTimeIndex(intervalStart);
+        final int stopIndex = _timeSerie.findTimeIndex(intervalStop);
+
+        if (startIndex == 0 && stopIndex == 0) {
+            // to get the first datapoint drawn properly:
+            final double firstTimeValue = _timeSerie.getValue(0);
+            if (intervalStart <= firstTimeValue && intervalStop >= firstTimeValue) {
+                return getValue(columnIndex, 0);
+            }
+        }
+
+        if (startIndex == stopIndex) { // in this case, there was no data point in the given interval.
+            return null;
+        }
+        if (startIndex + 1 == stopIndex) { // we have exactly one datapoint in the interval.
+            final double timeValue = _timeSerie.getValue(stopIndex);
+            if (timeValue > intervalStop || timeValue < intervalStart) {
+                return null;
+            } else {
+                return getValue(columnIndex, startIndex + 1);
+            }
+        }
+
+        return getHiLoValue(columnIndex, startIndex + 1, stopIndex);
+    }
+
+    /**
+     * the integral is calculated from the integrals of the MinMaxPyramid
+     * (rectangle rule, as in DataContainerCompressable), therefore no
+     * integral values have to be stored for each time step.
+     */
+    @Override
+    public float getAVGValueInInterval(final double intervalStart, final double intervalStop, final int columnIndex) {
+        final int startIndex = _timeSerie.findTimeIndex(intervalStart);
+        final int stopIndex = _timeSerie.findTimeIndex(intervalStop);
+        final double integralValue = stopIndex > startIndex
+                ? _pyramid.getIntegral(columnIndex, startIndex + 1, stopIndex) : 0;
+        return (float) (integralValue / (_timeSerie.getValue(stopIndex) - _timeSerie.getValue(startIndex)));
+    }
+
+    @Override
+    public void defineAvgCalculation(final List<ScopeSignalMean> meanSignals) {
+        _definedAverageSignals.addAll(meanSignals);
+    }
+
+    @Override
+    public DefinedMeanSignals getDefinedMeanSignals() {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public String getSignalName(final int row) {
+        return _signalNames[row];
+    }
+
+    @Override
+    public String getXDataName() {
+        return _xDataName;
+    }
+
+    @Override
+    public ContainerStatus getContainerStatus() {
+        return _containerStatus;
+    }
+
+    @Override
+    public void setContainerStatus(final ContainerStatus containerStatus) {
+        _containerStatus = containerStatus;
+        if (containerStatus == ContainerStatus.DELETED) {
+            deleteFiles();
+        }
+        setChanged();
+        notifyObservers();
+    }
+
+    /**
+     * the mapping of a file is released by the garbage collector only. On
+     * systems, where a mapped file cannot be deleted, it is deleted at the
+     * exit of the virtual machine.
+     */
+    private void deleteFiles() {
+        final Segment[] segments = _segments;
+        _segments = new Segment[0];
+        _maximumIndex = -1;
+        for (Segment segment : segments) {
+            if (!segment._file.delete()) {
+                segment._file.deleteOnExit();
+            }
+        }
+        _directory.delete();
+    }
+
+    @Override
+    public AbstractTimeSerie getTimeSeries(final int row) {
+        return _timeSerie;
+    }
+
+    @Override
+    public float[] getDataArray() {
+        return _dataArray;
+    }
+
+    @Override
+    public String getSubcircuitSignalPath(final int row) {
+        return _signalPathNames[row];
+    }
+
+    @Override
+    void setSignalPathName(final int row, final String subcircuitPath) {
+        _signalPathNames[row] = subcircuitPath;
+    }
+
+    private static final class Segment {
+
+        private final File _file;
+        private final MappedByteBuffer _buffer;
+
+        Segment(final File file, final int rows) throws IOException {
+            _file = file;
+            final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+            try {
+                // the mapping stays valid after the file is closed
+                _buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, getSegmentBytes(rows));
+            } finally {
+                randomAccessFile.close();
+            }
+        }
+
+        static long getSegmentBytes(final int rows) {
+            return (long) SEGMENT_SIZE * (TIME_BYTES + rows * VALUE_BYTES);
+        }
+
+        void putTime(final int position, final double time) {
+            _buffer.putDouble(position * TIME_BYTES, time);
+        }
+
+        double getTime(final int position) {
+            return _buffer.getDouble(position * TIME_BYTES);
+        }
+
+        void putValue(final int row, final int position, final float value) {
+            _buffer.putFloat(getValueOffset(row, position), value);
+        }
+
+        float getValue(final int row, final int position) {
+            return _buffer.getFloat(getValueOffset(row, position));
+        }
+
+        private static int getValueOffset(final int row, final int position) {
+            return SEGMENT_SIZE * TIME_BYTES + (row * SEGMENT_SIZE + position) * VALUE_BYTES;
+        }
+    }
+
+    /**
+     * reads the time values from the segment files. The values are written
+     * by insertValuesAtEnd only.
+     */
+    private final class MappedTimeSerie extends AbstractTimeSerie {
+
+        @Override
+        public double getValue(final int index) {
+            assert index >= 0 && index <= _maximumIndex : index;
+            return _segments[index / SEGMENT_SIZE].getTime(index % SEGMENT_SIZE);
+        }
+
+        @Override
+        public void setValue(final int index, final double value) {
+            throw new UnsupportedOperationException("Time values are inserted with insertValuesAtEnd.");
+        }
+
+        @Override
+        public int getMaximumIndex() {
+            return _maximumIndex;
+        }
+
+        /**
+         * @return the largest index with a time value not larger than time
+         */
+        @Override
+        public int findTimeIndex(final double time) {
+            int low = 0;
+            int high = _maximumIndex;
+            if (high <= 0 || time <= getValue(0)) {
+                return 0;
+            }
+            while (low < high) {
+                final int middle = (low + high + 1) >>> 1;
+                if (getValue(middle) <= time) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return low;
+        }
+
+        @Override
+        public double getLastTimeInterval() {
+            final int maximumIndex = _maximumIndex;
+            if (maximumIndex < 1) {
+                return 0;
+            }
+            return getValue(maximumIndex) - getValue(maximumIndex - 1);
+        }
+    }
+}
@@ -20,18 +20,18 @@ import ch.technokrat.gecko.geckocircuits.newscope.MemoryContainer;
 import java.lang.ref.SoftReference;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import javax.swing.JOptionPane;
 
 /**
  *
- * @author andy Compresses the data employing a zip-compression algorithm. In
- * order to achive a higher compression ratio, the difference compression
- * algorithm of order 2 (MDIFFORDER) is used, see therefore the paper: "Lossless
- * Compression of High-volume Numerical Data from Simulations, Engelson,
- * Fritzson, Fritzson... For conveniece, the float data is directly stored
- * inside a int array, therefore use the Float.floatBitsToInt and
- * Float.intBitsToFloat to access the data values. Furhermore, the double values
- * are rounded to less bits than float.
+ * @author andy Compresses the data of each signal separately with the codec
+ * defined by the application property COMPRESSION_CODEC: DEFLATE (difference
+ * compression of order 2 and zip, see DeflaterCodec) or XOR (XorFloatCodec).
+ * For conveniece, the float data is directly stored inside a int array,
+ * therefore use the Float.floatBitsToInt and Float.intBitsToFloat to access
+ * the data values. Furhermore, the double values are rounded to less bits
+ * than float. When a signal is read, only this signal is decompressed.
  */
 public final class DataJunkCompressable implements DataJunk {
 
@@ -48,15 +48,29 @@ public final class DataJunkCompressable implements DataJunk {
             final int lossValue = Integer.parseInt(lossyCompression);
             precisionField = PRECISIONS[lossValue];
         }
+        setCodec(GeckoSim.applicationProps.getProperty("COMPRESSION_CODEC", "DEFLATE"));
+    }
+
+    /**
+     * @param codecName DEFLATE or XOR
+     */
+    public static void setCodec(final String codecName) {
+        if ("XOR".equals(codecName)) {
+            codec = new XorFloatCodec();
+        } else {
+            codec = new DeflaterCodec();
+        }
     }
 
     public static void setPrecisionField(final int newPrecision) {
         precisionField = newPrecision;
     }
+    private static IntArrayCodec codec = new DeflaterCodec();
     private float[][] _data;
     private float[][] _avgData;
     private CompressorIntMatrix _compressor;
-    private SoftReference<float[][]> _dataSoftRef;
+    // the decompressed signals, written and read without synchronization:
+    private AtomicReferenceArray<SoftReference<float[]>> _decompressedRows;
     private final int _startIndex;
     // divide this data junk in HI_LOW_N pieces, and pre-calculate the
     // high/low data values
@@ -67,7 +81,6 @@ public final class DataJunkCompressable implements DataJunk {
     private final int _columns;
 //    private static int _compCounter = 1;
 //    private static double _compSum = 0;
-    private static final int MORDER_DIFF = 2;
     private final AbstractTimeSerie _timeSerie;
     private final int _rows;
     private int _memInBytes = 0;
@@ -90,7 +103,6 @@ public final class DataJunkCompressable implements DataJunk {
         _data = new float[columns][];
         _avgData = new float[rows][];
         _columns = columns;
-        _dataSoftRef = new SoftReference<float[][]>(_data);
         _startIndex = startIndex;
         _timeSerie = timeSeries;
         _rows = (int) rows;
@@ -103,25 +115,32 @@ public final class DataJunkCompressable implements DataJunk {
 
         synchronized (this) {
             final float[][] tmpData = _data;
-            if (tmpData == null) {
-
-
-                float[][] hardSoftLink = null;
-                if (_dataSoftRef != null) {
-                    hardSoftLink = _dataSoftRef.get();
-                }
-
-                if (hardSoftLink == null) {
-                    hardSoftLink = deCompress();
-                }
-                _dataSoftRef = new SoftReference<float[][]>(hardSoftLink);
-                return hardSoftLink[index - _startIndex][row];
-
-            } else {
+            if (tmpData != null) {
                 assert tmpData[index - _startIndex] != null : index - _startIndex;
                 return tmpData[index - _startIndex][row];
             }
         }
+        // compressed junks are never modified, no synchronization required:
+        return getDecompressedRow(row)[index - _startIndex];
+    }
+
+    /**
+     * decompresses the given signal only. When two threads request the same
+     * signal at the same time, it is decompressed twice, which is cheaper than
+     * blocking the other signals of the junk.
+     */
+    private float[] getDecompressedRow(final int row) {
+        final SoftReference<float[]> softReference = _decompressedRows.get(row);
+        float[] returnValue = softReference == null ? null : softReference.get();
+        if (returnValue == null) {
+            final int[] intBits = _compressor.deCompressRow(row);
+            returnValue = new float[intBits.length];
+            for (int j = 0; j < intBits.length; j++) {
+                returnValue[j] = Float.intBitsToFloat(intBits[j]);
+            }
+            _decompressedRows.set(row, new SoftReference<float[]>(returnValue));
+        }
+        return returnValue;
     }
 
     public float getIntegralValue(final int row, final int index) {
@@ -157,22 +176,20 @@ public final class DataJunkCompressable implements DataJunk {
 
     /**
      * tells the data-junk to compress its cached data. This is performed within
-     * a new Thread, so that the simulation is not slowed down.
+     * the CompressionExecutor, so that the simulation is not slowed down, as
+     * long as the compression keeps up with the simulation.
      */
     public void doCompression() {
-        final Thread thread = new Thread(new CompressThread(this));
-        thread.setPriority(Thread.MAX_PRIORITY);
-        thread.start();
+        CompressionExecutor.execute(new CompressThread(this));
     }
 
     /**
-     * get back the original data by de-compressing the byte array
+     * get back the original data by de-compressing all signals in parallel
      *
      * @return
      */
     private float[][] deCompress() {
         final int[][] returnValue = _compressor.deCompress();
-        calculateDifferenceDeCompression(returnValue);
         float[][] floatArray = new float[returnValue[0].length][returnValue.length];
 
         // careful: dimensions are flipped here!
@@ -355,16 +372,6 @@ public final class DataJunkCompressable implements DataJunk {
         _hiLoData = hiLoData;
     }
 
-    private void calculateDifferenceDeCompression(final int[][] returnValue) {
-        for (int i = 0; i < returnValue.length; i++) {
-            for (int k = 0; k < MORDER_DIFF; k++) {
-                for (int j = MORDER_DIFF; j < returnValue[0].length; j++) {
-                    returnValue[i][j] = returnValue[i][j] + returnValue[i][j - 1];
-                }
-            }
-        }
-    }
-
     /**
      *
      * @param row the row in the data junk
@@ -443,8 +450,9 @@ public final class DataJunkCompressable implements DataJunk {
                 //calculateAvgData();
                 try {
 
-                    final int[][] compressData = calculateDifferenceCompression(_data);
-                    _compressor = new CompressorIntMatrix(compressData);
+                    final int[][] compressData = calculateRoundedIntBits(_data);
+                    _compressor = new CompressorIntMatrix(compressData, codec);
+                    _decompressedRows = new AtomicReferenceArray<SoftReference<float[]>>(_rows);
                     //System.out.println("compressor:  " + _compressor.compressionRatio + " " + _compressor.compressionTime);
                     _memInBytes = _compressor.getCompressedMemory();
 
@@ -464,11 +472,10 @@ public final class DataJunkCompressable implements DataJunk {
                 }
 
                 _data = null;
-                _dataSoftRef = null;
             }
         }
 
-        private int[][] calculateDifferenceCompression(final float[][] data) {
+        private int[][] calculateRoundedIntBits(final float[][] data) {
             int[][] compressData = IntegerMatrixCache.getCachedIntArray(_rows, _columns);
 
             for (int i = 0; i < _rows; i++) {
@@ -476,14 +483,6 @@ public final class DataJunkCompressable implements DataJunk {
                     compressData[i][j] = Float.floatToIntBits(roundFloat(data[j][i]));
                 }
             }
-
-            for (int i = 0; i < _rows; i++) {
-                for (int k = 0; k < MORDER_DIFF; k++) {
-                    for (int j = _columns - 1; j >= MORDER_DIFF; j--) {
-                        compressData[i][j] = compressData[i][j] - compressData[i][j - 1];
-                    }
-                }
-            }
             return compressData;
         }
     }
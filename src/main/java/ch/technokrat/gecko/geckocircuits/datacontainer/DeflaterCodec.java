@@ -0,0 +1,96 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Difference compression of order 2 (MORDER_DIFF), followed by the zip
+ * compression. See the paper: "Lossless Compression of High-volume Numerical
+ * Data from Simulations, Engelson, Fritzson, Fritzson".
+ */
+final class DeflaterCodec implements IntArrayCodec {
+
+    private static final int MORDER_DIFF = 2;
+    private static final int COMPRESSION_LEVEL = 5;
+    private static final int INT_BYTES = 4;
+
+    @Override
+    public byte[] encode(final int[] values) {
+        final int[] differences = values.clone();
+        for (int k = 0; k < MORDER_DIFF; k++) {
+            for (int j = differences.length - 1; j >= MORDER_DIFF; j--) {
+                differences[j] = differences[j] - differences[j - 1];
+            }
+        }
+
+        final Deflater deflater = new Deflater(COMPRESSION_LEVEL);
+        try {
+            deflater.setInput(toBytes(differences));
+            deflater.finish();
+            byte[] compressed = new byte[values.length + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) {
+                    compressed = Arrays.copyOf(compressed, 2 * compressed.length);
+                }
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            return Arrays.copyOf(compressed, length);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    @Override
+    public void decode(final byte[] encoded, final int[] values) {
+        final byte[] bytes = new byte[INT_BYTES * values.length];
+        final Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(encoded);
+            int length = 0;
+            while (length < bytes.length && !inflater.finished()) {
+                length += inflater.inflate(bytes, length, bytes.length - length);
+            }
+        } catch (DataFormatException ex) {
+            throw new IllegalStateException("Corrupt compressed signal data.", ex);
+        } finally {
+            inflater.end();
+        }
+
+        for (int j = 0; j < values.length; j++) {
+            values[j] = (0xFF & bytes[INT_BYTES * j]) << 24 | (0xFF & bytes[INT_BYTES * j + 1]) << 16
+                    | (0xFF & bytes[INT_BYTES * j + 2]) << 8 | 0xFF & bytes[INT_BYTES * j + 3];
+        }
+        for (int k = 0; k < MORDER_DIFF; k++) {
+            for (int j = MORDER_DIFF; j < values.length; j++) {
+                values[j] = values[j] + values[j - 1];
+            }
+        }
+    }
+
+    private static byte[] toBytes(final int[] values) {
+        final byte[] bytes = new byte[INT_BYTES * values.length];
+        for (int j = 0; j < values.length; j++) {
+            bytes[INT_BYTES * j] = (byte) (values[j] >>> 24);
+            bytes[INT_BYTES * j + 1] = (byte) (values[j] >>> 16);
+            bytes[INT_BYTES * j + 2] = (byte) (values[j] >>> 8);
+            bytes[INT_BYTES * j + 3] = (byte) values[j];
+        }
+        return bytes;
+    }
+}
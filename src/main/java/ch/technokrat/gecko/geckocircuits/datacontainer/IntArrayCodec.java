@@ -0,0 +1,31 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+/**
+ * Compression of the values of one signal of a data junk. The values are the
+ * (rounded) float bits, in the order of the time steps. Implementations must
+ * be stateless, since the signals are compressed and decompressed from several
+ * threads at the same time.
+ */
+interface IntArrayCodec {
+
+    byte[] encode(int[] values);
+
+    /**
+     * @param values is filled with the decoded values, its length is the
+     * length of the encoded array
+     */
+    void decode(byte[] encoded, int[] values);
+}
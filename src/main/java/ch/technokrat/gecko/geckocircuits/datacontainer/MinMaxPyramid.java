@@ -0,0 +1,300 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.HiLoData;
+import java.util.Arrays;
+
+/**
+ * Multi-resolution summary of the signals of a data container, maintained
+ * while the data is appended. Level 0 holds the minimum, maximum and integral
+ * (value * dt) of each signal for every BUCKET_SIZE samples, each further
+ * level combines LEVEL_FACTOR buckets of the level below. A query for a range
+ * of samples reads the coarsest buckets that fit into the range and descends
+ * to the finer levels only at the borders, therefore the cost of a query does
+ * not depend on the length of the range, and the scope redraw time does not
+ * depend on the length of the recording.
+ *
+ * There is exactly one writer (append), the readers do not lock: a bucket is
+ * written completely before the bucket count of its level is increased
+ * (volatile), the buckets arrays are replaced when they grow.
+ */
+final class MinMaxPyramid {
+
+    static final int BUCKET_SIZE = 128;
+    static final int LEVEL_FACTOR = 4;
+    /**
+     * ranges with less samples are calculated from the original data. The
+     * min-max of larger ranges may include up to BUCKET_SIZE - 1 samples
+     * outside of the range at each border.
+     */
+    static final int MIN_SPAN = 8 * BUCKET_SIZE;
+    private static final int INITIAL_BUCKETS = 16;
+    private static final int BYTES_PER_BUCKET = 4 + 4 + 8;
+    private final int _rows;
+    private final AbstractDataContainer _data;
+    private volatile Level[] _levels;
+    // the incomplete bucket of level 0, written by the writer only:
+    private final float[] _currentMin;
+    private final float[] _currentMax;
+    private final double[] _currentIntegral;
+    private int _currentSamples;
+
+    /**
+     * @param data the container which holds the original data, for the
+     * samples at the borders of a range
+     */
+    MinMaxPyramid(final int rows, final AbstractDataContainer data) {
+        _rows = rows;
+        _data = data;
+        _levels = new Level[]{new Level(BUCKET_SIZE, rows)};
+        _currentMin = new float[rows];
+        _currentMax = new float[rows];
+        _currentIntegral = new double[rows];
+        startBucket();
+    }
+
+    /**
+     * @param values the values of all signals of the next sample
+     * @param deltaT time difference to the previous sample (0 for the first
+     * sample)
+     */
+    void append(final float[] values, final double deltaT) {
+        for (int row = 0; row < _rows; row++) {
+            final float value = values[row];
+            if (value == value) {
+                if (!(value >= _currentMin[row])) { // also true for the initial NaN
+                    _currentMin[row] = value;
+                }
+                if (!(value <= _currentMax[row])) {
+                    _currentMax[row] = value;
+                }
+            }
+            _currentIntegral[row] += value * deltaT;
+        }
+        _currentSamples++;
+        if (_currentSamples == BUCKET_SIZE) {
+            pushBucket(0, _currentMin, _currentMax, _currentIntegral, 0);
+            startBucket();
+        }
+    }
+
+    private void startBucket() {
+        Arrays.fill(_currentMin, Float.NaN);
+        Arrays.fill(_currentMax, Float.NaN);
+        Arrays.fill(_currentIntegral, 0);
+        _currentSamples = 0;
+    }
+
+    private void pushBucket(final int levelIndex, final float[] min, final float[] max, final double[] integral,
+            final int offset) {
+        final Level level = _levels[levelIndex];
+        final Buckets buckets = level.getBucketsForWriting();
+        final int bucket = level._count;
+        System.arraycopy(min, offset, buckets._min, bucket * _rows, _rows);
+        System.arraycopy(max, offset, buckets._max, bucket * _rows, _rows);
+        System.arraycopy(integral, offset, buckets._integral, bucket * _rows, _rows);
+        level._count = bucket + 1;
+
+        if ((bucket + 1) % LEVEL_FACTOR == 0) {
+            combineBuckets(levelIndex, bucket + 1 - LEVEL_FACTOR);
+        }
+    }
+
+    private void combineBuckets(final int levelIndex, final int firstBucket) {
+        if (levelIndex + 1 == _levels.length) {
+            final Level[] levels = Arrays.copyOf(_levels, _levels.length + 1);
+            levels[levelIndex + 1] = new Level(_levels[levelIndex]._bucketSize * LEVEL_FACTOR, _rows);
+            _levels = levels;
+        }
+        final Buckets buckets = _levels[levelIndex]._buckets;
+        final float[] min = new float[_rows];
+        final float[] max = new float[_rows];
+        final double[] integral = new double[_rows];
+        Arrays.fill(min, Float.NaN);
+        Arrays.fill(max, Float.NaN);
+        for (int bucket = firstBucket; bucket < firstBucket + LEVEL_FACTOR; bucket++) {
+            for (int row = 0; row < _rows; row++) {
+                final int index = bucket * _rows + row;
+                min[row] = minIgnoringNaN(min[row], buckets._min[index]);
+                max[row] = maxIgnoringNaN(max[row], buckets._max[index]);
+                integral[row] += buckets._integral[index];
+            }
+        }
+        pushBucket(levelIndex + 1, min, max, integral, 0);
+    }
+
+    private static float minIgnoringNaN(final float oldValue, final float value) {
+        return value >= oldValue || value != value ? oldValue : value;
+    }
+
+    private static float maxIgnoringNaN(final float oldValue, final float value) {
+        return value <= oldValue || value != value ? oldValue : value;
+    }
+
+    /**
+     * @param from first sample index
+     * @param to last sample index (inclusive), not larger than the maximum
+     * index of the container
+     * @return the min-max value of the range, see MIN_SPAN
+     */
+    HiLoData getHiLoValue(final int row, final int from, final int to) {
+        final Accumulator accumulator = new Accumulator(false);
+        final Level[] levels = _levels;
+        accumulate(levels, findLevel(levels, to - from + 1), row, from, to, accumulator);
+        return HiLoData.hiLoDataFabric(accumulator._min, accumulator._max);
+    }
+
+    /**
+     * @return the sum of value(i) * (t(i) - t(i - 1)) for from <= i <= to, to
+     * not larger than the maximum index of the container. The borders are
+     * calculated from the original data, therefore the result is exact.
+     */
+    double getIntegral(final int row, final int from, final int to) {
+        final Accumulator accumulator = new Accumulator(true);
+        final Level[] levels = _levels;
+        accumulate(levels, findLevel(levels, to - from + 1), row, from, to, accumulator);
+        return accumulator._integral;
+    }
+
+    /**
+     * @return the coarsest level with buckets not larger than the span
+     */
+    private static int findLevel(final Level[] levels, final int span) {
+        int returnValue = levels.length - 1;
+        while (returnValue > 0 && levels[returnValue]._bucketSize > span) {
+            returnValue--;
+        }
+        return returnValue;
+    }
+
+    private void accumulate(final Level[] levels, final int levelIndex, final int row, final int from, final int to,
+            final Accumulator accumulator) {
+        final Level level = levels[levelIndex];
+        final int size = level._bucketSize;
+        final int count = level._count;
+        final Buckets buckets = level._buckets;
+        // buckets which are completely within the range:
+        int first = (from + size - 1) / size;
+        int last = Math.min((to + 1) / size - 1, count - 1);
+        if (levelIndex == 0 && !accumulator._isExact) {
+            // outward rounding at the finest level, instead of reading the original data:
+            first = from / size;
+            last = Math.min(to / size, count - 1);
+        }
+
+        if (first > last) {
+            accumulateBorder(levels, levelIndex, row, from, to, accumulator);
+            return;
+        }
+        if (from < first * size) {
+            accumulateBorder(levels, levelIndex, row, from, first * size - 1, accumulator);
+        }
+        for (int bucket = first; bucket <= last; bucket++) {
+            final int index = bucket * _rows + row;
+            accumulator._min = minIgnoringNaN(accumulator._min, buckets._min[index]);
+            accumulator._max = maxIgnoringNaN(accumulator._max, buckets._max[index]);
+            accumulator._integral += buckets._integral[index];
+        }
+        if ((last + 1) * size <= to) {
+            accumulateBorder(levels, levelIndex, row, (last + 1) * size, to, accumulator);
+        }
+    }
+
+    private void accumulateBorder(final Level[] levels, final int levelIndex, final int row, final int from,
+            final int to, final Accumulator accumulator) {
+        if (levelIndex > 0) {
+            accumulate(levels, levelIndex - 1, row, from, to, accumulator);
+            return;
+        }
+        for (int index = from; index <= to; index++) {
+            final float value = _data.getValue(row, index);
+            accumulator._min = minIgnoringNaN(accumulator._min, value);
+            accumulator._max = maxIgnoringNaN(accumulator._max, value);
+            if (accumulator._isExact && index > 0) {
+                accumulator._integral += value * (_data.getTimeValue(index, row) - _data.getTimeValue(index - 1, row));
+            }
+        }
+    }
+
+    int getNumberOfLevels() {
+        return _levels.length;
+    }
+
+    long getSizeInBytes() {
+        long returnValue = 0;
+        for (Level level : _levels) {
+            returnValue += (long) level._buckets._min.length * BYTES_PER_BUCKET;
+        }
+        return returnValue;
+    }
+
+    private static final class Level {
+
+        private final int _bucketSize;
+        private final int _rows;
+        private volatile Buckets _buckets;
+        private volatile int _count;
+
+        Level(final int bucketSize, final int rows) {
+            _bucketSize = bucketSize;
+            _rows = rows;
+            _buckets = new Buckets(INITIAL_BUCKETS * rows);
+        }
+
+        /**
+         * @return the buckets, with space for one more bucket
+         */
+        Buckets getBucketsForWriting() {
+            final Buckets buckets = _buckets;
+            if ((_count + 1) * _rows <= buckets._min.length) {
+                return buckets;
+            }
+            final Buckets grown = new Buckets(2 * buckets._min.length);
+            System.arraycopy(buckets._min, 0, grown._min, 0, buckets._min.length);
+            System.arraycopy(buckets._max, 0, grown._max, 0, buckets._max.length);
+            System.arraycopy(buckets._integral, 0, grown._integral, 0, buckets._integral.length);
+            _buckets = grown;
+            return grown;
+        }
+    }
+
+    /**
+     * the values of all buckets of a level, with the index bucket * rows + row
+     */
+    private static final class Buckets {
+
+        private final float[] _min;
+        private final float[] _max;
+        private final double[] _integral;
+
+        Buckets(final int size) {
+            _min = new float[size];
+            _max = new float[size];
+            _integral = new double[size];
+        }
+    }
+
+    private static final class Accumulator {
+
+        private final boolean _isExact;
+        private float _min = Float.NaN;
+        private float _max = Float.NaN;
+        private double _integral;
+
+        Accumulator(final boolean isExact) {
+            _isExact = isExact;
+        }
+    }
+}
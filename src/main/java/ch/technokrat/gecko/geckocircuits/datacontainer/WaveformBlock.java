@@ -0,0 +1,68 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+/**
+ * A batch of decimated samples of a WaveformSubscription. The blocks of a
+ * subscription are numbered consecutively; a gap in the sequence numbers
+ * means that the blocks in between were dropped because the consumer was too
+ * slow.
+ */
+public final class WaveformBlock {
+
+    private final long _sequenceNumber;
+    private final long _droppedBlocks;
+    private final double[] _times;
+    private final float[][] _values;
+
+    WaveformBlock(final long sequenceNumber, final long droppedBlocks, final double[] times, final float[][] values) {
+        _sequenceNumber = sequenceNumber;
+        _droppedBlocks = droppedBlocks;
+        _times = times;
+        _values = values;
+    }
+
+    public long getSequenceNumber() {
+        return _sequenceNumber;
+    }
+
+    /**
+     * @return the number of blocks of the subscription which were dropped
+     * before this block was published
+     */
+    public long getDroppedBlocks() {
+        return _droppedBlocks;
+    }
+
+    public int getSampleCount() {
+        return _times.length;
+    }
+
+    public double[] getTimes() {
+        return _times;
+    }
+
+    /**
+     * @param signalIndex index into the signal names of the subscription
+     * @return the samples of the signal, NaN if the signal does not exist in
+     * the current simulation
+     */
+    public float[] getValues(final int signalIndex) {
+        return _values[signalIndex];
+    }
+
+    public int getNumberOfSignals() {
+        return _values.length;
+    }
+}
@@ -0,0 +1,382 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Live stream of selected signals of the global data container, for external
+ * consumers which need the samples while the simulation runs. Every
+ * decimation-th time step is collected into a block of blockSize samples; the
+ * full blocks are published to a bounded ring of queueCapacity slots, from
+ * where the consumer takes them (poll/drain) on its own thread.
+ *
+ * The ring slots are allocated once, when the subscription is created. Under
+ * the lock, the arrays are only exchanged, never copied: the simulation thread
+ * swaps its filled block arrays with the free arrays of a slot and allocates
+ * nothing per block. The consumer allocates new arrays before it takes the
+ * lock, swaps them with the arrays of the oldest slot, and wraps the taken
+ * arrays into a WaveformBlock after the lock is released.
+ *
+ * The simulation thread is the only writer (offer, flush). It never waits for
+ * the consumer, except with OverflowPolicy.BLOCK, and there only up to the
+ * given waiting time in total per simulation.
+ */
+public final class WaveformSubscription {
+
+    public enum OverflowPolicy {
+        /**
+         * a full queue discards its oldest block, the consumer always gets the
+         * most recent data. This is the default policy.
+         */
+        DROP_OLDEST,
+        /**
+         * the new block is discarded, if the queue is full.
+         */
+        DROP_NEWEST,
+        /**
+         * the simulation waits for the consumer, in total at most for the
+         * blocking time per simulation. Once this time is used up, the new
+         * blocks are discarded as with DROP_NEWEST.
+         */
+        BLOCK;
+
+        /**
+         * @param name the policy name, null or empty for the default policy
+         * DROP_OLDEST
+         */
+        public static OverflowPolicy getFromString(final String name) {
+            if (name == null || name.trim().isEmpty()) {
+                return DROP_OLDEST;
+            }
+            for (OverflowPolicy policy : values()) {
+                if (policy.name().equalsIgnoreCase(name.trim())) {
+                    return policy;
+                }
+            }
+            throw new IllegalArgumentException("Unknown overflow policy: " + name + ", use one of "
+                    + Arrays.toString(values()));
+        }
+    }
+
+    /**
+     * maximum waiting time of a simulation for the remote subscribers with
+     * OverflowPolicy.BLOCK, summed over all blocks of the simulation.
+     */
+    public static final long MAX_TOTAL_BLOCKING_MILLIS = 1000;
+    private final int _id;
+    private final String[] _signalNames;
+    private final int _decimation;
+    private final int _blockSize;
+    private final OverflowPolicy _policy;
+    private final long _blockingNanos;
+    private final AtomicLong _droppedBlocks = new AtomicLong();
+    private volatile int[] _rows;
+    private volatile boolean _isClosed;
+    // the ring slots, guarded by _lock:
+    private final ReentrantLock _lock = new ReentrantLock();
+    private final Condition _notEmpty = _lock.newCondition();
+    private final Condition _notFull = _lock.newCondition();
+    private final double[][] _slotTimes;
+    private final float[][][] _slotValues;
+    private final int[] _slotFill;
+    private final long[] _slotSequenceNumbers;
+    private final long[] _slotDroppedBlocks;
+    private int _head;
+    private int _size;
+    // written by the simulation thread, only (exchanged with the slot arrays in publish()):
+    private double[] _times;
+    private float[][] _values;
+    private int _fill;
+    private long _stepCounter;
+    private long _sequenceNumber;
+    private long _remainingBlockingNanos;
+
+    /**
+     * @param blockingMillis maximum waiting time per simulation in total,
+     * only used with OverflowPolicy.BLOCK
+     */
+    WaveformSubscription(final int id, final String[] signalNames, final int decimation, final int blockSize,
+            final int queueCapacity, final OverflowPolicy policy, final long blockingMillis) {
+        if (signalNames.length == 0) {
+            throw new IllegalArgumentException("No signal names given.");
+        }
+        if (decimation < 1 || blockSize < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Decimation, block size and queue capacity must be positive.");
+        }
+        _id = id;
+        _signalNames = signalNames.clone();
+        _decimation = decimation;
+        _blockSize = blockSize;
+        _policy = policy;
+        _blockingNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, blockingMillis));
+        _remainingBlockingNanos = _blockingNanos;
+        _slotTimes = new double[queueCapacity][blockSize];
+        _slotValues = new float[queueCapacity][signalNames.length][blockSize];
+        _slotFill = new int[queueCapacity];
+        _slotSequenceNumbers = new long[queueCapacity];
+        _slotDroppedBlocks = new long[queueCapacity];
+        _times = new double[blockSize];
+        _values = new float[signalNames.length][blockSize];
+        _rows = new int[signalNames.length];
+        Arrays.fill(_rows, -1);
+    }
+
+    public int getId() {
+        return _id;
+    }
+
+    public String[] getSignalNames() {
+        return _signalNames.clone();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return _policy;
+    }
+
+    /**
+     * maps the signal names to the rows of the data container, after the
+     * container was initialized for a new simulation. Signals which do not
+     * exist are streamed as NaN.
+     */
+    void resolveRows(final AbstractDataContainer data) {
+        final int[] rows = new int[_signalNames.length];
+        Arrays.fill(rows, -1);
+        for (int row = 0; row < data.getRowLength(); row++) {
+            final String name = data.getSignalName(row);
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] < 0 && _signalNames[i].equals(name)) {
+                    rows[i] = row;
+                }
+            }
+        }
+        _rows = rows;
+        _stepCounter = 0;
+        _remainingBlockingNanos = _blockingNanos;
+    }
+
+    /**
+     * called by the simulation thread for each time step.
+     */
+    void offer(final float[] values, final double time) {
+        if (_isClosed || _stepCounter++ % _decimation != 0) {
+            return;
+        }
+        final int[] rows = _rows;
+        _times[_fill] = time;
+        for (int i = 0; i < rows.length; i++) {
+            final int row = rows[i];
+            _values[i][_fill] = row >= 0 && row < values.length ? values[row] : Float.NaN;
+        }
+        _fill++;
+        if (_fill == _blockSize) {
+            publish();
+        }
+    }
+
+    /**
+     * publishes the incomplete block, e.g. when the simulation is paused.
+     */
+    void flush() {
+        if (_fill > 0 && !_isClosed) {
+            publish();
+        }
+    }
+
+    private void publish() {
+        final int fill = _fill;
+        final long droppedBlocks = _droppedBlocks.get();
+        _fill = 0;
+        _lock.lock();
+        try {
+            if (_size == _slotFill.length && !makeRoom()) {
+                _droppedBlocks.incrementAndGet();
+                _sequenceNumber++;
+                return;
+            }
+            final int slot = (_head + _size) % _slotFill.length;
+            final double[] freeTimes = _slotTimes[slot];
+            final float[][] freeValues = _slotValues[slot];
+            _slotTimes[slot] = _times;
+            _slotValues[slot] = _values;
+            _times = freeTimes;
+            _values = freeValues;
+            _slotFill[slot] = fill;
+            _slotSequenceNumbers[slot] = _sequenceNumber++;
+            _slotDroppedBlocks[slot] = droppedBlocks;
+            _size++;
+            _notEmpty.signal();
+        } finally {
+            _lock.unlock();
+        }
+    }
+
+    /**
+     * frees a slot of the full ring, as far as the overflow policy allows.
+     *
+     * @return false, if the new block has to be discarded
+     */
+    private boolean makeRoom() {
+        switch (_policy) {
+            case DROP_OLDEST:
+                _head = (_head + 1) % _slotFill.length;
+                _size--;
+                _droppedBlocks.incrementAndGet();
+                return true;
+            case DROP_NEWEST:
+                return false;
+            case BLOCK:
+                try {
+                    while (_size == _slotFill.length && _remainingBlockingNanos > 0 && !_isClosed) {
+                        _remainingBlockingNanos = _notFull.awaitNanos(_remainingBlockingNanos);
+                    }
+                } catch (InterruptedException ex) {
+                    _remainingBlockingNanos = 0;
+                    Thread.currentThread().interrupt();
+                }
+                return _size < _slotFill.length;
+            default:
+                assert false;
+                return false;
+        }
+    }
+
+    /**
+     * the arrays of a slot, taken by a consumer. They are allocated before the
+     * lock is taken, and exchanged with the arrays of the oldest slot.
+     */
+    private final class TakenSlot {
+
+        private double[] _takenTimes = new double[_blockSize];
+        private float[][] _takenValues = new float[_signalNames.length][_blockSize];
+        private int _takenFill;
+        private long _takenSequenceNumber;
+        private long _takenDroppedBlocks;
+
+        /**
+         * frees the oldest slot. Call with the lock held and a non-empty ring.
+         */
+        void takeOldest() {
+            final int slot = _head;
+            final double[] times = _slotTimes[slot];
+            final float[][] values = _slotValues[slot];
+            _slotTimes[slot] = _takenTimes;
+            _slotValues[slot] = _takenValues;
+            _takenTimes = times;
+            _takenValues = values;
+            _takenFill = _slotFill[slot];
+            _takenSequenceNumber = _slotSequenceNumbers[slot];
+            _takenDroppedBlocks = _slotDroppedBlocks[slot];
+            _head = (_head + 1) % _slotFill.length;
+            _size--;
+            _notFull.signal();
+        }
+
+        /**
+         * call after the lock is released.
+         */
+        WaveformBlock toBlock() {
+            if (_takenFill == _blockSize) {
+                return new WaveformBlock(_takenSequenceNumber, _takenDroppedBlocks, _takenTimes, _takenValues);
+            }
+            final float[][] values = new float[_takenValues.length][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = Arrays.copyOf(_takenValues[i], _takenFill);
+            }
+            return new WaveformBlock(_takenSequenceNumber, _takenDroppedBlocks,
+                    Arrays.copyOf(_takenTimes, _takenFill), values);
+        }
+    }
+
+    /**
+     * @return the next block, or null if no block arrives within the timeout
+     */
+    public WaveformBlock poll(final long timeoutMillis) throws InterruptedException {
+        long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        final TakenSlot taken = new TakenSlot();
+        _lock.lockInterruptibly();
+        try {
+            while (_size == 0) {
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = _notEmpty.awaitNanos(remainingNanos);
+            }
+            taken.takeOldest();
+        } finally {
+            _lock.unlock();
+        }
+        return taken.toBlock();
+    }
+
+    /**
+     * @return all blocks which are available now, without waiting
+     */
+    public List<WaveformBlock> drain() {
+        final int available;
+        _lock.lock();
+        try {
+            available = _size;
+        } finally {
+            _lock.unlock();
+        }
+        // blocks which are published in between are left for the next call
+        final List<TakenSlot> taken = new ArrayList<TakenSlot>(available);
+        for (int i = 0; i < available; i++) {
+            taken.add(new TakenSlot());
+        }
+        int takenCount = 0;
+        _lock.lock();
+        try {
+            while (takenCount < available && _size > 0) {
+                taken.get(takenCount++).takeOldest();
+            }
+        } finally {
+            _lock.unlock();
+        }
+        final List<WaveformBlock> returnValue = new ArrayList<WaveformBlock>(takenCount);
+        for (int i = 0; i < takenCount; i++) {
+            returnValue.add(taken.get(i).toBlock());
+        }
+        return returnValue;
+    }
+
+    public long getDroppedBlocks() {
+        return _droppedBlocks.get();
+    }
+
+    public boolean isClosed() {
+        return _isClosed;
+    }
+
+    /**
+     * no more blocks are published, the blocks in the queue can still be
+     * taken. A simulation which waits for the consumer continues.
+     */
+    void close() {
+        _isClosed = true;
+        _lock.lock();
+        try {
+            _notFull.signalAll();
+        } finally {
+            _lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.Arrays;
+
+/**
+ * XOR compression of float values, as in the Gorilla time series database
+ * (Pelkonen et al., "Gorilla: A Fast, Scalable, In-Memory Time Series
+ * Database"). Each value is XOR-ed with its predecessor. For smooth
+ * signals, the sign, the exponent and the leading mantissa bits are mostly
+ * equal, and the rounding of DataJunkCompressable (precisionField) clears the
+ * trailing bits, so that only a small window of meaningful bits is written:
+ *
+ * '0': same value as the predecessor
+ * '10' + meaningful bits: the bits fit into the window of the predecessor
+ * '11' + 5 bits leading zeros + 5 bits (length - 1) + meaningful bits
+ *
+ * Much faster than the Deflater, with a lower compression ratio.
+ */
+final class XorFloatCodec implements IntArrayCodec {
+
+    private static final int FIRST_VALUE_BITS = 32;
+    private static final int WINDOW_BITS = 5;
+    // worst case: 2 control bits, 2 window fields and 32 meaningful bits
+    private static final int MAX_BITS_PER_VALUE = 2 + 2 * WINDOW_BITS + 32;
+
+    @Override
+    public byte[] encode(final int[] values) {
+        final BitWriter writer = new BitWriter(values.length * MAX_BITS_PER_VALUE / Byte.SIZE + 1);
+        if (values.length == 0) {
+            return writer.toByteArray();
+        }
+        writer.write(values[0], FIRST_VALUE_BITS);
+        int leadingZeros = Integer.SIZE;
+        int trailingZeros = 0;
+        for (int j = 1; j < values.length; j++) {
+            final int xor = values[j] ^ values[j - 1];
+            if (xor == 0) {
+                writer.write(0, 1);
+                continue;
+            }
+            final int newLeadingZeros = Integer.numberOfLeadingZeros(xor); // at most 31, since xor != 0
+            final int newTrailingZeros = Integer.numberOfTrailingZeros(xor);
+            if (newLeadingZeros >= leadingZeros && newTrailingZeros >= trailingZeros) {
+                writer.write(2, 2);
+                writer.write(xor >>> trailingZeros, Integer.SIZE - leadingZeros - trailingZeros);
+            } else {
+                leadingZeros = newLeadingZeros;
+                trailingZeros = newTrailingZeros;
+                final int meaningfulBits = Integer.SIZE - leadingZeros - trailingZeros;
+                writer.write(3, 2);
+                writer.write(leadingZeros, WINDOW_BITS);
+                writer.write(meaningfulBits - 1, WINDOW_BITS);
+                writer.write(xor >>> trailingZeros, meaningfulBits);
+            }
+        }
+        return writer.toByteArray();
+    }
+
+    @Override
+    public void decode(final byte[] encoded, final int[] values) {
+        if (values.length == 0) {
+            return;
+        }
+        final BitReader reader = new BitReader(encoded);
+        values[0] = reader.read(FIRST_VALUE_BITS);
+        int leadingZeros = Integer.SIZE;
+        int trailingZeros = 0;
+        for (int j = 1; j < values.length; j++) {
+            if (reader.read(1) == 0) {
+                values[j] = values[j - 1];
+                continue;
+            }
+            if (reader.read(1) == 1) {
+                leadingZeros = reader.read(WINDOW_BITS);
+                trailingZeros = Integer.SIZE - leadingZeros - reader.read(WINDOW_BITS) - 1;
+            }
+            final int xor = reader.read(Integer.SIZE - leadingZeros - trailingZeros) << trailingZeros;
+            values[j] = values[j - 1] ^ xor;
+        }
+    }
+
+    private static final class BitWriter {
+
+        private byte[] _bytes;
+        private int _byteCount;
+        private long _accumulator;
+        private int _bitCount;
+
+        BitWriter(final int capacity) {
+            _bytes = new byte[capacity];
+        }
+
+        /**
+         * @param bits 0 ... 32, the lowest bits of value are written
+         */
+        void write(final int value, final int bits) {
+            _accumulator = _accumulator << bits | (value & 0xFFFFFFFFL) & ((1L << bits) - 1);
+            _bitCount += bits;
+            while (_bitCount >= Byte.SIZE) {
+                _bitCount -= Byte.SIZE;
+                _bytes[_byteCount++] = (byte) (_accumulator >>> _bitCount);
+            }
+        }
+
+        byte[] toByteArray() {
+            if (_bitCount > 0) {
+                _bytes[_byteCount++] = (byte) (_accumulator << (Byte.SIZE - _bitCount));
+                _bitCount = 0;
+            }
+            return Arrays.copyOf(_bytes, _byteCount);
+        }
+    }
+
+    private static final class BitReader {
+
+        private final byte[] _bytes;
+        private int _position;
+        private long _accumulator;
+        private int _bitCount;
+
+        BitReader(final byte[] bytes) {
+            _bytes = bytes;
+        }
+
+        int read(final int bits) {
+            while (_bitCount < bits) {
+                _accumulator = _accumulator << Byte.SIZE | (_bytes[_position++] & 0xFF);
+                _bitCount += Byte.SIZE;
+            }
+            _bitCount -= bits;
+            return (int) ((_accumulator >>> _bitCount) & ((1L << bits) - 1));
+        }
+    }
+}
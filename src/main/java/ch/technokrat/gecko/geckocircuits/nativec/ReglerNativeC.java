@@ -28,7 +28,6 @@ import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
 import ch.technokrat.gecko.geckocircuits.control.SpecialNameVisible;
 import ch.technokrat.gecko.geckocircuits.control.VariableTerminalNumber;
 import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
-import static ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable._time;
 import ch.technokrat.gecko.geckocircuits.control.javablock.ReglerJavaTriangles;
 import ch.technokrat.gecko.i18n.resources.I18nKeys;
 import java.awt.Color;
@@ -119,6 +118,11 @@ public final class ReglerNativeC extends RegelBlock implements VariableTerminalN
     
     class CCalculator extends AbstractControlCalculatable {
             private boolean severeErrorOccured = false; // save error to jump out of berechneYOUT
+            // bound at every step, therefore created only once
+            private final SystemOutputRedirect.OutputBinding _consoleBinding
+                    = SystemOutputRedirect.createBinding(null, getStringID());
+            private final SystemOutputRedirect.OutputBinding _alternativeBinding
+                    = SystemOutputRedirect.createBinding(_outputStringBuffer, getStringID());
             
             CCalculator() {
                 super(XIN.size(), YOUT.size());
@@ -137,11 +141,7 @@ public final class ReglerNativeC extends RegelBlock implements VariableTerminalN
             
             @Override
             public void berechneYOUT(final double deltaT) {
-                if (_isConsoleOutput) {
-                    SystemOutputRedirect.setConsoleOutput(getStringID());
-                } else {
-                    SystemOutputRedirect.setAlternativeOutput(_outputStringBuffer, getStringID());
-                }
+                SystemOutputRedirect.bind(_isConsoleOutput ? _consoleBinding : _alternativeBinding);
                 try {
                     if (_time == 0) {
                         severeErrorOccured = false;
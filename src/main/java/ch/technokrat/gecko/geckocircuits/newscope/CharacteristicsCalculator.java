@@ -302,7 +302,11 @@ public final class CharacteristicsCalculator {
         return CharacteristicsCalculator.calculateFabric(worksheet, rows, rng1, rng2);
     }
 
-    public static CharacteristicsCalculator calculateFabric(final AbstractDataContainer worksheet, final int[] rows,
+    /**
+     * synchronized, since the parallel workers of a ParameterSweep share the
+     * static cache.
+     */
+    public static synchronized CharacteristicsCalculator calculateFabric(final AbstractDataContainer worksheet, final int[] rows,
             final double rng1, final double rng2) {
         if (isAlreadyCalculated(worksheet, rows, rng1, rng2)) {
             return _valueCache;
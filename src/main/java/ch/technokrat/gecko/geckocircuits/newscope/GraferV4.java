@@ -13,7 +13,7 @@
  */
 package ch.technokrat.gecko.geckocircuits.newscope;
 
-import ch.technokrat.gecko.geckocircuits.circuit.SimulationsKern;
+import ch.technokrat.gecko.GeckoSim;
 import ch.technokrat.gecko.geckocircuits.circuit.TokenMap;
 import ch.technokrat.gecko.geckocircuits.control.ReglerOSZI;
 import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
@@ -57,7 +57,9 @@ public final class GraferV4 extends JPanel {
         this.setLayout(_layout);
         refreshComponentPane();
         updateThread.setPriority(Thread.MIN_PRIORITY);
-        updateThread.start();
+        if (!GeckoSim.isHeadless()) { // nothing to draw, and the thread would keep the JVM alive
+            updateThread.start();
+        }
         //this.add(_plotPanel);        
     }
 
@@ -324,7 +326,8 @@ public final class GraferV4 extends JPanel {
                         NiceScale xNiceScale = new NiceScale(HiLoData.hiLoDataFabric((float) startTime, (float) endTime), true);
                         HiLoData niceLimits = xNiceScale.getNiceLimits();
 
-                        if (Math.abs(SimulationsKern.tEND - endTime) / Math.abs(SimulationsKern.tEND + endTime) > 0.01) {
+                        final double simulationEnd = GeckoSim._win._simRunner.simKern.getTEND();
+                        if (Math.abs(simulationEnd - endTime) / Math.abs(simulationEnd + endTime) > 0.01) {
                             setSimulationTimeBoundaries(startTime, niceLimits._yHi);
                         } else {
                             setSimulationTimeBoundaries(startTime, endTime);
@@ -18,11 +18,10 @@ import java.util.List;
 
 /**
  * Instead of creating a new float[] at every simulation step, we try to obtain
- * a cached one. This class is "pseudo-threadsafe". One could do it quite clean
- * with some effort and synchronization of the static methods. However, the
- * occurence of returnValue == null is only rare. Therefore, we just detect
- * this nullpointer and generate a float[] in this case. This is much simpler
- * and more efficient than a correct thread synchronization.
+ * a cached one. The containers are shared by all data containers with the same
+ * number of rows, also by simulations which run in parallel threads (see
+ * HeadlessSimulation). Therefore, the access is synchronized: without, two
+ * simulations could obtain the same array and overwrite each other's values.
  * @author andreas
  */
 public class MemoryContainer {
@@ -36,7 +35,7 @@ public class MemoryContainer {
         
     private static List<MemoryContainer> _containerSingletons = new ArrayList<MemoryContainer>();
     
-    public static MemoryContainer getMemoryContainer(final int numRows) {
+    public static synchronized MemoryContainer getMemoryContainer(final int numRows) {
         if(_containerSingletons.size() > CLEAR_SIZE) {
             _containerSingletons.clear();
         }
@@ -63,7 +62,7 @@ public class MemoryContainer {
         return new float[_numRows];
     }
     
-    public float[] getArray() {
+    public synchronized float[] getArray() {
         assert _memCache != null : "Memory cache not yet initialized!";
         if (_inUsePointer < _availablePointer - 10) {
             final int arrayIndex = (int) (_inUsePointer % CACHE_SIZE);
@@ -93,7 +92,7 @@ public class MemoryContainer {
         return returnValue;
     }
 
-    public void recycleArray(final float[] value) {
+    public synchronized void recycleArray(final float[] value) {
         assert value.length == _numRows;
         _memCache[(int) (_availablePointer % CACHE_SIZE)] = value;
         _availablePointer++;
@@ -96,34 +96,35 @@ public class MyFFT {
             }
         }
 
-        // FFT
+        // FFT, the butterflies of each block are processed in memory order:
         n1 = 0;
         n2 = 1;
 
         for (i = 0; i < m; i++) {
             n1 = n2;
             n2 = n2 + n2;
-            a = 0;
-
-            for (j = 0; j < n1; j++) {
-                c = cos[a];
-                s = sin[a];
-                a += 1 << (m - i - 1);
-
-                for (k = j; k < n; k = k + n2) {
-                    t1 = c * x[k + n1] - s * y[k + n1];
-                    t2 = s * x[k + n1] + c * y[k + n1];
-                    x[k + n1] = x[k] - t1;
-                    y[k + n1] = y[k] - t2;
-                    x[k] = x[k] + t1;
-                    y[k] = y[k] + t2;
+            final int step = 1 << (m - i - 1);
+
+            for (k = 0; k < n; k = k + n2) {
+                a = 0;
+                for (j = k; j < k + n1; j++) {
+                    c = cos[a];
+                    s = sin[a];
+                    a += step;
+                    t1 = c * x[j + n1] - s * y[j + n1];
+                    t2 = s * x[j + n1] + c * y[j + n1];
+                    x[j + n1] = x[j] - t1;
+                    y[j + n1] = y[j] - t2;
+                    x[j] = x[j] + t1;
+                    y[j] = y[j] + t2;
                 }
             }
         }
 
+        final double scale = 2.0 / x.length; // a power of two, identical to the division
         for (int ii = 0; ii < x.length; ii++) {
-            x[ii] /= (x.length * 0.5);
-            y[ii] /= (y.length * 0.5);
+            x[ii] *= scale;
+            y[ii] *= scale;
         }
 
         x[0] /= 2;
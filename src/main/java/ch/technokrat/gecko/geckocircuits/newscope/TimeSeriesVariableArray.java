@@ -13,42 +13,49 @@
  */
 package ch.technokrat.gecko.geckocircuits.newscope;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 /**
+ * time series for simulations with variable stepwidth. The values are stored
+ * in a growing primitive array, since a simulation may insert millions of
+ * time steps.
  *
  * @author xtibi
  */
 public final class TimeSeriesVariableArray extends AbstractTimeSerie{
-  private final List<Double> _timeSeries = new ArrayList<Double>();
+  private static final int INITIAL_SIZE = 1024;
+  private double[] _timeSeries = new double[INITIAL_SIZE];
+  private int _size;
 
   @Override
   public double getValue(final int index){
     assert index >= 0;
-    assert index < _timeSeries.size();
+    assert index < _size;
 
-    return _timeSeries.get(index);
+    return _timeSeries[index];
   }
 
   @Override
   public void setValue(final int index, final double value){
-    if(index < _timeSeries.size()){
-      _timeSeries.set(index, value);
-    }else{
-      _timeSeries.add(value);
+    if(index >= _timeSeries.length){
+      _timeSeries = Arrays.copyOf(_timeSeries, Math.max(index + 1, 2 * _timeSeries.length));
     }
+    _timeSeries[index] = value;
+    _size = Math.max(_size, index + 1);
   }
 
   @Override
   public int getMaximumIndex(){
-    return _timeSeries.size() - 1;
+    return _size - 1;
   }
 
   @Override
   public int findTimeIndex(final double time){
+    if(_size < 2){
+      return 0;
+    }
     int minIndex = 0;
-    int variableMaxIndex = _timeSeries.size() - 1;
+    int variableMaxIndex = _size - 1;
     int returnValue = estimateIndex(time, minIndex, variableMaxIndex);
 
     while(!isNearToIndex(time, returnValue)){
@@ -121,6 +128,9 @@ public final class TimeSeriesVariableArray extends AbstractTimeSerie{
 //    }
   @Override
   public double getLastTimeInterval(){
-    throw new UnsupportedOperationException("Not supported yet.");
+    if(_size < 2){
+      return 0;
+    }
+    return _timeSeries[_size - 1] - _timeSeries[_size - 2];
   }
 }
@@ -37,6 +37,8 @@ import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.IdealSwitch;
 import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SubcircuitBlock;
 import ch.technokrat.gecko.geckocircuits.control.*;
 import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import ch.technokrat.gecko.geckocircuits.datacontainer.WaveformBlock;
+import ch.technokrat.gecko.geckocircuits.datacontainer.WaveformSubscription;
 import ch.technokrat.gecko.geckocircuits.newscope.AbstractTimeSerie;
 import ch.technokrat.gecko.geckocircuits.newscope.CharacteristicsCalculator;
 import ch.technokrat.gecko.geckocircuits.newscope.Cispr16Fft;
@@ -56,6 +58,9 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     private boolean _simInited = false;
     private static float[][] _globalFloatMatrix;
     private static double[][] _globalDoubleMatrix;
+    private static final SimulationJobs SIMULATION_JOBS = new SimulationJobs();
+    private final RemoteHandles _remoteHandles = new RemoteHandles(SIMULATION_JOBS);
+    private CoSimulationPorts _coSimulationPorts;
 
     protected AbstractGeckoCustom(final SimulationAccess simaccess, final JTextArea outputFrame) {
         _circuit = simaccess;
@@ -69,24 +74,132 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void runSimulation() {
+        checkNoSimulationJobs("runSimulation");
         _circuit.startSim();
     }
 
     @Override
     public final void continueSimulation() {
+        checkNoSimulationJobs("continueSimulation");
         _circuit.continueSim();
     }
 
+    @Override
+    public final int submitSimulation(final String[] elementNames, final String[] parameterNames, final double[] values,
+            final String[] resultSignals) {
+        if (elementNames.length != parameterNames.length || parameterNames.length != values.length) {
+            throw new IllegalArgumentException("Arrays of element names, parameter names and values are not equal in length.");
+        }
+        final String[] jobElementNames = elementNames.clone();
+        final String[] jobParameterNames = parameterNames.clone();
+        final double[] jobValues = values.clone();
+        final String[] jobSignals = resultSignals.clone();
+        return SIMULATION_JOBS.submit(new SimulationJobs.SimulationJob() {
+            @Override
+            public double[][] run() {
+                // the parameters are valid for this job only
+                final double[] oldValues = new double[jobValues.length];
+                for (int i = 0; i < jobValues.length; i++) {
+                    oldValues[i] = getParameter(jobElementNames[i], jobParameterNames[i]);
+                }
+                try {
+                    for (int i = 0; i < jobValues.length; i++) {
+                        setParameter(jobElementNames[i], jobParameterNames[i], jobValues[i]);
+                    }
+                    runSimulation();
+                    return getRecordedSignals(jobSignals);
+                } finally {
+                    for (int i = jobValues.length - 1; i >= 0; i--) {
+                        setParameter(jobElementNames[i], jobParameterNames[i], oldValues[i]);
+                    }
+                }
+            }
+
+            @Override
+            public double getProgress() {
+                return _circuit.getSimulationProgress();
+            }
+
+            @Override
+            public void cancel() {
+                _circuit.pauseSimulation();
+            }
+        });
+    }
+
+    private static void checkNoSimulationJobs(final String methodName) {
+        SIMULATION_JOBS.checkNoPendingJobs(methodName);
+    }
+
+    @Override
+    public final String getSimulationJobStatus(final int jobID) {
+        return SIMULATION_JOBS.getStatus(jobID).name();
+    }
+
+    @Override
+    public final double getSimulationProgress(final int jobID) {
+        return SIMULATION_JOBS.getProgress(jobID);
+    }
+
+    @Override
+    public final boolean cancelSimulation(final int jobID) {
+        return SIMULATION_JOBS.cancel(jobID);
+    }
+
+    @Override
+    public final boolean awaitSimulation(final int jobID, final long timeoutMillis) {
+        return SIMULATION_JOBS.await(jobID, timeoutMillis);
+    }
+
+    @Override
+    public final double[][] getSimulationResult(final int jobID) {
+        return SIMULATION_JOBS.getResult(jobID);
+    }
+
+    /**
+     * @return the time (first row) and the given scope signals of the
+     * complete recording
+     */
+    private static double[][] getRecordedSignals(final String[] signalNames) {
+        final AbstractDataContainer data = NetzlisteCONTROL.globalData;
+        final int[] rows = new int[signalNames.length];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = -1;
+            for (int row = 0; row < data.getRowLength(); row++) {
+                if (data.getSignalName(row).equals(signalNames[i])) {
+                    rows[i] = row;
+                }
+            }
+            if (rows[i] < 0) {
+                throw new IllegalArgumentException("could not find signal: " + signalNames[i]);
+            }
+        }
+
+        final int numberOfPoints = data.getRowLength() == 0 ? 0 : data.getMaximumTimeIndex(0) + 1;
+        final double[][] returnValue = new double[rows.length + 1][numberOfPoints];
+        for (int index = 0; index < numberOfPoints; index++) {
+            returnValue[0][index] = data.getTimeValue(index, 0);
+            for (int i = 0; i < rows.length; i++) {
+                returnValue[i + 1][index] = data.getValue(rows[i], index);
+            }
+        }
+        return returnValue;
+    }
+
     @Override
     public final void initSimulation() {
+        checkNoSimulationJobs("initSimulation");
         _circuit.initializeSimulation();
         _simInited = true;
+        _coSimulationPorts = null;
     }
 
     @Override
     public final void initSimulation(final double deltaT, final double endTime) {
+        checkNoSimulationJobs("initSimulation");
         _circuit.initializeSimulation(deltaT, endTime);
         _simInited = true;
+        _coSimulationPorts = null;
     }
 
     @Override
@@ -101,6 +214,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void simulateStep() {
+        checkNoSimulationJobs("simulateStep");
         if (!_simInited) {
             initSimulation();
             writeOutputLn("Warning: Simulation was not initialized prior to calling simulateStep(). "
@@ -115,6 +229,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void simulateSteps(final int steps) {
+        checkNoSimulationJobs("simulateSteps");
         if (!_simInited) {
             initSimulation();
             writeOutputLn("Warning: Simulation was not initialized prior to calling simulateSteps(). "
@@ -130,8 +245,71 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
         }
     }
 
+    /**
+     * co-simulation step: sets the FromEXTERNAL blocks to the inputs, runs
+     * the given number of steps and copies the values of the ToEXTERNAL blocks
+     * to outputs, without any allocation.
+     */
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.SIMULATE_STEPS_EXCHANGE_DOC)
+    @Declaration("void simulateSteps(double[] inputs, double[] outputs, int steps)")
+    public final void simulateSteps(final double[] inputs, final double[] outputs, final int steps) {
+        checkNoSimulationJobs("simulateSteps");
+        if (!_simInited) {
+            initSimulation();
+            writeOutputLn("Warning: Simulation was not initialized prior to calling simulateSteps(). "
+                    + "Simulation has been initialized to values specified in GeckoCIRCUITS.");
+        }
+
+        try {
+            _circuit.simulateSteps(getCoSimulationPorts(), inputs, outputs, steps);
+        } catch (Exception ex) {
+            writerOutputErrorLn("simulateSteps(): " + ex.getMessage());
+        }
+    }
+
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.CREATE_CO_SIMULATION_QUEUE_DOC)
+    @Declaration("CoSimulationQueue createCoSimulationQueue(int capacity)")
+    public final CoSimulationQueue createCoSimulationQueue(final int capacity) {
+        if (!_simInited) {
+            initSimulation();
+            writeOutputLn("Warning: Simulation was not initialized prior to calling createCoSimulationQueue(). "
+                    + "Simulation has been initialized to values specified in GeckoCIRCUITS.");
+        }
+        return new CoSimulationQueue(capacity, getCoSimulationPorts());
+    }
+
+    /**
+     * @return the number of simulated steps, at most maxSteps
+     */
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.SIMULATE_QUEUED_STEPS_DOC)
+    @Declaration("int simulateQueuedSteps(CoSimulationQueue queue, int maxSteps)")
+    public final int simulateQueuedSteps(final CoSimulationQueue queue, final int maxSteps) {
+        checkNoSimulationJobs("simulateQueuedSteps");
+        if (!_simInited) {
+            throw new IllegalStateException("simulateQueuedSteps(): the simulation is not initialized, "
+                    + "create the queue with createCoSimulationQueue().");
+        }
+        try {
+            return _circuit.simulateQueuedSteps(getCoSimulationPorts(), queue, maxSteps);
+        } catch (Exception ex) {
+            writerOutputErrorLn("simulateQueuedSteps(): " + ex.getMessage());
+            return 0;
+        }
+    }
+
+    private CoSimulationPorts getCoSimulationPorts() {
+        if (_coSimulationPorts == null) {
+            _coSimulationPorts = CoSimulationPorts.fabricFromModel();
+        }
+        return _coSimulationPorts;
+    }
+
     @Override
     public final void simulateTime(final double time) {
+        checkNoSimulationJobs("simulateTime");
         if (!_simInited) {
             initSimulation();
             writeOutputLn("Warning: Simulation was not initialized prior to calling simulateTime(). "
@@ -147,6 +325,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void endSimulation() {
+        checkNoSimulationJobs("endSimulation");
         _circuit.endSimulation();
         _simInited = false;
     }
@@ -206,6 +385,26 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
         GeckoCustomRemote.printErrorLn(toBeWritten.toString());
     }
 
+    @Category(MethodCategory.SIMULATION_START)
+    @Documentation(I18nKeys.RUN_PARAMETER_SWEEP_DOC)
+    @Declaration("SweepResultTable runParameterSweep(ParameterSweep sweep, GeckoRemoteInterface... furtherModels)")
+    public final SweepResultTable runParameterSweep(final ParameterSweep sweep,
+            final GeckoRemoteInterface... furtherModels) throws InterruptedException {
+        checkNoSimulationJobs("runParameterSweep");
+        // the cases run on own instances of the saved model file, the model of this window is not changed
+        final String modelFile = sweep.getModelFile() == null
+                ? _circuit.getCurrentModelFile().getAbsolutePath() : sweep.getModelFile();
+        final ParameterSweep.ProgressListener listener = new ParameterSweep.ProgressListener() {
+            @Override
+            public void caseFinished(final SweepResult result, final int finishedCases, final int totalCases) {
+                writeOutputLn("case " + result.getCaseIndex() + " finished (" + finishedCases + "/" + totalCases + ")"
+                        + (result.isFailed() ? ": " + result.getError() : ""));
+            }
+        };
+        return sweep.runHeadless(modelFile, Runtime.getRuntime().availableProcessors(), Arrays.asList(furtherModels),
+                listener);
+    }
+
 
     /*
      * protected double getNodeValue(String name) { try { return
@@ -307,6 +506,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public void setComponentName(final String oldName, final String newName) throws Exception {
+        checkNoSimulationJobs("setComponentName");
         AbstractBlockInterface foundBlock = IDStringDialog.getComponentByName(oldName);
         foundBlock.setNewNameChecked(newName);
     }
@@ -317,6 +517,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
      */
     @Override
     public final void setParameter(final String elementName, final String parameterName, final double value) {
+        checkNoSimulationJobs("setParameter");
         AbstractBlockInterface circuit_elem = IDStringDialog.getComponentByName(elementName);
         try {
             circuit_elem.setAccessibleParameter(parameterName, value);
@@ -328,6 +529,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public Object doOperation(final String elementName, final String operationName, final Object parameterValue) {
+        checkNoSimulationJobs("doOperation");
         final AbstractBlockInterface component = IDStringDialog.getComponentByName(elementName);
         try {
 
@@ -362,6 +564,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
      */
     @Override
     public final void setParameters(final String elementName, final String[] parameterNames, final double[] values) {
+        checkNoSimulationJobs("setParameters");
         if (parameterNames.length == values.length) {
             for (int i = 0; i < values.length; i++) {
                 setParameter(elementName, parameterNames[i], values[i]);
@@ -377,6 +580,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Override
     @Deprecated
     public final void setLossFile(final String elementName, final String lossFileName) throws FileNotFoundException {
+        checkNoSimulationJobs("setLossFile");
 
         AbstractBlockInterface circuit_elem = IDStringDialog.getComponentByName(elementName);
 
@@ -391,6 +595,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Deprecated
     public final void setNonLinear(final String elementName, final String characteristicFileName)
             throws FileNotFoundException {
+        checkNoSimulationJobs("setNonLinear");
         AbstractBlockInterface circuit_elem = IDStringDialog.getComponentByName(elementName);
 
         if (!(circuit_elem instanceof AbstractNonLinearCircuitComponent)) {
@@ -421,6 +626,46 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
         return paramvalue;
     }
 
+    /**
+     * resolves a component parameter once, for scripts which set or read it
+     * repeatedly, e.g. in every simulation step.
+     */
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.GET_PARAMETER_HANDLE_DOC)
+    @Declaration("ParameterHandle getParameterHandle(String elementName, String parameterName)")
+    public final ParameterHandle getParameterHandle(final String elementName, final String parameterName) {
+        checkNoSimulationJobs("getParameterHandle");
+        try {
+            return new ParameterHandle(IDStringDialog.getComponentByName(elementName), parameterName,
+                    SIMULATION_JOBS);
+        } catch (IllegalAccessException e) {
+            writerOutputErrorLn(e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * resolves an output of a control block once.
+     *
+     * @param outputName empty, for control elements with a single output
+     */
+    @Category(MethodCategory.COMPONENT_PROPERTIES)
+    @Documentation(I18nKeys.GET_OUTPUT_HANDLE_DOC)
+    @Declaration("OutputHandle getOutputHandle(String elementName, String outputName)")
+    public final OutputHandle getOutputHandle(final String elementName, final String outputName) {
+        AbstractBlockInterface abstractBlock = IDStringDialog.getComponentByName(elementName);
+        if (!(abstractBlock instanceof RegelBlock)) {
+            writerOutputErrorLn("Error, selected component is not a control block!");
+            throw new RuntimeException("Error, selected component is not a control block!");
+        }
+        try {
+            return new OutputHandle((RegelBlock) abstractBlock, outputName);
+        } catch (IllegalAccessException e) {
+            writerOutputErrorLn(e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
     /**
      * get the output of a control block by name
      *
@@ -474,12 +719,14 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Override
     @SuppressWarnings("PMD") // CHECKSTYLE:OFF I cannot rename this method, since it is already used by Gecko-Users!
     public final void set_Tend(final double Tend) {
+        checkNoSimulationJobs("set_Tend");
         _circuit.set_Tend(Tend);
     }
 
     @Override
     @SuppressWarnings("PMD") // CHECKSTYLE:OFF I cannot rename this method, since it is already used by Gecko-Users!
     public final void set_Tend_pre(final double Tend) {
+        checkNoSimulationJobs("set_Tend_pre");
         _circuit.set_Tend_pre(Tend);
     }
 
@@ -487,16 +734,24 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Override
     @SuppressWarnings("PMD") // CHECKSTYLE:OFF I cannot rename this method, since it is already used by Gecko-Users!
     public final void set_dt(final double value) {
+        checkNoSimulationJobs("set_dt");
         _circuit.set_dt(value);
     }
 
     @Override
     @SuppressWarnings("PMD") // CHECKSTYLE:OFF I cannot rename this method, since it is already used by Gecko-Users!
     public final void set_dt_pre(final double value) {
+        checkNoSimulationJobs("set_dt_pre");
         _circuit.set_dt_pre(value);
     }
 
     //CHECKSTYLE:ON
+    @Override
+    public final void setRandomSeed(final long seed) {
+        checkNoSimulationJobs("setRandomSeed");
+        _circuit.setRandomSeed(seed);
+    }
+
     @Override
     public final void saveFileAs(final String fileName) {
         _circuit.saveFileAs(fileName);
@@ -504,6 +759,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public void openFile(final String fileName) throws RemoteException, FileNotFoundException {
+        checkNoSimulationJobs("openFile");
         GeckoSim.operatingmode = OperatingMode.REMOTE;
         writeOutputLn("Warning: File loaded, autobackup check disabled!");
         try {
@@ -527,6 +783,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public void importFromFile(final String fileName, final String importIntoSubcircuit) throws RemoteException, FileNotFoundException {
+        checkNoSimulationJobs("importFromFile");
         try {
             _circuit.importFromFile(fileName, importIntoSubcircuit);
         } catch (FileNotFoundException ex) {  // search local file path as next step...
@@ -974,6 +1231,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final double[] simulateUntilSteadyState(final boolean supressMessages) {
+        checkNoSimulationJobs("simulateUntilSteadyState");
         if (!_steadyStateInitialized) {
             writerOutputErrorLn("Steady state detection is not initialized! Please call initSteadyStateDetection() with appropriate arguments first!");
             return null;
@@ -1103,6 +1361,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final double[] simulateToSteadyState(final boolean supressMessages, final double targetCorrelation, final double targetMeanPctDiff) {
+        checkNoSimulationJobs("simulateToSteadyState");
         if (!_steadyStateCrossCorrelationInitialized) {
             writerOutputErrorLn("Steady state detection is not initialized! Please call initSteadyStateDetection() with appropriate arguments first!");
             return null;
@@ -1328,6 +1587,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Override
     //method which sets the value of field of an element, taking the name of that field as argument
     public final void setPosition(final String elementName, final int xPosition, final int yPosition) {
+        checkNoSimulationJobs("setPosition");
 
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
 
@@ -1359,12 +1619,14 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void deleteComponent(final String elementName) {
+        checkNoSimulationJobs("deleteComponent");
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
         _circuit.deleteElement(parentElement);
     }
 
     @Override
     public void deleteAllComponents(String subcircuitName) {
+        checkNoSimulationJobs("deleteAllComponents");
         if (subcircuitName == null) {
             _circuit.se.resetCircuitSheetsForNewFile();
         } else {
@@ -1381,17 +1643,20 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
     @Override
     @Deprecated
     public final void delete(final String elementName) {
+        checkNoSimulationJobs("delete");
         deleteComponent(elementName);
     }
 
     @Override
     @Deprecated
     public final void create(final String elementType, final String elementName, final int xPosition, final int yPosition) {
+        checkNoSimulationJobs("create");
         createComponent(elementType, elementName, xPosition, yPosition);
     }
 
     @Override
     public void createConnector(String elementName, int xStart, int yStart, int xEnd, int yEnd, boolean startHorizontal) {
+        checkNoSimulationJobs("createConnector");
         try {
             _circuit.createNewConnector(elementName, xStart, yStart, xEnd, yEnd, startHorizontal);
         } catch (Exception e) {
@@ -1403,6 +1668,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void createComponent(final String elementType, final String elementName, final int xPosition, final int yPosition) {
+        checkNoSimulationJobs("createComponent");
 
         if (IDStringDialog.isNameAlreadyUsed(elementName)) {
             writerOutputErrorLn("The component name is already in use: " + elementName);
@@ -1422,6 +1688,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void setOutputNodeName(final String elementName, final int nodeIndex, final String nodeName) {
+        checkNoSimulationJobs("setOutputNodeName");
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
 
         if (parentElement != null) {
@@ -1444,6 +1711,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void setInputNodeName(final String elementName, final int nodeIndex, final String nodeName) {
+        checkNoSimulationJobs("setInputNodeName");
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
 
         final Collection<AbstractTerminal> inputPorts = parentElement.XIN;
@@ -1510,6 +1778,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public final void rotate(final String elementName) {
+        checkNoSimulationJobs("rotate");
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
         parentElement.rotiereSymbol();
         parentElement.absetzenElement();
@@ -1526,6 +1795,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
      */
     @Override
     public final void setOrientation(final String elementName, final String direction) {
+        checkNoSimulationJobs("setOrientation");
         final AbstractBlockInterface parentElement = IDStringDialog.getComponentByName(elementName);
         ComponentDirection orientation = null;
 
@@ -1620,6 +1890,101 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
         return returnValue;
     }
 
+    @Override
+    public final int subscribeWaveforms(final String[] signalNames, final int decimation, final int blockSize,
+            final int queueCapacity, final String overflowPolicy) {
+        return NetzlisteCONTROL.globalData.subscribe(signalNames, decimation, blockSize, queueCapacity,
+                WaveformSubscription.OverflowPolicy.getFromString(overflowPolicy),
+                WaveformSubscription.MAX_TOTAL_BLOCKING_MILLIS).getId();
+    }
+
+    @Override
+    public final double[][] pollWaveforms(final int subscriptionID) {
+        final WaveformSubscription subscription = getWaveformSubscription(subscriptionID);
+        final List<WaveformBlock> blocks = subscription.drain();
+        int sampleCount = 0;
+        for (WaveformBlock block : blocks) {
+            sampleCount += block.getSampleCount();
+        }
+
+        final int numberOfSignals = subscription.getSignalNames().length;
+        final double[][] returnValue = new double[numberOfSignals + 1][sampleCount];
+        int offset = 0;
+        for (WaveformBlock block : blocks) {
+            System.arraycopy(block.getTimes(), 0, returnValue[0], offset, block.getSampleCount());
+            for (int i = 0; i < numberOfSignals; i++) {
+                final float[] values = block.getValues(i);
+                for (int j = 0; j < values.length; j++) {
+                    returnValue[i + 1][offset + j] = values[j];
+                }
+            }
+            offset += block.getSampleCount();
+        }
+        return returnValue;
+    }
+
+    @Override
+    public final long getDroppedWaveformBlocks(final int subscriptionID) {
+        return getWaveformSubscription(subscriptionID).getDroppedBlocks();
+    }
+
+    @Override
+    public final void unsubscribeWaveforms(final int subscriptionID) {
+        NetzlisteCONTROL.globalData.unsubscribe(getWaveformSubscription(subscriptionID));
+    }
+
+    private WaveformSubscription getWaveformSubscription(final int subscriptionID) {
+        final WaveformSubscription returnValue = NetzlisteCONTROL.globalData.getWaveformSubscription(subscriptionID);
+        if (returnValue == null) {
+            throw new IllegalArgumentException("No waveform subscription with id " + subscriptionID);
+        }
+        return returnValue;
+    }
+
+    @Override
+    public final int[] resolveHandles(final String handleType, final String[] elementNames, final String[] names) {
+        try {
+            return _remoteHandles.resolve(RemoteHandles.HandleType.getFromString(handleType), elementNames, names);
+        } catch (IllegalAccessException e) {
+            writerOutputErrorLn(e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public final void setParameterValues(final int[] handles, final double[] values) {
+        checkNoSimulationJobs("setParameterValues");
+        _remoteHandles.setParameterValues(handles, values);
+    }
+
+    @Override
+    public final double[] getParameterValues(final int[] handles) {
+        return _remoteHandles.getParameterValues(handles);
+    }
+
+    @Override
+    public final double[] getOutputValues(final int[] handles) {
+        return _remoteHandles.getOutputValues(handles);
+    }
+
+    @Override
+    public final double[][] getSignalValues(final int[] handles, final double tStart, final double tEnd, final int skipPoints) {
+        final AbstractDataContainer data = NetzlisteCONTROL.globalData;
+        final int[] rows = _remoteHandles.getSignalRows(handles, data);
+        final TimeIntervalData timeIntervalData = new TimeIntervalData(tStart, tEnd, skipPoints, data);
+        final AbstractTimeSerie timeSerie = data.getTimeSeries(0);
+
+        final double[][] returnValue = new double[rows.length + 1][timeIntervalData._numberOfSignalPoints];
+        for (int i = timeIntervalData._startIndex, counter = 0; i < timeIntervalData._indexLimitMaximum;
+                i += timeIntervalData._checkedSkipPoints, counter++) {
+            returnValue[0][counter] = timeSerie.getValue(i);
+            for (int j = 0; j < rows.length; j++) {
+                returnValue[j + 1][counter] = data.getValue(rows[j], i);
+            }
+        }
+        return returnValue;
+    }
+
     @Override
     public void shutdown() throws RemoteException {
         System.exit(0);
@@ -1735,6 +2100,7 @@ public abstract class AbstractGeckoCustom implements GeckoRemoteInterface {
 
     @Override
     public void setGlobalParameterValue(String parameterName, double value) {
+        checkNoSimulationJobs("setGlobalParameterValue");
         GeckoExternal.setGlobalParameterValue(parameterName, value);
     }
 
@@ -103,6 +103,9 @@ public class CompileScript {
             String strLine;
             sw.addSourceLine("import ch.technokrat.gecko.geckoscript.AbstractGeckoCustom;");
             sw.addSourceLine("import ch.technokrat.gecko.geckoscript.SimulationAccess;");
+            sw.addSourceLine("import ch.technokrat.gecko.geckoscript.ParameterHandle;");
+            sw.addSourceLine("import ch.technokrat.gecko.geckoscript.OutputHandle;");
+            sw.addSourceLine("import ch.technokrat.gecko.geckocircuits.control.CoSimulationQueue;");
             sw.addSourceLine("import javax.swing.JTextArea;");
             BufferedReader reader = new BufferedReader(new StringReader(sw._importsTextArea.getText()));
             while ((strLine = reader.readLine()) != null) {
@@ -0,0 +1,48 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.circuit.IDStringDialog;
+
+/**
+ * Reference to a component of the model, resolved once by name. A handle is
+ * out of date as soon as a component name was removed from the model
+ * (renaming, deleting, loading a new model), since the referenced component
+ * may not be part of the model any more: it has to be resolved again.
+ */
+public abstract class ComponentHandle {
+
+    private final String _description;
+    private final int _nameGeneration = IDStringDialog.getNameGeneration();
+
+    ComponentHandle(final String description) {
+        _description = description;
+    }
+
+    public final boolean isValid() {
+        return _nameGeneration == IDStringDialog.getNameGeneration();
+    }
+
+    final void checkValid() {
+        if (!isValid()) {
+            throw new IllegalStateException("The handle of " + _description + " is out of date, since the model "
+                    + "was changed. Resolve it again.");
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return _description;
+    }
+}
@@ -0,0 +1,142 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.allg.HeadlessSimulation;
+import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
+import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
+import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import ch.technokrat.gecko.geckocircuits.newscope.CharacteristicsCalculator;
+import java.util.NoSuchElementException;
+
+/**
+ * sweep worker with an own model instance in this JVM. The model of the
+ * main window is never changed.
+ */
+final class HeadlessSweepModel implements SweepModel {
+
+    // indices of CharacteristicsCalculator.getChannelCharacteristics()
+    private static final int AVG = 0;
+    private static final int RMS = 1;
+    private static final int THD = 2;
+    private static final int MIN = 3;
+    private static final int MAX = 4;
+    private static final int RIPPLE = 5;
+
+    private final HeadlessSimulation _simulation = new HeadlessSimulation();
+
+    @Override
+    public void openFile(final String fileName) throws Exception {
+        _simulation.openFile(fileName);
+    }
+
+    @Override
+    public void setParameter(final String elementName, final String parameterName, final double value)
+            throws Exception {
+        _simulation.getComponentByName(elementName).setAccessibleParameter(parameterName, value);
+    }
+
+    /**
+     * @param seed a negative seed switches back to different random values in
+     * each simulation, as in GeckoSCRIPT.
+     */
+    @Override
+    public void setRandomSeed(final long seed) {
+        _simulation.getSolverSettings()._randomSeed = seed < 0 ? null : seed;
+    }
+
+    @Override
+    public void runSimulation() {
+        _simulation.runSimulation();
+    }
+
+    @Override
+    public void endSimulation() {
+        _simulation.stopSimulation();
+    }
+
+    @Override
+    public double getEndTime() {
+        final AbstractDataContainer data = _simulation.getScopeData();
+        if (data.getRowLength() == 0) {
+            return 0;
+        }
+        return data.getTimeValue(data.getMaximumTimeIndex(0), 0);
+    }
+
+    @Override
+    public double getSignalAvg(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, AVG);
+    }
+
+    @Override
+    public double getSignalRMS(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, RMS);
+    }
+
+    @Override
+    public double getSignalTHD(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, THD);
+    }
+
+    @Override
+    public double getSignalMin(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, MIN);
+    }
+
+    @Override
+    public double getSignalMax(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, MAX);
+    }
+
+    @Override
+    public double getSignalRipple(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return getSignalCharacteristic(signalName, startTime, endTime, RIPPLE);
+    }
+
+    @Override
+    public double getOutput(final String elementName, final String outputName) throws Exception {
+        final AbstractBlockInterface block = _simulation.getComponentByName(elementName);
+        if (!(block instanceof RegelBlock)) {
+            throw new IllegalArgumentException("Error, " + elementName + " is not a control block!");
+        }
+        return ((RegelBlock) block).getOutput(outputName);
+    }
+
+    private double getSignalCharacteristic(final String signalName, final double startTime, final double endTime,
+            final int characteristic) throws Exception {
+        final AbstractDataContainer data = _simulation.getScopeData();
+        final int[] rows = {getSignalRow(data, signalName)};
+        return CharacteristicsCalculator.calculateFabric(data, rows, startTime, endTime)
+                .getChannelCharacteristics(0)[characteristic];
+    }
+
+    /**
+     * @param signalName with the subcircuit path, as in GeckoSCRIPT
+     */
+    private static int getSignalRow(final AbstractDataContainer data, final String signalName) {
+        for (int row = data.getRowLength() - 1; row >= 0; row--) {
+            if ((data.getSubcircuitSignalPath(row) + data.getSignalName(row)).equals(signalName)) {
+                return row;
+            }
+        }
+        throw new NoSuchElementException("Error, Inputsignal \"" + signalName + "\" could not be found!");
+    }
+}
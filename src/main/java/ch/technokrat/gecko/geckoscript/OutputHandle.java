@@ -0,0 +1,41 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
+
+/**
+ * Direct access to an output of a control block, see
+ * AbstractGeckoCustom.getOutputHandle(...).
+ */
+public final class OutputHandle extends ComponentHandle {
+
+    private final RegelBlock _block;
+    private final int _outputIndex;
+
+    OutputHandle(final RegelBlock block, final String outputName) throws IllegalAccessException {
+        super(outputName.isEmpty() ? block.getStringID() : block.getStringID() + "." + outputName);
+        _block = block;
+        _outputIndex = block.getOutputIndex(outputName);
+    }
+
+    public double getValue() {
+        checkValid();
+        try {
+            return _block.getOutput(_outputIndex);
+        } catch (IllegalAccessException ex) {
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import java.util.Random;
+
+/**
+ * Distribution of a component parameter in a Monte-Carlo simulation, see
+ * ParameterSweep.addRandomParameter().
+ */
+public abstract class ParameterDistribution {
+
+    abstract double sample(final Random random);
+
+    /**
+     * @return uniformly distributed values within [min, max)
+     */
+    public static ParameterDistribution uniform(final double min, final double max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Invalid interval: " + min + " ... " + max);
+        }
+        return new ParameterDistribution() {
+            @Override
+            double sample(final Random random) {
+                return min + (max - min) * random.nextDouble();
+            }
+        };
+    }
+
+    public static ParameterDistribution normal(final double mean, final double standardDeviation) {
+        if (standardDeviation < 0) {
+            throw new IllegalArgumentException("Negative standard deviation: " + standardDeviation);
+        }
+        return new ParameterDistribution() {
+            @Override
+            double sample(final Random random) {
+                return mean + standardDeviation * random.nextGaussian();
+            }
+        };
+    }
+
+    /**
+     * component tolerance, e.g. tolerance(100e-6, 0.2) for a capacitor of
+     * 100uF +/- 20%.
+     */
+    public static ParameterDistribution tolerance(final double nominalValue, final double relativeTolerance) {
+        final double deviation = Math.abs(nominalValue * relativeTolerance);
+        return uniform(nominalValue - deviation, nominalValue + deviation);
+    }
+}
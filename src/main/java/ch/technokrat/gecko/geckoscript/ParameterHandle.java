@@ -0,0 +1,74 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.allg.UserParameter;
+import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
+import java.util.List;
+
+/**
+ * Direct access to a component parameter, see
+ * AbstractGeckoCustom.getParameterHandle(...). In contrast to setParameter,
+ * neither the component nor the parameter is searched by name, and the
+ * values are not recorded in the undo history.
+ */
+public final class ParameterHandle extends ComponentHandle {
+
+    private final AbstractBlockInterface _block;
+    private final String _parameterName;
+    private final UserParameter<?>[] _parameters;
+    private final SimulationJobs _simulationJobs;
+
+    /**
+     * @param simulationJobs the values must not be set while these jobs
+     * simulate the model
+     */
+    ParameterHandle(final AbstractBlockInterface block, final String parameterName,
+            final SimulationJobs simulationJobs) throws IllegalAccessException {
+        super(block.getStringID() + "." + parameterName);
+        final List<UserParameter<? extends Object>> parameters = block.findAccessibleParameters(parameterName);
+        if (parameters.isEmpty() && !parameterName.equalsIgnoreCase("enabled")) {
+            throw new IllegalAccessException("Parameter with name " + parameterName + " not found in "
+                    + block.getStringID() + ".");
+        }
+        _block = block;
+        _parameterName = parameterName;
+        _parameters = parameters.toArray(new UserParameter<?>[parameters.size()]);
+        _simulationJobs = simulationJobs;
+    }
+
+    public void setValue(final double value) {
+        checkValid();
+        _simulationJobs.checkNoPendingJobs("ParameterHandle.setValue");
+        if (_parameters.length == 0) { // "enabled" is no UserParameter
+            try {
+                _block.setAccessibleParameter(_parameterName, value);
+            } catch (IllegalAccessException ex) {
+                throw new IllegalArgumentException("Invalid value " + value + " for " + this, ex);
+            }
+            return;
+        }
+        for (UserParameter<?> parameter : _parameters) {
+            parameter.setFromDoubleValueWithoutUndo(value);
+        }
+    }
+
+    public double getValue() {
+        checkValid();
+        if (_parameters.length == 0) {
+            return _block.isCircuitEnabled().ordinal();
+        }
+        return _parameters[0].getDoubleValue();
+    }
+}
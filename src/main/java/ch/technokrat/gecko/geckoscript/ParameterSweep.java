@@ -0,0 +1,357 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.GeckoRemoteInterface;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parameter sweep and Monte-Carlo simulation of a model. The cases are the
+ * combinations of all grid parameter values, each repeated
+ * setMonteCarloRuns() times with new values of the random parameters.
+ *
+ * Every worker is an own model instance (a HeadlessSimulation in this JVM, see
+ * runHeadless(), or further GeckoCIRCUITS instances connected via
+ * GeckoREMOTE), so that the cases run in parallel without sharing any
+ * simulation state. The model of the main window is never changed. The cases
+ * are distributed on a work-stealing pool, the results are added to the
+ * result table as soon as a case is finished.
+ *
+ * The parameter values and the seed of the random signal sources of a case
+ * depend only on the sweep seed and the case index, therefore the result
+ * table is identical for any number of workers.
+ */
+public final class ParameterSweep {
+
+    /**
+     * is called by the worker threads after each finished case.
+     */
+    public interface ProgressListener {
+
+        void caseFinished(final SweepResult result, final int finishedCases, final int totalCases);
+    }
+
+    private static final class SweepParameter {
+
+        private final String _elementName;
+        private final String _parameterName;
+        private final double[] _gridValues;
+        private final ParameterDistribution _distribution;
+
+        SweepParameter(final String elementName, final String parameterName,
+                final double[] gridValues, final ParameterDistribution distribution) {
+            _elementName = elementName;
+            _parameterName = parameterName;
+            _gridValues = gridValues;
+            _distribution = distribution;
+        }
+    }
+
+    private final List<SweepParameter> _parameters = new ArrayList<SweepParameter>();
+    private final List<SweepCharacteristic> _characteristics = new ArrayList<SweepCharacteristic>();
+    private final String _modelFile;
+    private int _monteCarloRuns = 1;
+    private long _seed;
+    private volatile boolean _cancelled;
+    private final Set<SweepModel> _busyModels = Collections.synchronizedSet(new HashSet<SweepModel>());
+
+    /**
+     * sweep of the models which are already opened in the workers
+     */
+    public ParameterSweep() {
+        this(null);
+    }
+
+    /**
+     * @param modelFile is opened once in each worker before its first case.
+     * Required for runHeadless().
+     */
+    public ParameterSweep(final String modelFile) {
+        _modelFile = modelFile;
+    }
+
+    public void addGridParameter(final String elementName, final String parameterName, final double[] values) {
+        if (values.length == 0) {
+            throw new IllegalArgumentException("No values given for " + elementName + "." + parameterName);
+        }
+        _parameters.add(new SweepParameter(elementName, parameterName, values.clone(), null));
+    }
+
+    public void addRandomParameter(final String elementName, final String parameterName,
+            final ParameterDistribution distribution) {
+        _parameters.add(new SweepParameter(elementName, parameterName, null, distribution));
+    }
+
+    public void addCharacteristic(final SweepCharacteristic characteristic) {
+        _characteristics.add(characteristic);
+    }
+
+    /**
+     * @param runs number of simulations of each grid point
+     */
+    public void setMonteCarloRuns(final int runs) {
+        if (runs < 1) {
+            throw new IllegalArgumentException("Invalid number of Monte-Carlo runs: " + runs);
+        }
+        _monteCarloRuns = runs;
+    }
+
+    /**
+     * seed for the random parameters and the random signal sources of all
+     * cases. Default: 0.
+     */
+    public void setSeed(final long seed) {
+        _seed = seed;
+    }
+
+    public int getNumberOfCases() {
+        int returnValue = _monteCarloRuns;
+        for (SweepParameter parameter : _parameters) {
+            if (parameter._gridValues != null) {
+                returnValue *= parameter._gridValues.length;
+            }
+        }
+        return returnValue;
+    }
+
+    /**
+     * stops the sweep: cases which are not yet started are skipped, running
+     * simulations are ended.
+     */
+    public void cancel() {
+        _cancelled = true;
+        synchronized (_busyModels) {
+            for (SweepModel model : _busyModels) {
+                try {
+                    model.endSimulation();
+                } catch (Exception ex) {
+                    // the case result will show the error, if any
+                }
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return _cancelled;
+    }
+
+    public String getModelFile() {
+        return _modelFile;
+    }
+
+    /**
+     * runs all cases and blocks until they are finished or the sweep is
+     * cancelled.
+     *
+     * @param models the workers, each case runs on one of them
+     * @param listener may be null
+     */
+    public SweepResultTable run(final List<? extends GeckoRemoteInterface> models, final ProgressListener listener)
+            throws InterruptedException {
+        return runOnWorkers(toSweepModels(models), _modelFile, listener);
+    }
+
+    /**
+     * runs all cases on own model instances of the model file in this JVM
+     * (one HeadlessSimulation per worker thread), and on the further models.
+     *
+     * @param headlessWorkers e.g. the number of processors
+     * @param furtherModels may be empty
+     * @param listener may be null
+     */
+    public SweepResultTable runHeadless(final int headlessWorkers, final List<? extends GeckoRemoteInterface> furtherModels,
+            final ProgressListener listener) throws InterruptedException {
+        if (_modelFile == null) {
+            throw new IllegalStateException("A model file is required for a sweep with headless workers.");
+        }
+        return runHeadless(_modelFile, headlessWorkers, furtherModels, listener);
+    }
+
+    SweepResultTable runHeadless(final String modelFile, final int headlessWorkers,
+            final List<? extends GeckoRemoteInterface> furtherModels, final ProgressListener listener)
+            throws InterruptedException {
+        final List<SweepModel> workers = toSweepModels(furtherModels);
+        // more workers than cases would only load the model in vain
+        final int headlessWorkerNumber = Math.min(headlessWorkers, getNumberOfCases());
+        for (int i = 0; i < headlessWorkerNumber; i++) {
+            workers.add(new HeadlessSweepModel());
+        }
+        return runOnWorkers(workers, modelFile, listener);
+    }
+
+    private static List<SweepModel> toSweepModels(final List<? extends GeckoRemoteInterface> models) {
+        final List<SweepModel> returnValue = new ArrayList<SweepModel>();
+        for (GeckoRemoteInterface model : models) {
+            returnValue.add(new RemoteSweepModel(model));
+        }
+        return returnValue;
+    }
+
+    private SweepResultTable runOnWorkers(final List<SweepModel> models, final String modelFile,
+            final ProgressListener listener) throws InterruptedException {
+        if (models.isEmpty()) {
+            throw new IllegalArgumentException("At least one model is required.");
+        }
+        _cancelled = false;
+        final SweepResultTable table = new SweepResultTable(getParameterNames(), getCharacteristicNames());
+        final BlockingQueue<SweepModel> idleModels = new LinkedBlockingQueue<SweepModel>(models);
+        final Set<SweepModel> openedModels = Collections.synchronizedSet(new HashSet<SweepModel>());
+        final int totalCases = getNumberOfCases();
+        final AtomicInteger finishedCases = new AtomicInteger();
+        // not more threads than models, so that a worker thread never waits for a model
+        final ExecutorService pool = Executors.newWorkStealingPool(models.size());
+        try {
+            final List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < totalCases; i++) {
+                final int caseIndex = i;
+                futures.add(pool.submit(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (_cancelled) {
+                            return;
+                        }
+                        final SweepModel model;
+                        try {
+                            model = idleModels.take();
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        final SweepResult result;
+                        try {
+                            if (modelFile != null && openedModels.add(model)) {
+                                model.openFile(modelFile);
+                            }
+                            result = runCase(model, caseIndex);
+                        } catch (Exception ex) {
+                            // the model file could not be opened, all further cases would fail as well
+                            throw new IllegalStateException(ex);
+                        } finally {
+                            idleModels.add(model);
+                        }
+                        table.addRow(result);
+                        final int finished = finishedCases.incrementAndGet();
+                        if (listener != null) {
+                            listener.caseFinished(result, finished, totalCases);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ex) {
+                    cancel();
+                    throw new IllegalStateException("Parameter sweep failed: " + ex.getCause().getMessage(), ex);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return table;
+    }
+
+    private SweepResult runCase(final SweepModel model, final int caseIndex) {
+        final Random random = new Random(mixSeed(_seed, caseIndex));
+        final double[] values = getParameterValues(caseIndex, random);
+        // a negative seed would switch off the reproducible random sources
+        final long simulationSeed = random.nextLong() & Long.MAX_VALUE;
+        final double[] characteristics = new double[_characteristics.size()];
+        Arrays.fill(characteristics, Double.NaN);
+        String error = null;
+        _busyModels.add(model);
+        try {
+            for (int i = 0; i < values.length; i++) {
+                final SweepParameter parameter = _parameters.get(i);
+                model.setParameter(parameter._elementName, parameter._parameterName, values[i]);
+            }
+            model.setRandomSeed(simulationSeed);
+            if (_cancelled) {
+                error = "cancelled";
+            } else {
+                model.runSimulation();
+                for (int i = 0; i < characteristics.length; i++) {
+                    characteristics[i] = _characteristics.get(i).evaluate(model);
+                }
+                if (_cancelled) {
+                    error = "cancelled";
+                }
+            }
+        } catch (Exception ex) {
+            error = ex.getClass().getSimpleName() + ": " + ex.getMessage();
+        } finally {
+            _busyModels.remove(model);
+        }
+        return new SweepResult(caseIndex, values, simulationSeed, characteristics, error);
+    }
+
+    /**
+     * the grid index is decoded from the case index, the first grid
+     * parameter changes fastest.
+     */
+    private double[] getParameterValues(final int caseIndex, final Random random) {
+        final double[] returnValue = new double[_parameters.size()];
+        int gridIndex = caseIndex / _monteCarloRuns;
+        for (int i = 0; i < returnValue.length; i++) {
+            final SweepParameter parameter = _parameters.get(i);
+            if (parameter._gridValues == null) {
+                returnValue[i] = parameter._distribution.sample(random);
+            } else {
+                returnValue[i] = parameter._gridValues[gridIndex % parameter._gridValues.length];
+                gridIndex /= parameter._gridValues.length;
+            }
+        }
+        return returnValue;
+    }
+
+    /**
+     * consecutive seeds of java.util.Random give correlated first values,
+     * therefore the bits are mixed (finalizer of SplitMix64).
+     */
+    private static long mixSeed(final long seed, final int caseIndex) {
+        long z = seed + (caseIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private String[] getParameterNames() {
+        final String[] returnValue = new String[_parameters.size()];
+        for (int i = 0; i < returnValue.length; i++) {
+            returnValue[i] = _parameters.get(i)._elementName + "." + _parameters.get(i)._parameterName;
+        }
+        return returnValue;
+    }
+
+    private String[] getCharacteristicNames() {
+        final String[] returnValue = new String[_characteristics.size()];
+        for (int i = 0; i < returnValue.length; i++) {
+            returnValue[i] = _characteristics.get(i).getName();
+        }
+        return returnValue;
+    }
+}
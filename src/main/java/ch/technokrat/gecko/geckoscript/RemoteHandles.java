@@ -0,0 +1,222 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.circuit.AbstractBlockInterface;
+import ch.technokrat.gecko.geckocircuits.circuit.IDStringDialog;
+import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
+import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Integer handles for the batch methods of the remote interface
+ * (setParameterValues, getOutputValues, getSignalValues, ...). The component,
+ * parameter and output names are searched once in resolve(); a batch call then
+ * accesses the UserParameters and outputs directly by handle.
+ *
+ * The parameter and output handles are the ParameterHandle and OutputHandle
+ * objects of GeckoSCRIPT. When a component name is removed (renaming,
+ * deleting, loading a model), they are out of date and the batch calls fail:
+ * the client has to resolve the handles again. Signal handles refer to a scope signal name, its row in the data
+ * container is searched again when the scope signals change.
+ *
+ * When a name was removed since the last resolve() (see
+ * IDStringDialog.getNameGeneration()), resolve() drops all handles, so that
+ * the list does not grow with each model change. The handle numbers are not
+ * reused: a dropped handle is reported as out of date.
+ */
+final class RemoteHandles {
+
+    enum HandleType {
+
+        PARAMETER, OUTPUT, SIGNAL;
+
+        static HandleType getFromString(final String name) {
+            for (HandleType type : values()) {
+                if (type.name().equalsIgnoreCase(name)) {
+                    return type;
+                }
+            }
+            throw new IllegalArgumentException("Unknown handle type: " + name + ", use one of "
+                    + Arrays.toString(values()));
+        }
+    }
+
+    // ParameterHandle, OutputHandle or SignalHandle, _handles.get(0) has the number _firstHandle:
+    private final List<Object> _handles = new ArrayList<Object>();
+    private final Map<String, Integer> _handleIDs = new HashMap<String, Integer>();
+    private int _firstHandle;
+    private int _nameGeneration = IDStringDialog.getNameGeneration();
+    private final SimulationJobs _simulationJobs;
+
+    RemoteHandles(final SimulationJobs simulationJobs) {
+        _simulationJobs = simulationJobs;
+    }
+
+    /**
+     * @param elementNames the component names, not used for signal handles
+     * @param names the parameter, output or signal names. For blocks with a
+     * single output, the output name may be empty.
+     * @return one handle for each name. Resolving the same name twice returns
+     * the same handle, as long as it is valid.
+     */
+    synchronized int[] resolve(final HandleType type, final String[] elementNames, final String[] names)
+            throws IllegalAccessException {
+        if (type != HandleType.SIGNAL && elementNames.length != names.length) {
+            throw new IllegalArgumentException("Array of element names not equal in length to array of names.");
+        }
+        dropHandlesIfNamesWereRemoved();
+        final int[] returnValue = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final String elementName = type == HandleType.SIGNAL ? "" : elementNames[i];
+            final String name = type == HandleType.PARAMETER ? names[i].toLowerCase(Locale.ENGLISH) : names[i];
+            final String key = type + "\t" + elementName + "\t" + name;
+            final Integer existing = _handleIDs.get(key);
+            if (existing != null && isValid(_handles.get(existing - _firstHandle))) {
+                returnValue[i] = existing;
+                continue;
+            }
+            _handles.add(createHandle(type, elementName, names[i]));
+            returnValue[i] = _firstHandle + _handles.size() - 1;
+            _handleIDs.put(key, returnValue[i]);
+        }
+        return returnValue;
+    }
+
+    private void dropHandlesIfNamesWereRemoved() {
+        final int nameGeneration = IDStringDialog.getNameGeneration();
+        if (nameGeneration == _nameGeneration) {
+            return;
+        }
+        _firstHandle += _handles.size();
+        _handles.clear();
+        _handleIDs.clear();
+        _nameGeneration = nameGeneration;
+    }
+
+    synchronized int getHandleCount() {
+        return _handles.size();
+    }
+
+    private Object createHandle(final HandleType type, final String elementName, final String name)
+            throws IllegalAccessException {
+        if (type == HandleType.SIGNAL) {
+            return new SignalHandle(name);
+        }
+
+        final AbstractBlockInterface block = IDStringDialog.getComponentByName(elementName);
+        if (type == HandleType.PARAMETER) {
+            return new ParameterHandle(block, name, _simulationJobs);
+        }
+
+        if (!(block instanceof RegelBlock)) {
+            throw new IllegalAccessException("Error, selected component " + elementName + " is not a control block!");
+        }
+        return new OutputHandle((RegelBlock) block, name);
+    }
+
+    synchronized void setParameterValues(final int[] handles, final double[] values) {
+        checkLength(handles, values.length);
+        final ParameterHandle[] parameterHandles = new ParameterHandle[handles.length];
+        for (int i = 0; i < handles.length; i++) { // check all handles before any value is set
+            parameterHandles[i] = getHandle(handles[i], ParameterHandle.class);
+        }
+        for (int i = 0; i < handles.length; i++) {
+            parameterHandles[i].setValue(values[i]);
+        }
+    }
+
+    synchronized double[] getParameterValues(final int[] handles) {
+        final double[] returnValue = new double[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            returnValue[i] = getHandle(handles[i], ParameterHandle.class).getValue();
+        }
+        return returnValue;
+    }
+
+    synchronized double[] getOutputValues(final int[] handles) {
+        final double[] returnValue = new double[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            returnValue[i] = getHandle(handles[i], OutputHandle.class).getValue();
+        }
+        return returnValue;
+    }
+
+    /**
+     * @return the row of each signal in the data container
+     */
+    synchronized int[] getSignalRows(final int[] handles, final AbstractDataContainer data) {
+        final int[] returnValue = new int[handles.length];
+        for (int i = 0; i < handles.length; i++) {
+            returnValue[i] = getHandle(handles[i], SignalHandle.class).findRow(data);
+        }
+        return returnValue;
+    }
+
+    private static void checkLength(final int[] handles, final int length) {
+        if (handles.length != length) {
+            throw new IllegalArgumentException("Array of handles not equal in length to array of values.");
+        }
+    }
+
+    private <T> T getHandle(final int handle, final Class<T> handleClass) {
+        if (handle >= 0 && handle < _firstHandle) {
+            throw new IllegalStateException("Handle " + handle + " is out of date, since the model was changed. "
+                    + "Call resolveHandles again.");
+        }
+        final int index = handle - _firstHandle;
+        if (handle < 0 || index >= _handles.size() || !handleClass.isInstance(_handles.get(index))) {
+            throw new IllegalArgumentException("Invalid handle " + handle + ", use resolveHandles with the type "
+                    + handleClass.getSimpleName().replace("Handle", "").toUpperCase() + ".");
+        }
+        final Object returnValue = _handles.get(index);
+        if (!isValid(returnValue)) {
+            throw new IllegalStateException("Handle " + handle + " is out of date, since the model was changed. "
+                    + "Call resolveHandles again.");
+        }
+        return handleClass.cast(returnValue);
+    }
+
+    private static boolean isValid(final Object handle) {
+        return !(handle instanceof ComponentHandle) || ((ComponentHandle) handle).isValid();
+    }
+
+    private static final class SignalHandle {
+
+        private final String _signalName;
+        private int _row = -1;
+
+        SignalHandle(final String signalName) {
+            _signalName = signalName;
+        }
+
+        int findRow(final AbstractDataContainer data) {
+            if (_row >= 0 && _row < data.getRowLength() && _signalName.equals(data.getSignalName(_row))) {
+                return _row;
+            }
+            for (int row = 0; row < data.getRowLength(); row++) {
+                if (data.getSignalName(row).equals(_signalName)) {
+                    _row = row;
+                    return row;
+                }
+            }
+            throw new IllegalArgumentException("could not find signal: " + _signalName);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.GeckoRemoteInterface;
+
+/**
+ * sweep worker for a model which is accessed via the GeckoREMOTE interface.
+ */
+final class RemoteSweepModel implements SweepModel {
+
+    private final GeckoRemoteInterface _model;
+
+    RemoteSweepModel(final GeckoRemoteInterface model) {
+        _model = model;
+    }
+
+    @Override
+    public void openFile(final String fileName) throws Exception {
+        _model.openFile(fileName);
+    }
+
+    @Override
+    public void setParameter(final String elementName, final String parameterName, final double value)
+            throws Exception {
+        _model.setParameter(elementName, parameterName, value);
+    }
+
+    @Override
+    public void setRandomSeed(final long seed) throws Exception {
+        _model.setRandomSeed(seed);
+    }
+
+    @Override
+    public void runSimulation() throws Exception {
+        _model.runSimulation();
+    }
+
+    @Override
+    public void endSimulation() throws Exception {
+        _model.endSimulation();
+    }
+
+    @Override
+    public double getEndTime() throws Exception {
+        return _model.get_Tend();
+    }
+
+    @Override
+    public double getSignalAvg(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalAvg(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getSignalRMS(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalRMS(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getSignalTHD(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalTHD(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getSignalMin(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalMin(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getSignalMax(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalMax(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getSignalRipple(final String signalName, final double startTime, final double endTime)
+            throws Exception {
+        return _model.getSignalRipple(signalName, startTime, endTime);
+    }
+
+    @Override
+    public double getOutput(final String elementName, final String outputName) throws Exception {
+        return _model.getOutput(elementName, outputName);
+    }
+}
@@ -109,6 +109,16 @@ public class SimulationAccess implements GeckoFileable {
         mainWindow._simRunner.simKern.simulateOneStep();
     }
 
+    public void simulateSteps(final CoSimulationPorts ports, final double[] inputs, final double[] outputs,
+            final int steps) throws Exception {
+        mainWindow._simRunner.simKern.simulateSteps(ports, inputs, outputs, steps);
+    }
+
+    public int simulateQueuedSteps(final CoSimulationPorts ports, final CoSimulationQueue queue,
+            final int maxSteps) throws Exception {
+        return mainWindow._simRunner.simKern.simulateQueuedSteps(ports, queue, maxSteps);
+    }
+
     public void simulateSpecifiedTime(double time) throws Exception {
         mainWindow._simRunner.simKern.simulateTime(time);
     }
@@ -117,6 +127,27 @@ public class SimulationAccess implements GeckoFileable {
         mainWindow.endSim();
     }
 
+    /**
+     * stops a running simulation, as the pause button.
+     */
+    public void pauseSimulation() {
+        mainWindow.pauseSimulation();
+    }
+
+    /**
+     * @return the simulated fraction of the running simulation, 0 if no
+     * simulation is running
+     */
+    public double getSimulationProgress() {
+        final SimulationsKern kernel = mainWindow._simRunner.simKern;
+        if (kernel == null || kernel._simulationStatus != SimulationsKern.SimulationStatus.RUNNING
+                || kernel.getTEND() <= kernel.getTSTART()) {
+            return 0;
+        }
+        final double progress = (kernel.getZeitAktuell() - kernel.getTSTART()) / (kernel.getTEND() - kernel.getTSTART());
+        return Math.max(0, Math.min(1, progress));
+    }
+
     public void makeVisible() {
         if (scriptwindow != null) {
             scriptwindow.setVisible(true);
@@ -231,6 +262,14 @@ public class SimulationAccess implements GeckoFileable {
         mainWindow._solverSettings._dt_pre.setValueWithoutUndo(value);
     }
 
+    /**
+     * @param seed a negative seed switches back to different random values in
+     * each simulation.
+     */
+    void setRandomSeed(final long seed) {
+        mainWindow._solverSettings._randomSeed = seed < 0 ? null : seed;
+    }
+
     void saveFileAs(String fileName) {
         mainWindow.rawSaveFile(new File(fileName));
     }
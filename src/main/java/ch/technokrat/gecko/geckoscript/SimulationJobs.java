@@ -0,0 +1,240 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simulation jobs which run asynchronously to the caller, e.g. to the RMI
+ * thread of a remote client, see AbstractGeckoCustom.submitSimulation(...).
+ * The simulation kernel and the model are global within GeckoCIRCUITS,
+ * therefore the jobs are queued and run one after another on a single
+ * simulation thread. For the same reason, other calls which change or
+ * simulate the model are rejected while jobs are queued or running, see
+ * checkNoPendingJobs.
+ */
+final class SimulationJobs {
+
+    enum Status {
+
+        QUEUED, RUNNING, FINISHED, FAILED, CANCELLED;
+    }
+
+    interface SimulationJob {
+
+        /**
+         * runs the simulation on the simulation thread.
+         *
+         * @return the recorded signals
+         */
+        double[][] run() throws Exception;
+
+        /**
+         * @return the progress of the running simulation, between 0 and 1
+         */
+        double getProgress();
+
+        /**
+         * stops the running simulation, run() returns afterwards.
+         */
+        void cancel();
+    }
+
+    private volatile Thread _jobThread;
+    private final ExecutorService _executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, "simulationJobThread");
+            thread.setDaemon(true);
+            _jobThread = thread;
+            return thread;
+        }
+    });
+    private final Map<Integer, JobEntry> _jobs = new ConcurrentHashMap<Integer, JobEntry>();
+    private final AtomicInteger _idCounter = new AtomicInteger();
+    private final AtomicInteger _pendingJobs = new AtomicInteger();
+
+    int submit(final SimulationJob job) {
+        final int jobID = _idCounter.incrementAndGet();
+        final JobEntry entry = new JobEntry(job, _pendingJobs);
+        final FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+            @Override
+            public void run() {
+                entry.run();
+            }
+        }, null);
+        // assigned before the task is queued, so that a cancel always finds it
+        entry._future = task;
+        _jobs.put(jobID, entry);
+        _pendingJobs.incrementAndGet();
+        _executor.execute(task);
+        return jobID;
+    }
+
+    /**
+     * the jobs change parameters and run simulations of the global model.
+     * Calls which do the same from other threads would interfere, therefore
+     * they have to wait until all jobs are finished.
+     *
+     * @param methodName the rejected call, for the error message
+     * @throws IllegalStateException if jobs are queued or running, and the
+     * caller is not the job itself
+     */
+    void checkNoPendingJobs(final String methodName) {
+        if (_pendingJobs.get() > 0 && Thread.currentThread() != _jobThread) {
+            throw new IllegalStateException(methodName + " is not possible while simulation jobs are queued or "
+                    + "running. Wait for them with awaitSimulation(...) or cancel them.");
+        }
+    }
+
+    Status getStatus(final int jobID) {
+        return getEntry(jobID)._status;
+    }
+
+    double getProgress(final int jobID) {
+        return getEntry(jobID).getProgress();
+    }
+
+    /**
+     * @return false, if the job was already finished
+     */
+    boolean cancel(final int jobID) {
+        return getEntry(jobID).cancel();
+    }
+
+    /**
+     * @return true, if the job is finished, failed or cancelled within the
+     * given time
+     */
+    boolean await(final int jobID, final long timeoutMillis) {
+        try {
+            return getEntry(jobID)._done.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * returns the result of a finished job and removes the job.
+     */
+    double[][] getResult(final int jobID) {
+        final JobEntry entry = getEntry(jobID);
+        switch (entry._status) {
+            case FINISHED:
+                _jobs.remove(jobID);
+                return entry._result;
+            case FAILED:
+                _jobs.remove(jobID);
+                throw new RuntimeException("Simulation job " + jobID + " failed: " + entry._error);
+            case CANCELLED:
+                _jobs.remove(jobID);
+                throw new IllegalStateException("Simulation job " + jobID + " was cancelled.");
+            default:
+                throw new IllegalStateException("Simulation job " + jobID + " is not finished, its status is "
+                        + entry._status + ".");
+        }
+    }
+
+    private JobEntry getEntry(final int jobID) {
+        final JobEntry returnValue = _jobs.get(jobID);
+        if (returnValue == null) {
+            throw new IllegalArgumentException("No simulation job with id " + jobID);
+        }
+        return returnValue;
+    }
+
+    private static final class JobEntry {
+
+        private final SimulationJob _job;
+        private final AtomicInteger _pendingJobs;
+        private final CountDownLatch _done = new CountDownLatch(1);
+        private volatile Status _status = Status.QUEUED;
+        private volatile double _progress;
+        private volatile boolean _isCancelRequested;
+        private volatile Future<?> _future;
+        private double[][] _result;
+        private String _error;
+
+        JobEntry(final SimulationJob job, final AtomicInteger pendingJobs) {
+            _job = job;
+            _pendingJobs = pendingJobs;
+        }
+
+        private void setDone() {
+            _pendingJobs.decrementAndGet();
+            _done.countDown();
+        }
+
+        void run() {
+            synchronized (this) {
+                if (_status != Status.QUEUED) { // cancelled while queued
+                    return;
+                }
+                _status = Status.RUNNING;
+            }
+            try {
+                final double[][] result = _job.run();
+                synchronized (this) {
+                    _result = result;
+                    _status = _isCancelRequested ? Status.CANCELLED : Status.FINISHED;
+                }
+            } catch (Throwable error) {
+                synchronized (this) {
+                    _error = String.valueOf(error.getMessage());
+                    _status = _isCancelRequested ? Status.CANCELLED : Status.FAILED;
+                }
+            } finally {
+                setDone();
+            }
+        }
+
+        double getProgress() {
+            switch (_status) {
+                case FINISHED:
+                    return 1;
+                case RUNNING: // the kernel of the previous job may still be reported at the start
+                    _progress = Math.max(_progress, _job.getProgress());
+                    return _progress;
+                default:
+                    return _progress;
+            }
+        }
+
+        synchronized boolean cancel() {
+            switch (_status) {
+                case QUEUED:
+                    _status = Status.CANCELLED;
+                    _future.cancel(false);
+                    setDone();
+                    return true;
+                case RUNNING:
+                    _isCancelRequested = true;
+                    _job.cancel();
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+/**
+ * A value which is evaluated after each simulation of a ParameterSweep, e.g.
+ * the RMS value of a signal or the losses of a semiconductor. The signal
+ * characteristics are evaluated from startTime until the end of the
+ * simulation.
+ */
+public abstract class SweepCharacteristic {
+
+    private enum SignalValue {
+        AVG, RMS, THD, MIN, MAX, RIPPLE
+    }
+
+    private final String _name;
+
+    protected SweepCharacteristic(final String name) {
+        _name = name;
+    }
+
+    /**
+     * column header in the result table
+     */
+    public final String getName() {
+        return _name;
+    }
+
+    public abstract double evaluate(final SweepModel model) throws Exception;
+
+    public static SweepCharacteristic avg(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.AVG, signalName, startTime);
+    }
+
+    public static SweepCharacteristic rms(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.RMS, signalName, startTime);
+    }
+
+    public static SweepCharacteristic thd(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.THD, signalName, startTime);
+    }
+
+    public static SweepCharacteristic min(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.MIN, signalName, startTime);
+    }
+
+    public static SweepCharacteristic max(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.MAX, signalName, startTime);
+    }
+
+    public static SweepCharacteristic ripple(final String signalName, final double startTime) {
+        return new SignalCharacteristic(SignalValue.RIPPLE, signalName, startTime);
+    }
+
+    /**
+     * output of a component at the end of the simulation, e.g.
+     * output("IGBT.1", "Ploss") for the losses of a semiconductor.
+     */
+    public static SweepCharacteristic output(final String elementName, final String outputName) {
+        return new SweepCharacteristic(elementName + "." + outputName) {
+            @Override
+            public double evaluate(final SweepModel model) throws Exception {
+                return model.getOutput(elementName, outputName);
+            }
+        };
+    }
+
+    private static final class SignalCharacteristic extends SweepCharacteristic {
+
+        private final SignalValue _value;
+        private final String _signalName;
+        private final double _startTime;
+
+        SignalCharacteristic(final SignalValue value, final String signalName, final double startTime) {
+            super(value.name().toLowerCase() + "(" + signalName + ")");
+            _value = value;
+            _signalName = signalName;
+            _startTime = startTime;
+        }
+
+        @Override
+        public double evaluate(final SweepModel model) throws Exception {
+            final double endTime = model.getEndTime();
+            switch (_value) {
+                case AVG:
+                    return model.getSignalAvg(_signalName, _startTime, endTime);
+                case RMS:
+                    return model.getSignalRMS(_signalName, _startTime, endTime);
+                case THD:
+                    return model.getSignalTHD(_signalName, _startTime, endTime);
+                case MIN:
+                    return model.getSignalMin(_signalName, _startTime, endTime);
+                case MAX:
+                    return model.getSignalMax(_signalName, _startTime, endTime);
+                case RIPPLE:
+                    return model.getSignalRipple(_signalName, _startTime, endTime);
+                default:
+                    assert false;
+                    return Double.NaN;
+            }
+        }
+    }
+}
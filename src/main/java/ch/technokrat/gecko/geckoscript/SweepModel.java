@@ -0,0 +1,58 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+/**
+ * A worker of a ParameterSweep: one model instance, which simulates one case
+ * at a time. Either a HeadlessSimulation in this JVM (see
+ * ParameterSweep.runHeadless()), or a further GeckoCIRCUITS instance
+ * connected via GeckoREMOTE.
+ */
+public interface SweepModel {
+
+    void openFile(final String fileName) throws Exception;
+
+    void setParameter(final String elementName, final String parameterName, final double value) throws Exception;
+
+    /**
+     * @param seed seed of the random signal sources of the next simulation
+     */
+    void setRandomSeed(final long seed) throws Exception;
+
+    void runSimulation() throws Exception;
+
+    /**
+     * is called from another thread, to end a running simulation.
+     */
+    void endSimulation() throws Exception;
+
+    /**
+     * @return end time of the last simulation
+     */
+    double getEndTime() throws Exception;
+
+    double getSignalAvg(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getSignalRMS(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getSignalTHD(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getSignalMin(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getSignalMax(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getSignalRipple(final String signalName, final double startTime, final double endTime) throws Exception;
+
+    double getOutput(final String elementName, final String outputName) throws Exception;
+}
@@ -0,0 +1,62 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+/**
+ * Result of one case of a ParameterSweep: the parameter values, the seed of
+ * the random signal sources and the values of the requested
+ * characteristics. If the simulation failed, the characteristics are NaN and
+ * getError() returns the reason.
+ */
+public final class SweepResult {
+
+    private final int _caseIndex;
+    private final double[] _parameterValues;
+    private final long _randomSeed;
+    private final double[] _characteristics;
+    private final String _error;
+
+    SweepResult(final int caseIndex, final double[] parameterValues, final long randomSeed,
+            final double[] characteristics, final String error) {
+        _caseIndex = caseIndex;
+        _parameterValues = parameterValues;
+        _randomSeed = randomSeed;
+        _characteristics = characteristics;
+        _error = error;
+    }
+
+    public int getCaseIndex() {
+        return _caseIndex;
+    }
+
+    public double[] getParameterValues() {
+        return _parameterValues.clone();
+    }
+
+    public long getRandomSeed() {
+        return _randomSeed;
+    }
+
+    public double[] getCharacteristics() {
+        return _characteristics.clone();
+    }
+
+    public boolean isFailed() {
+        return _error != null;
+    }
+
+    public String getError() {
+        return _error;
+    }
+}
@@ -0,0 +1,108 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations AG
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Results of a ParameterSweep. The rows are added by the worker threads as
+ * soon as a case is finished, therefore the table can already be read while
+ * the sweep is running.
+ */
+public final class SweepResultTable {
+
+    private static final String SEPARATOR = "\t";
+    private final String[] _parameterNames;
+    private final String[] _characteristicNames;
+    private final List<SweepResult> _rows = new ArrayList<SweepResult>();
+
+    SweepResultTable(final String[] parameterNames, final String[] characteristicNames) {
+        _parameterNames = parameterNames;
+        _characteristicNames = characteristicNames;
+    }
+
+    synchronized void addRow(final SweepResult row) {
+        _rows.add(row);
+    }
+
+    public synchronized int getRowCount() {
+        return _rows.size();
+    }
+
+    /**
+     * @return the rows in the order in which the cases were finished.
+     */
+    public synchronized List<SweepResult> getRowsInCompletionOrder() {
+        return new ArrayList<SweepResult>(_rows);
+    }
+
+    /**
+     * @return the rows sorted by the case index, which does not depend on the
+     * number of parallel workers.
+     */
+    public List<SweepResult> getRows() {
+        final List<SweepResult> returnValue = getRowsInCompletionOrder();
+        Collections.sort(returnValue, new Comparator<SweepResult>() {
+            @Override
+            public int compare(final SweepResult first, final SweepResult second) {
+                return Integer.compare(first.getCaseIndex(), second.getCaseIndex());
+            }
+        });
+        return returnValue;
+    }
+
+    public String[] getParameterNames() {
+        return _parameterNames.clone();
+    }
+
+    public String[] getCharacteristicNames() {
+        return _characteristicNames.clone();
+    }
+
+    /**
+     * @return the table in tab-separated format with a header line, sorted by
+     * the case index.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("case");
+        for (String name : _parameterNames) {
+            builder.append(SEPARATOR).append(name);
+        }
+        builder.append(SEPARATOR).append("seed");
+        for (String name : _characteristicNames) {
+            builder.append(SEPARATOR).append(name);
+        }
+        builder.append(SEPARATOR).append("error\n");
+        for (SweepResult row : getRows()) {
+            builder.append(row.getCaseIndex());
+            for (double value : row.getParameterValues()) {
+                builder.append(SEPARATOR).append(value);
+            }
+            builder.append(SEPARATOR).append(row.getRandomSeed());
+            for (double value : row.getCharacteristics()) {
+                builder.append(SEPARATOR).append(value);
+            }
+            builder.append(SEPARATOR);
+            if (row.isFailed()) {
+                builder.append(row.getError());
+            }
+            builder.append('\n');
+        }
+        return builder.toString();
+    }
+}
@@ -518,6 +518,7 @@ public enum I18nKeys {
     IF_TRUE_TRANSPOSE_DATA("If true, exchange output rows/columns (transposition)"),
     SKIP_DATA_POINTS("If number > 1, every n'th data point is used (and (n-1)th are skipped) when saving the data to a file."),
     IF_TRUE_PRINT_HEADER("If true, print header information into data file"),
+    IF_TRUE_COMPRESS_COLUMNAR_DATA("If true, compress the signal values of the columnar binary data file"),
     SIGNIFICANT_DIGITS("Determines the number of digits written to the file for every data point. Reducing this value"
             + " decreases the output file size, but also reduces data accuracy."),
     CURVE_MEASURED_AT_VOLTAGE("curve measured at voltage"),
@@ -634,6 +635,7 @@ public enum I18nKeys {
     CONSIDER_MINIMUM_ESTIMATION("consider the minimum estimation"),
     USE_BLACKMAN_WINDOW("use a blackman window for filtering"),
     SHOW_OUTPUTS_AS_RMS_VALUES("show outputs as RMS values"),
+    STREAMING_TEST_RECEIVER("Calculate the test receiver during the simulation, without recording the signal"),
     AUTO_QP_SELECTION("Detect QP frequencies automatically."),
     MAXIMUM_FREQUENCY_IN_CALCULATION("Maximum frequency to consider in calculation"),
     QP_INTERVAL("Selection of QP frequency calculation interval."),
@@ -670,7 +672,23 @@ public enum I18nKeys {
             + "the simulation step by step is wanted."),
     CONTINUE_SIMULATION_DOC("Continue the preceeding simulation. The simulation stepwidth and simulation"
             + "time are identical to the previous simulation run (if not explicitely changed by the user."),
+    SUBMIT_SIMULATION_DOC("Queues a simulation of the loaded model and returns a job id without waiting. At the start "
+            + "of the job, the given parameters are set; at its end, the given scope signals are stored as its result and "
+            + "the parameters are reset. While jobs are queued or running, calls which change or simulate the model "
+            + "are rejected."),
+    GET_SIMULATION_JOB_STATUS_DOC("Returns the status of a simulation job: QUEUED, RUNNING, FINISHED, FAILED or CANCELLED."),
+    GET_SIMULATION_PROGRESS_DOC("Returns the simulated fraction of a simulation job, between 0 and 1."),
+    CANCEL_SIMULATION_DOC("Removes a queued simulation job or stops a running one. Returns false, if the job already ended."),
+    AWAIT_SIMULATION_DOC("Waits at most timeoutMillis milliseconds for the end of a simulation job. Returns true, "
+            + "if the job ended."),
+    GET_SIMULATION_RESULT_DOC("Returns the recorded signals of a finished simulation job and removes the job. The first "
+            + "row contains the time values."),
     SET_DT_DESCRIPTION("Set the simulation stepwidth to the given value dt."),
+    RUN_PARAMETER_SWEEP_DOC("Runs all cases of the parameter sweep in parallel, on own instances of the model file "
+            + "(by default the saved file of this model, which is not changed) and on the further models (e.g. other "
+            + "GeckoCIRCUITS instances connected via GeckoREMOTE). Returns the result table."),
+    SET_RANDOM_SEED_DOC("Sets the seed of the random signal sources, so that repeated simulations produce "
+            + "identical random signals. A negative seed switches back to different random values in each simulation."),
     GET_DT_DOCUMENTATION("Returns the simulation stepwidth in seconds."),
     GET_TEND_DOCUMENTATION("Returns the total simulation time Tend in seconds."),
     SET_DT_PRE_DOCUMENTATION("Set the pre-simulation stepwidth to the given value dt."),
@@ -689,6 +707,12 @@ public enum I18nKeys {
     SAVE_FILE_AS_DOCUMENTATION("Save the current model file to the given path \"fileName\". Only global file-paths are accepted."),
     SIMULATE_STEP_DOCUMENTATION("Runs one time step of the simulation."),
     SIMULATE_STEPS_DOCUMENTATION("Runs consecutively the number of simulation time steps specified by \"steps\"."),
+    SIMULATE_STEPS_EXCHANGE_DOC("Sets the FromEXTERNAL blocks to the values of \"inputs\", runs the number of "
+            + "simulation time steps specified by \"steps\" and copies the values of the ToEXTERNAL blocks to \"outputs\"."),
+    CREATE_CO_SIMULATION_QUEUE_DOC("Creates queues for the input vectors of the FromEXTERNAL blocks and the output "
+            + "vectors of the ToEXTERNAL blocks, for up to \"capacity\" steps. See simulateQueuedSteps(...)."),
+    SIMULATE_QUEUED_STEPS_DOC("Runs one simulation time step for each input vector queued with "
+            + "queue.offerInputs(...), at most \"maxSteps\" steps. The outputs are collected with queue.pollOutputs(...)."),
     SIMULATE_TIME_DOCUMENTATION("Runs the simulation for the duration of simulation"
                 + " time specified by \"time\"."),
     END_SIMULATION_DOCUMENTATION("Finishes the simulation. Use this function if the methods for simulation step-by-step were used."),
@@ -698,6 +722,33 @@ public enum I18nKeys {
                 + "point in the specified interval."),
     GET_TIME_ARRAY_DOCUMENTATION("Call this function in combination with getSignalData(...). The returned values "
                 + "are the time values corresponding to the signal data from getSignalData()."),
+    SUBSCRIBE_WAVEFORMS_DOC("Starts a live stream of the given scope signals, which can be read with pollWaveforms(...) "
+                + "while the simulation runs. Every decimation-th time step is recorded, blockSize samples are collected "
+                + "into one block, and at most queueCapacity blocks are buffered. If the buffer is full, the "
+                + "overflowPolicy decides: \"DROP_OLDEST\" (default, also for an empty string) or \"DROP_NEWEST\" "
+                + "discard a block, \"BLOCK\" lets the simulation wait for the consumer, at most one second in total "
+                + "per simulation, before further blocks are discarded. Returns the subscription id."),
+    POLL_WAVEFORMS_DOC("Returns all buffered samples of a waveform subscription, without waiting. Row 0 of the "
+                + "returned matrix contains the time values, the following rows the subscribed signals."),
+    GET_DROPPED_WAVEFORM_BLOCKS_DOC("Returns the number of blocks of a waveform subscription, which were discarded "
+                + "since the buffer was full."),
+    UNSUBSCRIBE_WAVEFORMS_DOC("Ends a waveform subscription, see subscribeWaveforms(...)."),
+    GET_PARAMETER_HANDLE_DOC("Searches a component parameter once and returns a handle with the methods "
+                + "setValue(double) and getValue(). Faster than setParameter(...) in loops, the values are not "
+                + "recorded in the undo history. The handle is out of date when a component is renamed or deleted."),
+    GET_OUTPUT_HANDLE_DOC("Searches a control block output once and returns a handle with the method getValue(). "
+                + "For blocks with a single output, the output name may be empty."),
+    RESOLVE_HANDLES_DOC("Searches components, parameters, outputs or scope signals once and returns integer handles "
+                + "for the batch methods. handleType is PARAMETER, OUTPUT or SIGNAL; for signal handles, the element "
+                + "names are not used. The handles are out of date when a component is renamed or deleted."),
+    SET_PARAMETER_VALUES_DOC("Sets the values of several parameters at once, given by handles from "
+                + "resolveHandles(\"PARAMETER\", ...)."),
+    GET_PARAMETER_VALUES_DOC("Returns the values of several parameters at once, given by handles from "
+                + "resolveHandles(\"PARAMETER\", ...)."),
+    GET_OUTPUT_VALUES_DOC("Returns the current values of several control block outputs at once, given by handles from "
+                + "resolveHandles(\"OUTPUT\", ...)."),
+    GET_SIGNAL_VALUES_DOC("Returns several scope signals of a time interval at once, given by handles from "
+                + "resolveHandles(\"SIGNAL\", ...). The first row of the returned matrix contains the time values."),
     WRITE_OUTPUT_DOCUMENTATION("Writes the String given as the argument to the Output tab of the GeckoSCRIPT window. "
             + "Use for writing output from your script."),
     WRITE_OUTPUT_LN_DOCUMENTATION("Writes the String given as the argument as a new line to the Output tab "
@@ -916,6 +967,14 @@ public enum I18nKeys {
             + "Function parameter type: Double, return value: Double"),
     GET_AVG_AT_FREQ("Return the \"AVERAGE\"-calculation of the EMI spectrum at the given frequency. "
             + "Function parameter type: Double, return value: Double\""),
+    GET_RECEIVER_FREQUENCIES_DOC("Return the frequencies of the streaming EMI test receiver, which was calculated "
+            + "during the last simulation. No parameter required (null), return value: double[]"),
+    GET_RECEIVER_PEAK_DOC("Return the \"PEAK\" values of the streaming EMI test receiver at the frequencies of "
+            + "getReceiverFrequencies. No parameter required (null), return value: double[]"),
+    GET_RECEIVER_QUASI_PEAK_DOC("Return the \"QUASI-PEAK\" values of the streaming EMI test receiver at the frequencies "
+            + "of getReceiverFrequencies. No parameter required (null), return value: double[]"),
+    GET_RECEIVER_AVERAGE_DOC("Return the \"AVERAGE\" values of the streaming EMI test receiver at the frequencies of "
+            + "getReceiverFrequencies. No parameter required (null), return value: double[]"),
     SAVE_DATA_DOC("Save the calcuation/simulation data in the given file. The function parameter"
             + "must be a String containing a valid filePath, e.g. /home/gecko/data.txt . No "
             + "return value (null)"),
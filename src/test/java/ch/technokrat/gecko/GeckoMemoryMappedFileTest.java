@@ -0,0 +1,104 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class GeckoMemoryMappedFileTest {
+
+    private static final int CALLS = 2000;
+    private static final long CONNECTION_ID = 42;
+    private static final double DELTA = 0;
+    @Rule
+    public final TemporaryFolder _folder = new TemporaryFolder();
+
+    /**
+     * the server thread answers each getParameter call with the argument
+     * length, as GeckoCustomMMF.monitorMMF does.
+     */
+    @Test
+    public void testMethodCallRoundTrip() throws Exception {
+        final String fileName = _folder.getRoot().getAbsolutePath() + "/gecko.mmf";
+        final GeckoMemoryMappedFile server = new GeckoMemoryMappedFile(fileName, 1 << 20);
+        final Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final SpinParkWaiter waiter = new SpinParkWaiter(100000000, 1000000);
+                try {
+                    for (int i = 0; i < CALLS;) {
+                        if (server.isConnectionAttempt()) {
+                            assertTrue(server.isCompatibleConnectionAttempt());
+                            server.acceptConnection(CONNECTION_ID);
+                        } else if (server.isMethodCallPresent()) {
+                            final GeckoRemotePipeObject call = server.getPipeObject(CONNECTION_ID);
+                            final double length = ((String) call.getMethodArguments()[0]).length();
+                            server.respondToMethodCall(CONNECTION_ID, new GeckoRemotePipeObject(call.getMethodName(),
+                                    (Object) length));
+                            i++;
+                        }
+                        waiter.pause();
+                    }
+                } catch (Exception ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        final GeckoMemoryMappedFile client = GeckoMemoryMappedFile.getGeckoMemoryMappedFile(fileName);
+        assertEquals(CONNECTION_ID, client.connect(10000));
+        final long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            final GeckoRemotePipeObject response = client.callMethod(CONNECTION_ID,
+                    new GeckoRemotePipeObject("getParameter", new Object[]{"R." + i, "R"}));
+            assertTrue(response.isReturnValue());
+            assertEquals(("R." + i).length(), (Double) response.getMethodReturnValue(), DELTA);
+        }
+        final long microsPerCall = (System.nanoTime() - start) / 1000 / CALLS;
+        assertTrue("round trip " + microsPerCall + " us", microsPerCall < 5000);
+        serverThread.join(10000);
+        server.deleteFile();
+    }
+
+    /**
+     * a client which does not send the protocol version of this codec, e.g.
+     * of another GeckoCIRCUITS version, is detected.
+     */
+    @Test
+    public void testIncompatibleClientIsDetected() throws Exception {
+        final String fileName = _folder.getRoot().getAbsolutePath() + "/gecko.mmf";
+        final GeckoMemoryMappedFile server = new GeckoMemoryMappedFile(fileName, 1 << 16);
+        final RandomAccessFile file = new RandomAccessFile(fileName, "rw");
+        try {
+            final MappedByteBuffer header = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, 64);
+            header.putLong(32, GeckoRemotePipeCodec.PROTOCOL_VERSION + 1);
+            header.putLong(0, 0); // connection ID of a connection attempt
+            header.putLong(8, 2); // status CONNECTION_ATTEMPT
+            assertTrue(server.isConnectionAttempt());
+            assertFalse(server.isCompatibleConnectionAttempt());
+            header.putLong(32, GeckoRemotePipeCodec.PROTOCOL_VERSION);
+            assertTrue(server.isCompatibleConnectionAttempt());
+        } finally {
+            file.close();
+        }
+        server.deleteFile();
+    }
+}
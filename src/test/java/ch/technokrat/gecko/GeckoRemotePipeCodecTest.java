@@ -0,0 +1,90 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class GeckoRemotePipeCodecTest {
+
+    private static final double DELTA = 0;
+
+    private static GeckoRemotePipeObject roundTrip(final GeckoRemotePipeObject pipeObject) throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(4096);
+        buffer.position(7);
+        GeckoRemotePipeCodec.encode(pipeObject, buffer);
+        final int size = buffer.position();
+        buffer.position(7);
+        final GeckoRemotePipeObject returnValue = GeckoRemotePipeCodec.decode(buffer);
+        assertEquals(size, buffer.position());
+        return returnValue;
+    }
+
+    @Test
+    public void testMethodCall() throws Exception {
+        final Object[] arguments = {"R.1", 2, 3L, 0.5, 1.5f, true, null, new int[]{1, 2}, new double[]{-1, 1e300},
+            new float[]{Float.NaN}, new String[]{"a", "ü"}, new double[][]{{1}, {2, 3}}, new float[2][0],
+            new int[][]{{4}}, new StringBuilder("serialized")};
+        final GeckoRemotePipeObject decoded = roundTrip(new GeckoRemotePipeObject("doOperation", arguments));
+        assertTrue(decoded.isMethodCall());
+        assertEquals("doOperation", decoded.getMethodName());
+        final Object[] result = decoded.getMethodArguments();
+        assertEquals(arguments.length, result.length);
+        for (int i = 0; i < arguments.length - 1; i++) {
+            assertTrue("argument " + i, Arrays.deepEquals(new Object[]{arguments[i]}, new Object[]{result[i]}));
+        }
+        assertEquals("serialized", result[arguments.length - 1].toString());
+    }
+
+    @Test
+    public void testNullArrays() throws Exception {
+        final Object[] arguments = {new double[][]{{1}, null, {}}, new int[][]{null}, new float[][]{null, {2}},
+            new String[]{null, "b"}};
+        final Object[] result = roundTrip(new GeckoRemotePipeObject("doOperation", arguments)).getMethodArguments();
+        assertTrue(Arrays.deepEquals(arguments, result));
+        assertNull(((double[][]) result[0])[1]);
+        assertEquals(0, ((double[][]) result[0])[2].length);
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidMethodID() throws Exception {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.put((byte) GeckoRemotePipeObject.GeckoRemotePipeObjectType.METHOD_VOID_RETURN.ordinal());
+        buffer.putShort(Short.MAX_VALUE);
+        buffer.flip();
+        GeckoRemotePipeCodec.decode(buffer);
+    }
+
+    @Test
+    public void testReturnValues() throws Exception {
+        final GeckoRemotePipeObject value = roundTrip(new GeckoRemotePipeObject("getParameter", (Object) 4.25));
+        assertTrue(value.isReturnValue());
+        assertEquals(4.25, (Double) value.getMethodReturnValue(), DELTA);
+
+        final GeckoRemotePipeObject string = roundTrip(new GeckoRemotePipeObject("getInputNodeName", (Object) "in"));
+        assertTrue(string.isReturnValue());
+        assertEquals("in", string.getMethodReturnValue());
+
+        assertTrue(roundTrip(new GeckoRemotePipeObject("setParameter")).isVoidReturn());
+        final GeckoRemotePipeObject error = roundTrip(new GeckoRemotePipeObject("setParameter", "not found"));
+        assertTrue(error.isErrorMessage());
+        assertEquals("not found", error.getErrorMessage());
+
+        final GeckoRemotePipeObject unknown = roundTrip(new GeckoRemotePipeObject("someOtherMethod", new Object[0]));
+        assertEquals("someOtherMethod", unknown.getMethodName());
+    }
+}
@@ -65,6 +65,8 @@ public class GeckoRemoteTest {
                         dummyParameters[i] = 1;
                     } else if(currentClass.equals(double.class)) {
                         dummyParameters[i] = 1;
+                    } else if(currentClass.equals(long.class)) {
+                        dummyParameters[i] = 1L;
                     } else if(currentClass.equals(float.class)) {
                         dummyParameters[i] = 1;
                     } else if(currentClass.equals(boolean.class)) {
@@ -0,0 +1,85 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko;
+
+import ch.technokrat.gecko.geckocircuits.datacontainer.ContainerStatus;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class GeckoWaveformServerTest {
+
+    private static final double DELTA = 0;
+
+    @Test
+    public void testStreamOverSocket() throws Exception {
+        final DataContainerGlobal data = new DataContainerGlobal();
+        data.init(2, new String[]{"a", "b"}, "t");
+        data.setContainerStatus(ContainerStatus.RUNNING);
+        final GeckoWaveformServer server = new GeckoWaveformServer(data, 0);
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        try {
+            final OutputStream output = socket.getOutputStream();
+            output.write("SUBSCRIBE\t1\t4\t8\tDROP_OLDEST\tb\n".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            final DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            final int id = input.readInt();
+            assertTrue(id > 0);
+            assertEquals(1, input.readInt());
+            assertEquals("b", input.readUTF());
+
+            final float[] values = new float[2];
+            for (int i = 0; i < 4; i++) {
+                values[1] = 10 * i;
+                data.insertValuesAtEnd(values, i);
+            }
+
+            assertEquals(0, input.readLong());
+            assertEquals(0, input.readLong());
+            assertEquals(4, input.readInt());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(i, input.readDouble(), DELTA);
+            }
+            for (int i = 0; i < 4; i++) {
+                assertEquals(10 * i, input.readFloat(), DELTA);
+            }
+        } finally {
+            socket.close();
+            server.close();
+            data.clear();
+        }
+    }
+
+    @Test
+    public void testInvalidRequest() throws Exception {
+        final DataContainerGlobal data = new DataContainerGlobal();
+        final GeckoWaveformServer server = new GeckoWaveformServer(data, 0);
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        try {
+            socket.getOutputStream().write("SUBSCRIBE\t1\t4\t8\tNEVER\tb\n".getBytes(StandardCharsets.UTF_8));
+            final DataInputStream input = new DataInputStream(socket.getInputStream());
+            assertEquals(-1, input.readInt());
+            assertTrue(input.readUTF().contains("NEVER"));
+        } finally {
+            socket.close();
+            server.close();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.allg;
+
+import ch.technokrat.gecko.GeckoSim;
+import ch.technokrat.gecko.geckocircuits.circuit.IDStringDialog;
+import ch.technokrat.gecko.geckocircuits.circuit.SchematischeEingabe2;
+import ch.technokrat.gecko.geckocircuits.control.RegelBlock;
+import ch.technokrat.gecko.geckocircuits.control.ReglerDelay;
+import ch.technokrat.gecko.geckocircuits.control.ReglerOSZI;
+import java.awt.Window;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public final class HeadlessSimulationTest {
+
+    private static final String MODEL = "resources/Topologies/BuckBoost_const_dutyCycle.ipes";
+    private SchematischeEingabe2 _oldSchematicEntry;
+    private String _oldFileName;
+    private File _outputFile;
+
+    @Before
+    public void setUp() throws Exception {
+        _oldSchematicEntry = SchematischeEingabe2.Singleton;
+        _oldFileName = GlobalFilePathes.DATNAM;
+        _outputFile = File.createTempFile("headless", ".txt");
+        _outputFile.deleteOnExit();
+    }
+
+    @After
+    public void tearDown() {
+        SchematischeEingabe2.Singleton = _oldSchematicEntry;
+        GlobalFilePathes.DATNAM = _oldFileName;
+        _outputFile.delete();
+    }
+
+    @Test
+    public void testMainWindowModelIsNotChanged() throws Exception {
+        GlobalFilePathes.DATNAM = "mainWindowModel.ipes";
+        final ReglerDelay mainWindowBlock = new ReglerDelay();
+        final String name = mainWindowBlock.getStringID();
+        final int nameGeneration = IDStringDialog.getNameGeneration();
+        final OperatingMode operatingMode = GeckoSim.operatingmode;
+
+        new HeadlessSimulation().openFile(new File(MODEL).getAbsolutePath());
+        assertSame(operatingMode, GeckoSim.operatingmode);
+        // the windows are only suppressed during the load
+        assertFalse(GeckoSim.setWindowsSuppressedInThread(false));
+        // "save" of the main window still writes to its own file
+        assertEquals("mainWindowModel.ipes", GlobalFilePathes.DATNAM);
+        assertSame(mainWindowBlock, IDStringDialog.getComponentByName(name));
+        assertFalse(IDStringDialog.isNameAlreadyUsed("uOUT"));
+        // the handles of the main window model stay valid
+        assertEquals(nameGeneration, IDStringDialog.getNameGeneration());
+    }
+
+    @Test
+    public void testSimulationWithoutWindows() throws Exception {
+        final int windowsBefore = Window.getWindows().length;
+        final HeadlessSimulation simulation = new HeadlessSimulation();
+        simulation.openFile(new File(MODEL).getAbsolutePath());
+        simulation.runSimulation();
+        simulation.writeSignals(_outputFile, Arrays.asList("uOUT", "iL"));
+
+        assertEquals(windowsBefore, Window.getWindows().length);
+        for (RegelBlock block : simulation.getSchematicEntry().getElementCONTROL()) {
+            if (block instanceof ReglerOSZI) {
+                assertNull(((ReglerOSZI) block)._scopeFrame);
+            }
+        }
+
+        assertTrue(simulation.getSignalNames().containsAll(Arrays.asList("uIN", "uOUT", "iL")));
+        final BufferedReader reader = new BufferedReader(new FileReader(_outputFile));
+        try {
+            assertEquals("t\tuOUT\tiL", reader.readLine());
+            final String[] firstLine = reader.readLine().split("\t");
+            assertEquals(3, firstLine.length);
+            assertEquals(0, Double.parseDouble(firstLine[0]), 0);
+            int lines = 1;
+            String lastLine = null;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lastLine = line;
+                lines++;
+            }
+            assertEquals(simulation.getScopeData().getMaximumTimeIndex(0) + 1, lines);
+            final double lastTime = Double.parseDouble(lastLine.split("\t")[0]);
+            assertEquals(simulation.getSolverSettings()._tDURATION.getValue(), lastTime,
+                    2 * simulation.getSolverSettings().dt.getValue());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownSignal() throws Exception {
+        final HeadlessSimulation simulation = new HeadlessSimulation();
+        simulation.openFile(new File(MODEL).getAbsolutePath());
+        simulation.runSimulation();
+        simulation.writeSignals(_outputFile, Collections.singletonList("notConnected"));
+    }
+}
@@ -0,0 +1,46 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.control.ReglerDelay;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class AbstractBlockInterfaceTest {
+
+    private static final double DELTA = 0;
+
+    @Test
+    public void testSetParameterByShortName() throws Exception {
+        final ReglerDelay delay = new ReglerDelay();
+        delay.setAccessibleParameter("T", 2e-6);
+        assertEquals(2e-6, delay._tDelay.getValue(), DELTA);
+        assertEquals(2e-6, delay.getAccessibleParameterValue("t"), DELTA);
+    }
+
+    @Test
+    public void testSetParameterByAlternativeShortName() throws Exception {
+        final ReglerDelay delay = new ReglerDelay();
+        // used to throw "not found" after the value was set
+        delay.setAccessibleParameter("T_delay", 5e-6);
+        assertEquals(5e-6, delay._tDelay.getValue(), DELTA);
+        assertEquals(5e-6, delay.getAccessibleParameterValue("T_delay"), DELTA);
+        assertEquals(1, delay.findAccessibleParameters("T_delay").size());
+    }
+
+    @Test(expected = IllegalAccessException.class)
+    public void testUnknownParameter() throws Exception {
+        new ReglerDelay().setAccessibleParameter("unknown", 1);
+    }
+}
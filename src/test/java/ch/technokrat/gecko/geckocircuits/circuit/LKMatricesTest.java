@@ -0,0 +1,95 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
+import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.CircuitTyp;
+import ch.technokrat.gecko.geckocircuits.circuit.circuitcomponents.SourceType;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class LKMatricesTest {
+
+    private static final int PARAMETERS = 30;
+    private static final double DT = 1e-6;
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * RC ladder, similar to a thermal network: a voltage source at node 1, a
+     * series resistor and a capacitor to ground in each section.
+     */
+    private static NetListLK createLadder(final int sections) {
+        final int size = 1 + 2 * sections;
+        final CircuitTyp[] types = new CircuitTyp[size];
+        final int[] knotenX = new int[size];
+        final int[] knotenY = new int[size];
+        final double[][] parameters = new double[size][PARAMETERS];
+        final int[] spgQuelleNr = new int[size];
+        types[0] = CircuitTyp.LK_U;
+        knotenX[0] = 1;
+        parameters[0][0] = SourceType.QUELLE_DC;
+        parameters[0][1] = 10;
+        spgQuelleNr[0] = 1;
+        for (int k = 1; k <= sections; k++) {
+            types[2 * k - 1] = CircuitTyp.LK_R;
+            knotenX[2 * k - 1] = k;
+            knotenY[2 * k - 1] = k + 1;
+            parameters[2 * k - 1][0] = 1 + 0.01 * k;
+            types[2 * k] = CircuitTyp.LK_C;
+            knotenX[2 * k] = k + 1;
+            parameters[2 * k][6] = 1e-6;
+            parameters[2 * k][7] = 1e-6;
+        }
+        return new NetListLK(types, knotenX, knotenY, parameters, spgQuelleNr);
+    }
+
+    private static LKMatrices createMatrices(final NetListLK netList, final boolean isSparseAssemblyAllowed) {
+        final LKMatrices returnValue = new LKMatrices(SolverType.SOLVER_TRZ);
+        if (isSparseAssemblyAllowed) {
+            returnValue.allowSparseAssembly();
+        }
+        returnValue.initMatrizen(netList);
+        returnValue.schreibeMatrix_A(DT, 0, false);
+        return returnValue;
+    }
+
+    @Test
+    public void testSparseAssemblyWithoutDenseMatrix() {
+        final NetListLK netList = createLadder(150);
+        final LKMatrices dense = createMatrices(netList, false);
+        final LKMatrices sparse = createMatrices(netList, true);
+        assertNotNull(dense.a);
+        assertNull(sparse.a);
+
+        final AbstractCachedMatrix denseDecomposition = dense.getCachedLUDecomposition(new LUDecompositionCache(), 0);
+        final AbstractCachedMatrix sparseDecomposition = sparse.getCachedLUDecomposition(new LUDecompositionCache(), 0);
+        assertTrue(sparseDecomposition instanceof SparseLUCachedMatrix);
+        final double[] bVector = new double[dense.matrixSize];
+        for (int i = 1; i < bVector.length; i++) {
+            bVector[i] = Math.sin(i);
+        }
+        final double[] expected = denseDecomposition.solve(bVector).clone();
+        final double[] solution = sparseDecomposition.solve(bVector);
+        for (int i = 1; i < bVector.length; i++) {
+            assertEquals(expected[i], solution[i], TOLERANCE * Math.max(1, Math.abs(expected[i])));
+        }
+    }
+
+    @Test
+    public void testSmallMatrixIsAssembledDense() {
+        final LKMatrices matrices = createMatrices(createLadder(10), true);
+        assertNotNull(matrices.a);
+        assertTrue(matrices.getCachedLUDecomposition(new LUDecompositionCache(), 0) instanceof CachedMatrix);
+    }
+}
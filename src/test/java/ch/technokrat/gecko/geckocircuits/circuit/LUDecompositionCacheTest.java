@@ -0,0 +1,183 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class LUDecompositionCacheTest {
+
+    // too small for low rank updates, every miss is a full decomposition
+    private static final int MATRIX_SIZE = 3;
+    private static final double DT = 1e-6;
+    private static final int SWITCHES = 70;
+
+    private static double[][] createMatrix(final double conductance) {
+        final double[][] matrix = new double[MATRIX_SIZE][MATRIX_SIZE];
+        matrix[1][1] = 1 + conductance;
+        matrix[2][2] = 1 + conductance;
+        matrix[1][2] = -conductance;
+        matrix[2][1] = -conductance;
+        return matrix;
+    }
+
+    private static MatrixStateKey createKey(final int switchOn, final long generation) {
+        final MatrixStateKey key = new MatrixStateKey(SWITCHES);
+        key.setSwitchOn(switchOn);
+        key.setStepWidth(DT);
+        key.setGeneration(generation);
+        return key;
+    }
+
+    @Test
+    public void testKeyEquality() {
+        final MatrixStateKey key = createKey(65, 1);
+        assertTrue(key.isSwitchOn(65));
+        assertFalse(key.isSwitchOn(1));
+        assertEquals(key, key.copy());
+        assertEquals(key.hashCode(), key.copy().hashCode());
+        assertFalse(key.equals(createKey(64, 1)));
+        assertFalse(key.equals(createKey(65, 2)));
+        final MatrixStateKey otherStepWidth = createKey(65, 1);
+        otherStepWidth.setStepWidth(2 * DT);
+        assertFalse(key.equals(otherStepWidth));
+        key.clearSwitchStates();
+        assertFalse(key.isSwitchOn(65));
+    }
+
+    @Test
+    public void testLookupByKey() {
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        final MatrixStateKey key = createKey(0, 1);
+        final AbstractCachedMatrix first = cache.getCachedLUDecomposition(createMatrix(1), key, 0);
+        // the key is copied: modifying the lookup key does not modify the cache
+        key.setSwitchOn(1);
+        final AbstractCachedMatrix second = cache.getCachedLUDecomposition(createMatrix(2), key, 1);
+        assertNotSame(first, second);
+        // on a hit, the matrix entries are not read
+        assertSame(first, cache.getCachedLUDecomposition(null, createKey(0, 1), 2));
+        assertEquals(2, cache.getCacheSize());
+
+        final double[] solution = second.solve(new double[]{0, 1, 0});
+        assertEquals(3.0 / 5, solution[1], 1e-12);
+        assertEquals(2.0 / 5, solution[2], 1e-12);
+    }
+
+    @Test
+    public void testNewGenerationRemovesOldMatrices() {
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        cache.getCachedLUDecomposition(createMatrix(1), createKey(0, 1), 0);
+        cache.getCachedLUDecomposition(createMatrix(2), createKey(1, 1), 0);
+        assertEquals(2, cache.getCacheSize());
+        cache.getCachedLUDecomposition(createMatrix(3), createKey(0, 2), 0);
+        assertEquals(1, cache.getCacheSize());
+    }
+
+    @Test
+    public void testMemoryLimit() {
+        final CachedMatrix reference = new CachedMatrix(createMatrix(1));
+        reference.initLUDecomp();
+        final long matrixBytes = reference.calculateMemoryRequirement();
+        assertTrue(matrixBytes > 2 * MATRIX_SIZE * MATRIX_SIZE * Double.SIZE / Byte.SIZE);
+
+        final LUDecompositionCache cache = new LUDecompositionCache(2 * matrixBytes + matrixBytes / 2);
+        final AbstractCachedMatrix first = cache.getCachedLUDecomposition(createMatrix(1), createKey(0, 1), 0);
+        final AbstractCachedMatrix second = cache.getCachedLUDecomposition(createMatrix(2), createKey(1, 1), 1);
+        assertEquals(2 * matrixBytes, cache.getMemoryBytes());
+        // first is now the most recently used
+        assertSame(first, cache.getCachedLUDecomposition(null, createKey(0, 1), 2));
+        cache.getCachedLUDecomposition(createMatrix(3), createKey(2, 1), 3);
+        assertEquals(2, cache.getCacheSize());
+        assertEquals(2 * matrixBytes, cache.getMemoryBytes());
+        assertSame(first, cache.getCachedLUDecomposition(null, createKey(0, 1), 4));
+        assertNotSame(second, cache.getCachedLUDecomposition(createMatrix(2), createKey(1, 1), 5));
+    }
+
+    /**
+     * a ladder network with one switch between the nodes 2 and 3, large
+     * enough for low rank updates.
+     */
+    private static double[][] createSwitchedMatrix(final boolean switchOn) {
+        final int size = 4 * MATRIX_SIZE;
+        final double[][] matrix = new double[size][size];
+        for (int i = 1; i < size; i++) {
+            matrix[i][i] += 1;
+            if (i > 1) {
+                matrix[i][i] += 1;
+                matrix[i - 1][i - 1] += 1;
+                matrix[i][i - 1] -= 1;
+                matrix[i - 1][i] -= 1;
+            }
+        }
+        final double conductance = switchOn ? 1e3 : 1e-6;
+        matrix[2][2] += conductance;
+        matrix[3][3] += conductance;
+        matrix[2][3] -= conductance;
+        matrix[3][2] -= conductance;
+        return matrix;
+    }
+
+    @Test
+    public void testLowRankUpdateIsCached() {
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        final AbstractCachedMatrix base = cache.getCachedLUDecomposition(createSwitchedMatrix(false), createKey(0, 1), 0);
+        final double[][] toggledMatrix = createSwitchedMatrix(true);
+        final AbstractCachedMatrix update = cache.getCachedLUDecomposition(toggledMatrix, createKey(1, 1), 1);
+        assertTrue(update instanceof LowRankUpdatedMatrix);
+        assertEquals(0, cache.getCacheHitCount());
+
+        // PWM: the switch toggles back and forth, every further visit is a cache hit
+        for (int period = 0; period < 3; period++) {
+            assertSame(base, cache.getCachedLUDecomposition(null, createKey(0, 1), 2 + 2 * period));
+            assertSame(update, cache.getCachedLUDecomposition(null, createKey(1, 1), 3 + 2 * period));
+        }
+        assertEquals(6, cache.getCacheHitCount());
+        assertEquals(2, cache.getCacheSize());
+
+        final double[] bVector = new double[toggledMatrix.length];
+        bVector[1] = 1;
+        final double[] solution = update.solve(bVector);
+        for (int i = 1; i < toggledMatrix.length; i++) {
+            double rowSum = 0;
+            for (int j = 1; j < toggledMatrix.length; j++) {
+                rowSum += toggledMatrix[i][j] * solution[j];
+            }
+            assertEquals(bVector[i], rowSum, 1e-9);
+        }
+    }
+
+    @Test
+    public void testLowRankUpdateIsRemovedBeforeItsBase() {
+        final double[][] otherMatrix = createSwitchedMatrix(false);
+        for (double[] row : otherMatrix) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] *= 2;
+            }
+        }
+        final CachedMatrix reference = new CachedMatrix(otherMatrix);
+        reference.initLUDecomp();
+        final long matrixBytes = reference.calculateMemoryRequirement();
+
+        final LUDecompositionCache cache = new LUDecompositionCache(2 * matrixBytes + matrixBytes / 8);
+        final AbstractCachedMatrix base = cache.getCachedLUDecomposition(createSwitchedMatrix(false), createKey(0, 1), 0);
+        final AbstractCachedMatrix update = cache.getCachedLUDecomposition(createSwitchedMatrix(true), createKey(1, 1), 1);
+        assertTrue(update instanceof LowRankUpdatedMatrix);
+        assertTrue(update.calculateMemoryRequirement() > matrixBytes / 8);
+        // the update is used last, nevertheless its base is kept longer
+        assertSame(update, cache.getCachedLUDecomposition(null, createKey(1, 1), 2));
+        assertFalse(cache.getCachedLUDecomposition(otherMatrix, createKey(2, 1), 3) instanceof LowRankUpdatedMatrix);
+        assertEquals(2, cache.getCacheSize());
+        assertSame(base, cache.getCachedLUDecomposition(null, createKey(0, 1), 4));
+    }
+}
@@ -0,0 +1,124 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class LowRankUpdatedMatrixTest {
+
+    private static final int MATRIX_SIZE = 40;
+    private static final int MAX_RANK = 8;
+    private static final double TOLERANCE = 1e-8;
+    private static final double R_ON = 1e-2;
+    private static final double R_OFF = 1e5;
+    private static final int[][] SWITCH_NODES = {{3, 17}, {8, 0}, {21, 30}, {35, 12}};
+
+    private static double[][] createMatrix(final boolean[] switchStates) {
+        final double[][] matrix = new double[MATRIX_SIZE][MATRIX_SIZE];
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            stampConductance(matrix, i, i - 1, 1.0 + 0.1 * i);
+        }
+        for (int k = 0; k < SWITCH_NODES.length; k++) {
+            stampConductance(matrix, SWITCH_NODES[k][0], SWITCH_NODES[k][1], 1.0 / (switchStates[k] ? R_ON : R_OFF));
+        }
+        return matrix;
+    }
+
+    private static void stampConductance(final double[][] matrix, final int x, final int y, final double value) {
+        matrix[x][x] += value;
+        matrix[y][y] += value;
+        matrix[x][y] -= value;
+        matrix[y][x] -= value;
+    }
+
+    private static double[] createBVector() {
+        final double[] bVector = new double[MATRIX_SIZE];
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            bVector[i] = Math.sin(i);
+        }
+        return bVector;
+    }
+
+    private static AbstractCachedMatrix createBase(final double[][] baseMatrix) {
+        final CachedMatrix base = new CachedMatrix(baseMatrix);
+        base.initLUDecomp();
+        return base;
+    }
+
+    @Test
+    public void testSwitchToggleCompareWithFullDecomposition() {
+        final boolean[] switchStates = new boolean[SWITCH_NODES.length];
+        final double[][] baseMatrix = createMatrix(switchStates);
+        final AbstractCachedMatrix base = createBase(baseMatrix);
+
+        switchStates[0] = true;
+        switchStates[2] = true;
+        final double[][] newMatrix = createMatrix(switchStates);
+        final AbstractCachedMatrix updated = LowRankUpdatedMatrix.createLowRankUpdate(base, baseMatrix, newMatrix, MAX_RANK);
+        assertTrue(updated instanceof LowRankUpdatedMatrix);
+        assertEquals(4, ((LowRankUpdatedMatrix) updated).getRank());
+
+        final CachedMatrix full = new CachedMatrix(newMatrix);
+        full.initLUDecomp();
+        final double[] bVector = createBVector();
+        final double[] expected = full.solve(bVector).clone();
+        final double[] result = updated.solve(bVector);
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            assertEquals(expected[i], result[i], TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testRankLimit() {
+        final boolean[] switchStates = new boolean[SWITCH_NODES.length];
+        final double[][] baseMatrix = createMatrix(switchStates);
+        final AbstractCachedMatrix base = createBase(baseMatrix);
+        for (int k = 0; k < switchStates.length; k++) {
+            switchStates[k] = true;
+        }
+        // 4 switches change 7 rows, since one switch is connected to ground
+        assertNull(LowRankUpdatedMatrix.createLowRankUpdate(base, baseMatrix, createMatrix(switchStates), 6));
+        assertNotNull(LowRankUpdatedMatrix.createLowRankUpdate(base, baseMatrix, createMatrix(switchStates), 7));
+    }
+
+    @Test
+    public void testUnchangedMatrixReturnsBase() {
+        final double[][] baseMatrix = createMatrix(new boolean[SWITCH_NODES.length]);
+        final AbstractCachedMatrix base = createBase(baseMatrix);
+        assertSame(base, LowRankUpdatedMatrix.createLowRankUpdate(base, baseMatrix,
+                createMatrix(new boolean[SWITCH_NODES.length]), MAX_RANK));
+    }
+
+    @Test
+    public void testCacheUsesLowRankUpdateOnMiss() {
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        final boolean[] switchStates = new boolean[SWITCH_NODES.length];
+        final AbstractCachedMatrix first = cache.getCachedLUDecomposition(createMatrix(switchStates), 0);
+        assertTrue(first instanceof CachedMatrix);
+        switchStates[1] = true;
+        final double[][] newMatrix = createMatrix(switchStates);
+        final AbstractCachedMatrix second = cache.getCachedLUDecomposition(newMatrix, 1);
+        assertTrue(second instanceof LowRankUpdatedMatrix);
+
+        final CachedMatrix full = new CachedMatrix(newMatrix);
+        full.initLUDecomp();
+        final double[] bVector = createBVector();
+        final double[] expected = full.solve(bVector).clone();
+        final double[] result = second.solve(bVector);
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            assertEquals(expected[i], result[i], TOLERANCE);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class MatrixStampsTest {
+
+    private static final double DELTA = 0;
+
+    private static void writeStamps(final MatrixStamps stamps, final double conductance1, final double conductance2) {
+        stamps.set(0, 0, 1);
+        stampConductance(stamps, 1, 2, conductance1);
+        stampConductance(stamps, 2, 3, conductance2);
+    }
+
+    private static void stampConductance(final MatrixStamps stamps, final int x, final int y, final double value) {
+        stamps.add(x, x, value);
+        stamps.add(y, y, value);
+        stamps.add(x, y, -value);
+        stamps.add(y, x, -value);
+    }
+
+    private static MatrixStamps createStamps(final double conductance1, final double conductance2) {
+        final MatrixStamps stamps = new MatrixStamps(4);
+        writeStamps(stamps, conductance1, conductance2);
+        stamps.compile();
+        return stamps;
+    }
+
+    @Test
+    public void testAssembly() {
+        final MatrixStamps stamps = createStamps(0.1, 0.7);
+        assertEquals(9, stamps.getNumberOfStamps());
+        assertEquals(8, stamps.getNumberOfSlots());
+        final double[][] matrix = new double[4][4];
+        stamps.assemble(matrix);
+        assertEquals(1, matrix[0][0], DELTA);
+        assertEquals(0.1, matrix[1][1], DELTA);
+        assertEquals(0.1 + 0.7, matrix[2][2], DELTA);
+        assertEquals(-0.7, matrix[3][2], DELTA);
+        assertEquals(0, matrix[1][3], DELTA);
+    }
+
+    @Test
+    public void testAssemblyInCompressedColumns() {
+        final MatrixStamps stamps = createStamps(0.1, 0.7);
+        final CompressedColumns columns = stamps.createColumns();
+        assertEquals(3, columns._size);
+        assertArrayEquals(new int[]{0, 2, 5, 7}, columns._colPointers);
+        assertArrayEquals(new int[]{0, 1, 0, 1, 2, 1, 2}, columns._rowIndices);
+        stamps.assemble(columns);
+        assertArrayEquals(new double[]{0.1, -0.1, -0.1, 0.1 + 0.7, -0.7, -0.7, 0.7}, columns._values, DELTA);
+
+        columns._values[0] = Double.NaN; // not rewritten, if the conductance 1 does not change
+        stamps.beginUpdate(0);
+        writeStamps(stamps, 0.1, 0.3);
+        assertTrue(stamps.endUpdate(stamps.getNumberOfStamps()));
+        stamps.assemble(columns);
+        assertTrue(Double.isNaN(columns._values[0]));
+        assertEquals(0.1 + 0.3, columns._values[3], DELTA);
+        assertEquals(-0.3, columns._values[4], DELTA);
+    }
+
+    @Test
+    public void testUpdateWritesOnlyChangedSlots() {
+        final MatrixStamps stamps = createStamps(0.1, 0.7);
+        final double[][] matrix = new double[4][4];
+        stamps.assemble(matrix);
+        matrix[1][1] = Double.NaN; // not rewritten, if the conductance 1 does not change
+        stamps.beginUpdate(0);
+        writeStamps(stamps, 0.1, 0.3);
+        assertTrue(stamps.endUpdate(stamps.getNumberOfStamps()));
+        stamps.assemble(matrix);
+        assertTrue(Double.isNaN(matrix[1][1]));
+        assertEquals(0.1 + 0.3, matrix[2][2], DELTA);
+        assertEquals(-0.3, matrix[2][3], DELTA);
+        assertEquals(-0.1, matrix[2][1], DELTA);
+    }
+
+    @Test
+    public void testAssignmentOverwritesPreviousStamps() {
+        final MatrixStamps stamps = new MatrixStamps(2);
+        stamps.add(1, 1, 5);
+        stamps.set(1, 1, 2);
+        stamps.add(1, 1, 1);
+        stamps.compile();
+        final double[][] matrix = new double[2][2];
+        stamps.assemble(matrix);
+        assertEquals(3, matrix[1][1], DELTA);
+    }
+
+    @Test
+    public void testChangedStructureIsDetected() {
+        final MatrixStamps stamps = createStamps(0.1, 0.7);
+        stamps.beginUpdate(0);
+        stamps.set(0, 0, 1);
+        stampConductance(stamps, 1, 3, 0.1);
+        assertFalse(stamps.endUpdate(stamps.getNumberOfStamps()));
+
+        stamps.beginUpdate(0);
+        stamps.set(0, 0, 1);
+        stampConductance(stamps, 1, 2, 0.1);
+        assertFalse(stamps.endUpdate(stamps.getNumberOfStamps()));
+    }
+
+    @Test
+    public void testClear() {
+        final MatrixStamps stamps = createStamps(0.1, 0.7);
+        final double[][] matrix = new double[4][4];
+        matrix[3][0] = 4;
+        stamps.assemble(matrix);
+        stamps.clear(matrix);
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                assertEquals(i == 3 && j == 0 ? 4 : 0, matrix[i][j], DELTA);
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.Fenster;
+import ch.technokrat.gecko.geckocircuits.allg.HeadlessSimulation;
+import ch.technokrat.gecko.geckocircuits.datacontainer.AbstractDataContainer;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Two different models are loaded and simulated by their own SimulationsKern
+ * in parallel threads. Each result has to be bit-identical to the result of
+ * the same model simulated alone.
+ */
+public final class ParallelSimulationTest {
+
+    private static final String BUCK_BOOST = "resources/Topologies/BuckBoost_const_dutyCycle.ipes";
+    private static final String THREE_PHASE_RECTIFIER = "resources/Topologies/three-phase_VSR_simpleControl_250kW.ipes";
+    private SchematischeEingabe2 _oldSchematicEntry;
+
+    private static final class SimulationResult {
+
+        private final List<String> _signalNames;
+        private final double[] _time;
+        private final float[][] _values;
+        private final double _tEnd;
+
+        SimulationResult(final HeadlessSimulation simulation) {
+            final AbstractDataContainer data = simulation.getScopeData();
+            _signalNames = simulation.getSignalNames();
+            final int length = data.getMaximumTimeIndex(0) + 1;
+            _time = new double[length];
+            _values = new float[data.getRowLength()][length];
+            for (int index = 0; index < length; index++) {
+                _time[index] = data.getTimeValue(index, 0);
+                for (int row = 0; row < _values.length; row++) {
+                    _values[row][index] = data.getValue(row, index);
+                }
+            }
+            _tEnd = simulation.getSolverSettings()._tDURATION.getValue();
+        }
+
+        void assertIdentical(final SimulationResult other) {
+            assertEquals(_signalNames, other._signalNames);
+            assertArrayEquals(_time, other._time, 0);
+            for (int row = 0; row < _values.length; row++) {
+                assertArrayEquals(_signalNames.get(row), _values[row], other._values[row], 0);
+            }
+        }
+    }
+
+    private static final class SimulationTask implements Callable<SimulationResult> {
+
+        private final String _model;
+        private final CyclicBarrier _startTogether;
+
+        SimulationTask(final String model, final CyclicBarrier startTogether) {
+            _model = model;
+            _startTogether = startTogether;
+        }
+
+        @Override
+        public SimulationResult call() throws Exception {
+            final HeadlessSimulation simulation = new HeadlessSimulation();
+            simulation.openFile(new File(_model).getAbsolutePath());
+            if (_startTogether != null) {
+                _startTogether.await();
+            }
+            simulation.runSimulation();
+            return new SimulationResult(simulation);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        _oldSchematicEntry = SchematischeEingabe2.Singleton;
+    }
+
+    @After
+    public void tearDown() {
+        SchematischeEingabe2.Singleton = _oldSchematicEntry;
+    }
+
+    @Test
+    public void testParallelSimulationsAreBitIdentical() throws Exception {
+        final SimulationResult serialBuckBoost = new SimulationTask(BUCK_BOOST, null).call();
+        final SimulationResult serialRectifier = new SimulationTask(THREE_PHASE_RECTIFIER, null).call();
+        // the models differ, also in their solver settings
+        assertFalse(serialBuckBoost._signalNames.equals(serialRectifier._signalNames));
+        assertFalse(serialBuckBoost._tEnd == serialRectifier._tEnd);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CyclicBarrier startTogether = new CyclicBarrier(4);
+            final List<Future<SimulationResult>> buckBoost = new ArrayList<Future<SimulationResult>>();
+            final List<Future<SimulationResult>> rectifier = new ArrayList<Future<SimulationResult>>();
+            for (int i = 0; i < 2; i++) {
+                buckBoost.add(executor.submit(new SimulationTask(BUCK_BOOST, startTogether)));
+                rectifier.add(executor.submit(new SimulationTask(THREE_PHASE_RECTIFIER, startTogether)));
+            }
+            for (int i = 0; i < 2; i++) {
+                serialBuckBoost.assertIdentical(buckBoost.get(i).get());
+                serialRectifier.assertIdentical(rectifier.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // the simulations did not use the data and settings of the main window
+        assertSame(_oldSchematicEntry, SchematischeEingabe2.Singleton);
+        assertEquals(0, Fenster.optimizerParameterData.getNameOpt().size());
+    }
+}
@@ -0,0 +1,222 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class SparseLUCachedMatrixTest {
+
+    private static final int MATRIX_SIZE = 150;
+    private static final int NO_SWITCHES = 12;
+    private static final double TOLERANCE = 1e-9;
+    private static final double R_ON = 1e-3;
+    private static final double R_OFF = 1e6;
+    private static final long SEED = 4711;
+    private Random _random;
+
+    @Before
+    public void setUp() {
+        _random = new Random(SEED);
+    }
+
+    /**
+     * builds a ladder network of resistors and capacitors (as conductances)
+     * with some switches between random nodes. Index 0 is the ground node.
+     */
+    private double[][] createCircuitMatrix(final boolean[] switchStates) {
+        final double[][] matrix = new double[MATRIX_SIZE][MATRIX_SIZE];
+        final Random random = new Random(SEED);
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            stampConductance(matrix, i, i - 1, 1 + random.nextDouble());
+            stampConductance(matrix, i, 0, 1e-2 * random.nextDouble());
+        }
+        for (int k = 0; k < switchStates.length; k++) {
+            final int x = 1 + random.nextInt(MATRIX_SIZE - 1);
+            final int y = 1 + random.nextInt(MATRIX_SIZE - 1);
+            if (x != y) {
+                stampConductance(matrix, x, y, 1.0 / (switchStates[k] ? R_ON : R_OFF));
+            }
+        }
+        return matrix;
+    }
+
+    private static void stampConductance(final double[][] matrix, final int x, final int y, final double value) {
+        matrix[x][x] += value;
+        matrix[y][y] += value;
+        matrix[x][y] -= value;
+        matrix[y][x] -= value;
+    }
+
+    private double[] createBVector() {
+        final double[] bVector = new double[MATRIX_SIZE];
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            bVector[i] = _random.nextDouble() - 0.5;
+        }
+        return bVector;
+    }
+
+    private static void assertSolution(final double[][] matrix, final double[] bVector, final double[] solution) {
+        for (int i = 1; i < matrix.length; i++) {
+            double rowSum = 0;
+            for (int j = 1; j < matrix.length; j++) {
+                rowSum += matrix[i][j] * solution[j];
+            }
+            assertEquals(bVector[i], rowSum, TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testSolveCompareWithDenseDecomposition() {
+        final double[][] matrix = createCircuitMatrix(new boolean[NO_SWITCHES]);
+        final double[] bVector = createBVector();
+
+        final CachedMatrix dense = new CachedMatrix(matrix);
+        dense.initLUDecomp();
+        final double[] denseSolution = dense.solve(bVector).clone();
+
+        final SparseLUCachedMatrix sparse = new SparseLUCachedMatrix(matrix);
+        sparse.initLUDecomp();
+        final double[] sparseSolution = sparse.solve(bVector);
+
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            assertEquals(denseSolution[i], sparseSolution[i], TOLERANCE);
+        }
+        assertSolution(matrix, bVector, sparseSolution);
+    }
+
+    /**
+     * the matrix of createCircuitMatrix(...), assembled by MatrixStamps.
+     */
+    private static MatrixStamps createCircuitStamps(final boolean[] switchStates) {
+        final double[][] matrix = new double[MATRIX_SIZE][MATRIX_SIZE];
+        final MatrixStamps stamps = new MatrixStamps(MATRIX_SIZE);
+        final Random random = new Random(SEED);
+        for (int i = 1; i < MATRIX_SIZE; i++) {
+            stampConductance(stamps, i, i - 1, 1 + random.nextDouble());
+            stampConductance(stamps, i, 0, 1e-2 * random.nextDouble());
+        }
+        for (int k = 0; k < switchStates.length; k++) {
+            final int x = 1 + random.nextInt(MATRIX_SIZE - 1);
+            final int y = 1 + random.nextInt(MATRIX_SIZE - 1);
+            if (x != y) {
+                stampConductance(stamps, x, y, 1.0 / (switchStates[k] ? R_ON : R_OFF));
+            }
+        }
+        stamps.compile();
+        return stamps;
+    }
+
+    private static void stampConductance(final MatrixStamps stamps, final int x, final int y, final double value) {
+        stamps.add(x, x, value);
+        stamps.add(y, y, value);
+        stamps.add(x, y, -value);
+        stamps.add(y, x, -value);
+    }
+
+    @Test
+    public void testSolveCompressedColumnsOfStamps() {
+        final boolean[] switchStates = new boolean[NO_SWITCHES];
+        final double[][] matrix = createCircuitMatrix(switchStates);
+        final MatrixStamps stamps = createCircuitStamps(switchStates);
+        assertTrue(LUDecompositionCache.isSparseSolverPreferable(MATRIX_SIZE, stamps.getNumberOfSlots()));
+        final CompressedColumns columns = stamps.createColumns();
+        stamps.assemble(columns);
+
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        final MatrixStateKey key = new MatrixStateKey(0);
+        key.setGeneration(1);
+        final AbstractCachedMatrix decomposition = cache.getCachedSparseLUDecomposition(columns, key, 0);
+        assertTrue(decomposition instanceof SparseLUCachedMatrix);
+        assertSame(decomposition, cache.getCachedSparseLUDecomposition(columns, key, 0));
+        final double[] bVector = createBVector();
+        assertSolution(matrix, bVector, decomposition.solve(bVector));
+
+        // the values are copied: a change of the columns needs a new key
+        columns._values[0] = Double.NaN;
+        assertSolution(matrix, bVector, decomposition.solve(bVector));
+    }
+
+    @Test
+    public void testRefactorizationReusesSymbolicAnalysis() {
+        final boolean[] switchStates = new boolean[NO_SWITCHES];
+        final SparseLUCachedMatrix first = new SparseLUCachedMatrix(createCircuitMatrix(switchStates));
+        first.initLUDecomp();
+
+        for (int k = 0; k < NO_SWITCHES; k++) {
+            switchStates[k] = !switchStates[k];
+            final double[][] matrix = createCircuitMatrix(switchStates);
+            final SparseLUCachedMatrix next = new SparseLUCachedMatrix(matrix, first.getSymbolic());
+            next.initLUDecomp();
+            // a successful refactorization keeps the symbolic analysis instance
+            assertSame(first.getSymbolic(), next.getSymbolic());
+            final double[] bVector = createBVector();
+            assertSolution(matrix, bVector, next.solve(bVector));
+        }
+    }
+
+    @Test
+    public void testMemoryRequirementIncludesSymbolicAnalysis() {
+        final SparseLUCachedMatrix sparse = new SparseLUCachedMatrix(createCircuitMatrix(new boolean[NO_SWITCHES]));
+        sparse.initLUDecomp();
+        final SparseLUSymbolic symbolic = sparse.getSymbolic();
+        assertTrue(sparse.calculateMemoryRequirement() > symbolic.calculateMemoryRequirement());
+        assertTrue(symbolic.calculateMemoryRequirement()
+                > (long) (symbolic.getNonZerosL() + symbolic.getNonZerosU()) * Integer.SIZE / Byte.SIZE);
+    }
+
+    @Test
+    public void testFillReducingOrdering() {
+        final double[][] matrix = createCircuitMatrix(new boolean[NO_SWITCHES]);
+        final SparseLUCachedMatrix sparse = new SparseLUCachedMatrix(matrix);
+        sparse.initLUDecomp();
+        // a ladder network with a few additional branches must not fill in completely
+        assertTrue(sparse.getNonZerosLU() < MATRIX_SIZE * MATRIX_SIZE / 4);
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        final double[][] matrix = createCircuitMatrix(new boolean[NO_SWITCHES]);
+        final SparseLUCachedMatrix first = new SparseLUCachedMatrix(matrix);
+        final SparseLUCachedMatrix second = new SparseLUCachedMatrix(matrix);
+        first.initLUDecomp();
+        assertEquals(first.hashCode(), second.hashCode());
+        assertEquals(first.secondHashCode(), second.secondHashCode());
+        assertTrue(first.equals(second));
+        assertTrue(second.equals(first));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testSingularMatrix() {
+        final double[][] matrix = new double[MATRIX_SIZE][MATRIX_SIZE];
+        for (int i = 2; i < MATRIX_SIZE - 1; i++) {
+            stampConductance(matrix, i, i - 1, 1);
+        }
+        // the last node is not connected at all
+        new SparseLUCachedMatrix(matrix).initLUDecomp();
+    }
+
+    @Test
+    public void testSolverSelection() {
+        final double[][] small = new double[LUDecompositionCache.SPARSE_MIN_SIZE][LUDecompositionCache.SPARSE_MIN_SIZE];
+        assertFalse(LUDecompositionCache.isSparseSolverPreferable(small));
+        assertTrue(LUDecompositionCache.isSparseSolverPreferable(createCircuitMatrix(new boolean[NO_SWITCHES])));
+
+        final LUDecompositionCache cache = new LUDecompositionCache();
+        final double[][] matrix = createCircuitMatrix(new boolean[NO_SWITCHES]);
+        assertTrue(cache.getCachedLUDecomposition(matrix, 0) instanceof SparseLUCachedMatrix);
+    }
+}
@@ -0,0 +1,125 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class StepWidthControllerTest {
+
+    private static final double DT_MIN = 1e-7;
+    private static final double DT_MAX = 1e-4;
+    private static final double TAU = 1e-3;
+    private static final double T_END = 5e-3;
+    private static final double REL_TOLERANCE = 1e-3;
+
+    /**
+     * RC low pass, step response: x' = (1 - x) / tau, integrated with backward
+     * euler. Index 0 is the ground node, as in the circuit matrices.
+     */
+    private static double[] simulateRCStepResponse(final StepWidthController controller) {
+        final double[] p = new double[2];
+        final double[] pALT = new double[2];
+        final double[] pALTALT = new double[2];
+        final double[] pALTALTALT = new double[2];
+        double t = 0;
+        double dt = controller.getStepWidth();
+        double maxError = 0;
+        while (t < T_END) {
+            t += dt;
+            p[1] = (pALT[1] + dt / TAU) / (1 + dt / TAU);
+            while (!controller.isStepAccepted(p, pALT, pALTALT, pALTALTALT)) {
+                t += controller.getStepWidth() - dt;
+                dt = controller.getStepWidth();
+                p[1] = (pALT[1] + dt / TAU) / (1 + dt / TAU);
+            }
+            controller.stepFinished(false);
+            pALTALTALT[1] = pALTALT[1];
+            pALTALT[1] = pALT[1];
+            pALT[1] = p[1];
+            maxError = Math.max(maxError, Math.abs(p[1] - (1 - Math.exp(-t / TAU))));
+            dt = controller.getStepWidth();
+        }
+        return new double[]{maxError, t};
+    }
+
+    @Test
+    public void testStepWidthGrowsForSmoothSolution() {
+        final StepWidthController controller = new StepWidthController(DT_MIN, DT_MAX, REL_TOLERANCE,
+                SolverType.SOLVER_BE);
+        final double[] result = simulateRCStepResponse(controller);
+        assertTrue(controller.getStepWidth() > 100 * DT_MIN);
+        assertTrue(controller.getStepWidth() <= DT_MAX);
+        // a constant stepwidth of DT_MIN needs 50000 steps
+        assertTrue(controller.getAcceptedSteps() < 5000);
+        assertEquals(0, controller.getStepWidth() / DT_MIN % 1, 0);
+        // global error of backward euler stays in the range of the tolerance
+        assertTrue("error: " + result[0], result[0] < 20 * REL_TOLERANCE);
+    }
+
+    @Test
+    public void testResetAtDiscontinuity() {
+        final StepWidthController controller = new StepWidthController(DT_MIN, DT_MAX, REL_TOLERANCE,
+                SolverType.SOLVER_TRZ);
+        simulateRCStepResponse(controller);
+        assertTrue(controller.getStepWidth() > DT_MIN);
+        controller.stepFinished(true);
+        assertEquals(DT_MIN, controller.getStepWidth(), 0);
+    }
+
+    @Test
+    public void testRejectStepWithLargeError() {
+        final StepWidthController controller = new StepWidthController(DT_MIN, DT_MAX, REL_TOLERANCE,
+                SolverType.SOLVER_BE);
+        final double[] zero = new double[2];
+        // constant solution --> stepwidth grows
+        for (int i = 0; i < 20; i++) {
+            assertTrue(controller.isStepAccepted(zero, zero, zero, zero));
+            controller.stepFinished(false);
+        }
+        final double dtBefore = controller.getStepWidth();
+        assertTrue(dtBefore > DT_MIN);
+        assertFalse(controller.isStepAccepted(new double[]{0, 1}, zero, zero, zero));
+        assertTrue(controller.getStepWidth() < dtBefore);
+        assertEquals(1, controller.getRejectedSteps());
+    }
+
+    @Test
+    public void testLimitedStepWidthStaysOnGrid() {
+        final StepWidthController controller = new StepWidthController(DT_MIN, DT_MAX, REL_TOLERANCE,
+                SolverType.SOLVER_BE);
+        final double[] zero = new double[2];
+        for (int i = 0; i < 40; i++) {
+            assertTrue(controller.isStepAccepted(zero, zero, zero, zero));
+            controller.stepFinished(false);
+        }
+        assertTrue(controller.getStepWidth() > 8 * DT_MIN);
+        // rounded down to the next grid value dtMin * 2^k
+        assertEquals(4 * DT_MIN, controller.limitStepWidth(7.9 * DT_MIN), 0);
+        // the rounding errors of a time difference do not lead to the next smaller value
+        assertEquals(2 * DT_MIN, controller.limitStepWidth(2 * DT_MIN * (1 - 1e-12)), 0);
+        // never below dtMin
+        assertEquals(DT_MIN, controller.limitStepWidth(1e-3 * DT_MIN), 0);
+        controller.stepFinished(false);
+        assertTrue(controller.getStepWidth() > 8 * DT_MIN);
+        assertEquals(DT_MAX, controller.quantizeStepWidth(1), DT_MAX / 2);
+        assertTrue(controller.quantizeStepWidth(1) <= DT_MAX);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGearShichmanNotSupported() {
+        new StepWidthController(DT_MIN, DT_MAX, REL_TOLERANCE, SolverType.SOLVER_GS);
+    }
+}
@@ -0,0 +1,108 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.circuit;
+
+import ch.technokrat.gecko.geckocircuits.allg.SolverType;
+import ch.technokrat.gecko.geckocircuits.control.ZeroCrossingDetectable;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class SwitchingEventLocatorTest {
+
+    private static final double DT_MIN = 1e-8;
+    private static final double DT = 128 * DT_MIN;
+
+    /**
+     * comparison of a rising carrier with a constant reference
+     */
+    private static final class CarrierComparison implements ZeroCrossingDetectable {
+
+        private static final double SLOPE = 1e5;
+        private static final double REFERENCE = 0.37;
+        private double _time;
+
+        @Override
+        public double getSwitchingFunction() {
+            return SLOPE * _time - REFERENCE;
+        }
+    }
+
+    private static SwitchingEventLocator createLocator(final ZeroCrossingDetectable... detectables) {
+        final StepWidthController controller = new StepWidthController(DT_MIN, DT, 1e-3, SolverType.SOLVER_BE);
+        return new SwitchingEventLocator(Arrays.asList(detectables), controller);
+    }
+
+    private static boolean isOnGrid(final double stepWidth) {
+        final double exponent = Math.log(stepWidth / DT_MIN) / Math.log(2);
+        return Math.abs(exponent - Math.rint(exponent)) < 1e-9 && exponent > -1e-9;
+    }
+
+    @Test
+    public void testPredictCarrierCrossing() {
+        final CarrierComparison comparison = new CarrierComparison();
+        final SwitchingEventLocator locator = createLocator(comparison);
+        assertEquals(1, locator.getNumberOfDetectables());
+        final double crossingTime = CarrierComparison.REFERENCE / CarrierComparison.SLOPE;
+
+        comparison._time = 0;
+        // no history: nothing can be predicted
+        assertEquals(DT, locator.predictStepWidth(DT, DT), 0);
+        double time = 0;
+        double dt = DT;
+        int shortenedSteps = 0;
+        while (true) {
+            time += dt;
+            comparison._time = time;
+            if (comparison.getSwitchingFunction() >= 0) {
+                break;
+            }
+            final double nextDt = locator.predictStepWidth(dt, DT);
+            assertTrue(isOnGrid(nextDt));
+            if (nextDt < DT) {
+                shortenedSteps++;
+                // a shortened step ends before the crossing, or within the minimum stepwidth after it
+                assertTrue(time + nextDt <= crossingTime + DT_MIN);
+            }
+            dt = nextDt;
+        }
+        // the crossing is resolved with the accuracy of the minimum stepwidth...
+        assertTrue(time - crossingTime <= DT_MIN * (1 + 1e-9));
+        // ... and reached with a few grid values only
+        assertTrue(shortenedSteps > 0);
+        assertTrue(shortenedSteps <= 8);
+    }
+
+    @Test
+    public void testNoPredictionWhenMovingAway() {
+        final CarrierComparison comparison = new CarrierComparison();
+        final SwitchingEventLocator locator = createLocator(comparison);
+        comparison._time = 1e-5;
+        locator.predictStepWidth(DT, DT);
+        comparison._time = 1e-5 + DT;
+        assertEquals(DT, locator.predictStepWidth(DT, DT), 0);
+    }
+
+    @Test
+    public void testDiodeEventStepWidth() {
+        final SwitchingEventLocator locator = createLocator();
+        assertEquals(DT, locator.getDiodeEventStepWidth(DT, 1), 0);
+        assertEquals(DT / 4, locator.getDiodeEventStepWidth(DT, 0.3), 0);
+        // never below the minimum stepwidth
+        assertEquals(DT_MIN, locator.getDiodeEventStepWidth(DT, 1e-6), 0);
+        // commutation close to the end of the step: the next smaller grid value
+        assertEquals(DT / 2, locator.getDiodeEventStepWidth(DT, 0.99), 0);
+        assertEquals(DT_MIN, locator.getDiodeEventStepWidth(DT_MIN, 0.5), 0);
+    }
+}
@@ -0,0 +1,84 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class CoSimulationQueueTest {
+
+    private static final double DELTA = 0;
+    private ReglerFromEXTERNAL _from;
+    private ReglerToEXTERNAL _to;
+    private CoSimulationPorts _ports;
+
+    @Before
+    public void setUp() {
+        ReglerFromEXTERNAL.fromExternals.clear();
+        ReglerToEXTERNAL.toExternals.clear();
+        _from = new ReglerFromEXTERNAL();
+        _from.setOutputTerminalNumber(2);
+        _to = new ReglerToEXTERNAL();
+        _to.setInputTerminalNumber(1);
+        _ports = CoSimulationPorts.fabricFromModel();
+    }
+
+    @After
+    public void tearDown() {
+        ReglerFromEXTERNAL.fromExternals.clear();
+        ReglerToEXTERNAL.toExternals.clear();
+    }
+
+    @Test
+    public void testPortWidths() {
+        assertEquals(2, _ports.getInputWidth());
+        assertEquals(1, _ports.getOutputWidth());
+        _ports.writeInputs(new double[]{0, 3, 4}, 1);
+        assertArrayEquals(new double[]{3, 4}, _from.dataVector, DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInputArrayTooShort() {
+        _ports.writeInputs(new double[1], 0);
+    }
+
+    @Test
+    public void testQueuedSteps() {
+        final CoSimulationQueue queue = new CoSimulationQueue(2, _ports);
+        assertTrue(queue.offerInputs(new double[]{1, 2}));
+        assertTrue(queue.offerInputs(new double[]{3, 4}));
+        assertFalse(queue.offerInputs(new double[]{5, 6}));
+
+        final double[] outputs = new double[2];
+        for (int step = 0; step < 2; step++) { // the simulation of a step, ToEXTERNAL = sum of the inputs
+            assertTrue(queue.takeInputs(_ports));
+            _to.dataVector[0] = _from.dataVector[0] + _from.dataVector[1];
+            queue.putOutputs(step * 0.5, _ports);
+        }
+        assertFalse(queue.takeInputs(_ports)); // no input queued
+        assertTrue(queue.offerInputs(new double[]{5, 6}));
+        assertFalse(queue.takeInputs(_ports)); // no space for the outputs
+        assertEquals(1, queue.getQueuedInputs());
+
+        assertTrue(queue.pollOutputs(outputs));
+        assertArrayEquals(new double[]{0, 3}, outputs, DELTA);
+        assertTrue(queue.pollOutputs(outputs));
+        assertArrayEquals(new double[]{0.5, 7}, outputs, DELTA);
+        assertFalse(queue.pollOutputs(outputs));
+        assertTrue(queue.takeInputs(_ports));
+        assertArrayEquals(new double[]{5, 6}, _from.dataVector, DELTA);
+    }
+}
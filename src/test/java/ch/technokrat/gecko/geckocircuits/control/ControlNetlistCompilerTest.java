@@ -0,0 +1,251 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.AddCalculatorTwoInputs;
+import ch.technokrat.gecko.geckocircuits.control.calculators.ConstantCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.GainCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InlineableCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.LimitCalculatorInternal;
+import ch.technokrat.gecko.geckocircuits.control.calculators.MulCalculatorMultiInputs;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SubtractionTwoParameter;
+import java.io.File;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class ControlNetlistCompilerTest {
+
+    private static final double DELTA = 0;
+    private static final double DT = 1e-3;
+    private static final double LOWER_LIMIT = -1;
+    private static final double UPPER_LIMIT = 2;
+    private static final int MULTI_INPUTS = 3;
+    private static final int RANDOM_SAMPLES = 2000;
+    private static final double[] EDGE_VALUES = {0, -0.0, 1, -1, 0.5, LOWER_LIMIT, UPPER_LIMIT, Double.NaN,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, Double.MAX_VALUE};
+
+    /**
+     * time ramp, not inlineable.
+     */
+    private static final class RampCalculator extends AbstractControlCalculatable {
+
+        RampCalculator() {
+            super(0, 1);
+        }
+
+        @Override
+        public void berechneYOUT(final double deltaT) {
+            _outputSignal[0][0] = 1000 * _time;
+        }
+    }
+
+    /**
+     * sets its outputs to given values, not inlineable.
+     */
+    private static final class SourceCalculator extends AbstractControlCalculatable {
+
+        private final double[] _values;
+
+        SourceCalculator(final int outputs) {
+            super(0, outputs);
+            _values = new double[outputs];
+        }
+
+        @Override
+        public void berechneYOUT(final double deltaT) {
+            for (int i = 0; i < _values.length; i++) {
+                _outputSignal[i][0] = _values[i];
+            }
+        }
+    }
+
+    /**
+     * the calculators with parameters; all other inlineable calculators are
+     * created with MULTI_INPUTS inputs, or with their default constructor.
+     */
+    private static AbstractControlCalculatable createInlineable(final Class<?> type) throws Exception {
+        if (type == GainCalculator.class) {
+            return new GainCalculator(-2.5);
+        }
+        if (type == LimitCalculatorInternal.class) {
+            return new LimitCalculatorInternal(LOWER_LIMIT, UPPER_LIMIT);
+        }
+        try {
+            return (AbstractControlCalculatable) type.getConstructor(int.class).newInstance(MULTI_INPUTS);
+        } catch (NoSuchMethodException ex) {
+            return (AbstractControlCalculatable) type.getConstructor().newInstance();
+        }
+    }
+
+    private static List<Class<?>> findInlineableTypes() throws Exception {
+        final File directory = new File(InlineableCalculator.class.getResource("InlineableCalculator.class").toURI())
+                .getParentFile();
+        final List<Class<?>> returnValue = new ArrayList<Class<?>>();
+        for (String fileName : directory.list()) {
+            if (fileName.endsWith(".class") && !fileName.contains("$")) {
+                final Class<?> type = Class.forName(InlineableCalculator.class.getPackage().getName() + "."
+                        + fileName.substring(0, fileName.length() - ".class".length()));
+                if (InlineableCalculator.class.isAssignableFrom(type) && !type.isInterface()
+                        && !Modifier.isAbstract(type.getModifiers())) {
+                    returnValue.add(type);
+                }
+            }
+        }
+        return returnValue;
+    }
+
+    /**
+     * all combinations of the edge values (limits, NaN, infinity, signed
+     * zero, ...) for the first two inputs, then random values.
+     */
+    private static double[] createInputs(final int sample, final int inputs, final Random random) {
+        final double[] returnValue = new double[inputs];
+        if (sample < EDGE_VALUES.length * EDGE_VALUES.length) {
+            for (int i = 0; i < inputs; i++) {
+                returnValue[i] = EDGE_VALUES[(i == 1 ? sample / EDGE_VALUES.length : sample) % EDGE_VALUES.length];
+            }
+        } else {
+            for (int i = 0; i < inputs; i++) {
+                switch (random.nextInt(4)) {
+                    case 0:
+                        returnValue[i] = EDGE_VALUES[random.nextInt(EDGE_VALUES.length)];
+                        break;
+                    case 1: // logic blocks
+                        returnValue[i] = random.nextInt(2);
+                        break;
+                    default:
+                        returnValue[i] = 10 * random.nextGaussian();
+                }
+            }
+        }
+        return returnValue;
+    }
+
+    @Test
+    public void testInlinedCodeEqualsBerechneYOUTForEachType() throws Exception {
+        final List<Class<?>> types = findInlineableTypes();
+        assertTrue(types.size() > 20);
+        for (Class<?> type : types) {
+            final AbstractControlCalculatable interpreted = createInlineable(type);
+            final AbstractControlCalculatable inlined = createInlineable(type);
+            final int inputs = interpreted._inputSignal.length;
+            final SourceCalculator interpretedSource = new SourceCalculator(inputs);
+            final SourceCalculator inlinedSource = new SourceCalculator(inputs);
+            for (int i = 0; i < inputs; i++) {
+                interpreted.setInputSignal(i, interpretedSource, i);
+                inlined.setInputSignal(i, inlinedSource, i);
+            }
+            final ControlNetlistCompiler compiler
+                    = new ControlNetlistCompiler(new AbstractControlCalculatable[]{inlinedSource, inlined});
+            assertEquals(type.getName(), 1, compiler.getNumberOfInlinedCalculators());
+            final CompiledControlStep step = compiler.compile();
+            assertNotNull(type.getName(), step);
+
+            final Random random = new Random(type.getName().hashCode());
+            for (int sample = 0; sample < EDGE_VALUES.length * EDGE_VALUES.length + RANDOM_SAMPLES; sample++) {
+                final double[] values = createInputs(sample, inputs, random);
+                System.arraycopy(values, 0, interpretedSource._values, 0, inputs);
+                System.arraycopy(values, 0, inlinedSource._values, 0, inputs);
+                interpretedSource.berechneYOUT(DT);
+                interpreted.berechneYOUT(DT);
+                step.calculate(DT, sample * DT);
+                for (int i = 0; i < interpreted._outputSignal.length; i++) {
+                    // bit-identical, also NaN and the sign of zero
+                    final double expected = interpreted._outputSignal[i][0];
+                    final double actual = inlined._outputSignal[i][0];
+                    if (Double.doubleToLongBits(expected) != Double.doubleToLongBits(actual)) {
+                        fail(type.getSimpleName() + " output " + i + " for inputs " + Arrays.toString(values)
+                                + ": expected " + expected + ", but was " + actual);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * ramp -> gain -> add (+ constant) -> limit -> mul (limit, gain, constant),
+     * and a subtraction which reads the mul output of the previous step.
+     */
+    private static final class Netlist {
+
+        private final ConstantCalculator _constant = new ConstantCalculator(0.5);
+        private final GainCalculator _gain = new GainCalculator(2);
+        private final SubtractionTwoParameter _feedback = new SubtractionTwoParameter();
+        private final MulCalculatorMultiInputs _mul = new MulCalculatorMultiInputs(3);
+        private final AbstractControlCalculatable[] _sorted;
+
+        Netlist() throws Exception {
+            final RampCalculator ramp = new RampCalculator();
+            final AddCalculatorTwoInputs add = new AddCalculatorTwoInputs();
+            final LimitCalculatorInternal limit = new LimitCalculatorInternal(-1, 3);
+            _gain.setInputSignal(0, ramp, 0);
+            add.setInputSignal(0, _gain, 0);
+            add.setInputSignal(1, _constant, 0);
+            limit.setInputSignal(0, add, 0);
+            _feedback.setInputSignal(0, limit, 0);
+            _feedback.setInputSignal(1, _mul, 0);
+            _mul.setInputSignal(0, limit, 0);
+            _mul.setInputSignal(1, _gain, 0);
+            _mul.setInputSignal(2, _constant, 0);
+            _sorted = new AbstractControlCalculatable[]{ramp, _gain, add, limit, _feedback, _mul};
+        }
+
+        void calculate(final double time) {
+            for (AbstractControlCalculatable calculator : _sorted) {
+                calculator.setTime(time);
+                calculator.berechneYOUT(DT);
+            }
+        }
+    }
+
+    @Test
+    public void testCompiledStepEqualsInterpretedStep() throws Exception {
+        final Netlist interpreted = new Netlist();
+        final Netlist compiled = new Netlist();
+        final ControlNetlistCompiler compiler = new ControlNetlistCompiler(compiled._sorted);
+        assertEquals(5, compiler.getNumberOfInlinedCalculators());
+        final CompiledControlStep step = compiler.compile();
+        assertNotNull(step);
+
+        for (int i = 0; i < 20; i++) {
+            if (i == 10) { // parameter changes during the simulation
+                for (Netlist netlist : new Netlist[]{interpreted, compiled}) {
+                    netlist._gain.setGain(-3);
+                    netlist._constant.setConst(0.25);
+                }
+            }
+            interpreted.calculate(i * DT);
+            step.calculate(DT, i * DT);
+            for (int j = 0; j < interpreted._sorted.length; j++) {
+                assertEquals(interpreted._sorted[j]._outputSignal[0][0], compiled._sorted[j]._outputSignal[0][0],
+                        DELTA);
+            }
+        }
+        assertTrue(interpreted._feedback._outputSignal[0][0] != 0);
+    }
+
+    @Test
+    public void testCompiledClassIsCached() throws Exception {
+        final CompiledControlStep first = new ControlNetlistCompiler(new Netlist()._sorted).compile();
+        final CompiledControlStep second = new ControlNetlistCompiler(new Netlist()._sorted).compile();
+        assertNotSame(first, second);
+        assertSame(first.getClass(), second.getClass());
+    }
+}
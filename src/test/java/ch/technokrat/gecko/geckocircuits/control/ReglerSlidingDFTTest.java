@@ -0,0 +1,34 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.MultiChannelSlidingDFTCalculator;
+import ch.technokrat.gecko.geckocircuits.control.calculators.SlidingDFTCalculator;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class ReglerSlidingDFTTest {
+
+    @Test
+    public void testCalculatorForInputCount() {
+        final ReglerSlidingDFT sdft = new ReglerSlidingDFT();
+        assertEquals(1, sdft.XIN.size());
+        assertTrue(sdft.getInternalControlCalculatableForSimulationStart() instanceof SlidingDFTCalculator);
+
+        sdft.setInputTerminalNumber(3);
+        assertEquals(3, sdft.XIN.size());
+        assertEquals(3, sdft.YOUT.size());
+        assertTrue(sdft.getInternalControlCalculatableForSimulationStart() instanceof MultiChannelSlidingDFTCalculator);
+    }
+}
@@ -0,0 +1,93 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class StreamingTestReceiverTest {
+
+    private static final double DT = 2e-8;
+    private static final double DELTA = 0.02;
+
+    private static StreamingTestReceiver simulateSine(final double frequency, final double tEnd,
+            final double minFrequency, final double maxFrequency) {
+        final StreamingTestReceiver receiver = new StreamingTestReceiver(DT, minFrequency, maxFrequency);
+        final int steps = (int) (tEnd / DT);
+        for (int i = 0; i < steps; i++) {
+            receiver.addSample(Math.sin(2 * Math.PI * frequency * i * DT));
+        }
+        return receiver;
+    }
+
+    private static int findNearestFrequency(final double[] frequencies, final double frequency) {
+        int returnValue = 0;
+        for (int i = 1; i < frequencies.length; i++) {
+            if (Math.abs(frequencies[i] - frequency) < Math.abs(frequencies[returnValue] - frequency)) {
+                returnValue = i;
+            }
+        }
+        return returnValue;
+    }
+
+    private static double findMaximum(final double[] values) {
+        double returnValue = 0;
+        for (double value : values) {
+            returnValue = Math.max(returnValue, value);
+        }
+        return returnValue;
+    }
+
+    private static void assertContinuousWave(final StreamingTestReceiver receiver, final double frequency,
+            final double otherFrequency) {
+        final double[] frequencies = receiver.getFrequencies();
+        final double[] peak = receiver.getPeak();
+        final double[] quasiPeak = receiver.getQuasiPeak();
+        final double[] average = receiver.getAverage();
+        assertEquals(frequencies.length, peak.length);
+        final int bin = findNearestFrequency(frequencies, frequency);
+        assertEquals(1, peak[bin], DELTA);
+        assertEquals(1, quasiPeak[bin], DELTA);
+        assertEquals(1, average[bin], DELTA);
+        assertEquals(1, findMaximum(peak), DELTA);
+        final int otherBin = findNearestFrequency(frequencies, otherFrequency);
+        assertTrue(peak[otherBin] < 1e-3);
+        assertTrue(quasiPeak[otherBin] < 1e-3);
+    }
+
+    @Test
+    public void testContinuousWaveBandB() {
+        final StreamingTestReceiver receiver = simulateSine(500e3, 2e-3, 150e3, 2e6);
+        final double[] frequencies = receiver.getFrequencies();
+        assertTrue(frequencies[0] >= 150e3);
+        assertTrue(frequencies[frequencies.length - 1] <= 2e6);
+        assertContinuousWave(receiver, 500e3, 1e6);
+    }
+
+    @Test
+    public void testContinuousWaveDecimatedBandA() {
+        final StreamingTestReceiver receiver = simulateSine(50e3, 40e-3, 9e3, 150e3);
+        assertTrue(receiver.getFrequencies()[0] >= 9e3);
+        assertContinuousWave(receiver, 50e3, 100e3);
+    }
+
+    @Test
+    public void testNoResultsBeforeFirstWindow() {
+        final StreamingTestReceiver receiver = simulateSine(500e3, 1e-5, 9e3, 2e6);
+        assertTrue(receiver.getFrequencies().length > 0);
+        assertEquals(0, findMaximum(receiver.getPeak()), 0);
+        assertEquals(0, findMaximum(receiver.getQuasiPeak()), 0);
+        assertEquals(0, findMaximum(receiver.getAverage()), 0);
+    }
+}
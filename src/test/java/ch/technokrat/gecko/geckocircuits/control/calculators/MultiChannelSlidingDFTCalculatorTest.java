@@ -0,0 +1,104 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under 
+ *  the terms of the GNU General Public License as published by the Free Software 
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.calculators;
+
+import ch.technokrat.gecko.geckocircuits.control.ReglerSlidingDFT;
+import ch.technokrat.gecko.geckocircuits.control.ReglerSlidingDFT.FrequencyData;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class MultiChannelSlidingDFTCalculatorTest {
+
+    private static final int CHANNELS = 3;
+    private static final double AVG_SPAN = 20e-3;
+    private static final double DELTA_T = 1e-5;
+    private static final double END_TIME = 0.1;
+    private static final double STEP_INCREASE = 3;
+    private List<FrequencyData> _freqData;
+    private MultiChannelSlidingDFTCalculator _multiChannel;
+    private SlidingDFTCalculator[] _singleChannels;
+
+    @Before
+    public void setUp() {
+        final ReglerSlidingDFT regler = new ReglerSlidingDFT();
+        _freqData = new ArrayList<ReglerSlidingDFT.FrequencyData>();
+        _freqData.add(regler.new FrequencyData(50, ReglerSlidingDFT.OutputData.ABS));
+        _freqData.add(regler.new FrequencyData(50, ReglerSlidingDFT.OutputData.PHASE));
+        _freqData.add(regler.new FrequencyData(250, ReglerSlidingDFT.OutputData.REAL));
+        _freqData.add(regler.new FrequencyData(350, ReglerSlidingDFT.OutputData.IMAG));
+        _freqData.add(regler.new FrequencyData(0, ReglerSlidingDFT.OutputData.ABS));
+
+        _multiChannel = new MultiChannelSlidingDFTCalculator(CHANNELS, CHANNELS * _freqData.size(), AVG_SPAN, _freqData);
+        _singleChannels = new SlidingDFTCalculator[CHANNELS];
+        for (int ch = 0; ch < CHANNELS; ch++) {
+            _multiChannel._inputSignal[ch] = new double[1];
+            _singleChannels[ch] = new SlidingDFTCalculator(_freqData.size(), AVG_SPAN, _freqData);
+            _singleChannels[ch]._inputSignal[0] = new double[1];
+        }
+    }
+
+    private double simulate(final double startTime, final double endTime, final double deltaT) {
+        double time = startTime;
+        for (; time < endTime; time += deltaT) {
+            for (int ch = 0; ch < CHANNELS; ch++) {
+                final double value = ch + Math.sin(2 * Math.PI * 50 * time + ch)
+                        + 0.2 * Math.cos(2 * Math.PI * 350 * time) * ch;
+                _multiChannel._inputSignal[ch][0] = value;
+                _singleChannels[ch]._inputSignal[0][0] = value;
+                _singleChannels[ch].berechneYOUT(deltaT);
+            }
+            _multiChannel.berechneYOUT(deltaT);
+        }
+        return time;
+    }
+
+    private void assertSameOutputs() {
+        for (int ch = 0; ch < CHANNELS; ch++) {
+            for (int i = 0; i < _freqData.size(); i++) {
+                assertEquals(_singleChannels[ch]._outputSignal[i][0],
+                        _multiChannel._outputSignal[ch * _freqData.size() + i][0], 0);
+            }
+        }
+    }
+
+    @Test
+    public void testSameResultAsSingleChannels() {
+        _multiChannel.initializeAtSimulationStart(DELTA_T);
+        for (SlidingDFTCalculator single : _singleChannels) {
+            single.initializeAtSimulationStart(DELTA_T);
+        }
+        simulate(0, END_TIME, DELTA_T);
+        assertSameOutputs();
+        assertEquals(1, _multiChannel._outputSignal[0][0], 1e-6);
+        assertEquals(2, _multiChannel._outputSignal[_freqData.size() + 4][0], 1e-6); // offset of channel 1
+    }
+
+    @Test
+    public void testInitWithNewDt() {
+        _multiChannel.initializeAtSimulationStart(DELTA_T);
+        for (SlidingDFTCalculator single : _singleChannels) {
+            single.initializeAtSimulationStart(DELTA_T);
+        }
+        final double time = simulate(0, END_TIME, DELTA_T);
+        _multiChannel.initWithNewDt(STEP_INCREASE * DELTA_T);
+        for (SlidingDFTCalculator single : _singleChannels) {
+            single.initWithNewDt(STEP_INCREASE * DELTA_T);
+        }
+        simulate(time, 2 * END_TIME, STEP_INCREASE * DELTA_T);
+        assertSameOutputs();
+    }
+}
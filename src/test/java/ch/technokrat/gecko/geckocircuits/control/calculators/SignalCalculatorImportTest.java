@@ -36,7 +36,7 @@ public class SignalCalculatorImportTest {
     @Test
     public void testBerechneYOUT() {
         for (double time = 0; time < 0.03; time += DELTA_T) {
-            AbstractControlCalculatable.setTime(time);
+            _signalCalculator.setTime(time);
             _signalCalculator.berechneYOUT(DELTA_T);
             final double result = _signalCalculator._outputSignal[0][0];
 
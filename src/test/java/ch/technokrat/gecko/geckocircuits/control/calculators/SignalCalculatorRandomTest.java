@@ -45,4 +45,16 @@ public class SignalCalculatorRandomTest {
             oldValue = value;
         }                    
     }
+
+    @Test
+    public void testSeedIsReproducible() {
+        final SignalCalculatorRandom other = new SignalCalculatorRandom();
+        _randomCalculator.setSeed(42);
+        other.setSeed(42);
+        for (int i = 0; i < 200; i++) {
+            _randomCalculator.berechneYOUT(1);
+            other.berechneYOUT(1);
+            assertEquals(_randomCalculator._outputSignal[0][0], other._outputSignal[0][0], 0);
+        }
+    }
 }
@@ -50,7 +50,7 @@ public final class SignalCalculatorRectangleTest {
         double minValue = Double.MAX_VALUE;
                                 
         for(double time = 0; time < END_TIME; time+= DELTA_T) {
-            AbstractSignalCalculator.setTime(time);
+            _signalCalc.setTime(time);
             double oldResult = _signalCalc._outputSignal[0][0];
             _signalCalc.berechneYOUT(DELTA_T);            
             final double result = _signalCalc._outputSignal[0][0];
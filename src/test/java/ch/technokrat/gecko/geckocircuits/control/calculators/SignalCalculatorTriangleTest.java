@@ -55,7 +55,7 @@ public final class SignalCalculatorTriangleTest {
         double minValue = Double.MAX_VALUE;
                                 
         for(double time = 0; time < END_TIME; time+= DELTA_T) {
-            AbstractSignalCalculator.setTime(time);
+            _signalCalc.setTime(time);
             _signalCalc.berechneYOUT(DELTA_T);
             final double result = _signalCalc._outputSignal[0][0];
             maxValue = Math.max(result, maxValue);
@@ -38,7 +38,7 @@ public class ThyristorControlCalculatorTest {
         int[] eventCounter = new int[6];
         
         for (double time = 0; time < END_TIME; time += DELTA_T) {
-            AbstractControlCalculatable.setTime(time);
+            calculator.setTime(time);
             double[] oldOutput = new double[6];
             for(int i = 0; i < 6; i++) {
                 oldOutput[i] = calculator._outputSignal[i][0];
@@ -0,0 +1,61 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  GeckoCIRCUITS is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class InPlaceSourceRewriterTest {
+
+    private static String rewrite(final String sourceCode) {
+        return InPlaceSourceRewriter.rewrite(new JavaBlockSource.Builder().sourceCode(sourceCode).build());
+    }
+
+    @Test
+    public void testIndexedAccessIsRewritten() {
+        assertEquals("yOUTSignals[0][0] = xINSignals[(int) xINSignals[1][0]][0] * 2; // xIN[0]\n"
+                + "for (int i = 0; i < xINSignals.length && i < yOUT.length; i++) yOUTSignals[i][0] += \"yOUT\".length();\n"
+                + "return;",
+                rewrite("yOUT[0] = xIN[(int) xIN[1]] * 2; // xIN[0]\n"
+                + "for (int i = 0; i < xIN.length && i < yOUT.length; i++) yOUT[i] += \"yOUT\".length();\n"
+                + "return yOUT;"));
+        assertEquals("return;", rewrite("return yOUT;"));
+        assertEquals("double[] a = new double[]{xINSignals[0][0]};\nyOUTSignals[0][0] = a[0];\nreturn;",
+                rewrite("double[] a = new double[]{xIN[0]};\nyOUT[0] = a[0];\nreturn yOUT;"));
+    }
+
+    @Test
+    public void testArrayUsageIsNotRewritten() {
+        assertNull(rewrite("return new double[]{xIN[0]};"));
+        assertNull(rewrite("java.util.Arrays.fill(yOUT, 1);\nreturn yOUT;"));
+        assertNull(rewrite("double[] inputs = xIN;\nreturn yOUT;"));
+        assertNull(rewrite("double yOUT[] = new double[2];\nreturn yOUT;"));
+        assertNull(rewrite("xIN[0] = 1;\nreturn yOUT;"));
+        assertNull(rewrite("xIN[0]++;\nreturn yOUT;"));
+        assertNull(rewrite("--xIN[0];\nreturn yOUT;"));
+        assertNull(rewrite("yOUT[0] = this.yOUT[1];\nreturn yOUT;"));
+        assertNull(rewrite("double xINSignals = 1;\nreturn yOUT;"));
+        assertNull(rewrite("java.util.concurrent.Callable<double[]> c = new java.util.concurrent.Callable<double[]>() {\n"
+                + "    public double[] call() { return yOUT; }\n};\nreturn c.call();"));
+        assertNull(rewrite("java.util.function.Supplier<double[]> s = () -> yOUT;\nreturn s.get();"));
+    }
+
+    @Test
+    public void testOutputFieldInInitCodeIsNotRewritten() {
+        assertNull(InPlaceSourceRewriter.rewrite(new JavaBlockSource.Builder().sourceCode("return yOUT;")
+                .initCode("yOUT[0] = 1;").build()));
+        assertNotNull(InPlaceSourceRewriter.rewrite(new JavaBlockSource.Builder().sourceCode("return yOUT;")
+                .initCode("counter = 0;").variablesCode("int counter;").build()));
+    }
+}
@@ -0,0 +1,146 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.GeckoSim;
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Properties;
+import org.junit.After;
+import static org.junit.Assert.*;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class JavaBlockCompilerTest {
+
+    private static final double DT = 1e-6;
+    private static final String SOURCE_CODE = "yOUT[0] = 3 * xIN[0] + xIN[1];\nreturn yOUT;";
+    private Properties _originalProperties;
+    private File _cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        _originalProperties = GeckoSim.applicationProps;
+        _cacheDirectory = Files.createTempDirectory("javablockcache").toFile();
+        GeckoSim.applicationProps = new Properties();
+        GeckoSim.applicationProps.setProperty("JAVA_BLOCK_CACHE_DIRECTORY", _cacheDirectory.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() {
+        GeckoSim.applicationProps = _originalProperties;
+        for (File file : getCacheFiles()) {
+            file.delete();
+        }
+        _cacheDirectory.delete();
+    }
+
+    private File[] getCacheFiles() {
+        final File[] files = _cacheDirectory.listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    private static ReglerJavaFunction createBlock() {
+        final ReglerJavaFunction block = new ReglerJavaFunction();
+        block.getOperationEnumInterfaces().get(0).doOperation(SOURCE_CODE);
+        return block;
+    }
+
+    private static double simulateOneStep(final ReglerJavaFunction block) {
+        final AbstractControlCalculatable calculator = block.getInternalControlCalculatableForSimulationStart();
+        for (int i = 0; i < calculator._inputSignal.length; i++) {
+            calculator.checkInputWithoutConnectionAndFill(i);
+            calculator._inputSignal[i][0] = i + 1;
+        }
+        ((InitializableAtSimulationStart) calculator).initializeAtSimulationStart(DT);
+        assertEquals(CompileStatus.COMPILED_SUCCESSFULL, block.getJavaBlock().getCompileStatus());
+        calculator.berechneYOUT(DT);
+        return calculator._outputSignal[0][0];
+    }
+
+    @Test
+    public void testSameCodeIsReadFromTheCache() {
+        final ReglerJavaFunction block1 = createBlock();
+        assertEquals(3 * 1 + 2, simulateOneStep(block1), 0);
+        assertEquals(1, getCacheFiles().length);
+        assertFalse(block1.getJavaBlock().getCompilerMessage().contains("compile cache"));
+
+        final ReglerJavaFunction block2 = createBlock();
+        assertEquals(3 * 1 + 2, simulateOneStep(block2), 0);
+        assertTrue(block2.getJavaBlock().getCompilerMessage().contains("compile cache"));
+        assertEquals(block1.getJavaBlock().getCompilerSource(), block2.getJavaBlock().getCompilerSource());
+    }
+
+    @Test
+    public void testBackgroundCompilation() {
+        final ReglerJavaFunction block1 = createBlock();
+        final ReglerJavaFunction block2 = createBlock();
+        block2.getOperationEnumInterfaces().get(0).doOperation("yOUT[0] = -xIN[1];\nreturn yOUT;");
+        JavaBlockCompiler.compileInBackground(Arrays.asList(block1, block2, "no Java block"));
+        assertEquals(-2, simulateOneStep(block2), 0);
+        assertEquals(3 * 1 + 2, simulateOneStep(block1), 0);
+        assertEquals(2, getCacheFiles().length);
+    }
+
+    @Test
+    public void testInvalidCacheFileIsReplaced() throws IOException {
+        simulateOneStep(createBlock());
+        final File cacheFile = getCacheFiles()[0];
+        final FileOutputStream outStream = new FileOutputStream(cacheFile);
+        outStream.write(new byte[]{1, 2, 3});
+        outStream.close();
+
+        final ReglerJavaFunction block = createBlock();
+        assertEquals(3 * 1 + 2, simulateOneStep(block), 0);
+        assertFalse(block.getJavaBlock().getCompilerMessage().contains("compile cache"));
+        assertTrue(cacheFile.length() > 3);
+    }
+
+    @Test
+    public void testModifiedCacheFileIsReplaced() throws IOException {
+        simulateOneStep(createBlock());
+        final File cacheFile = getCacheFiles()[0];
+        final byte[] contents = Files.readAllBytes(cacheFile.toPath());
+        contents[contents.length / 2] ^= 1;
+        Files.write(cacheFile.toPath(), contents);
+
+        final ReglerJavaFunction block = createBlock();
+        assertEquals(3 * 1 + 2, simulateOneStep(block), 0);
+        assertFalse(block.getJavaBlock().getCompilerMessage().contains("compile cache"));
+        assertTrue(JavaBlockCompileCache.isPrivate(cacheFile.toPath()));
+    }
+
+    @Test
+    public void testCacheIsOwnerOnly() throws IOException {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        _cacheDirectory.delete();
+        simulateOneStep(createBlock());
+        assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(_cacheDirectory.toPath())));
+        assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(getCacheFiles()[0].toPath())));
+
+        // e.g. a directory in the shared temporary directory, created by another user
+        Files.setPosixFilePermissions(_cacheDirectory.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+        final ReglerJavaFunction block = createBlock();
+        assertEquals(3 * 1 + 2, simulateOneStep(block), 0);
+        assertFalse(block.getJavaBlock().getCompilerMessage().contains("compile cache"));
+    }
+}
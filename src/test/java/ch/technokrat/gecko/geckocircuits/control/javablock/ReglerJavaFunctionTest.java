@@ -0,0 +1,124 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.control.javablock;
+
+import ch.technokrat.gecko.geckocircuits.control.calculators.AbstractControlCalculatable;
+import ch.technokrat.gecko.geckocircuits.control.calculators.InitializableAtSimulationStart;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class ReglerJavaFunctionTest {
+
+    private static final double DT = 1e-6;
+    private static final int WARMUP_STEPS = 20000;
+    private static final int MEASURED_STEPS = 100000;
+
+    private static AbstractControlCalculatable createCalculator(final String sourceCode) throws Exception {
+        return createCalculator(new ReglerJavaFunction(), sourceCode, true);
+    }
+
+    private static AbstractControlCalculatable createCalculator(final ReglerJavaFunction block, final String sourceCode,
+            final boolean inPlaceEnabled) throws Exception {
+        block.getOperationEnumInterfaces().get(0).doOperation(sourceCode);
+        ((JavaBlockVector) block.getJavaBlock()).setInPlaceEnabled(inPlaceEnabled);
+        final AbstractControlCalculatable calculator = block.getInternalControlCalculatableForSimulationStart();
+        for (int i = 0; i < calculator._inputSignal.length; i++) {
+            calculator.checkInputWithoutConnectionAndFill(i);
+            calculator._inputSignal[i][0] = i + 1;
+        }
+        ((InitializableAtSimulationStart) calculator).initializeAtSimulationStart(DT);
+        assertEquals(CompileStatus.COMPILED_SUCCESSFULL, block.getJavaBlock().getCompileStatus());
+        return calculator;
+    }
+
+    private static void simulate(final AbstractControlCalculatable calculator, final int steps) {
+        for (int i = 0; i < steps; i++) {
+            calculator.setTime(i * DT);
+            calculator.berechneYOUT(DT);
+        }
+    }
+
+    @Test
+    public void testOutputsAreWrittenToTheSignals() throws Exception {
+        final AbstractControlCalculatable calculator
+                = createCalculator("yOUT[0] = xIN[0] + xIN[1] * xIN[2];\nyOUT[1] = time;\nreturn yOUT;");
+        final double[] output0 = calculator._outputSignal[0];
+        calculator.setTime(0.5);
+        calculator.berechneYOUT(DT);
+        assertSame(output0, calculator._outputSignal[0]);
+        assertEquals(1 + 2 * 3, output0[0], 0);
+        assertEquals(0.5, calculator._outputSignal[1][0], 0);
+    }
+
+    @Test
+    public void testNoAllocationPerStep() throws Exception {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean)) {
+            return; // the allocation counter is not available on this JVM
+        }
+        final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+        final AbstractControlCalculatable calculator
+                = createCalculator("yOUT[0] = Math.sin(xIN[0] * time) + xIN[1];\nyOUT[1] = -yOUT[0];\nreturn yOUT;");
+        simulate(calculator, WARMUP_STEPS);
+
+        final long threadID = Thread.currentThread().getId();
+        final long before = allocationBean.getThreadAllocatedBytes(threadID);
+        simulate(calculator, MEASURED_STEPS);
+        final long allocatedBytes = allocationBean.getThreadAllocatedBytes(threadID) - before;
+        // a few bytes tolerance for the measurement itself, but far below one object per step
+        assertTrue("allocated bytes: " + allocatedBytes, allocatedBytes < MEASURED_STEPS / 10);
+    }
+
+    @Test
+    public void testInPlaceCalculationEqualsCopy() throws Exception {
+        final String sourceCode = "double sum = 0; // the sum of xIN\n"
+                + "for (int i = 0; i < xIN.length; i++) {\n"
+                + "    sum += xIN[i];\n"
+                + "}\n"
+                + "yOUT[0] = sum * time;\n"
+                + "yOUT[1] = yOUT[1] + xIN[(int) xIN[0] - 1] * dt;\n"
+                + "return yOUT;";
+        final ReglerJavaFunction inPlaceBlock = new ReglerJavaFunction();
+        final AbstractControlCalculatable inPlace = createCalculator(inPlaceBlock, sourceCode, true);
+        final ReglerJavaFunction copyBlock = new ReglerJavaFunction();
+        final AbstractControlCalculatable copy = createCalculator(copyBlock, sourceCode, false);
+        assertTrue(((JavaBlockVector) inPlaceBlock.getJavaBlock()).isCalculatedInPlace());
+        assertFalse(((JavaBlockVector) copyBlock.getJavaBlock()).isCalculatedInPlace());
+
+        for (int step = 1; step <= 100; step++) {
+            for (AbstractControlCalculatable calculator : new AbstractControlCalculatable[]{inPlace, copy}) {
+                calculator._inputSignal[2][0] = step;
+                calculator.setTime(step * DT);
+                calculator.berechneYOUT(DT);
+            }
+            assertEquals(copy._outputSignal[0][0], inPlace._outputSignal[0][0], 0);
+            assertEquals(copy._outputSignal[1][0], inPlace._outputSignal[1][0], 0);
+        }
+        assertEquals(100 * DT * (1 + 2 + 100), inPlace._outputSignal[0][0], 1e-15);
+        assertEquals(100 * DT, inPlace._outputSignal[1][0], 1e-15);
+    }
+
+    @Test
+    public void testCodeWhichUsesTheArraysIsCopied() throws Exception {
+        final ReglerJavaFunction block = new ReglerJavaFunction();
+        final AbstractControlCalculatable calculator = createCalculator(block,
+                "final double[] inputs = xIN;\nreturn new double[]{inputs[1], inputs[2]};", true);
+        assertFalse(((JavaBlockVector) block.getJavaBlock()).isCalculatedInPlace());
+        calculator.berechneYOUT(DT);
+        assertEquals(2, calculator._outputSignal[0][0], 0);
+        assertEquals(3, calculator._outputSignal[1][0], 0);
+    }
+}
@@ -0,0 +1,127 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.datacontainer.ColumnarDataFileReader.SignalWindow;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class ColumnarDataFileTest {
+
+    private static final double DT = 1e-6;
+    private static final int CHUNK_SIZE = 100;
+    private static final int STEPS = 3 * CHUNK_SIZE + 17;
+    private static final float DELTA = 0;
+    @Rule
+    public final TemporaryFolder _folder = new TemporaryFolder();
+
+    private static float sine(final int step) {
+        return (float) Math.sin(2 * Math.PI * step / 50.0);
+    }
+
+    private static float gate(final int step) {
+        return step % 20 < 7 ? 1 : 0;
+    }
+
+    private File writeFile(final boolean compress) throws IOException {
+        final File file = _folder.newFile(compress ? "compressed.gcb" : "raw.gcb");
+        final ColumnarDataFileWriter writer = new ColumnarDataFileWriter(file, "t", new String[]{"sin", "gate"},
+                CHUNK_SIZE, compress);
+        try {
+            final float[] values = new float[2];
+            for (int step = 0; step < STEPS; step++) {
+                values[0] = sine(step);
+                values[1] = gate(step);
+                writer.append(step * DT, values);
+            }
+        } finally {
+            writer.close();
+        }
+        return file;
+    }
+
+    private void testRoundTrip(final boolean compress) throws IOException {
+        final ColumnarDataFileReader reader = new ColumnarDataFileReader(writeFile(compress));
+        try {
+            assertEquals("t", reader.getXDataName());
+            assertEquals(Arrays.asList("sin", "gate"), reader.getSignalNames());
+            assertEquals(compress, reader.isCompressed());
+            assertEquals(STEPS, reader.getNumberOfSamples());
+            assertEquals(4, reader.getNumberOfChunks());
+
+            final SignalWindow all = reader.readWindow(0, 0, STEPS * DT);
+            assertEquals(STEPS, all.getLength());
+            for (int step = 0; step < STEPS; step++) {
+                assertEquals(step * DT, all.getTimes()[step], 0);
+                assertEquals(sine(step), all.getValues()[step], DELTA);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testRoundTripUncompressed() throws IOException {
+        testRoundTrip(false);
+    }
+
+    @Test
+    public void testRoundTripCompressed() throws IOException {
+        testRoundTrip(true);
+    }
+
+    @Test
+    public void testWindowAcrossChunks() throws IOException {
+        final ColumnarDataFileReader reader = new ColumnarDataFileReader(writeFile(true));
+        try {
+            final int first = CHUNK_SIZE - 5;
+            final int last = 2 * CHUNK_SIZE + 3;
+            final SignalWindow window = reader.readWindow(1, (first - 0.5) * DT, (last + 0.5) * DT);
+            assertEquals(last - first + 1, window.getLength());
+            for (int i = 0; i < window.getLength(); i++) {
+                assertEquals((first + i) * DT, window.getTimes()[i], 0);
+                assertEquals(gate(first + i), window.getValues()[i], DELTA);
+            }
+
+            assertEquals(0, reader.readWindow(0, STEPS * DT, 2 * STEPS * DT).getLength());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testChunkSummaries() throws IOException {
+        final ColumnarDataFileReader reader = new ColumnarDataFileReader(writeFile(false));
+        try {
+            final int lastChunk = reader.getNumberOfChunks() - 1;
+            assertEquals(3 * CHUNK_SIZE * DT, reader.getChunkStartTime(lastChunk), 0);
+            assertEquals((STEPS - 1) * DT, reader.getChunkStopTime(lastChunk), 0);
+            assertEquals(0, reader.getChunkMinimum(1, 0), DELTA);
+            assertEquals(1, reader.getChunkMaximum(1, 0), DELTA);
+            assertEquals(7f / 20, reader.getChunkMean(1, 0), 1e-6f);
+            float maximum = Float.NEGATIVE_INFINITY;
+            for (int step = 3 * CHUNK_SIZE; step < STEPS; step++) {
+                maximum = Math.max(maximum, sine(step));
+            }
+            assertEquals(maximum, reader.getChunkMaximum(0, lastChunk), DELTA);
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.HiLoData;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class DataContainerMappedFileTest {
+
+    private static final double DT = 1e-8;
+    private static final int STEPS = 2 * DataContainerMappedFile.SEGMENT_SIZE + 1000;
+    private static final float DELTA = 0;
+    @Rule
+    public final TemporaryFolder _folder = new TemporaryFolder();
+    private DataContainerMappedFile _container;
+
+    @Before
+    public void setUp() throws Exception {
+        _container = new DataContainerMappedFile(2, new String[]{"sin", "ramp"}, "t",
+                _folder.getRoot());
+    }
+
+    @After
+    public void tearDown() {
+        _container.setContainerStatus(ContainerStatus.DELETED);
+    }
+
+    private static float sine(final int index) {
+        return (float) Math.sin(index * 0.001);
+    }
+
+    private void fill(final int steps) {
+        final float[] values = _container.getDataArray();
+        for (int index = 0; index < steps; index++) {
+            values[0] = sine(index);
+            values[1] = index;
+            _container.insertValuesAtEnd(values, index * DT);
+        }
+    }
+
+    @Test
+    public void testValuesAndTime() {
+        fill(STEPS);
+        assertEquals(STEPS - 1, _container.getMaximumTimeIndex(0));
+        assertEquals(3 * DataContainerMappedFile.SEGMENT_SIZE * (8 + 2 * 4L), _container.getFileSizeInBytes());
+        for (int index : new int[]{0, 1, DataContainerMappedFile.SEGMENT_SIZE, STEPS - 1}) {
+            assertEquals(sine(index), _container.getValue(0, index), DELTA);
+            assertEquals(index, _container.getValue(1, index), DELTA);
+            assertEquals(index * DT, _container.getTimeValue(index, 0), 0);
+        }
+        assertEquals(70000, _container.findTimeIndex(70000.5 * DT, 0));
+        assertEquals(0, _container.findTimeIndex(-1, 0));
+        assertEquals(STEPS - 1, _container.findTimeIndex(1, 0));
+        assertEquals(DT, _container.getTimeSeries(0).getLastTimeInterval(), 1e-15);
+    }
+
+    @Test
+    public void testMinMax() {
+        fill(STEPS);
+        final HiLoData absolute = _container.getAbsoluteMinMaxValue(1);
+        assertEquals(0, absolute._yLo, DELTA);
+        assertEquals(STEPS - 1, absolute._yHi, DELTA);
+        // across three segments, aligned to the buckets of the MinMaxPyramid:
+        final int from = 8 * MinMaxPyramid.BUCKET_SIZE;
+        final int to = 2 * DataContainerMappedFile.SEGMENT_SIZE + 4 * MinMaxPyramid.BUCKET_SIZE - 1;
+        float low = Float.MAX_VALUE;
+        float high = -Float.MAX_VALUE;
+        for (int index = from; index <= to; index++) {
+            low = Math.min(low, sine(index));
+            high = Math.max(high, sine(index));
+        }
+        final HiLoData hiLo = _container.getHiLoValue(0, from, to);
+        assertEquals(low, hiLo._yLo, DELTA);
+        assertEquals(high, hiLo._yHi, DELTA);
+        assertEquals(from, _container.getHiLoValue(1, from, to)._yLo, DELTA);
+        assertEquals(to, _container.getHiLoValue(1, from, to)._yHi, DELTA);
+    }
+
+    @Test
+    public void testInvalidNumbers() {
+        _container.insertValuesAtEnd(new float[]{Float.NaN, 1}, 0);
+        _container.insertValuesAtEnd(new float[]{2, 1}, DT);
+        assertTrue(_container.isInvalidNumbers(0));
+        assertFalse(_container.isInvalidNumbers(1));
+        assertEquals(2, _container.getAbsoluteMinMaxValue(0)._yLo, DELTA);
+    }
+
+    @Test
+    public void testAverage() {
+        fill(1001);
+        // mean of the ramp values 1 ... 1000
+        assertEquals(500.5, _container.getAVGValueInInterval(0, 1000 * DT, 1), 1e-3);
+    }
+
+    @Test
+    public void testReaderDuringSimulation() throws Exception {
+        final AtomicReference<String> error = new AtomicReference<String>();
+        final Thread reader = new Thread() {
+            @Override
+            public void run() {
+                int maxIndex = -1;
+                while (maxIndex < STEPS - 1) {
+                    maxIndex = _container.getMaximumTimeIndex(0);
+                    if (maxIndex >= 0 && _container.getValue(1, maxIndex) != maxIndex) {
+                        error.set("Unpublished value at index " + maxIndex);
+                        return;
+                    }
+                }
+            }
+        };
+        reader.start();
+        fill(STEPS);
+        reader.join();
+        assertNull(error.get());
+    }
+
+    @Test
+    public void testFilesAreDeleted() {
+        fill(10);
+        assertEquals(1, _folder.getRoot().list().length);
+        _container.setContainerStatus(ContainerStatus.DELETED);
+        assertEquals(0, _container.getFileSizeInBytes());
+        assertEquals(0, _folder.getRoot().list().length);
+    }
+}
@@ -0,0 +1,120 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.MemoryContainer;
+import ch.technokrat.gecko.geckocircuits.newscope.TimeSeriesConstantDt;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Test;
+
+public final class DataJunkCompressableTest {
+
+    private static final int COLUMNS = DataContainerCompressable.JUNK_SIZE;
+    private static final int ROWS = 3;
+
+    @After
+    public void tearDown() {
+        DataJunkCompressable.setCodec("DEFLATE");
+        DataJunkCompressable.setPrecisionField(DataJunkCompressable.PRECISIONS[2]);
+    }
+
+    private static float getValue(final int row, final int column) {
+        return row == 2 ? Float.NaN : (float) (row + Math.sin(column * 0.01));
+    }
+
+    private static DataJunkCompressable createCompressedJunk() {
+        final MemoryContainer container = new MemoryContainer(ROWS);
+        final DataJunkCompressable junk = new DataJunkCompressable(container, COLUMNS, ROWS, COLUMNS,
+                new TimeSeriesConstantDt());
+        for (int column = 0; column < COLUMNS; column++) {
+            final float[] values = container.getArray();
+            for (int row = 0; row < ROWS; row++) {
+                values[row] = getValue(row, column);
+            }
+            junk.setValues(values, COLUMNS + column);
+        }
+        junk.new CompressThread(junk).run();
+        return junk;
+    }
+
+    private static void assertLossless(final String codec) {
+        DataJunkCompressable.setCodec(codec);
+        DataJunkCompressable.setPrecisionField(DataJunkCompressable.PRECISIONS[0]);
+        final DataJunkCompressable junk = createCompressedJunk();
+        assertTrue(junk.getJunkSizeInBytes() < ROWS * COLUMNS * 4);
+        for (int row = 0; row < ROWS; row++) {
+            for (int column = COLUMNS; column < 2 * COLUMNS; column++) {
+                assertEquals(getValue(row, column - COLUMNS), junk.getValue(row, column), 0);
+            }
+        }
+        float maximum = -Float.MAX_VALUE;
+        for (int column = 0; column < COLUMNS; column++) {
+            maximum = Math.max(maximum, getValue(1, column));
+        }
+        assertEquals(maximum, junk.getHiLoValue(1, COLUMNS, 2 * COLUMNS - 1)._yHi, 0);
+    }
+
+    @Test
+    public void testDeflaterJunk() {
+        assertLossless("DEFLATE");
+    }
+
+    @Test
+    public void testXorJunk() {
+        assertLossless("XOR");
+    }
+
+    /**
+     * when all threads are busy and the queue is full, the task is executed
+     * by the caller. An idle thread of a previous test may take its first task
+     * with a delay, therefore the number of accepted tasks is not exact.
+     */
+    @Test
+    public void testBackPressure() throws InterruptedException {
+        final Thread testThread = Thread.currentThread();
+        final CountDownLatch release = new CountDownLatch(1);
+        final Semaphore finished = new Semaphore(0);
+        final AtomicInteger callerRuns = new AtomicInteger();
+        final Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                if (Thread.currentThread() == testThread) {
+                    callerRuns.incrementAndGet();
+                    return;
+                }
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                finished.release();
+            }
+        };
+        final int maximumTasks = CompressionExecutor.THREADS + CompressionExecutor.QUEUE_CAPACITY + 1;
+        int submitted = 0;
+        while (callerRuns.get() == 0 && submitted < 2 * maximumTasks) {
+            CompressionExecutor.execute(blockingTask);
+            submitted++;
+        }
+        release.countDown();
+        assertEquals(1, callerRuns.get());
+        assertTrue(submitted <= maximumTasks);
+        assertTrue(CompressionExecutor.getPoolSize() <= CompressionExecutor.THREADS);
+        finished.acquire(submitted - 1);
+    }
+}
@@ -0,0 +1,78 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class IntArrayCodecTest {
+
+    private static final int LENGTH = DataContainerCompressable.JUNK_SIZE;
+    private static final int ROUNDING = DataJunkCompressable.PRECISIONS[2];
+
+    private static int[] createSignal() {
+        final int[] values = new int[LENGTH];
+        for (int j = 0; j < LENGTH; j++) {
+            final double ripple = j % 20 < 10 ? 0.05 : -0.05;
+            values[j] = Float.floatToIntBits((float) (100 * Math.sin(2 * Math.PI * j / LENGTH) + ripple)) & ROUNDING;
+        }
+        return values;
+    }
+
+    private static void assertRoundTrip(final IntArrayCodec codec, final int[] values) {
+        final int[] decoded = new int[values.length];
+        codec.decode(codec.encode(values), decoded);
+        assertArrayEquals(values, decoded);
+    }
+
+    private static void assertCodec(final IntArrayCodec codec) {
+        assertRoundTrip(codec, new int[0]);
+        assertRoundTrip(codec, new int[]{42});
+        assertRoundTrip(codec, new int[LENGTH]);
+        assertRoundTrip(codec, createSignal());
+        assertRoundTrip(codec, new int[]{Float.floatToIntBits(Float.NaN), Float.floatToIntBits(Float.NEGATIVE_INFINITY),
+            Integer.MIN_VALUE, Integer.MAX_VALUE, -1, 0, 1, 1, Float.floatToIntBits(-0f)});
+        final Random random = new Random(0);
+        final int[] noise = new int[LENGTH];
+        for (int j = 0; j < LENGTH; j++) {
+            noise[j] = random.nextInt();
+        }
+        assertRoundTrip(codec, noise);
+    }
+
+    @Test
+    public void testDeflaterCodec() {
+        assertCodec(new DeflaterCodec());
+    }
+
+    @Test
+    public void testXorFloatCodec() {
+        assertCodec(new XorFloatCodec());
+    }
+
+    @Test
+    public void testCompression() {
+        final int[] signal = createSignal();
+        final int originalBytes = 4 * signal.length;
+        assertTrue(new DeflaterCodec().encode(signal).length < originalBytes / 2);
+        final int[] gateSignal = new int[LENGTH];
+        for (int j = 0; j < LENGTH; j++) {
+            gateSignal[j] = Float.floatToIntBits(j % 100 < 30 ? 1 : 0);
+        }
+        assertTrue(new XorFloatCodec().encode(gateSignal).length < originalBytes / 8);
+        // constant signals need one bit per value
+        assertEquals(4 + (LENGTH - 1 + 7) / 8, new XorFloatCodec().encode(new int[LENGTH]).length);
+    }
+}
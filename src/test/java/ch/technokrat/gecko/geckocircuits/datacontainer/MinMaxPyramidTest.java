@@ -0,0 +1,113 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import ch.technokrat.gecko.geckocircuits.newscope.HiLoData;
+import java.util.Random;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class MinMaxPyramidTest {
+
+    private static final int SAMPLES = 100000 + 77;
+    private static final int ROWS = 2;
+    private static final int QUERIES = 500;
+    @Rule
+    public final TemporaryFolder _folder = new TemporaryFolder();
+    private DataContainerMappedFile _container;
+    private MinMaxPyramid _pyramid;
+    private final Random _random = new Random(42);
+
+    @Before
+    public void setUp() throws Exception {
+        _container = new DataContainerMappedFile(ROWS, new String[]{"noise", "spikes"}, "t", _folder.getRoot());
+        _pyramid = new MinMaxPyramid(ROWS, _container);
+        final float[] values = new float[ROWS];
+        double oldTime = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            final double time = oldTime + 1e-6 * (1 + 0.5 * Math.sin(i));
+            values[0] = (float) _random.nextGaussian();
+            values[1] = i % 9973 == 0 ? 100 + i : (i % 7 == 0 ? Float.NaN : 0);
+            _container.insertValuesAtEnd(values, time);
+            _pyramid.append(values, i > 0 ? time - oldTime : 0);
+            oldTime = time;
+        }
+    }
+
+    @After
+    public void tearDown() {
+        _container.setContainerStatus(ContainerStatus.DELETED);
+    }
+
+    private HiLoData calculateHiLo(final int row, final int from, final int to) {
+        HiLoData returnValue = null;
+        for (int i = from; i <= to; i++) {
+            returnValue = HiLoData.mergeFromValue(returnValue, _container.getValue(row, i));
+        }
+        return returnValue;
+    }
+
+    @Test
+    public void testLevels() {
+        int expected = 1;
+        for (int buckets = SAMPLES / MinMaxPyramid.BUCKET_SIZE; buckets >= MinMaxPyramid.LEVEL_FACTOR;
+                buckets /= MinMaxPyramid.LEVEL_FACTOR) {
+            expected++;
+        }
+        assertEquals(expected, _pyramid.getNumberOfLevels());
+    }
+
+    /**
+     * the result must be identical to the min-max of the range, extended to
+     * the borders of the level 0 buckets.
+     */
+    @Test
+    public void testHiLoValue() {
+        final int size = MinMaxPyramid.BUCKET_SIZE;
+        for (int query = 0; query < QUERIES; query++) {
+            final int from = _random.nextInt(SAMPLES - MinMaxPyramid.MIN_SPAN);
+            final int to = from + MinMaxPyramid.MIN_SPAN + _random.nextInt(SAMPLES - MinMaxPyramid.MIN_SPAN - from);
+            final int expectedTo = to / size < SAMPLES / size ? (to / size + 1) * size - 1 : to;
+            for (int row = 0; row < ROWS; row++) {
+                final HiLoData expected = calculateHiLo(row, from - from % size, expectedTo);
+                assertTrue(from + " " + to, expected.compare(_pyramid.getHiLoValue(row, from, to)));
+            }
+        }
+    }
+
+    @Test
+    public void testSpikeIsNotLost() {
+        final HiLoData hiLo = _container.getHiLoValue(1, 9973 - 5000, 9973 + 5000);
+        assertEquals(100 + 9973, hiLo._yHi, 0);
+        assertEquals(0, hiLo._yLo, 0);
+    }
+
+    @Test
+    public void testIntegral() {
+        for (int query = 0; query < QUERIES; query++) {
+            final int from = _random.nextInt(SAMPLES);
+            final int to = from + _random.nextInt(SAMPLES - from);
+            double expected = 0;
+            for (int i = Math.max(from, 1); i <= to; i++) {
+                expected += _container.getValue(0, i)
+                        * (_container.getTimeValue(i, 0) - _container.getTimeValue(i - 1, 0));
+            }
+            assertEquals(from + " " + to, expected, _pyramid.getIntegral(0, from, to), 1e-12);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckocircuits.datacontainer;
+
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public final class WaveformSubscriptionTest {
+
+    private static final double DELTA = 0;
+    private DataContainerGlobal _data;
+
+    @Before
+    public void setUp() {
+        _data = new DataContainerGlobal();
+        _data.init(2, new String[]{"a", "b"}, "t");
+        _data.setContainerStatus(ContainerStatus.RUNNING);
+    }
+
+    @After
+    public void tearDown() {
+        _data.clear();
+    }
+
+    private void simulate(final int steps) {
+        final float[] values = new float[2];
+        for (int i = 0; i < steps; i++) {
+            values[0] = i;
+            values[1] = -i;
+            _data.insertValuesAtEnd(values, i * 1e-6);
+        }
+    }
+
+    @Test
+    public void testDecimatedBlocks() {
+        final WaveformSubscription subscription = _data.subscribe(new String[]{"b", "missing"}, 2, 3, 10,
+                WaveformSubscription.OverflowPolicy.DROP_NEWEST, 0);
+        simulate(14);
+        final List<WaveformBlock> blocks = subscription.drain();
+        assertEquals(2, blocks.size());
+        final WaveformBlock second = blocks.get(1);
+        assertEquals(1, second.getSequenceNumber());
+        assertEquals(3, second.getSampleCount());
+        assertEquals(6e-6, second.getTimes()[0], DELTA);
+        assertEquals(-10, second.getValues(0)[2], DELTA);
+        assertTrue(Float.isNaN(second.getValues(1)[0]));
+
+        _data.setContainerStatus(ContainerStatus.PAUSED); // publishes the incomplete block
+        final List<WaveformBlock> rest = subscription.drain();
+        assertEquals(1, rest.size());
+        assertEquals(1, rest.get(0).getSampleCount());
+        assertEquals(-12, rest.get(0).getValues(0)[0], DELTA);
+    }
+
+    @Test
+    public void testDropPolicies() {
+        final WaveformSubscription newest = _data.subscribe(new String[]{"a"}, 1, 2, 2,
+                WaveformSubscription.OverflowPolicy.DROP_NEWEST, 0);
+        final WaveformSubscription oldest = _data.subscribe(new String[]{"a"}, 1, 2, 2,
+                WaveformSubscription.OverflowPolicy.DROP_OLDEST, 0);
+        final WaveformSubscription blocking = _data.subscribe(new String[]{"a"}, 1, 2, 2,
+                WaveformSubscription.OverflowPolicy.BLOCK, 1);
+        simulate(10);
+
+        assertEquals(3, newest.getDroppedBlocks());
+        assertEquals(3, oldest.getDroppedBlocks());
+        assertEquals(3, blocking.getDroppedBlocks());
+        assertEquals(0, newest.drain().get(0).getValues(0)[0], DELTA);
+        final List<WaveformBlock> blocks = oldest.drain();
+        assertEquals(3, blocks.get(0).getSequenceNumber());
+        assertEquals(8, blocks.get(1).getValues(0)[0], DELTA);
+        assertEquals(2, blocks.get(1).getDroppedBlocks());
+    }
+
+    @Test
+    public void testBlockingWaitIsBoundedInTotal() {
+        final WaveformSubscription blocking = _data.subscribe(new String[]{"a"}, 1, 1, 1,
+                WaveformSubscription.OverflowPolicy.BLOCK, 50);
+        final long start = System.nanoTime();
+        simulate(100);
+        final long elapsedMillis = (System.nanoTime() - start) / 1000000;
+        // 99 full-queue blocks with 50 ms each would take almost 5 seconds
+        assertTrue(elapsedMillis < 2000);
+        assertEquals(99, blocking.getDroppedBlocks());
+        assertEquals(0, blocking.drain().get(0).getValues(0)[0], DELTA);
+
+        // the waiting time is available again in the next simulation
+        _data.init(2, new String[]{"a", "b"}, "t");
+        assertEquals(0, blocking.drain().size());
+    }
+
+    @Test
+    public void testBlockingSimulationContinuesWhenConsumerTakes() throws Exception {
+        final WaveformSubscription blocking = _data.subscribe(new String[]{"a"}, 1, 1, 1,
+                WaveformSubscription.OverflowPolicy.BLOCK, 10000);
+        final Thread simulation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                simulate(5);
+            }
+        });
+        simulation.start();
+        for (int i = 0; i < 5; i++) {
+            final WaveformBlock block = blocking.poll(10000);
+            assertEquals(i, block.getSequenceNumber());
+            assertEquals(i, block.getValues(0)[0], DELTA);
+        }
+        simulation.join(10000);
+        assertFalse(simulation.isAlive());
+        assertEquals(0, blocking.getDroppedBlocks());
+    }
+
+    @Test
+    public void testRingSlotsAreReused() {
+        final WaveformSubscription subscription = _data.subscribe(new String[]{"a", "b"}, 1, 2, 2,
+                WaveformSubscription.OverflowPolicy.DROP_NEWEST, 0);
+        simulate(4);
+        final List<WaveformBlock> first = subscription.drain();
+        assertEquals(2, first.size());
+        final float[] values = new float[2];
+        for (int i = 0; i < 4; i++) {
+            values[0] = 100 + i;
+            _data.insertValuesAtEnd(values, (4 + i) * 1e-6);
+        }
+        // the drained blocks are copies, writing into the same slots again does not change them
+        assertEquals(0, first.get(0).getValues(0)[0], DELTA);
+        assertEquals(3, first.get(1).getValues(0)[1], DELTA);
+        assertEquals(-3, first.get(1).getValues(1)[1], DELTA);
+        final List<WaveformBlock> second = subscription.drain();
+        assertEquals(2, second.size());
+        assertEquals(3, second.get(1).getSequenceNumber());
+        assertEquals(103, second.get(1).getValues(0)[1], DELTA);
+        assertEquals(0, subscription.getDroppedBlocks());
+    }
+
+    @Test
+    public void testConcurrentConsumerGetsConsistentBlocks() throws Exception {
+        final WaveformSubscription subscription = _data.subscribe(new String[]{"a", "b"}, 1, 4, 2,
+                WaveformSubscription.OverflowPolicy.DROP_OLDEST, 0);
+        final Thread simulation = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                simulate(4000);
+            }
+        });
+        simulation.start();
+        long lastSequenceNumber = -1;
+        int blocks = 0;
+        while (simulation.isAlive() || blocks == 0) {
+            final WaveformBlock polled = subscription.poll(1);
+            final List<WaveformBlock> taken = subscription.drain();
+            if (polled != null) {
+                taken.add(0, polled);
+            }
+            for (WaveformBlock block : taken) {
+                assertTrue(block.getSequenceNumber() > lastSequenceNumber);
+                lastSequenceNumber = block.getSequenceNumber();
+                assertEquals(4, block.getSampleCount());
+                for (int k = 0; k < 4; k++) {
+                    // the samples of a block belong to the same time steps
+                    assertEquals(Math.round(block.getTimes()[k] * 1e6), block.getValues(0)[k], DELTA);
+                    assertEquals(-block.getValues(0)[k], block.getValues(1)[k], DELTA);
+                }
+                blocks++;
+            }
+        }
+        simulation.join(10000);
+        for (WaveformBlock block : subscription.drain()) {
+            assertTrue(block.getSequenceNumber() > lastSequenceNumber);
+            lastSequenceNumber = block.getSequenceNumber();
+        }
+        assertEquals(999, lastSequenceNumber);
+    }
+
+    @Test
+    public void testDefaultPolicy() {
+        assertEquals(WaveformSubscription.OverflowPolicy.DROP_OLDEST,
+                WaveformSubscription.OverflowPolicy.getFromString(null));
+        assertEquals(WaveformSubscription.OverflowPolicy.DROP_OLDEST,
+                WaveformSubscription.OverflowPolicy.getFromString(""));
+        assertEquals(WaveformSubscription.OverflowPolicy.BLOCK,
+                WaveformSubscription.OverflowPolicy.getFromString("block"));
+    }
+
+    @Test
+    public void testSubscriptionSurvivesNewSimulation() {
+        final WaveformSubscription subscription = _data.subscribe(new String[]{"b"}, 1, 4, 10,
+                WaveformSubscription.OverflowPolicy.DROP_OLDEST, 0);
+        simulate(2);
+        _data.init(3, new String[]{"c", "d", "b"}, "t");
+        assertEquals(1, subscription.drain().size());
+        final float[] values = {1, 2, 3};
+        for (int i = 0; i < 4; i++) {
+            _data.insertValuesAtEnd(values, i);
+        }
+        assertEquals(3, subscription.drain().get(0).getValues(0)[3], DELTA);
+
+        _data.unsubscribe(subscription);
+        assertNull(_data.getWaveformSubscription(subscription.getId()));
+        for (int i = 0; i < 4; i++) {
+            _data.insertValuesAtEnd(values, 4 + i);
+        }
+        assertTrue(subscription.drain().isEmpty());
+    }
+}
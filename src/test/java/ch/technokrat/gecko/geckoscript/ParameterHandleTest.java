@@ -0,0 +1,108 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.circuit.Enabled;
+import ch.technokrat.gecko.geckocircuits.control.ReglerGain;
+import ch.technokrat.modelviewcontrol.AbstractUndoGenericModel;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class ParameterHandleTest {
+
+    private static final double DELTA = 0;
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Test
+    public void testSetValueWithoutUndo() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final ParameterHandle handle = new ParameterHandle(gain, "r0", new SimulationJobs());
+        AbstractUndoGenericModel.undoManager.discardAllEdits();
+        for (int i = 1; i <= 3; i++) {
+            handle.setValue(i);
+            assertEquals(i, gain._gain.getValue(), DELTA);
+        }
+        assertEquals(3, handle.getValue(), DELTA);
+        assertFalse(AbstractUndoGenericModel.undoManager.canUndo());
+    }
+
+    @Test
+    public void testEnabled() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final ParameterHandle handle = new ParameterHandle(gain, "enabled", new SimulationJobs());
+        handle.setValue(0);
+        assertEquals(Enabled.DISABLED, gain.isCircuitEnabled());
+        assertEquals(0, handle.getValue(), DELTA);
+    }
+
+    @Test(expected = IllegalAccessException.class)
+    public void testUnknownParameter() throws Exception {
+        new ParameterHandle(new ReglerGain(), "unknown", new SimulationJobs());
+    }
+
+    @Test
+    public void testOutOfDateAfterDelete() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final ParameterHandle handle = new ParameterHandle(gain, "r0", new SimulationJobs());
+        assertTrue(handle.isValid());
+        gain.getIDStringDialog().deleteIDString();
+        assertFalse(handle.isValid());
+        try {
+            handle.setValue(1);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains(gain.getStringID()));
+        }
+    }
+
+    @Test
+    public void testSetValueIsRejectedWhileJobsArePending() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final SimulationJobs jobs = new SimulationJobs();
+        final ParameterHandle handle = new ParameterHandle(gain, "r0", jobs);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int jobID = jobs.submit(new SimulationJobs.SimulationJob() {
+            @Override
+            public double[][] run() throws Exception {
+                handle.setValue(2); // the job itself may change the model
+                release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                return new double[0][];
+            }
+
+            @Override
+            public double getProgress() {
+                return 0;
+            }
+
+            @Override
+            public void cancel() {
+                release.countDown();
+            }
+        });
+        try {
+            handle.setValue(1);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().startsWith("ParameterHandle.setValue"));
+        }
+        release.countDown();
+        assertTrue(jobs.await(jobID, TIMEOUT_MILLIS));
+        assertEquals(SimulationJobs.Status.FINISHED, jobs.getStatus(jobID));
+        assertEquals(2, handle.getValue(), DELTA);
+        handle.setValue(3);
+        assertEquals(3, gain._gain.getValue(), DELTA);
+    }
+}
@@ -0,0 +1,229 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.GeckoRemoteInterface;
+import ch.technokrat.gecko.GeckoRemoteTestingDummy;
+import ch.technokrat.gecko.GeckoSim;
+import ch.technokrat.gecko.geckocircuits.allg.OperatingMode;
+import ch.technokrat.gecko.geckocircuits.circuit.IDStringDialog;
+import ch.technokrat.gecko.geckocircuits.circuit.SchematischeEingabe2;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class ParameterSweepTest {
+
+    private static final double TEND = 20e-3;
+    private static final String MODEL = "resources/Topologies/BuckBoost_const_dutyCycle.ipes";
+
+    /**
+     * "simulates" the output voltage of a divider with a random disturbance
+     */
+    private static final class FakeModel extends GeckoRemoteTestingDummy {
+
+        private final Map<String, Double> _parameters = new HashMap<String, Double>();
+        private long _seed;
+        private double _result;
+        private int _openedFiles;
+        private int _simulations;
+
+        @Override
+        public void openFile(final String fileName) {
+            _openedFiles++;
+        }
+
+        @Override
+        public void setParameter(final String elementName, final String parameterName, final double value) {
+            _parameters.put(elementName + "." + parameterName, value);
+        }
+
+        @Override
+        public void setRandomSeed(final long seed) {
+            _seed = seed;
+        }
+
+        @Override
+        public void runSimulation() {
+            _simulations++;
+            final double r1 = _parameters.get("R.1.R");
+            final double r2 = _parameters.get("R.2.R");
+            if (r1 < 0) {
+                throw new IllegalStateException("negative resistance");
+            }
+            _result = r2 / (r1 + r2) + 1e-3 * new Random(_seed).nextDouble();
+            Thread.yield();
+        }
+
+        @Override
+        public void endSimulation() {
+        }
+
+        @Override
+        public double get_Tend() {
+            return TEND;
+        }
+
+        @Override
+        public double getSignalRMS(final String signalName, final double startTime, final double endTime) {
+            assertEquals("Vout", signalName);
+            assertEquals(TEND, endTime, 0);
+            return _result;
+        }
+
+        @Override
+        public double getOutput(final String elementName, final String outputName) {
+            return _result * _result / _parameters.get("R.2.R");
+        }
+    }
+
+    private static ParameterSweep createSweep() {
+        final ParameterSweep sweep = new ParameterSweep("divider.ipes");
+        sweep.addGridParameter("R.1", "R", new double[]{1, 2, 5});
+        sweep.addRandomParameter("R.2", "R", ParameterDistribution.tolerance(10, 0.05));
+        sweep.setMonteCarloRuns(4);
+        sweep.setSeed(42);
+        sweep.addCharacteristic(SweepCharacteristic.rms("Vout", 10e-3));
+        sweep.addCharacteristic(SweepCharacteristic.output("R.2", "P"));
+        return sweep;
+    }
+
+    private static List<FakeModel> createModels(final int number) {
+        final List<FakeModel> returnValue = new ArrayList<FakeModel>();
+        for (int i = 0; i < number; i++) {
+            returnValue.add(new FakeModel());
+        }
+        return returnValue;
+    }
+
+    @Test
+    public void testResultsIndependentOfWorkerNumber() throws Exception {
+        final ParameterSweep sweep = createSweep();
+        assertEquals(12, sweep.getNumberOfCases());
+        final AtomicInteger progressCalls = new AtomicInteger();
+        final List<FakeModel> models = createModels(3);
+        final SweepResultTable parallel = sweep.run(models, new ParameterSweep.ProgressListener() {
+            @Override
+            public void caseFinished(final SweepResult result, final int finishedCases, final int totalCases) {
+                progressCalls.incrementAndGet();
+                assertEquals(12, totalCases);
+                assertTrue(finishedCases <= totalCases);
+            }
+        });
+        final SweepResultTable sequential = createSweep().run(createModels(1), null);
+
+        assertEquals(12, progressCalls.get());
+        assertEquals(12, parallel.getRowCount());
+        assertEquals(sequential.toString(), parallel.toString());
+        int simulations = 0;
+        for (FakeModel model : models) {
+            assertTrue(model._openedFiles <= 1);
+            simulations += model._simulations;
+        }
+        assertEquals(12, simulations);
+
+        final List<SweepResult> rows = parallel.getRows();
+        for (int i = 0; i < rows.size(); i++) {
+            final SweepResult row = rows.get(i);
+            assertEquals(i, row.getCaseIndex());
+            assertFalse(row.isFailed());
+            assertEquals(new double[]{1, 2, 5}[i / 4], row.getParameterValues()[0], 0);
+            assertEquals(10, row.getParameterValues()[1], 0.5);
+            assertTrue(row.getRandomSeed() >= 0);
+        }
+        // Monte-Carlo runs of the same grid point differ
+        assertTrue(rows.get(0).getParameterValues()[1] != rows.get(1).getParameterValues()[1]);
+        assertTrue(rows.get(0).getRandomSeed() != rows.get(1).getRandomSeed());
+        assertArrayEquals(new String[]{"R.1.R", "R.2.R"}, parallel.getParameterNames());
+        assertArrayEquals(new String[]{"rms(Vout)", "R.2.P"}, parallel.getCharacteristicNames());
+    }
+
+    @Test
+    public void testSeedChangesResults() throws Exception {
+        final ParameterSweep sweep = createSweep();
+        sweep.setSeed(43);
+        assertFalse(createSweep().run(createModels(2), null).toString()
+                .equals(sweep.run(createModels(2), null).toString()));
+    }
+
+    @Test
+    public void testFailedCaseIsReported() throws Exception {
+        final ParameterSweep sweep = new ParameterSweep();
+        sweep.addGridParameter("R.1", "R", new double[]{-1, 1});
+        sweep.addGridParameter("R.2", "R", new double[]{1});
+        sweep.addCharacteristic(SweepCharacteristic.rms("Vout", 0));
+        final List<SweepResult> rows = sweep.run(createModels(2), null).getRows();
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).isFailed());
+        assertTrue(rows.get(0).getError().contains("negative resistance"));
+        assertTrue(Double.isNaN(rows.get(0).getCharacteristics()[0]));
+        assertFalse(rows.get(1).isFailed());
+        assertEquals(0.5, rows.get(1).getCharacteristics()[0], 1e-3);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final ParameterSweep sweep = createSweep();
+        sweep.setMonteCarloRuns(100);
+        final SweepResultTable table = sweep.run(createModels(2), new ParameterSweep.ProgressListener() {
+            @Override
+            public void caseFinished(final SweepResult result, final int finishedCases, final int totalCases) {
+                if (finishedCases == 5) {
+                    sweep.cancel();
+                }
+            }
+        });
+        assertTrue(sweep.isCancelled());
+        assertTrue(table.getRowCount() >= 5);
+        assertTrue(table.getRowCount() < sweep.getNumberOfCases());
+    }
+
+    @Test
+    public void testHeadlessWorkersDoNotChangeMainWindowModel() throws Exception {
+        final SchematischeEingabe2 schematicEntry = SchematischeEingabe2.Singleton;
+        final OperatingMode operatingMode = GeckoSim.operatingmode;
+        final int nameGeneration = IDStringDialog.getNameGeneration();
+
+        final List<GeckoRemoteInterface> noFurtherModels = Collections.emptyList();
+        final SweepResultTable parallel = createHeadlessSweep().runHeadless(3, noFurtherModels, null);
+        final SweepResultTable sequential = createHeadlessSweep().runHeadless(1, noFurtherModels, null);
+
+        assertEquals(sequential.toString(), parallel.toString());
+        final List<SweepResult> rows = parallel.getRows();
+        assertEquals(3, rows.size());
+        for (SweepResult row : rows) {
+            assertFalse(row.getError(), row.isFailed());
+        }
+        // a larger load resistance gives a larger output voltage of the buck-boost converter
+        assertTrue(Math.abs(rows.get(0).getCharacteristics()[0]) < Math.abs(rows.get(2).getCharacteristics()[0]));
+
+        assertSame(schematicEntry, SchematischeEingabe2.Singleton);
+        assertSame(operatingMode, GeckoSim.operatingmode);
+        assertEquals(nameGeneration, IDStringDialog.getNameGeneration());
+    }
+
+    private static ParameterSweep createHeadlessSweep() {
+        final ParameterSweep sweep = new ParameterSweep(new File(MODEL).getAbsolutePath());
+        sweep.addGridParameter("R.1", "R", new double[]{1, 10, 100});
+        sweep.addCharacteristic(SweepCharacteristic.avg("uOUT", 0));
+        return sweep;
+    }
+}
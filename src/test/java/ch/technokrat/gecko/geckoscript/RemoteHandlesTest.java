@@ -0,0 +1,93 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import ch.technokrat.gecko.geckocircuits.control.ReglerGain;
+import ch.technokrat.gecko.geckocircuits.datacontainer.DataContainerGlobal;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class RemoteHandlesTest {
+
+    private static final double DELTA = 0;
+
+    @Test
+    public void testParameterHandles() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final String name = gain.getStringID();
+        final RemoteHandles handles = new RemoteHandles(new SimulationJobs());
+        final int[] ids = handles.resolve(RemoteHandles.HandleType.PARAMETER, new String[]{name}, new String[]{"r0"});
+        assertArrayEquals(ids, handles.resolve(RemoteHandles.HandleType.getFromString("parameter"),
+                new String[]{name}, new String[]{"R0"}));
+
+        handles.setParameterValues(ids, new double[]{2.5});
+        assertEquals(2.5, gain._gain.getValue(), DELTA);
+        assertEquals(2.5, handles.getParameterValues(ids)[0], DELTA);
+
+        gain.setNewNameChecked(name + "renamed");
+        try {
+            handles.getParameterValues(ids);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("resolveHandles"));
+        }
+    }
+
+    @Test
+    public void testHandlesAreDroppedWhenNamesAreRemoved() throws Exception {
+        final ReglerGain gain = new ReglerGain();
+        final ReglerGain other = new ReglerGain();
+        final String name = gain.getStringID();
+        final RemoteHandles handles = new RemoteHandles(new SimulationJobs());
+        final int[] first = handles.resolve(RemoteHandles.HandleType.PARAMETER, new String[]{name}, new String[]{"r0"});
+        int[] ids = first;
+        for (int i = 0; i < 10; i++) {
+            other.setNewNameChecked(other.getStringID() + "x");
+            final int[] resolved = handles.resolve(RemoteHandles.HandleType.PARAMETER,
+                    new String[]{name}, new String[]{"r0"});
+            handles.resolve(RemoteHandles.HandleType.OUTPUT, new String[]{name}, new String[]{""});
+            assertTrue(resolved[0] > ids[0]);
+            ids = resolved;
+            assertEquals(2, handles.getHandleCount());
+        }
+
+        handles.setParameterValues(new int[]{ids[0]}, new double[]{1.5});
+        assertEquals(1.5, gain._gain.getValue(), DELTA);
+        try {
+            handles.getParameterValues(first);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("resolveHandles"));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongHandleType() throws Exception {
+        final RemoteHandles handles = new RemoteHandles(new SimulationJobs());
+        final int[] ids = handles.resolve(RemoteHandles.HandleType.SIGNAL, new String[0], new String[]{"a"});
+        handles.getOutputValues(ids);
+    }
+
+    @Test
+    public void testSignalHandlesFollowTheRows() throws Exception {
+        final DataContainerGlobal data = new DataContainerGlobal();
+        data.init(2, new String[]{"a", "b"}, "t");
+        final RemoteHandles handles = new RemoteHandles(new SimulationJobs());
+        final int[] ids = handles.resolve(RemoteHandles.HandleType.SIGNAL, new String[0], new String[]{"b", "a"});
+        assertArrayEquals(new int[]{1, 0}, handles.getSignalRows(ids, data));
+
+        data.init(3, new String[]{"c", "a", "b"}, "t");
+        assertArrayEquals(new int[]{2, 1}, handles.getSignalRows(ids, data));
+    }
+}
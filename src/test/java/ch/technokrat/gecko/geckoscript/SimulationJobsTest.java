@@ -0,0 +1,174 @@
+/*  This file is part of GeckoCIRCUITS. Copyright (C) ETH Zurich, Gecko-Simulations GmbH
+ *
+ *  GeckoCIRCUITS is free software: you can redistribute it and/or modify it under
+ *  the terms of the GNU General Public License as published by the Free Software
+ *  Foundation, either version 3 of the License, or (at your option) any later version.
+ *
+ *  Foobar is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ *  without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR
+ *  PURPOSE.  See the GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License along with
+ *  GeckoCIRCUITS.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package ch.technokrat.gecko.geckoscript;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public final class SimulationJobsTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    /**
+     * "simulates" until it is released or cancelled.
+     */
+    private static final class BlockingJob implements SimulationJobs.SimulationJob {
+
+        private final CountDownLatch _started = new CountDownLatch(1);
+        private final CountDownLatch _release = new CountDownLatch(1);
+        private final double[][] _result;
+
+        BlockingJob(final double[][] result) {
+            _result = result;
+        }
+
+        @Override
+        public double[][] run() throws Exception {
+            _started.countDown();
+            _release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            if (_result == null) {
+                throw new IllegalStateException("diverged");
+            }
+            return _result;
+        }
+
+        @Override
+        public double getProgress() {
+            return 0.5;
+        }
+
+        @Override
+        public void cancel() {
+            _release.countDown();
+        }
+    }
+
+    @Test
+    public void testJobsRunOneAfterAnother() throws Exception {
+        final SimulationJobs jobs = new SimulationJobs();
+        final BlockingJob first = new BlockingJob(new double[][]{{1}});
+        final BlockingJob second = new BlockingJob(new double[][]{{2}});
+        final int firstID = jobs.submit(first);
+        final int secondID = jobs.submit(second);
+        assertTrue(first._started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+        assertEquals(SimulationJobs.Status.RUNNING, jobs.getStatus(firstID));
+        assertEquals(0.5, jobs.getProgress(firstID), 0);
+        assertEquals(SimulationJobs.Status.QUEUED, jobs.getStatus(secondID));
+        assertFalse(jobs.await(secondID, 10));
+        try {
+            jobs.getResult(firstID);
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().contains("RUNNING"));
+        }
+
+        first._release.countDown();
+        second._release.countDown();
+        assertTrue(jobs.await(secondID, TIMEOUT_MILLIS));
+        assertEquals(SimulationJobs.Status.FINISHED, jobs.getStatus(firstID));
+        assertEquals(1, jobs.getProgress(firstID), 0);
+        assertEquals(2, jobs.getResult(secondID)[0][0], 0);
+        try {
+            jobs.getStatus(secondID); // removed with the result
+            fail();
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains(Integer.toString(secondID)));
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final SimulationJobs jobs = new SimulationJobs();
+        final BlockingJob running = new BlockingJob(new double[0][]);
+        final BlockingJob queued = new BlockingJob(new double[0][]);
+        final int runningID = jobs.submit(running);
+        final int queuedID = jobs.submit(queued);
+        assertTrue(running._started.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS));
+
+        assertTrue(jobs.cancel(queuedID));
+        assertEquals(SimulationJobs.Status.CANCELLED, jobs.getStatus(queuedID));
+        assertTrue(jobs.cancel(runningID));
+        assertTrue(jobs.await(runningID, TIMEOUT_MILLIS));
+        assertEquals(SimulationJobs.Status.CANCELLED, jobs.getStatus(runningID));
+        assertFalse(jobs.cancel(runningID));
+        assertEquals(1, queued._started.getCount()); // never started
+    }
+
+    @Test
+    public void testCancelRightAfterSubmit() {
+        final SimulationJobs jobs = new SimulationJobs();
+        for (int i = 0; i < 200; i++) {
+            final BlockingJob job = new BlockingJob(new double[0][]);
+            final int jobID = jobs.submit(job);
+            jobs.cancel(jobID);
+            assertTrue(jobs.await(jobID, TIMEOUT_MILLIS));
+            assertEquals(SimulationJobs.Status.CANCELLED, jobs.getStatus(jobID));
+        }
+        jobs.checkNoPendingJobs("runSimulation");
+    }
+
+    @Test
+    public void testCallsAreRejectedWhilePending() throws Exception {
+        final SimulationJobs jobs = new SimulationJobs();
+        jobs.checkNoPendingJobs("setParameter");
+        final CountDownLatch release = new CountDownLatch(1);
+        final int jobID = jobs.submit(new SimulationJobs.SimulationJob() {
+            @Override
+            public double[][] run() throws Exception {
+                // the job itself changes the model
+                jobs.checkNoPendingJobs("setParameter");
+                release.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                return new double[0][];
+            }
+
+            @Override
+            public double getProgress() {
+                return 0;
+            }
+
+            @Override
+            public void cancel() {
+                release.countDown();
+            }
+        });
+        try {
+            jobs.checkNoPendingJobs("setParameter");
+            fail();
+        } catch (IllegalStateException expected) {
+            assertTrue(expected.getMessage().startsWith("setParameter"));
+        }
+        release.countDown();
+        assertTrue(jobs.await(jobID, TIMEOUT_MILLIS));
+        assertEquals(SimulationJobs.Status.FINISHED, jobs.getStatus(jobID));
+        jobs.checkNoPendingJobs("setParameter");
+    }
+
+    @Test
+    public void testFailure() {
+        final SimulationJobs jobs = new SimulationJobs();
+        final BlockingJob failing = new BlockingJob(null);
+        failing._release.countDown();
+        final int jobID = jobs.submit(failing);
+        assertTrue(jobs.await(jobID, TIMEOUT_MILLIS));
+        assertEquals(SimulationJobs.Status.FAILED, jobs.getStatus(jobID));
+        try {
+            jobs.getResult(jobID);
+            fail();
+        } catch (RuntimeException expected) {
+            assertTrue(expected.getMessage().contains("diverged"));
+        }
+    }
+}